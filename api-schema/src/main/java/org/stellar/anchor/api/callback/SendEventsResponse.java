@@ -0,0 +1,35 @@
+package org.stellar.anchor.api.callback;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * SendEventsResponse is the response body for a batch of events sent to the /event Callback API
+ * endpoint.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SendEventsResponse {
+  /** The http status code of the response. */
+  int code;
+  /** The message of the response. */
+  String message;
+  /** The result of each event of the batch. */
+  List<Result> results;
+
+  /** The result of an event of the batch. */
+  @Data
+  @AllArgsConstructor
+  @NoArgsConstructor
+  public static class Result {
+    /** The ID of the event. */
+    String id;
+    /** The status code of the event. The event is processed if the code is 2xx. */
+    int code;
+    /** The message of the event result. */
+    String message;
+  }
+}
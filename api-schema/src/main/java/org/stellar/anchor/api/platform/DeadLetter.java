@@ -0,0 +1,31 @@
+package org.stellar.anchor.api.platform;
+
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.stellar.anchor.api.event.AnchorEvent;
+
+/** An event delivery that ran out of attempts, returned by the /events/dead_letters endpoints. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeadLetter {
+  String id;
+
+  /** The name of the event processor that delivers the event. */
+  String processor;
+
+  /** The name of the callback endpoint, for example the name of the client. */
+  String target;
+
+  AnchorEvent event;
+
+  Integer attempts;
+
+  String lastError;
+
+  Instant createdAt;
+}
@@ -0,0 +1,14 @@
+package org.stellar.anchor.api.platform;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** The response body of the GET /events/dead_letters endpoint of the Platform API. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GetDeadLettersResponse {
+  List<DeadLetter> records;
+}
@@ -17,4 +17,11 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class GetTransactionsResponse {
   List<GetTransactionResponse> records;
+
+  /** The continuation token of the next page. Null when there is no next page. */
+  String cursor;
+
+  public GetTransactionsResponse(List<GetTransactionResponse> records) {
+    this(records, null);
+  }
 }
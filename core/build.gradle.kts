@@ -5,6 +5,8 @@ plugins {
   `maven-publish`
   signing
   alias(libs.plugins.kotlin.jvm)
+  // The benchmarks in src/jmh are run with `./gradlew :core:jmh`.
+  alias(libs.plugins.jmh)
 }
 
 dependencies {
@@ -35,6 +37,7 @@ dependencies {
   implementation(libs.log4j2.core)
   implementation(libs.httpclient)
   implementation(libs.google.gson)
+  implementation(libs.avro)
   implementation(libs.toml4j)
   implementation(libs.okhttp3)
   implementation(libs.commons.codec)
@@ -0,0 +1,91 @@
+package org.stellar.anchor.event;
+
+import static org.stellar.anchor.api.event.AnchorEvent.Type.TRANSACTION_STATUS_CHANGED;
+import static org.stellar.anchor.api.platform.PlatformTransactionData.Kind.WITHDRAWAL;
+import static org.stellar.anchor.api.platform.PlatformTransactionData.Sep.SEP_24;
+import static org.stellar.anchor.api.sep.SepTransactionStatus.PENDING_ANCHOR;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.stellar.anchor.api.event.AnchorEvent;
+import org.stellar.anchor.api.platform.GetTransactionResponse;
+import org.stellar.anchor.api.shared.Amount;
+import org.stellar.anchor.api.shared.StellarTransaction;
+
+/**
+ * Compares the event codecs on a typical transaction event.
+ *
+ * <p>Run with `./gradlew :core:jmh`. The encoded size of each codec is checked in EventCodecTest.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventCodecBenchmark {
+  @Param({JsonEventCodec.NAME, GzipJsonEventCodec.NAME, AvroEventCodec.NAME})
+  String codecName;
+
+  EventCodec codec;
+  AnchorEvent event;
+  byte[] encoded;
+
+  @Setup
+  public void setup() {
+    String asset = "stellar:USDC:GDQOE23CFSUMSVQK4Y5JHPPYK73VYCNHZHA7ENKCV37P6SUEO6XQBKPP";
+    String stellarTxnHash = "fba01cf8d5e71b9d2c9a6d6c3e4b7c2e1f0a9b8c7d6e5f4a3b2c1d0e9f8a7b6c";
+    String envelope = "AAAAAgAAAABmQ6e6bGV4pUqHq3mFbA8rG8xjzXqD1b3l0n2cJ6pP3gAAAGQ";
+    Instant now = Instant.now();
+    codec = EventCodecs.forName(codecName);
+    event =
+        AnchorEvent.builder()
+            .id("5b6a3d5e-5c3f-4c4e-9f39-0f7c2d7f1f6a")
+            .sep("24")
+            .type(TRANSACTION_STATUS_CHANGED)
+            .transaction(
+                GetTransactionResponse.builder()
+                    .id("a4baff5f-778c-43d6-bbef-3e9fb41d096e")
+                    .sep(SEP_24)
+                    .kind(WITHDRAWAL)
+                    .status(PENDING_ANCHOR)
+                    .amountExpected(new Amount("100", asset))
+                    .amountIn(new Amount("100", asset))
+                    .amountOut(new Amount("98.5", "iso4217:USD"))
+                    .amountFee(new Amount("1.5", asset))
+                    .startedAt(now)
+                    .updatedAt(now)
+                    .transferReceivedAt(now)
+                    .message("The funds are received and the withdrawal is processed.")
+                    .stellarTransactions(
+                        List.of(
+                            StellarTransaction.builder()
+                                .id(stellarTxnHash)
+                                .memo("12345")
+                                .memoType("id")
+                                .createdAt(now)
+                                .envelope(envelope)
+                                .build()))
+                    .sourceAccount("GBLGJA4TUN5XOGTV6WO2BWYUI2OZR5GYQ5PDPCRMQ5XEPJOYWB2X4CJO")
+                    .withdrawAnchorAccount(
+                        "GCTU6XRQ4Y3RFXLGH2QMBZ6YDBXIEPGTIAUULHDMRXM5L5NUGIYB7YRE")
+                    .memo("12345")
+                    .memoType("id")
+                    .clientDomain("wallet.example.com")
+                    .build())
+            .build();
+    encoded = codec.encode(event);
+  }
+
+  @Benchmark
+  public byte[] encode() {
+    return codec.encode(event);
+  }
+
+  @Benchmark
+  public AnchorEvent decode() {
+    return codec.decode(encoded);
+  }
+}
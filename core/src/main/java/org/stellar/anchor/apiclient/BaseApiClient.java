@@ -15,13 +15,15 @@ import org.stellar.anchor.util.GsonUtils;
 /** The base class for CallbackAPI and PlatformAPI clients. */
 public abstract class BaseApiClient {
   static final Gson gson = GsonUtils.getInstance();
-  static final OkHttpClient client =
+  // The client of the API clients that are not given one.
+  static final OkHttpClient defaultClient =
       new OkHttpClient.Builder()
-          .connectTimeout(10, TimeUnit.MINUTES)
-          .readTimeout(10, TimeUnit.MINUTES)
-          .writeTimeout(10, TimeUnit.MINUTES)
-          .callTimeout(10, TimeUnit.MINUTES)
+          .connectTimeout(10, TimeUnit.SECONDS)
+          .readTimeout(30, TimeUnit.SECONDS)
+          .writeTimeout(30, TimeUnit.SECONDS)
+          .callTimeout(60, TimeUnit.SECONDS)
           .build();
+  final OkHttpClient client;
   final AuthHelper authHelper;
   final String endpoint;
 
@@ -32,8 +34,20 @@ public abstract class BaseApiClient {
    * @param endpoint the API endpoint.
    */
   protected BaseApiClient(AuthHelper authHelper, String endpoint) {
+    this(authHelper, endpoint, null);
+  }
+
+  /**
+   * Creates a new BaseApiClient.
+   *
+   * @param authHelper the AuthHelper to use for authentication.
+   * @param endpoint the API endpoint.
+   * @param client the HTTP client. If null, the default client is used.
+   */
+  protected BaseApiClient(AuthHelper authHelper, String endpoint, OkHttpClient client) {
     this.authHelper = authHelper;
     this.endpoint = endpoint;
+    this.client = client != null ? client : defaultClient;
   }
 
   String handleResponse(Response response) throws AnchorException, IOException {
@@ -2,12 +2,15 @@ package org.stellar.anchor.apiclient;
 
 import com.google.gson.Gson;
 import java.io.IOException;
+import java.util.List;
 import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
 import org.stellar.anchor.api.callback.SendEventRequest;
 import org.stellar.anchor.api.callback.SendEventResponse;
+import org.stellar.anchor.api.callback.SendEventsResponse;
 import org.stellar.anchor.api.exception.AnchorException;
 import org.stellar.anchor.api.exception.InvalidConfigException;
 import org.stellar.anchor.auth.AuthHelper;
@@ -27,7 +30,20 @@ public class CallbackApiClient extends BaseApiClient {
    * @throws InvalidConfigException if the endpoint is invalid.
    */
   public CallbackApiClient(AuthHelper authHelper, String endpoint) throws InvalidConfigException {
-    super(authHelper, endpoint);
+    this(authHelper, endpoint, null);
+  }
+
+  /**
+   * Creates a new CallbackApiClient.
+   *
+   * @param authHelper the AuthHelper to use for authentication.
+   * @param endpoint the API endpoint.
+   * @param client the HTTP client. If null, the default client is used.
+   * @throws InvalidConfigException if the endpoint is invalid.
+   */
+  public CallbackApiClient(AuthHelper authHelper, String endpoint, OkHttpClient client)
+      throws InvalidConfigException {
+    super(authHelper, endpoint, client);
     HttpUrl endpointUrl = HttpUrl.parse(endpoint);
     if (endpointUrl == null)
       throw new InvalidConfigException(
@@ -53,10 +69,31 @@ public class CallbackApiClient extends BaseApiClient {
       throws AnchorException, IOException {
     RequestBody requestBody = OkHttpUtil.buildJsonRequestBody(gson.toJson(sendEventRequest));
     Request request = getRequestBuilder().url(url).post(requestBody).build();
-    Response response = client.newCall(request).execute();
-    SendEventResponse sendEventResponse =
-        gson.fromJson(handleResponse(response), SendEventResponse.class);
-    sendEventResponse.setCode(response.code());
-    return sendEventResponse;
+    try (Response response = client.newCall(request).execute()) {
+      SendEventResponse sendEventResponse =
+          gson.fromJson(handleResponse(response), SendEventResponse.class);
+      sendEventResponse.setCode(response.code());
+      return sendEventResponse;
+    }
+  }
+
+  /**
+   * Sends a batch of events to the /event Callback API endpoint as a JSON array.
+   *
+   * @param sendEventRequests the SendEventRequests to send.
+   * @return the SendEventsResponse with the result of each event.
+   * @throws AnchorException if the response is not successful.
+   * @throws IOException if the request fails due to IO errors.
+   */
+  public SendEventsResponse sendEvents(List<SendEventRequest> sendEventRequests)
+      throws AnchorException, IOException {
+    RequestBody requestBody = OkHttpUtil.buildJsonRequestBody(gson.toJson(sendEventRequests));
+    Request request = getRequestBuilder().url(url).post(requestBody).build();
+    try (Response response = client.newCall(request).execute()) {
+      SendEventsResponse sendEventsResponse =
+          gson.fromJson(handleResponse(response), SendEventsResponse.class);
+      sendEventsResponse.setCode(response.code());
+      return sendEventsResponse;
+    }
   }
 }
@@ -6,6 +6,7 @@ import static org.stellar.anchor.api.rpc.method.RpcMethod.NOTIFY_REFUND_SENT;
 import static org.stellar.anchor.api.rpc.method.RpcMethod.NOTIFY_TRANSACTION_ERROR;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Objects;
@@ -13,6 +14,7 @@ import java.util.UUID;
 import java.util.function.Function;
 import javax.annotation.Nullable;
 import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
@@ -38,8 +40,60 @@ public class PlatformApiClient extends BaseApiClient {
 
   public static final String JSON_RPC_VERSION = "2.0";
 
+  /** The default maximum number of requests in a JSON-RPC batch, as accepted by the platform. */
+  public static final int DEFAULT_RPC_BATCH_SIZE = 40;
+
+  final RpcTransport rpcTransport;
+  final int rpcBatchSize;
+  // The notifications collected by batchRpcNotifications on the current thread.
+  final ThreadLocal<List<RpcRequest>> pendingNotifications = new ThreadLocal<>();
+
   public PlatformApiClient(AuthHelper authHelper, String endpoint) {
-    super(authHelper, endpoint);
+    this(authHelper, endpoint, null, DEFAULT_RPC_BATCH_SIZE);
+  }
+
+  /**
+   * Creates a new PlatformApiClient.
+   *
+   * @param authHelper the AuthHelper to use for authentication.
+   * @param endpoint the platform API endpoint.
+   * @param rpcTransport the transport of the JSON-RPC notifications. If null, the notifications
+   *     are sent to the endpoint with HTTP.
+   * @param rpcBatchSize the maximum number of notifications sent in one JSON-RPC batch.
+   */
+  public PlatformApiClient(
+      AuthHelper authHelper, String endpoint, RpcTransport rpcTransport, int rpcBatchSize) {
+    this(authHelper, endpoint, rpcTransport, rpcBatchSize, null);
+  }
+
+  /**
+   * Creates a new PlatformApiClient.
+   *
+   * @param authHelper the AuthHelper to use for authentication.
+   * @param endpoint the platform API endpoint.
+   * @param rpcTransport the transport of the JSON-RPC notifications. If null, the notifications
+   *     are sent to the endpoint with HTTP.
+   * @param rpcBatchSize the maximum number of notifications sent in one JSON-RPC batch.
+   * @param client the HTTP client. If null, the default client is used.
+   */
+  public PlatformApiClient(
+      AuthHelper authHelper,
+      String endpoint,
+      RpcTransport rpcTransport,
+      int rpcBatchSize,
+      OkHttpClient client) {
+    super(authHelper, endpoint, client);
+    this.rpcTransport = rpcTransport != null ? rpcTransport : this::sendHttpRpcRequest;
+    this.rpcBatchSize = Math.max(rpcBatchSize, 1);
+  }
+
+  /**
+   * Gets the transport that sends the JSON-RPC requests to the endpoint with HTTP.
+   *
+   * @return the HTTP transport.
+   */
+  public RpcTransport getHttpRpcTransport() {
+    return this::sendHttpRpcRequest;
   }
 
   /**
@@ -77,6 +131,32 @@ public class PlatformApiClient extends BaseApiClient {
       @Nullable Integer pageSize,
       @Nullable Integer pageNumber)
       throws IOException, AnchorException {
+    return getTransactions(sep, order_by, order, statuses, pageSize, pageNumber, null);
+  }
+
+  /**
+   * Search the transactions with the given filters by calling the /transactions endpoint.
+   *
+   * @param sep The SEP number (eg: 6, 24, 31) to filter by.
+   * @param order_by The field to order by.
+   * @param order The direction to order by.
+   * @param statuses The statuses to filter by.
+   * @param pageSize The number of transactions to return per page.
+   * @param pageNumber The page number of the search. Ignored when the cursor is set.
+   * @param cursor The cursor of the previous response, to get the next page.
+   * @return The GetTransactionsResponse.
+   * @throws IOException if the request fails due to IO errors.
+   * @throws AnchorException if the response is not successful.
+   */
+  public GetTransactionsResponse getTransactions(
+      TransactionsSeps sep,
+      @Nullable TransactionsOrderBy order_by,
+      @Nullable Sort.Direction order,
+      @Nullable List<SepTransactionStatus> statuses,
+      @Nullable Integer pageSize,
+      @Nullable Integer pageNumber,
+      @Nullable String cursor)
+      throws IOException, AnchorException {
     HttpUrl.Builder builder =
         Objects.requireNonNull(HttpUrl.parse(endpoint + "/transactions")).newBuilder();
 
@@ -87,6 +167,7 @@ public class PlatformApiClient extends BaseApiClient {
     addToBuilder(builder, statuses, "statuses", SepTransactionStatus::mergeStatusesList);
     addToBuilder(builder, pageSize, "page_size", Object::toString);
     addToBuilder(builder, pageNumber, "page_number", Object::toString);
+    addToBuilder(builder, cursor, "cursor", x -> x);
 
     Request request = getRequestBuilder().url(builder.build()).get().build();
     String responseBody = handleResponse(client.newCall(request).execute());
@@ -178,7 +259,55 @@ public class PlatformApiClient extends BaseApiClient {
             .params(requestParams)
             .build();
 
-    sendRpcRequest(List.of(rpcRequest));
+    List<RpcRequest> pending = pendingNotifications.get();
+    if (pending != null) {
+      pending.add(rpcRequest);
+    } else {
+      rpcTransport.send(List.of(rpcRequest));
+    }
+  }
+
+  /**
+   * Runs the batch and sends the notifications it makes with as few JSON-RPC batch requests as
+   * possible. The notifications are sent when the batch returns or throws. If the batch throws, the
+   * errors of sending the notifications are added to its exception as suppressed exceptions.
+   *
+   * @param batch the code making the notifications.
+   * @throws IOException if the batch or the requests fail due to IO errors.
+   * @throws AnchorException if the batch or the requests fail.
+   */
+  public void batchRpcNotifications(RpcBatch batch) throws AnchorException, IOException {
+    if (pendingNotifications.get() != null) {
+      // Already in a batch.
+      batch.run();
+      return;
+    }
+
+    List<RpcRequest> pending = new ArrayList<>();
+    pendingNotifications.set(pending);
+    try {
+      batch.run();
+    } catch (Throwable t) {
+      pendingNotifications.remove();
+      try {
+        sendNotifications(pending);
+      } catch (Throwable sendError) {
+        t.addSuppressed(sendError);
+      }
+      throw t;
+    }
+    pendingNotifications.remove();
+    sendNotifications(pending);
+  }
+
+  void sendNotifications(List<RpcRequest> rpcRequests) throws AnchorException, IOException {
+    for (int i = 0; i < rpcRequests.size(); i += rpcBatchSize) {
+      rpcTransport.send(rpcRequests.subList(i, Math.min(i + rpcBatchSize, rpcRequests.size())));
+    }
+  }
+
+  void sendHttpRpcRequest(List<RpcRequest> rpcRequests) throws IOException, AnchorException {
+    sendRpcRequest(rpcRequests).close();
   }
 
   public Response sendRpcRequest(List<RpcRequest> rpcRequests) throws IOException, AnchorException {
@@ -220,6 +349,11 @@ public class PlatformApiClient extends BaseApiClient {
     return gson.fromJson(responseBody, HashMap.class);
   }
 
+  /** The code making the notifications of a batch. */
+  public interface RpcBatch {
+    void run() throws AnchorException, IOException;
+  }
+
   private <T> void addToBuilder(
       HttpUrl.Builder builder, T val, String name, Function<T, String> f) {
     if (val != null) {
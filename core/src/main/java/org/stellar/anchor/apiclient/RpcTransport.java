@@ -0,0 +1,18 @@
+package org.stellar.anchor.apiclient;
+
+import java.io.IOException;
+import java.util.List;
+import org.stellar.anchor.api.exception.AnchorException;
+import org.stellar.anchor.api.rpc.RpcRequest;
+
+/** Sends JSON-RPC notifications to the platform server. */
+public interface RpcTransport {
+  /**
+   * Sends the JSON-RPC requests as one batch.
+   *
+   * @param rpcRequests the requests to send.
+   * @throws IOException if the requests cannot be sent due to IO errors.
+   * @throws AnchorException if the requests cannot be sent.
+   */
+  void send(List<RpcRequest> rpcRequests) throws IOException, AnchorException;
+}
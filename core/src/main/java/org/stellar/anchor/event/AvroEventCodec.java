@@ -0,0 +1,224 @@
+package org.stellar.anchor.event;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.message.BinaryMessageDecoder;
+import org.apache.avro.message.BinaryMessageEncoder;
+import org.stellar.anchor.api.event.AnchorEvent;
+import org.stellar.anchor.util.GsonUtils;
+
+/**
+ * Encodes the events with Avro, using the schema of the events in {@code event/anchor-event.avsc}.
+ * The field names are in the schema instead of in each event, so the events are smaller than JSON
+ * and are read without parsing text.
+ *
+ * <p>The events are encoded with the Avro single-object encoding, which starts with the
+ * fingerprint of the schema. An event encoded with an unknown schema is rejected instead of being
+ * decoded wrongly. When the schema changes, the previous schema is added to the decoder so that
+ * the events already in the queue can still be read.
+ *
+ * <p>The events are converted to Avro records from their JSON tree, so the field names and values
+ * are the ones of the JSON codec. The timestamps are kept to the microsecond, like the timestamps
+ * of the database. A field that is not in the schema fails the encoding instead of being dropped.
+ */
+public class AvroEventCodec implements EventCodec {
+  public static final String NAME = "avro";
+  static final Gson gson = GsonUtils.getInstance();
+  static final Schema SCHEMA = loadSchema("/event/anchor-event.avsc");
+  static final BinaryMessageEncoder<GenericRecord> encoder =
+      new BinaryMessageEncoder<>(GenericData.get(), SCHEMA);
+  static final BinaryMessageDecoder<GenericRecord> decoder =
+      new BinaryMessageDecoder<>(GenericData.get(), SCHEMA);
+  static final String TIMESTAMP_MICROS = "timestamp-micros";
+  static final DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ISO_INSTANT;
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public byte[] encode(AnchorEvent event) {
+    GenericRecord record = (GenericRecord) toAvro(gson.toJsonTree(event), SCHEMA);
+    try {
+      ByteBuffer buffer = encoder.encode(record);
+      byte[] data = new byte[buffer.remaining()];
+      buffer.get(data);
+      return data;
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  @Override
+  public AnchorEvent decode(byte[] data) {
+    try {
+      return gson.fromJson(toJson(decoder.decode(data), SCHEMA), AnchorEvent.class);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  static Schema loadSchema(String resource) {
+    try (InputStream in = AvroEventCodec.class.getResourceAsStream(resource)) {
+      if (in == null) {
+        throw new IllegalStateException("The event schema is not found: " + resource);
+      }
+      return new Schema.Parser().parse(in);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  /**
+   * Converts a JSON value to the Avro value of a schema.
+   *
+   * @param json the JSON value.
+   * @param schema the schema of the value.
+   * @return the Avro value.
+   * @throws IllegalArgumentException if the JSON value does not match the schema.
+   */
+  static Object toAvro(JsonElement json, Schema schema) {
+    if (json == null || json.isJsonNull()) {
+      if (!schema.isNullable()) {
+        throw new IllegalArgumentException("The value of " + schema.getName() + " is null.");
+      }
+      return null;
+    }
+    switch (schema.getType()) {
+      case UNION:
+        return toAvro(json, nonNullType(schema));
+      case RECORD:
+        GenericRecord record = new GenericData.Record(schema);
+        for (Map.Entry<String, JsonElement> entry : json.getAsJsonObject().entrySet()) {
+          Schema.Field field = schema.getField(entry.getKey());
+          if (field == null) {
+            throw new IllegalArgumentException(
+                String.format(
+                    "The field %s of %s is not in the event schema.",
+                    entry.getKey(), schema.getName()));
+          }
+          record.put(field.pos(), toAvro(entry.getValue(), field.schema()));
+        }
+        return record;
+      case ARRAY:
+        List<Object> items = new ArrayList<>();
+        for (JsonElement item : json.getAsJsonArray()) {
+          items.add(toAvro(item, schema.getElementType()));
+        }
+        return items;
+      case MAP:
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (Map.Entry<String, JsonElement> entry : json.getAsJsonObject().entrySet()) {
+          values.put(entry.getKey(), toAvro(entry.getValue(), schema.getValueType()));
+        }
+        return values;
+      case STRING:
+        return json.getAsString();
+      case LONG:
+        if (isTimestamp(schema)) {
+          Instant instant = dateTimeFormatter.parse(json.getAsString(), Instant::from);
+          return Math.addExact(
+              Math.multiplyExact(instant.getEpochSecond(), 1_000_000L), instant.getNano() / 1000);
+        }
+        return json.getAsLong();
+      case INT:
+        return json.getAsInt();
+      case DOUBLE:
+        return json.getAsDouble();
+      case BOOLEAN:
+        return json.getAsBoolean();
+      default:
+        throw new IllegalArgumentException("Unsupported type of the event schema: " + schema);
+    }
+  }
+
+  /**
+   * Converts an Avro value of a schema to JSON.
+   *
+   * @param value the Avro value.
+   * @param schema the schema of the value.
+   * @return the JSON value.
+   */
+  static JsonElement toJson(Object value, Schema schema) {
+    if (value == null) {
+      return JsonNull.INSTANCE;
+    }
+    switch (schema.getType()) {
+      case UNION:
+        return toJson(value, nonNullType(schema));
+      case RECORD:
+        GenericRecord record = (GenericRecord) value;
+        JsonObject object = new JsonObject();
+        for (Schema.Field field : schema.getFields()) {
+          Object fieldValue = record.get(field.pos());
+          if (fieldValue != null) {
+            object.add(field.name(), toJson(fieldValue, field.schema()));
+          }
+        }
+        return object;
+      case ARRAY:
+        JsonArray array = new JsonArray();
+        for (Object item : (List<?>) value) {
+          array.add(toJson(item, schema.getElementType()));
+        }
+        return array;
+      case MAP:
+        JsonObject map = new JsonObject();
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+          map.add(entry.getKey().toString(), toJson(entry.getValue(), schema.getValueType()));
+        }
+        return map;
+      case STRING:
+        // The strings are decoded as Utf8.
+        return new JsonPrimitive(value.toString());
+      case LONG:
+        if (isTimestamp(schema)) {
+          long micros = (Long) value;
+          Instant instant =
+              Instant.ofEpochSecond(
+                  Math.floorDiv(micros, 1_000_000L), Math.floorMod(micros, 1_000_000L) * 1000);
+          return new JsonPrimitive(dateTimeFormatter.format(instant));
+        }
+        return new JsonPrimitive((Long) value);
+      case INT:
+      case DOUBLE:
+        return new JsonPrimitive((Number) value);
+      case BOOLEAN:
+        return new JsonPrimitive((Boolean) value);
+      default:
+        throw new IllegalArgumentException("Unsupported type of the event schema: " + schema);
+    }
+  }
+
+  static Schema nonNullType(Schema union) {
+    for (Schema type : union.getTypes()) {
+      if (type.getType() != Schema.Type.NULL) {
+        return type;
+      }
+    }
+    throw new IllegalArgumentException("The union has no type: " + union);
+  }
+
+  static boolean isTimestamp(Schema schema) {
+    return schema.getLogicalType() != null
+        && TIMESTAMP_MICROS.equals(schema.getLogicalType().getName());
+  }
+}
@@ -0,0 +1,39 @@
+package org.stellar.anchor.event;
+
+import org.stellar.anchor.api.event.AnchorEvent;
+
+/**
+ * Encodes the events published to the event queue and decodes the events read from it.
+ *
+ * <p>The name of the codec is sent in the {@link #HEADER} header of each event, so that the
+ * consumers decode each event with the codec it was published with. The events without the header
+ * are decoded as JSON, which lets the codec of the publishers be changed while the consumers are
+ * rolled out.
+ */
+public interface EventCodec {
+  /** The name of the header of the codec name. */
+  String HEADER = "codec";
+
+  /**
+   * Returns the name of the codec.
+   *
+   * @return the name of the codec.
+   */
+  String getName();
+
+  /**
+   * Encodes an event.
+   *
+   * @param event the event.
+   * @return the encoded event.
+   */
+  byte[] encode(AnchorEvent event);
+
+  /**
+   * Decodes an event.
+   *
+   * @param data the encoded event.
+   * @return the event.
+   */
+  AnchorEvent decode(byte[] data);
+}
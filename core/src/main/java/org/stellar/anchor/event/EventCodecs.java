@@ -0,0 +1,43 @@
+package org.stellar.anchor.event;
+
+import static org.stellar.anchor.util.StringHelper.isEmpty;
+
+import java.util.Map;
+
+/** The registry of the event codecs. */
+public class EventCodecs {
+  public static final EventCodec JSON = new JsonEventCodec();
+  public static final EventCodec GZIP_JSON = new GzipJsonEventCodec();
+  public static final EventCodec AVRO = new AvroEventCodec();
+
+  static final Map<String, EventCodec> codecs =
+      Map.of(JSON.getName(), JSON, GZIP_JSON.getName(), GZIP_JSON, AVRO.getName(), AVRO);
+
+  /**
+   * Checks if a codec is supported.
+   *
+   * @param name the name of the codec.
+   * @return true if the codec is supported or if the name is empty.
+   */
+  public static boolean isSupported(String name) {
+    return isEmpty(name) || codecs.containsKey(name);
+  }
+
+  /**
+   * Gets a codec by its name.
+   *
+   * @param name the name of the codec. If empty, the JSON codec is returned.
+   * @return the codec.
+   * @throws IllegalArgumentException if the codec is not supported.
+   */
+  public static EventCodec forName(String name) {
+    if (isEmpty(name)) {
+      return JSON;
+    }
+    EventCodec codec = codecs.get(name);
+    if (codec == null) {
+      throw new IllegalArgumentException("Unsupported event codec: " + name);
+    }
+    return codec;
+  }
+}
@@ -1,6 +1,7 @@
 package org.stellar.anchor.event;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import org.stellar.anchor.api.event.AnchorEvent;
 import org.stellar.anchor.api.exception.AnchorException;
 
@@ -55,6 +56,30 @@ public interface EventService {
      */
     void publish(AnchorEvent event) throws AnchorException;
 
+    /**
+     * Publishes an event to the event queue without waiting for the queue to acknowledge it. The
+     * default implementation publishes the event synchronously.
+     *
+     * @param event the event to publish
+     * @return the future completed when the event is acknowledged by the queue, or completed
+     *     exceptionally if the event could not be published.
+     */
+    default CompletableFuture<Void> publishAsync(AnchorEvent event) {
+      try {
+        publish(event);
+        return CompletableFuture.completedFuture(null);
+      } catch (AnchorException ex) {
+        return CompletableFuture.failedFuture(ex);
+      }
+    }
+
+    /**
+     * Waits until all the events published by the session are acknowledged by the event queue.
+     *
+     * @throws AnchorException if the events could not be flushed.
+     */
+    default void flush() throws AnchorException {}
+
     /**
      * Reads events from the event queue.
      *
@@ -71,6 +96,21 @@ public interface EventService {
      */
     void ack(ReadResponse readResponse) throws AnchorException;
 
+    /**
+     * Acknowledges that the first events returned by the read() method have been processed. The
+     * other events are returned again by the next read() method. The default implementation
+     * acknowledges the events only if all of them have been processed.
+     *
+     * @param readResponse the read response object.
+     * @param processed the number of events processed from the start of the read response.
+     * @throws AnchorException if the events could not be acknowledged.
+     */
+    default void ack(ReadResponse readResponse, int processed) throws AnchorException {
+      if (processed >= readResponse.getEvents().size()) {
+        ack(readResponse);
+      }
+    }
+
     /**
      * Closes the session.
      *
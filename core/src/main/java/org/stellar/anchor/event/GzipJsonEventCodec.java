@@ -0,0 +1,53 @@
+package org.stellar.anchor.event;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.gson.Gson;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.stellar.anchor.api.event.AnchorEvent;
+import org.stellar.anchor.util.GsonUtils;
+
+/**
+ * Encodes the events as gzip compressed JSON. The events embed the full transaction, whose field
+ * names and values repeat a lot, so they are several times smaller when compressed. The JSON is
+ * streamed to and from the compressed bytes without building the intermediate string.
+ */
+public class GzipJsonEventCodec implements EventCodec {
+  public static final String NAME = "json-gzip";
+  static final Gson gson = GsonUtils.getInstance();
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public byte[] encode(AnchorEvent event) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(out), UTF_8)) {
+      gson.toJson(event, AnchorEvent.class, writer);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    return out.toByteArray();
+  }
+
+  @Override
+  public AnchorEvent decode(byte[] data) {
+    try (Reader reader =
+        new InputStreamReader(new GZIPInputStream(new ByteArrayInputStream(data)), UTF_8)) {
+      return gson.fromJson(reader, AnchorEvent.class);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+}
@@ -0,0 +1,28 @@
+package org.stellar.anchor.event;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.gson.Gson;
+import org.stellar.anchor.api.event.AnchorEvent;
+import org.stellar.anchor.util.GsonUtils;
+
+/** Encodes the events as UTF-8 JSON. This is the format of the events without a codec header. */
+public class JsonEventCodec implements EventCodec {
+  public static final String NAME = "json";
+  static final Gson gson = GsonUtils.getInstance();
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public byte[] encode(AnchorEvent event) {
+    return gson.toJson(event).getBytes(UTF_8);
+  }
+
+  @Override
+  public AnchorEvent decode(byte[] data) {
+    return gson.fromJson(new String(data, UTF_8), AnchorEvent.class);
+  }
+}
@@ -1,5 +1,6 @@
 package org.stellar.anchor.sep24;
 
+import java.util.Collection;
 import java.util.List;
 import org.stellar.anchor.api.exception.SepException;
 import org.stellar.anchor.api.sep.sep24.GetTransactionsRequest;
@@ -23,6 +24,16 @@ public interface Sep24TransactionStore {
    */
   Sep24Transaction findByTransactionId(String transactionId) throws SepException;
 
+  /**
+   * Find the Sep24Transactions by the collection of transaction_ids
+   *
+   * @param transactionIds The transaction IDs
+   * @return The transaction documents that are found.
+   * @throws SepException if error happens
+   */
+  List<? extends Sep24Transaction> findByTransactionIds(Collection<String> transactionIds)
+      throws SepException;
+
   /**
    * Find the Sep24Transaction by the stellar network transaction id (hash)
    *
@@ -1,5 +1,6 @@
 package org.stellar.anchor.sep6;
 
+import java.util.Collection;
 import java.util.List;
 import org.stellar.anchor.api.exception.SepException;
 import org.stellar.anchor.api.sep.sep6.GetTransactionsRequest;
@@ -16,6 +17,9 @@ public interface Sep6TransactionStore {
 
   Sep6Transaction findByTransactionId(String transactionId) throws SepException;
 
+  List<? extends Sep6Transaction> findByTransactionIds(Collection<String> transactionIds)
+      throws SepException;
+
   Sep6Transaction findByStellarTransactionId(String stellarTransactionId) throws SepException;
 
   Sep6Transaction findByExternalTransactionId(String externalTransactionId) throws SepException;
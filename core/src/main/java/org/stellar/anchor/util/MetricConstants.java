@@ -49,6 +49,12 @@ public class MetricConstants {
       "payment_observer.latest_block_read";
   public static final String PAYMENT_OBSERVER_LATEST_BLOCK_PROCESSED =
       "payment_observer.latest_block_processed";
+  public static final String PAYMENT_OBSERVER_DISPATCH_QUEUE_DEPTH =
+      "payment_observer.dispatch.queue_depth";
+  public static final String PAYMENT_OBSERVER_DISPATCH_QUEUE_WAIT =
+      "payment_observer.dispatch.queue_wait";
+  public static final String PAYMENT_OBSERVER_DISPATCH_PROCESS =
+      "payment_observer.dispatch.process";
 
   // event processor metrics
   public static final String EVENT_RECEIVED = "event_processor.event_received";
@@ -56,6 +62,14 @@ public class MetricConstants {
   public static final String TV_BUSINESS_SERVER_CALLBACK = "business_server_callback_api";
   public static final String TV_STATUS_CALLBACK = "status_callback";
   public static final String TV_UNKNOWN = "unknown";
+  public static final String EVENT_RETRY_SCHEDULED = "event_processor.retry_scheduled";
+  public static final String EVENT_RETRY_DELIVERED = "event_processor.retry_delivered";
+  public static final String EVENT_RETRY_HELD = "event_processor.retry_held";
+  public static final String EVENT_DEAD_LETTERED = "event_processor.dead_lettered";
+
+  // event outbox metrics
+  public static final String EVENT_OUTBOX_RELAYED = "event_outbox.relayed";
+  public static final String EVENT_OUTBOX_RELAY_FAILED = "event_outbox.relay_failed";
 
   // platform server metrics
   public static final String PLATFORM_PATCH_TRANSACTION = "platform_server.patch_transaction";
@@ -65,6 +79,9 @@ public class MetricConstants {
   public static final String TV_SEP24 = "sep24";
   public static final String TV_SEP31 = "sep31";
 
+  // outbound HTTP client metrics
+  public static final String HTTP_CLIENT_REQUEST = "http_client.request";
+
   // Logger metrics
   public static final String LOGGER = "logger";
 
@@ -0,0 +1,76 @@
+package org.stellar.anchor.util;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+import javax.annotation.Nullable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.stellar.anchor.api.platform.TransactionsOrderBy;
+
+/**
+ * The continuation token of the Platform GET /transactions. It holds the position of the last
+ * transaction of a page: the value of the order_by column and the id. The next page seeks past this
+ * position in the (order_by column, id) index instead of skipping the rows of the previous pages.
+ *
+ * <p>The token is opaque to the clients. It is encoded as base64url JSON.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionsCursor {
+  static final Gson gson = GsonUtils.getInstance();
+
+  TransactionsOrderBy orderBy;
+  Sort.Direction order;
+  // null when the last transaction is in the tail of the transactions without an order_by value
+  @Nullable Instant value;
+  String id;
+
+  /**
+   * Encodes the cursor to the token returned to the clients.
+   *
+   * @return the token.
+   */
+  public String encode() {
+    byte[] json = gson.toJson(this).getBytes(UTF_8);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+  }
+
+  /**
+   * Decodes a token returned by {@link #encode()}.
+   *
+   * @param token the token.
+   * @return the cursor.
+   * @throws IllegalArgumentException if the token is not a valid cursor.
+   */
+  public static TransactionsCursor decode(String token) {
+    TransactionsCursor cursor;
+    try {
+      String json = new String(Base64.getUrlDecoder().decode(token), UTF_8);
+      cursor = gson.fromJson(json, TransactionsCursor.class);
+    } catch (IllegalArgumentException | JsonParseException | DateTimeException ex) {
+      throw new IllegalArgumentException("Invalid cursor", ex);
+    }
+    if (cursor == null || cursor.orderBy == null || cursor.order == null || cursor.id == null) {
+      throw new IllegalArgumentException("Invalid cursor");
+    }
+    return cursor;
+  }
+
+  /**
+   * Checks that the cursor was issued for the same order as the params.
+   *
+   * @param params the params of the search.
+   * @return true if the cursor matches the order_by and the order of the params.
+   */
+  public boolean matches(TransactionsParams params) {
+    return orderBy == params.getOrder_by() && order == params.getOrder();
+  }
+}
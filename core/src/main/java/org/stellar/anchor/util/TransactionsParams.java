@@ -16,4 +16,15 @@ public class TransactionsParams {
   @Nullable List<SepTransactionStatus> statuses;
   Integer pageNumber;
   Integer pageSize;
+  // The continuation token of the previous page. When set, the pageNumber is ignored.
+  @Nullable String cursor;
+
+  public TransactionsParams(
+      TransactionsOrderBy order_by,
+      Sort.Direction order,
+      @Nullable List<SepTransactionStatus> statuses,
+      Integer pageNumber,
+      Integer pageSize) {
+    this(order_by, order, statuses, pageNumber, pageSize, null);
+  }
 }
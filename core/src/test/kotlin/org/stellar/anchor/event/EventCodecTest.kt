@@ -0,0 +1,180 @@
+package org.stellar.anchor.event
+
+import com.google.gson.JsonParser
+import java.time.Instant
+import org.apache.avro.message.MissingSchemaException
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import org.junit.jupiter.params.ParameterizedTest
+import org.junit.jupiter.params.provider.ValueSource
+import org.stellar.anchor.api.event.AnchorEvent
+import org.stellar.anchor.api.event.AnchorEvent.Type.TRANSACTION_STATUS_CHANGED
+import org.stellar.anchor.api.platform.CustomerUpdatedResponse
+import org.stellar.anchor.api.platform.GetQuoteResponse
+import org.stellar.anchor.api.platform.GetTransactionResponse
+import org.stellar.anchor.api.platform.PlatformTransactionData.Kind.DEPOSIT
+import org.stellar.anchor.api.platform.PlatformTransactionData.Sep.SEP_24
+import org.stellar.anchor.api.sep.SepTransactionStatus.PENDING_ANCHOR
+import org.stellar.anchor.api.shared.*
+import org.stellar.anchor.util.GsonUtils
+
+class EventCodecTest {
+  private val asset = "stellar:USDC:GDQOE23CFSUMSVQK4Y5JHPPYK73VYCNHZHA7ENKCV37P6SUEO6XQBKPP"
+  private val event =
+    AnchorEvent.builder()
+      .id("event-1")
+      .sep("24")
+      .type(TRANSACTION_STATUS_CHANGED)
+      .transaction(
+        GetTransactionResponse.builder()
+          .id("txn-1")
+          .sep(SEP_24)
+          .kind(DEPOSIT)
+          .status(PENDING_ANCHOR)
+          .amountExpected(Amount("100", asset))
+          .amountIn(Amount("100", asset))
+          .amountOut(Amount("99", asset))
+          .amountFee(Amount("1", asset))
+          .startedAt(Instant.parse("2024-01-01T00:00:00Z"))
+          .updatedAt(Instant.parse("2024-01-01T00:01:00Z"))
+          .destinationAccount("GBLGJA4TUN5XOGTV6WO2BWYUI2OZR5GYQ5PDPCRMQ5XEPJOYWB2X4CJO")
+          .build()
+      )
+      .build()
+
+  @ParameterizedTest
+  @ValueSource(strings = ["json", "json-gzip", "avro"])
+  fun `test the event is decoded as it was encoded`(name: String) {
+    val codec = EventCodecs.forName(name)
+    val decoded = codec.decode(codec.encode(event))
+
+    assertEquals(name, codec.name)
+    assertEquals(event.id, decoded.id)
+    assertEquals(event.type, decoded.type)
+    assertEquals(event.transaction.id, decoded.transaction.id)
+    assertEquals(event.transaction.status, decoded.transaction.status)
+    assertEquals(event.transaction.amountIn, decoded.transaction.amountIn)
+    assertEquals(event.transaction.startedAt, decoded.transaction.startedAt)
+  }
+
+  @Test
+  fun `test the json codec is compatible with the events without codec`() {
+    assertSame(EventCodecs.JSON, EventCodecs.forName(null))
+    assertSame(EventCodecs.JSON, EventCodecs.forName(""))
+    val json = GsonUtils.getInstance().toJson(event).toByteArray()
+    assertArrayEquals(json, EventCodecs.JSON.encode(event))
+    assertEquals("event-1", EventCodecs.JSON.decode(json).id)
+  }
+
+  @Test
+  fun `test the gzip codec is smaller than json`() {
+    val json = EventCodecs.JSON.encode(event).size
+    val gzip = EventCodecs.GZIP_JSON.encode(event).size
+    assertTrue(gzip < json, "gzip=$gzip json=$json")
+  }
+
+  @Test
+  fun `test the avro codec decodes all the fields of the event`() {
+    val now = Instant.parse("2024-01-01T00:00:00.123456Z")
+    val account = "GBLGJA4TUN5XOGTV6WO2BWYUI2OZR5GYQ5PDPCRMQ5XEPJOYWB2X4CJO"
+    val fullEvent =
+      AnchorEvent.builder()
+        .id("event-2")
+        .sep("31")
+        .type(TRANSACTION_STATUS_CHANGED)
+        .transaction(
+          GetTransactionResponse.builder()
+            .id("txn-2")
+            .sep(SEP_24)
+            .kind(DEPOSIT)
+            .status(PENDING_ANCHOR)
+            .amountIn(Amount("100", asset))
+            .feeDetails(FeeDetails("1", asset, listOf(FeeDescription("service", "fee", "1"))))
+            .completedAt(now)
+            .refunds(
+              Refunds.builder()
+                .amountRefunded(Amount("10", asset))
+                .payments(
+                  arrayOf(
+                    RefundPayment.builder()
+                      .id("refund-1")
+                      .idType(RefundPayment.IdType.STELLAR)
+                      .amount(Amount("10", asset))
+                      .refundedAt(now)
+                      .build()
+                  )
+                )
+                .build()
+            )
+            .stellarTransactions(
+              listOf(
+                StellarTransaction.builder()
+                  .id("hash-1")
+                  .createdAt(now)
+                  .payments(
+                    listOf(
+                      StellarPayment.builder()
+                        .id("payment-1")
+                        .amount(Amount("100", asset))
+                        .paymentType(StellarPayment.Type.PAYMENT)
+                        .build()
+                    )
+                  )
+                  .build()
+              )
+            )
+            .customers(
+              Customers(StellarId("sender", null, null), StellarId("receiver", null, null))
+            )
+            .creator(StellarId(null, account, null))
+            .requiredInfoUpdates(listOf("amount"))
+            .instructions(mapOf("bank_account" to InstructionField("123", "The bank account")))
+            .build()
+        )
+        .quote(
+          GetQuoteResponse.builder()
+            .id("quote-1")
+            .sellAmount("100")
+            .expiresAt(now)
+            .fee(FeeDetails("1", asset))
+            .build()
+        )
+        .customer(CustomerUpdatedResponse("customer-1"))
+        .build()
+
+    val decoded = EventCodecs.AVRO.decode(EventCodecs.AVRO.encode(fullEvent))
+
+    val gson = GsonUtils.getInstance()
+    assertEquals(gson.toJson(fullEvent), gson.toJson(decoded))
+    assertEquals(now, decoded.transaction.completedAt)
+  }
+
+  @Test
+  fun `test the avro codec is smaller than json`() {
+    val json = EventCodecs.JSON.encode(event).size
+    val avro = EventCodecs.AVRO.encode(event).size
+    assertTrue(avro < json, "avro=$avro json=$json")
+  }
+
+  @Test
+  fun `test the avro codec rejects the fields that are not in the schema`() {
+    assertThrows<IllegalArgumentException> {
+      AvroEventCodec.toAvro(JsonParser.parseString("{\"unknown\": 1}"), AvroEventCodec.SCHEMA)
+    }
+  }
+
+  @Test
+  fun `test the avro codec rejects the events of an unknown schema`() {
+    assertThrows<MissingSchemaException> {
+      EventCodecs.AVRO.decode(EventCodecs.AVRO.encode(event).also { it[2] = (it[2] + 1).toByte() })
+    }
+  }
+
+  @Test
+  fun `test the unsupported codec is rejected`() {
+    assertFalse(EventCodecs.isSupported("protobuf"))
+    assertTrue(EventCodecs.isSupported(null))
+    assertThrows<IllegalArgumentException> { EventCodecs.forName("protobuf") }
+  }
+}
@@ -0,0 +1,54 @@
+package org.stellar.anchor.util
+
+import java.time.Instant
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import org.junit.jupiter.params.ParameterizedTest
+import org.junit.jupiter.params.provider.ValueSource
+import org.springframework.data.domain.Sort
+import org.stellar.anchor.api.platform.TransactionsOrderBy
+
+class TransactionsCursorTest {
+  @Test
+  fun `test the cursor is decoded as it was encoded`() {
+    val cursor =
+      TransactionsCursor(
+        TransactionsOrderBy.TRANSFER_RECEIVED_AT,
+        Sort.Direction.DESC,
+        Instant.parse("2024-01-01T00:00:00.123456Z"),
+        "txn-1"
+      )
+    val token = cursor.encode()
+
+    assertFalse(token.contains("="))
+    assertEquals(cursor, TransactionsCursor.decode(token))
+  }
+
+  @Test
+  fun `test the cursor in the tail without value`() {
+    val cursor =
+      TransactionsCursor(TransactionsOrderBy.USER_ACTION_REQUIRED_BY, Sort.Direction.ASC, null, "x")
+    val decoded = TransactionsCursor.decode(cursor.encode())
+
+    assertNull(decoded.value)
+    assertEquals("x", decoded.id)
+  }
+
+  @Test
+  fun `test the cursor matches the order of the params`() {
+    val cursor = TransactionsCursor(TransactionsOrderBy.CREATED_AT, Sort.Direction.ASC, null, "x")
+
+    val asc = TransactionsParams(TransactionsOrderBy.CREATED_AT, Sort.Direction.ASC, null, 0, 20)
+    val desc = TransactionsParams(TransactionsOrderBy.CREATED_AT, Sort.Direction.DESC, null, 0, 20)
+
+    assertTrue(cursor.matches(asc))
+    assertFalse(cursor.matches(desc))
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = ["not a cursor", "e30", "eyJpZCI6IngifQ", "bnVsbA"])
+  fun `test the invalid cursor is rejected`(token: String) {
+    assertThrows<IllegalArgumentException> { TransactionsCursor.decode(token) }
+  }
+}
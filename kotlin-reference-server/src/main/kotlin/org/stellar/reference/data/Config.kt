@@ -10,6 +10,7 @@ data class Config(
   @ConfigAlias("auth") val authSettings: AuthSettings,
   @ConfigAlias("data") val dataSettings: DataSettings,
   val sep24: Sep24,
+  @ConfigAlias("event") val eventSettings: EventSettings = EventSettings(),
 )
 
 data class Sep24(val secret: String, val interactiveJwtKey: String) {
@@ -50,3 +51,11 @@ data class DataSettings(
   val user: String,
   val password: String
 )
+
+data class EventSettings(
+  // The number of coroutines processing the events in parallel.
+  val workers: Int = 4,
+  // The number of received events waiting to be processed. The `POST /event` endpoint responds
+  // with 503 Service Unavailable when it is full, so that the platform delivers the events later.
+  val capacity: Int = 1000,
+)
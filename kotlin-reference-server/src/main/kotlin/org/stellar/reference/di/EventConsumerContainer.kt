@@ -17,5 +17,6 @@ object EventConsumerContainer {
     )
   private val noOpEventProcessor = NoOpEventProcessor()
   private val processor = AnchorEventProcessor(sep6EventProcessor, noOpEventProcessor)
-  val eventConsumer = EventConsumer(ServiceContainer.eventService.channel, processor)
+  val eventConsumer =
+    EventConsumer(ServiceContainer.eventService.channel, processor, config.eventSettings.workers)
 }
@@ -19,7 +19,7 @@ import org.stellar.sdk.Server
 
 object ServiceContainer {
   private val config = ConfigContainer.getInstance().config
-  val eventService = EventService()
+  val eventService = EventService(config.eventSettings.capacity)
   val sepHelper = SepHelper(config)
   val depositService = DepositService(config)
   val withdrawalService = WithdrawalService(config)
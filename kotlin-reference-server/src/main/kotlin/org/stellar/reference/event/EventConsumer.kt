@@ -1,30 +1,58 @@
 package org.stellar.reference.event
 
-import kotlinx.coroutines.ExperimentalCoroutinesApi
+import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.channels.Channel
+import kotlinx.coroutines.coroutineScope
+import kotlinx.coroutines.launch
 import org.stellar.reference.data.SendEventRequest
 import org.stellar.reference.event.processor.AnchorEventProcessor
 import org.stellar.reference.log
 
-@OptIn(ExperimentalCoroutinesApi::class)
+/**
+ * Consumes the events received by the `POST /event` endpoint.
+ *
+ * The events are dispatched to `workers` coroutines by their transaction id, or by their quote or
+ * customer id, so that the events of a transaction are processed in order while the other
+ * transactions are processed in parallel. The consumer suspends while the channel is empty.
+ */
 class EventConsumer(
   private val channel: Channel<SendEventRequest>,
   private val processor: AnchorEventProcessor,
+  private val workers: Int,
 ) {
-  private var stopped = false
-
   suspend fun start(): EventConsumer {
-    while (!stopped) {
-      while (!channel.isEmpty) {
-        val event = channel.receive()
-        log.info("Processing event ${event.id} of type ${event.type}")
-        processor.handleEvent(event)
+    coroutineScope {
+      val workerChannels = List(workers) { Channel<SendEventRequest>(WORKER_CAPACITY) }
+      // The processors make blocking calls, so the workers run on the IO dispatcher.
+      workerChannels.forEach { worker ->
+        launch(Dispatchers.IO) {
+          for (event in worker) {
+            log.info("Processing event ${event.id} of type ${event.type}")
+            processor.handleEvent(event)
+          }
+        }
+      }
+      // The loop ends when the channel is closed and drained. The workers then finish their events.
+      for (event in channel) {
+        workerChannels[partitionOf(event)].send(event)
       }
+      workerChannels.forEach { it.close() }
     }
     return this
   }
 
   fun stop() {
-    stopped = true
+    channel.close()
+  }
+
+  private fun partitionOf(event: SendEventRequest): Int {
+    val key =
+      event.payload.transaction?.id
+        ?: event.payload.quote?.id ?: event.payload.customer?.id ?: event.id
+    return Math.floorMod(key.hashCode(), workers)
+  }
+
+  companion object {
+    private const val WORKER_CAPACITY = 16
   }
 }
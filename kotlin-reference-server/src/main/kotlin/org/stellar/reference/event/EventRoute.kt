@@ -1,6 +1,7 @@
 package org.stellar.reference.event
 
 import com.google.gson.Gson
+import com.google.gson.JsonParser
 import io.ktor.http.*
 import io.ktor.server.application.*
 import io.ktor.server.request.*
@@ -8,6 +9,7 @@ import io.ktor.server.response.*
 import io.ktor.server.routing.*
 import org.apache.http.HttpStatus
 import org.stellar.anchor.api.callback.SendEventResponse
+import org.stellar.anchor.api.callback.SendEventsResponse
 import org.stellar.anchor.util.GsonUtils
 import org.stellar.reference.data.SendEventRequest
 
@@ -15,12 +17,47 @@ fun Route.event(eventService: EventService) {
   val gson: Gson = GsonUtils.getInstance()
 
   route("/event") {
-    // The `POST /event` endpoint of the Callback API to receive an event.
+    // The `POST /event` endpoint of the Callback API to receive an event, or a batch of events
+    // when the batched delivery is enabled.
     post {
-      val receivedEventJson = call.receive<String>()
-      val receivedEvent = gson.fromJson(receivedEventJson, SendEventRequest::class.java)
-      eventService.processEvent(receivedEvent)
-      call.respond(gson.toJson(SendEventResponse(HttpStatus.SC_OK, "event processed")))
+      val receivedJson = JsonParser.parseString(call.receive<String>())
+      if (receivedJson.isJsonArray) {
+        // The result of each event of the batch is returned, so that the platform only sends the
+        // failed events again.
+        val results =
+          receivedJson.asJsonArray.map {
+            val receivedEvent = gson.fromJson(it, SendEventRequest::class.java)
+            try {
+              eventService.processEvent(receivedEvent)
+              SendEventsResponse.Result(receivedEvent.id, HttpStatus.SC_OK, "event processed")
+            } catch (e: EventQueueFullException) {
+              SendEventsResponse.Result(
+                receivedEvent.id,
+                HttpStatus.SC_SERVICE_UNAVAILABLE,
+                e.message
+              )
+            } catch (e: Exception) {
+              SendEventsResponse.Result(
+                receivedEvent.id,
+                HttpStatus.SC_INTERNAL_SERVER_ERROR,
+                e.message
+              )
+            }
+          }
+        call.respond(gson.toJson(SendEventsResponse(HttpStatus.SC_OK, "events received", results)))
+      } else {
+        val receivedEvent = gson.fromJson(receivedJson, SendEventRequest::class.java)
+        try {
+          eventService.processEvent(receivedEvent)
+          call.respond(gson.toJson(SendEventResponse(HttpStatus.SC_OK, "event processed")))
+        } catch (e: EventQueueFullException) {
+          // The platform retries the events rejected with a 5xx status.
+          call.respond(
+            HttpStatusCode.ServiceUnavailable,
+            gson.toJson(SendEventResponse(HttpStatus.SC_SERVICE_UNAVAILABLE, e.message))
+          )
+        }
+      }
     }
   }
   route("/events") {
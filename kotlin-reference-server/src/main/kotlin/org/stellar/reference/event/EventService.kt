@@ -9,19 +9,24 @@ import org.stellar.anchor.api.event.AnchorEvent
 import org.stellar.reference.data.SendEventRequest
 import org.stellar.reference.log
 
-class EventService {
-  val channel = Channel<SendEventRequest>()
+class EventService(capacity: Int) {
+  val channel = Channel<SendEventRequest>(capacity)
   private val formatter: DateTimeFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
   private val receivedEvents: MutableList<SendEventRequest> = mutableListOf()
 
-  suspend fun processEvent(receivedEvent: SendEventRequest) {
+  // Queues the event to be processed by the EventConsumer.
+  // Throws EventQueueFullException if the queue is full.
+  fun processEvent(receivedEvent: SendEventRequest) {
     val instant = Instant.parse(receivedEvent.timestamp)
     val dateTime = LocalDateTime.ofInstant(instant, ZoneId.systemDefault())
 
     log.info(
       "Received event ${receivedEvent.id} of type ${receivedEvent.type} at ${dateTime.format(formatter)}"
     )
-    channel.send(receivedEvent)
+    if (!channel.trySend(receivedEvent).isSuccess) {
+      log.warn("The event queue is full. Rejected event ${receivedEvent.id}")
+      throw EventQueueFullException()
+    }
     receivedEvents.add(receivedEvent)
   }
 
@@ -49,3 +54,5 @@ class EventService {
     receivedEvents.clear()
   }
 }
+
+class EventQueueFullException : RuntimeException("The event queue is full")
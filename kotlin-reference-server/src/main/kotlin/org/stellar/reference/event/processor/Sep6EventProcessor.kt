@@ -2,6 +2,7 @@ package org.stellar.reference.event.processor
 
 import java.time.Instant
 import java.util.*
+import java.util.concurrent.ConcurrentHashMap
 import kotlinx.coroutines.runBlocking
 import org.stellar.anchor.api.callback.GetCustomerRequest
 import org.stellar.anchor.api.platform.*
@@ -23,10 +24,13 @@ class Sep6EventProcessor(
   private val platformClient: PlatformClient,
   private val customerService: CustomerService,
   private val sepHelper: SepHelper,
-  /** Map of transaction ID to Stellar transaction ID. */
-  private val onchainPayments: MutableMap<String, String> = mutableMapOf(),
-  /** Map of transaction ID to external transaction ID. */
-  private val offchainPayments: MutableMap<String, String> = mutableMapOf(),
+  /**
+   * Map of transaction ID to Stellar transaction ID. The events of different transactions are
+   * handled by concurrent workers, so the map must be thread safe.
+   */
+  private val onchainPayments: MutableMap<String, String> = ConcurrentHashMap(),
+  /** Map of transaction ID to external transaction ID. It must be thread safe as well. */
+  private val offchainPayments: MutableMap<String, String> = ConcurrentHashMap(),
 ) : SepAnchorEventProcessor {
   companion object {
     val requiredKyc =
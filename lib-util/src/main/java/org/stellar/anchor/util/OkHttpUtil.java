@@ -1,9 +1,14 @@
 package org.stellar.anchor.util;
 
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import okhttp3.Call;
+import okhttp3.Callback;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
+import okhttp3.Response;
 
 @SuppressWarnings("unused")
 public class OkHttpUtil {
@@ -37,4 +42,38 @@ public class OkHttpUtil {
   public static RequestBody buildJsonRequestBody(String payload) {
     return RequestBody.create(payload, TYPE_JSON);
   }
+
+  /**
+   * Sends the request asynchronously. The request is queued by the dispatcher of the client, which
+   * limits the concurrent requests per host. Cancelling the future cancels the request.
+   *
+   * @param client the HTTP client.
+   * @param request the request.
+   * @return the future of the response. The caller must close the response.
+   */
+  public static CompletableFuture<Response> executeAsync(OkHttpClient client, Request request) {
+    Call call = client.newCall(request);
+    CompletableFuture<Response> future = new CompletableFuture<>();
+    future.whenComplete(
+        (response, ex) -> {
+          if (future.isCancelled()) {
+            call.cancel();
+          }
+        });
+    call.enqueue(
+        new Callback() {
+          @Override
+          public void onFailure(Call call, IOException ex) {
+            future.completeExceptionally(ex);
+          }
+
+          @Override
+          public void onResponse(Call call, Response response) {
+            if (!future.complete(response)) {
+              response.close();
+            }
+          }
+        });
+    return future;
+  }
 }
@@ -52,6 +52,9 @@ dependencies {
   implementation(project(":core"))
 
   testImplementation("org.springframework.boot:spring-boot-starter-test")
+  testImplementation(libs.elasticmq.rest.sqs)
+  testImplementation(libs.embedded.postgres)
+  testImplementation(libs.h2database)
   testImplementation(libs.okhttp3.mockserver)
   testImplementation(libs.okhttp3.tls)
 }
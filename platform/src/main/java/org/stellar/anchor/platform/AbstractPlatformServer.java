@@ -6,17 +6,35 @@ import java.util.Map;
 import org.springframework.boot.SpringApplication;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.format.FormatterRegistry;
+import org.stellar.anchor.platform.apiclient.LocalRpcServiceRegistry;
 import org.stellar.anchor.platform.configurator.ConfigEnvironment;
 import org.stellar.anchor.platform.utils.StringEnumConverter;
 
 abstract class AbstractPlatformServer {
   ConfigurableApplicationContext ctx;
+  LocalRpcServiceRegistry localRpcServiceRegistry;
 
   void buildEnvironment(Map<String, String> envMap) {
     info("Building Anchor Platform environment...");
     ConfigEnvironment.rebuild(envMap);
   }
 
+  /**
+   * Shares the registry of the local RpcService with the other servers started in the same JVM.
+   *
+   * @param localRpcServiceRegistry the registry.
+   */
+  public void setLocalRpcServiceRegistry(LocalRpcServiceRegistry localRpcServiceRegistry) {
+    this.localRpcServiceRegistry = localRpcServiceRegistry;
+  }
+
+  void addLocalRpcServiceRegistry(SpringApplication springApplication) {
+    if (localRpcServiceRegistry != null) {
+      info("Adding local RPC service registry as initializers...");
+      springApplication.addInitializers(localRpcServiceRegistry);
+    }
+  }
+
   public void stop() {
     if (ctx != null) {
       SpringApplication.exit(ctx);
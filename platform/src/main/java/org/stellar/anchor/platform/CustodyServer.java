@@ -45,6 +45,7 @@ public class CustodyServer extends AbstractPlatformServer implements WebMvcConfi
     info("Adding custody config manager as initializers...");
     springApplication.addInitializers(CustodyConfigManager.getInstance());
 
+    addLocalRpcServiceRegistry(springApplication);
     return ctx = springApplication.run();
   }
 }
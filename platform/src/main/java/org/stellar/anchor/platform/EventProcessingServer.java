@@ -39,6 +39,7 @@ public class EventProcessingServer extends AbstractPlatformServer implements Web
     info("Adding event processor config manager as initializers...");
     springApplication.addInitializers(EventProcessorConfigManager.getInstance());
 
+    addLocalRpcServiceRegistry(springApplication);
     return ctx = springApplication.run();
   }
 }
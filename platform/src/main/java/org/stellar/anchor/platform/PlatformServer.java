@@ -42,6 +42,7 @@ public class PlatformServer extends AbstractPlatformServer implements WebMvcConf
     info("Adding platform config manager as initializers...");
     springApplication.addInitializers(PlatformConfigManager.getInstance());
 
+    addLocalRpcServiceRegistry(springApplication);
     return ctx = springApplication.run();
   }
 }
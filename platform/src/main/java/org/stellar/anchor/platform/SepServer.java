@@ -40,6 +40,7 @@ public class SepServer extends AbstractPlatformServer implements WebMvcConfigure
     info("Adding sep config manager as initializers...");
     springApplication.addInitializers(SepConfigManager.getInstance());
 
+    addLocalRpcServiceRegistry(springApplication);
     return ctx = springApplication.run();
   }
 }
@@ -38,6 +38,7 @@ public class StellarObservingServer extends AbstractPlatformServer implements We
     info("Adding observer config manager as initializers...");
     springApplication.addInitializers(ObserverConfigManager.getInstance());
 
+    addLocalRpcServiceRegistry(springApplication);
     return ctx = springApplication.run();
   }
 }
@@ -0,0 +1,69 @@
+package org.stellar.anchor.platform.apiclient;
+
+import java.util.concurrent.atomic.AtomicReference;
+import javax.annotation.Nullable;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.stellar.anchor.platform.service.RpcService;
+
+/**
+ * Holds the RpcService of the platform server running in the same JVM, so that the {@link
+ * LocalRpcTransport} of the other servers can hand the JSON-RPC requests to it.
+ *
+ * <p>The registry is a bean. The ServiceRunner creates one registry and shares it with the servers
+ * it starts together by adding it as an initializer of their contexts. A context started on its own,
+ * for example in a test, has no registry and sends the requests with HTTP.
+ */
+public class LocalRpcServiceRegistry
+    implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+  static final String BEAN_NAME = "localRpcServiceRegistry";
+
+  final AtomicReference<RpcService> rpcService = new AtomicReference<>();
+
+  /**
+   * Registers the registry as a bean of the context.
+   *
+   * @param applicationContext the context of a server.
+   */
+  @Override
+  public void initialize(ConfigurableApplicationContext applicationContext) {
+    applicationContext.getBeanFactory().registerSingleton(BEAN_NAME, this);
+  }
+
+  /**
+   * Registers the RpcService of the platform server.
+   *
+   * @param rpcService the RpcService.
+   * @return the registration, which unregisters the RpcService when closed.
+   */
+  public Registration register(RpcService rpcService) {
+    this.rpcService.set(rpcService);
+    return new Registration(this, rpcService);
+  }
+
+  /**
+   * Gets the registered RpcService.
+   *
+   * @return the RpcService, or null if no platform server is running.
+   */
+  @Nullable
+  public RpcService get() {
+    return rpcService.get();
+  }
+
+  /** The registration of the RpcService. It is closed with the context of the platform server. */
+  public static class Registration implements AutoCloseable {
+    final LocalRpcServiceRegistry registry;
+    final RpcService rpcService;
+
+    Registration(LocalRpcServiceRegistry registry, RpcService rpcService) {
+      this.registry = registry;
+      this.rpcService = rpcService;
+    }
+
+    @Override
+    public void close() {
+      registry.rpcService.compareAndSet(rpcService, null);
+    }
+  }
+}
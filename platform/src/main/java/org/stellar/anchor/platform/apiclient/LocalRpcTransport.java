@@ -0,0 +1,48 @@
+package org.stellar.anchor.platform.apiclient;
+
+import static org.stellar.anchor.util.Log.*;
+
+import java.io.IOException;
+import java.util.List;
+import org.stellar.anchor.api.exception.AnchorException;
+import org.stellar.anchor.api.rpc.RpcRequest;
+import org.stellar.anchor.api.rpc.RpcResponse;
+import org.stellar.anchor.apiclient.RpcTransport;
+import org.stellar.anchor.platform.service.RpcService;
+
+/**
+ * Sends the JSON-RPC requests to the RpcService of the platform server running in the same JVM,
+ * for example when the servers are started together by the ServiceRunner. The requests are
+ * handled directly, without HTTP, serialization or authentication.
+ *
+ * <p>The RpcService is looked up in the {@link LocalRpcServiceRegistry}. If the platform server is
+ * not running in this JVM, the requests are sent with the fallback transport.
+ */
+public class LocalRpcTransport implements RpcTransport {
+  final LocalRpcServiceRegistry registry;
+  final RpcTransport fallback;
+
+  public LocalRpcTransport(LocalRpcServiceRegistry registry, RpcTransport fallback) {
+    this.registry = registry;
+    this.fallback = fallback;
+  }
+
+  @Override
+  public void send(List<RpcRequest> rpcRequests) throws IOException, AnchorException {
+    RpcService rpcService = registry.get();
+    if (rpcService == null) {
+      fallback.send(rpcRequests);
+      return;
+    }
+
+    for (RpcResponse response : rpcService.handle(rpcRequests)) {
+      if (response.getError() != null) {
+        warnF(
+            "The RPC request id={} failed. code={}, message={}",
+            response.getId(),
+            response.getError().getCode(),
+            response.getError().getMessage());
+      }
+    }
+  }
+}
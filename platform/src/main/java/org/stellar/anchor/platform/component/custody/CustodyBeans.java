@@ -1,9 +1,7 @@
 package org.stellar.anchor.platform.component.custody;
 
-import java.util.concurrent.TimeUnit;
 import javax.servlet.Filter;
 import okhttp3.OkHttpClient;
-import okhttp3.OkHttpClient.Builder;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -19,6 +17,7 @@ import org.stellar.anchor.platform.config.PropertyCustodyConfig;
 import org.stellar.anchor.platform.config.RpcConfig;
 import org.stellar.anchor.platform.custody.*;
 import org.stellar.anchor.platform.data.JdbcCustodyTransactionRepo;
+import org.stellar.anchor.platform.utils.HttpClientFactory;
 
 @Configuration
 public class CustodyBeans {
@@ -90,12 +89,7 @@ public class CustodyBeans {
 
   @Bean(name = "custodyHttpClient")
   OkHttpClient custodyHttpClient(PropertyCustodyConfig custodyConfig) {
-    return new Builder()
-        .connectTimeout(custodyConfig.getHttpClient().getConnectTimeout(), TimeUnit.SECONDS)
-        .readTimeout(custodyConfig.getHttpClient().getReadTimeout(), TimeUnit.SECONDS)
-        .writeTimeout(custodyConfig.getHttpClient().getWriteTimeout(), TimeUnit.SECONDS)
-        .callTimeout(custodyConfig.getHttpClient().getCallTimeout(), TimeUnit.SECONDS)
-        .build();
+    return HttpClientFactory.build("custody", custodyConfig.getHttpClient());
   }
 
   @Bean
@@ -2,6 +2,7 @@ package org.stellar.anchor.platform.component.eventprocessor;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.stellar.anchor.MoreInfoUrlConstructor;
 import org.stellar.anchor.asset.AssetService;
 import org.stellar.anchor.config.SecretConfig;
@@ -9,6 +10,7 @@ import org.stellar.anchor.event.EventService;
 import org.stellar.anchor.platform.config.CallbackApiConfig;
 import org.stellar.anchor.platform.config.EventProcessorConfig;
 import org.stellar.anchor.platform.config.PropertyClientsConfig;
+import org.stellar.anchor.platform.data.JdbcEventDeliveryRetryRepo;
 import org.stellar.anchor.platform.event.EventProcessorManager;
 import org.stellar.anchor.sep24.Sep24TransactionStore;
 import org.stellar.anchor.sep31.Sep31TransactionStore;
@@ -29,7 +31,9 @@ public class EventProcessorBeans {
       Sep24TransactionStore sep24TransactionStore,
       Sep31TransactionStore sep31TransactionStore,
       MoreInfoUrlConstructor sep6MoreInfoUrlConstructor,
-      MoreInfoUrlConstructor sep24MoreInfoUrlConstructor) {
+      MoreInfoUrlConstructor sep24MoreInfoUrlConstructor,
+      JdbcEventDeliveryRetryRepo deliveryRetryRepo,
+      PlatformTransactionManager transactionManager) {
     return new EventProcessorManager(
         secretConfig,
         eventProcessorConfig,
@@ -41,6 +45,8 @@ public class EventProcessorBeans {
         sep24TransactionStore,
         sep31TransactionStore,
         sep6MoreInfoUrlConstructor,
-        sep24MoreInfoUrlConstructor);
+        sep24MoreInfoUrlConstructor,
+        deliveryRetryRepo,
+        transactionManager);
   }
 }
@@ -19,6 +19,7 @@ import org.stellar.anchor.platform.observer.stellar.PaymentObservingAccountsMana
 import org.stellar.anchor.platform.observer.stellar.StellarPaymentObserver;
 import org.stellar.anchor.platform.observer.stellar.StellarPaymentStreamerCursorStore;
 import org.stellar.anchor.platform.service.PaymentOperationToEventListener;
+import org.stellar.anchor.platform.utils.HttpClientFactory;
 
 @Configuration
 public class PaymentObserverBeans {
@@ -66,7 +67,8 @@ public class PaymentObserverBeans {
             paymentObserverConfig.getStellar(),
             paymentListeners,
             paymentObservingAccountsManager,
-            stellarPaymentStreamerCursorStore);
+            stellarPaymentStreamerCursorStore,
+            HttpClientFactory.build("payment_observer", paymentObserverConfig.getHttpClient()));
 
     // Add distribution wallet to the observing list as type RESIDENTIAL
     for (AssetInfo assetInfo : stellarAssets) {
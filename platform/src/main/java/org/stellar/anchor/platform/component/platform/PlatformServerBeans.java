@@ -20,6 +20,7 @@ import org.stellar.anchor.horizon.Horizon;
 import org.stellar.anchor.platform.apiclient.CustodyApiClient;
 import org.stellar.anchor.platform.config.PlatformServerConfig;
 import org.stellar.anchor.platform.config.PropertyCustodyConfig;
+import org.stellar.anchor.platform.data.JdbcEventDeliveryRetryRepo;
 import org.stellar.anchor.platform.data.JdbcTransactionPendingTrustRepo;
 import org.stellar.anchor.platform.job.TrustlineCheckJob;
 import org.stellar.anchor.platform.rpc.NotifyTrustSetHandler;
@@ -128,6 +129,11 @@ public class PlatformServerBeans {
         custodyConfig);
   }
 
+  @Bean
+  DeadLetterService deadLetterService(JdbcEventDeliveryRetryRepo deliveryRetryRepo) {
+    return new DeadLetterService(deliveryRetryRepo);
+  }
+
   @Bean
   TrustlineCheckJob trustlineCheckJob(
       Horizon horizon,
@@ -1,6 +1,7 @@
 package org.stellar.anchor.platform.component.platform;
 
 import java.util.List;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.stellar.anchor.asset.AssetService;
@@ -9,6 +10,7 @@ import org.stellar.anchor.custody.CustodyService;
 import org.stellar.anchor.event.EventService;
 import org.stellar.anchor.horizon.Horizon;
 import org.stellar.anchor.metrics.MetricsService;
+import org.stellar.anchor.platform.apiclient.LocalRpcServiceRegistry;
 import org.stellar.anchor.platform.config.PropertyCustodyConfig;
 import org.stellar.anchor.platform.config.RpcConfig;
 import org.stellar.anchor.platform.data.JdbcTransactionPendingTrustRepo;
@@ -50,6 +52,13 @@ public class RpcActionBeans {
     return new RpcService(rpcMethodHandlers, rpcConfig);
   }
 
+  @Bean
+  @ConditionalOnBean(LocalRpcServiceRegistry.class)
+  LocalRpcServiceRegistry.Registration localRpcServiceRegistration(
+      RpcService rpcService, LocalRpcServiceRegistry localRpcServiceRegistry) {
+    return localRpcServiceRegistry.register(rpcService);
+  }
+
   @Bean
   DoStellarPaymentHandler doStellarPaymentHandler(
       Sep6TransactionStore txn6Store,
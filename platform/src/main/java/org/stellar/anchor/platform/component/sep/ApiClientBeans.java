@@ -3,7 +3,6 @@ package org.stellar.anchor.platform.component.sep;
 import com.google.gson.Gson;
 import java.security.KeyManagementException;
 import java.security.NoSuchAlgorithmException;
-import java.util.concurrent.TimeUnit;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
@@ -21,6 +20,7 @@ import org.stellar.anchor.platform.callback.RestFeeIntegration;
 import org.stellar.anchor.platform.callback.RestRateIntegration;
 import org.stellar.anchor.platform.callback.RestUniqueAddressIntegration;
 import org.stellar.anchor.platform.config.CallbackApiConfig;
+import org.stellar.anchor.platform.utils.HttpClientFactory;
 
 @Configuration
 public class ApiClientBeans {
@@ -45,12 +45,7 @@ public class ApiClientBeans {
   @Bean
   OkHttpClient httpClient(CallbackApiConfig callbackApiConfig)
       throws NoSuchAlgorithmException, KeyManagementException {
-    Builder builder =
-        new Builder()
-            .connectTimeout(10, TimeUnit.MINUTES)
-            .readTimeout(10, TimeUnit.MINUTES)
-            .writeTimeout(10, TimeUnit.MINUTES)
-            .callTimeout(10, TimeUnit.MINUTES);
+    Builder builder = HttpClientFactory.builder("callback_api", callbackApiConfig.getHttpClient());
 
     if (!callbackApiConfig.getCheckCertificate()) {
       SSLContext sslContext = SSLContext.getInstance("SSL");
@@ -1,8 +1,6 @@
 package org.stellar.anchor.platform.component.share;
 
-import java.util.concurrent.TimeUnit;
 import okhttp3.OkHttpClient;
-import okhttp3.OkHttpClient.Builder;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.context.annotation.Bean;
@@ -11,6 +9,7 @@ import org.stellar.anchor.auth.AuthHelper;
 import org.stellar.anchor.auth.JwtService;
 import org.stellar.anchor.platform.apiclient.CustodyApiClient;
 import org.stellar.anchor.platform.config.CustodyApiConfig;
+import org.stellar.anchor.platform.utils.HttpClientFactory;
 
 @Configuration
 @ConditionalOnExpression(value = "'${custody.type}' != 'none'")
@@ -18,12 +17,7 @@ public class CustodyApiBeans {
 
   @Bean(name = "custodyApiHttpClient")
   OkHttpClient custodyApiHttpClient(CustodyApiConfig custodyApiConfig) {
-    return new Builder()
-        .connectTimeout(custodyApiConfig.getHttpClient().getConnectTimeout(), TimeUnit.SECONDS)
-        .readTimeout(custodyApiConfig.getHttpClient().getReadTimeout(), TimeUnit.SECONDS)
-        .writeTimeout(custodyApiConfig.getHttpClient().getWriteTimeout(), TimeUnit.SECONDS)
-        .callTimeout(custodyApiConfig.getHttpClient().getCallTimeout(), TimeUnit.SECONDS)
-        .build();
+    return HttpClientFactory.build("custody_api", custodyApiConfig.getHttpClient());
   }
 
   @Bean
@@ -1,5 +1,6 @@
 package org.stellar.anchor.platform.component.share;
 
+import javax.persistence.EntityManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.stellar.anchor.platform.data.*;
@@ -20,8 +21,14 @@ public class DataBeans {
   }
 
   @Bean
-  JdbcSep31TransactionStore sep31TransactionStore(JdbcSep31TransactionRepo txnRepo) {
-    return new JdbcSep31TransactionStore(txnRepo);
+  JdbcSep31TransactionStore sep31TransactionStore(
+      JdbcSep31TransactionRepo txnRepo, TransactionProtocolResolver protocolResolver) {
+    return new JdbcSep31TransactionStore(txnRepo, protocolResolver);
+  }
+
+  @Bean
+  TransactionProtocolResolver transactionProtocolResolver(EntityManager entityManager) {
+    return new TransactionProtocolResolver(entityManager);
   }
 
   @Bean
@@ -1,11 +1,16 @@
 package org.stellar.anchor.platform.component.share;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.stellar.anchor.event.EventService;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.stellar.anchor.platform.config.PropertyEventConfig;
+import org.stellar.anchor.platform.data.JdbcEventOutboxRepo;
 import org.stellar.anchor.platform.event.DefaultEventService;
+import org.stellar.anchor.platform.event.EventOutboxRelay;
 
 @Configuration
 public class EventBeans {
@@ -19,7 +24,29 @@ public class EventBeans {
   }
 
   @Bean
-  public EventService eventService(PropertyEventConfig eventConfig) {
-    return new DefaultEventService(eventConfig);
+  public DefaultEventService eventService(
+      PropertyEventConfig eventConfig,
+      JdbcEventOutboxRepo eventOutboxRepo,
+      PlatformTransactionManager transactionManager) {
+    TransactionTemplate outboxTransactionTemplate = new TransactionTemplate(transactionManager);
+    outboxTransactionTemplate.setPropagationBehavior(
+        TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    return new DefaultEventService(eventConfig, eventOutboxRepo, outboxTransactionTemplate);
+  }
+
+  // When the outbox is disabled, the relay publishes the events that could not be published after
+  // their transaction committed.
+  @Bean
+  @ConditionalOnExpression("${events.enabled:false}")
+  EventOutboxRelay eventOutboxRelay(
+      PropertyEventConfig eventConfig,
+      DefaultEventService eventService,
+      JdbcEventOutboxRepo eventOutboxRepo,
+      PlatformTransactionManager transactionManager) {
+    return new EventOutboxRelay(
+        eventOutboxRepo,
+        new TransactionTemplate(transactionManager),
+        eventService,
+        eventConfig.getOutbox());
   }
 }
@@ -1,17 +1,52 @@
 package org.stellar.anchor.platform.component.share;
 
+import java.util.Optional;
+import okhttp3.OkHttpClient;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.stellar.anchor.apiclient.PlatformApiClient;
 import org.stellar.anchor.auth.AuthHelper;
 import org.stellar.anchor.auth.JwtService;
+import org.stellar.anchor.platform.apiclient.LocalRpcServiceRegistry;
+import org.stellar.anchor.platform.apiclient.LocalRpcTransport;
 import org.stellar.anchor.platform.config.PlatformApiConfig;
+import org.stellar.anchor.platform.config.PlatformApiConfig.RpcTransportType;
+import org.stellar.anchor.platform.config.RpcConfig;
+import org.stellar.anchor.platform.utils.HttpClientFactory;
 
 @Configuration
 public class PlatformApiClientBeans {
   @Bean
-  PlatformApiClient platformApiClient(PlatformApiConfig platformApiConfig, AuthHelper authHelper) {
-    return new PlatformApiClient(authHelper, platformApiConfig.getBaseUrl());
+  PlatformApiClient platformApiClient(
+      PlatformApiConfig platformApiConfig,
+      AuthHelper authHelper,
+      RpcConfig rpcConfig,
+      Optional<LocalRpcServiceRegistry> localRpcServiceRegistry) {
+    OkHttpClient httpClient =
+        HttpClientFactory.build("platform_api", platformApiConfig.getHttpClient());
+    // Without a registry, no platform server runs in this JVM and the requests are sent with HTTP.
+    if (platformApiConfig.getRpcTransport() == RpcTransportType.LOCAL
+        && localRpcServiceRegistry.isPresent()) {
+      PlatformApiClient httpApiClient =
+          new PlatformApiClient(
+              authHelper,
+              platformApiConfig.getBaseUrl(),
+              null,
+              rpcConfig.getBatchSizeLimit(),
+              httpClient);
+      return new PlatformApiClient(
+          authHelper,
+          platformApiConfig.getBaseUrl(),
+          new LocalRpcTransport(localRpcServiceRegistry.get(), httpApiClient.getHttpRpcTransport()),
+          rpcConfig.getBatchSizeLimit(),
+          httpClient);
+    }
+    return new PlatformApiClient(
+        authHelper,
+        platformApiConfig.getBaseUrl(),
+        null,
+        rpcConfig.getBatchSizeLimit(),
+        httpClient);
   }
 
   @Bean
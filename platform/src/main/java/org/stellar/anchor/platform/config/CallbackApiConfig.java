@@ -22,6 +22,8 @@ public class CallbackApiConfig implements Validator {
 
   Boolean checkCertificate;
 
+  HttpClientConfig httpClient = new HttpClientConfig(10, 30, 30, 60);
+
   AuthConfig auth;
   PropertySecretConfig secretConfig;
 
@@ -43,6 +45,9 @@ public class CallbackApiConfig implements Validator {
   public void validate(@NotNull Object target, @NotNull Errors errors) {
     validateBaseUrl(errors);
     validateAuth(errors);
+    if (httpClient != null) {
+      httpClient.validate("callback-api", errors);
+    }
   }
 
   void validateBaseUrl(Errors errors) {
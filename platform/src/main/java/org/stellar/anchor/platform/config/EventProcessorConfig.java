@@ -15,21 +15,139 @@ public class EventProcessorConfig implements Validator {
   ClientStatusCallbackConfig clientStatusCallback;
   CallbackApiRequestConfig callbackApiRequest;
 
+  /**
+   * The number of worker threads of each event processor. The events of the same transaction are
+   * handled by the same worker.
+   */
+  int workerThreads = 1;
+
+  /** The delayed retries of the failed deliveries. */
+  DeliveryRetryConfig deliveryRetry = new DeliveryRetryConfig();
+
   @Override
   public boolean supports(@NotNull Class<?> clazz) {
     return EventProcessorConfig.class.isAssignableFrom(clazz);
   }
 
   @Override
-  public void validate(@NotNull Object target, @NotNull Errors errors) {}
+  public void validate(@NotNull Object target, @NotNull Errors errors) {
+    EventProcessorConfig config = (EventProcessorConfig) target;
+    if (config.getWorkerThreads() <= 0) {
+      errors.rejectValue(
+          "workerThreads",
+          "invalid-worker-threads",
+          "event_processor.worker_threads must be greater than 0");
+    }
+    validateDeliveryRetry(config.getDeliveryRetry(), errors);
+    if (config.getCallbackApiRequest() != null) {
+      validateCallbackApiBatch(config.getCallbackApiRequest().getBatch(), errors);
+    }
+    if (config.getClientStatusCallback() != null) {
+      if (config.getClientStatusCallback().getHttpClient() != null) {
+        config.getClientStatusCallback().getHttpClient().validate("client-status-callback", errors);
+      }
+      if (config.getClientStatusCallback().getMaxPendingEvents() <= 0) {
+        errors.rejectValue(
+            "clientStatusCallback.maxPendingEvents",
+            "invalid-client-status-callback-max-pending-events",
+            "event_processor.client_status_callback.max_pending_events must be greater than 0");
+      }
+    }
+  }
+
+  void validateDeliveryRetry(DeliveryRetryConfig config, Errors errors) {
+    if (config == null || !config.isEnabled()) {
+      return;
+    }
+    if (config.getMaxAttempts() <= 0) {
+      errors.rejectValue(
+          "deliveryRetry.maxAttempts",
+          "invalid-delivery-retry-max-attempts",
+          "event_processor.delivery_retry.max_attempts must be greater than 0");
+    }
+    if (config.getInitialBackoffSeconds() <= 0
+        || config.getMaxBackoffSeconds() < config.getInitialBackoffSeconds()) {
+      errors.rejectValue(
+          "deliveryRetry.maxBackoffSeconds",
+          "invalid-delivery-retry-backoff",
+          "event_processor.delivery_retry.initial_backoff_seconds must be greater than 0 and"
+              + " not greater than max_backoff_seconds");
+    }
+    if (config.getBatchSize() <= 0) {
+      errors.rejectValue(
+          "deliveryRetry.batchSize",
+          "invalid-delivery-retry-batch-size",
+          "event_processor.delivery_retry.batch_size must be greater than 0");
+    }
+    if (config.getIntervalMillis() <= 0) {
+      errors.rejectValue(
+          "deliveryRetry.intervalMillis",
+          "invalid-delivery-retry-interval-millis",
+          "event_processor.delivery_retry.interval_millis must be greater than 0");
+    }
+  }
+
+  void validateCallbackApiBatch(CallbackApiBatchConfig config, Errors errors) {
+    if (config == null || !config.isEnabled()) {
+      return;
+    }
+    if (config.getMaxSize() <= 0) {
+      errors.rejectValue(
+          "callbackApiRequest.batch.maxSize",
+          "invalid-callback-api-batch-max-size",
+          "event_processor.callback_api_request.batch.max_size must be greater than 0");
+    }
+  }
 
   @Data
   public static class ClientStatusCallbackConfig {
     boolean enabled;
+
+    /** The HTTP client of the callbacks, shared by all the clients. */
+    HttpClientConfig httpClient = new HttpClientConfig(10, 30, 30, 60);
+
+    /** The maximum number of events read ahead of the slowest client. */
+    int maxPendingEvents = 1000;
   }
 
   @Data
   public static class CallbackApiRequestConfig {
     boolean enabled;
+
+    /** The batched delivery of the events to the business server. */
+    CallbackApiBatchConfig batch = new CallbackApiBatchConfig();
+  }
+
+  @Data
+  public static class CallbackApiBatchConfig {
+    /** If true, the events are sent to the /event endpoint as JSON arrays. */
+    boolean enabled;
+
+    /** The maximum number of events sent in a single request. */
+    int maxSize = 50;
+  }
+
+  @Data
+  public static class DeliveryRetryConfig {
+    /**
+     * If true, a failed delivery is stored in the database and retried later instead of blocking
+     * the worker with inline retries.
+     */
+    boolean enabled;
+
+    /** The number of attempts before the delivery is dead-lettered. */
+    int maxAttempts = 20;
+
+    /** The delay before the first retry. The delay doubles after each attempt. */
+    long initialBackoffSeconds = 10;
+
+    /** The maximum delay between two attempts. */
+    long maxBackoffSeconds = 3600;
+
+    /** The maximum number of deliveries retried at once. */
+    int batchSize = 100;
+
+    /** The delay between two runs of the retry relay. */
+    int intervalMillis = 1000;
   }
 }
@@ -15,6 +15,31 @@ public class HttpClientConfig {
   private int writeTimeout;
   private int callTimeout;
 
+  /** The maximum number of concurrent asynchronous requests of the client. */
+  private int maxRequests = 64;
+
+  /** The maximum number of concurrent asynchronous requests to each host. */
+  private int maxRequestsPerHost = 5;
+
+  /** The maximum number of idle connections kept in the connection pool. */
+  private int maxIdleConnections = 5;
+
+  /** The time in seconds an idle connection is kept in the connection pool. */
+  private int keepAliveDuration = 300;
+
+  /**
+   * If true, HTTP/2 is negotiated with the servers that support it, so that the requests to the
+   * same host are multiplexed over one connection.
+   */
+  private boolean http2 = true;
+
+  public HttpClientConfig(int connectTimeout, int readTimeout, int writeTimeout, int callTimeout) {
+    this.connectTimeout = connectTimeout;
+    this.readTimeout = readTimeout;
+    this.writeTimeout = writeTimeout;
+    this.callTimeout = callTimeout;
+  }
+
   public void validate(String configPrefix, Errors errors) {
     if (connectTimeout < 0) {
       errors.reject(
@@ -36,5 +61,25 @@ public class HttpClientConfig {
           configPrefix + "-http-client-call-timeout-invalid",
           configPrefix + "-http-client-call-timeout must be greater than or equal to 0");
     }
+    if (maxRequests <= 0) {
+      errors.reject(
+          configPrefix + "-http-client-max-requests-invalid",
+          configPrefix + "-http-client-max-requests must be greater than 0");
+    }
+    if (maxRequestsPerHost <= 0) {
+      errors.reject(
+          configPrefix + "-http-client-max-requests-per-host-invalid",
+          configPrefix + "-http-client-max-requests-per-host must be greater than 0");
+    }
+    if (maxIdleConnections < 0) {
+      errors.reject(
+          configPrefix + "-http-client-max-idle-connections-invalid",
+          configPrefix + "-http-client-max-idle-connections must be greater than or equal to 0");
+    }
+    if (keepAliveDuration <= 0) {
+      errors.reject(
+          configPrefix + "-http-client-keep-alive-duration-invalid",
+          configPrefix + "-http-client-keep-alive-duration must be greater than 0");
+    }
   }
 }
@@ -3,6 +3,7 @@ package org.stellar.anchor.platform.config;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.stellar.anchor.event.JsonEventCodec;
 
 @Data
 @AllArgsConstructor
@@ -46,4 +47,79 @@ public class KafkaConfig {
 
   /** The SASL mechanism used for authentication. */
   SaslMechanism saslMechanism;
+
+  /**
+   * If true, the events are published without waiting for the broker acknowledgement of each
+   * event, so that the producer can batch them.
+   */
+  boolean asyncPublish;
+
+  /** The maximum number of asynchronously published events waiting for the acknowledgement. */
+  int maxInFlightPublishes;
+
+  /**
+   * The codec of the published events, `json`, `json-gzip` or `avro`. The events read are decoded
+   * with the codec they were published with.
+   */
+  String eventCodec = JsonEventCodec.NAME;
+
+  /**
+   * The compression of the record batches of the producer, `none`, `gzip`, `snappy`, `lz4` or
+   * `zstd`. The consumers decompress the batches whatever the codec of the events.
+   */
+  String compressionType = "none";
+
+  /**
+   * The maximum number of events returned by a read. The events of a read must be processed before
+   * the consumer is considered failed and its partitions are assigned to another consumer.
+   */
+  int maxPollRecords = 500;
+
+  public KafkaConfig(
+      String bootstrapServer,
+      String clientId,
+      int retries,
+      int lingerMs,
+      int batchSize,
+      int pollTimeoutSeconds,
+      SecurityProtocol securityProtocol,
+      SaslMechanism saslMechanism) {
+    this(
+        bootstrapServer,
+        clientId,
+        retries,
+        lingerMs,
+        batchSize,
+        pollTimeoutSeconds,
+        securityProtocol,
+        saslMechanism,
+        false,
+        0);
+  }
+
+  public KafkaConfig(
+      String bootstrapServer,
+      String clientId,
+      int retries,
+      int lingerMs,
+      int batchSize,
+      int pollTimeoutSeconds,
+      SecurityProtocol securityProtocol,
+      SaslMechanism saslMechanism,
+      boolean asyncPublish,
+      int maxInFlightPublishes) {
+    this(
+        bootstrapServer,
+        clientId,
+        retries,
+        lingerMs,
+        batchSize,
+        pollTimeoutSeconds,
+        securityProtocol,
+        saslMechanism,
+        asyncPublish,
+        maxInFlightPublishes,
+        JsonEventCodec.NAME,
+        500);
+  }
 }
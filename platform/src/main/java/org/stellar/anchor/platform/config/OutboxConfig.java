@@ -0,0 +1,22 @@
+package org.stellar.anchor.platform.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxConfig {
+  /**
+   * If true, the events are written to the outbox table in the database transaction that changes
+   * the transaction, and are published to the event queue by the outbox relay.
+   */
+  boolean enabled;
+
+  /** The maximum number of events the relay publishes at once. */
+  int relayBatchSize;
+
+  /** The delay between two runs of the relay when the outbox is drained. */
+  int relayIntervalMillis;
+}
@@ -10,8 +10,12 @@ import org.springframework.validation.Validator;
 
 @Data
 public class PaymentObserverConfig implements Validator {
+  // The maximum number of pages of 200 payments fetched ahead by the catch-up
+  static final int MAX_CATCHUP_PREFETCH_PAGES = 100;
+
   PaymentObserverType type;
   StellarPaymentObserverConfig stellar;
+  HttpClientConfig httpClient = new HttpClientConfig(10, 30, 30, 60);
 
   public enum PaymentObserverType {
     STELLAR
@@ -28,6 +32,13 @@ public class PaymentObserverConfig implements Validator {
     int maxStreamBackoffTime;
     int initialEventBackoffTime;
     int maxEventBackoffTime;
+    int cursorFlushOperations;
+    int cursorFlushIntervalMilliseconds;
+    int dispatchWorkers;
+    int dispatchQueueSize;
+    int catchupPrefetchPages;
+    int accountStreamThreshold;
+    int dispatchBatchSize;
   }
 
   @Override
@@ -40,6 +51,9 @@ public class PaymentObserverConfig implements Validator {
     PaymentObserverConfig config = (PaymentObserverConfig) target;
     validateStellar(config, errors);
     validateConfig(config, errors);
+    if (config.httpClient != null) {
+      config.httpClient.validate("payment-observer", errors);
+    }
   }
 
   void validateConfig(PaymentObserverConfig config, Errors errors) {
@@ -92,6 +106,43 @@ public class PaymentObserverConfig implements Validator {
               "invalid-payment-observer-stellar-max-event-backoff-time",
               "The payment_observer.stellar.max_event_backoff_time must be equal or greater than 2");
         }
+        if (config.stellar.cursorFlushOperations < 1) {
+          errors.reject(
+              "invalid-payment-observer-stellar-cursor-flush-operations",
+              "The payment_observer.stellar.cursor_flush_operations must be equal or greater than 1");
+        }
+        if (config.stellar.cursorFlushIntervalMilliseconds < 1) {
+          errors.reject(
+              "invalid-payment-observer-stellar-cursor-flush-interval-milliseconds",
+              "The payment_observer.stellar.cursor_flush_interval_milliseconds must be equal or greater than 1");
+        }
+        if (config.stellar.dispatchWorkers < 0) {
+          errors.reject(
+              "invalid-payment-observer-stellar-dispatch-workers",
+              "The payment_observer.stellar.dispatch_workers must be equal or greater than 0");
+        }
+        if (config.stellar.dispatchWorkers > 0 && config.stellar.dispatchQueueSize < 1) {
+          errors.reject(
+              "invalid-payment-observer-stellar-dispatch-queue-size",
+              "The payment_observer.stellar.dispatch_queue_size must be equal or greater than 1");
+        }
+        if (config.stellar.dispatchWorkers > 0 && config.stellar.dispatchBatchSize < 1) {
+          errors.reject(
+              "invalid-payment-observer-stellar-dispatch-batch-size",
+              "The payment_observer.stellar.dispatch_batch_size must be equal or greater than 1");
+        }
+        if (config.stellar.catchupPrefetchPages < 0
+            || config.stellar.catchupPrefetchPages > MAX_CATCHUP_PREFETCH_PAGES) {
+          errors.reject(
+              "invalid-payment-observer-stellar-catchup-prefetch-pages",
+              "The payment_observer.stellar.catchup_prefetch_pages must be between 0 and "
+                  + MAX_CATCHUP_PREFETCH_PAGES);
+        }
+        if (config.stellar.accountStreamThreshold < 0) {
+          errors.reject(
+              "invalid-payment-observer-stellar-account-stream-threshold",
+              "The payment_observer.stellar.account_stream_threshold must be equal or greater than 0");
+        }
       }
     }
   }
@@ -17,6 +17,8 @@ import org.stellar.anchor.util.KeyUtil;
 public class PlatformApiConfig implements Validator {
   String baseUrl;
   AuthConfig auth;
+  RpcTransportType rpcTransport = RpcTransportType.HTTP;
+  HttpClientConfig httpClient = new HttpClientConfig(10, 30, 30, 60);
   PropertySecretConfig secretConfig;
 
   public PlatformApiConfig(PropertySecretConfig secretConfig) {
@@ -35,6 +37,9 @@ public class PlatformApiConfig implements Validator {
 
   @Override
   public void validate(@NotNull Object target, @NotNull Errors errors) {
+    if (httpClient != null) {
+      httpClient.validate("platform-api", errors);
+    }
     if (List.of(AuthType.API_KEY, AuthType.JWT).contains(auth.getType())) {
       if (isEmpty(secretConfig.getPlatformAuthSecret())) {
         errors.reject(
@@ -58,4 +63,9 @@ public class PlatformApiConfig implements Validator {
       }
     }
   }
+
+  public enum RpcTransportType {
+    HTTP,
+    LOCAL
+  }
 }
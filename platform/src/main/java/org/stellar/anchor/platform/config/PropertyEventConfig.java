@@ -2,17 +2,23 @@ package org.stellar.anchor.platform.config;
 
 import static org.stellar.anchor.util.StringHelper.isEmpty;
 
+import java.util.Set;
 import lombok.Data;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.validation.Errors;
 import org.springframework.validation.ValidationUtils;
 import org.springframework.validation.Validator;
 import org.stellar.anchor.config.event.EventConfig;
+import org.stellar.anchor.event.EventCodecs;
 
 @Data
 public class PropertyEventConfig implements EventConfig, Validator {
+  static final Set<String> KAFKA_COMPRESSION_TYPES =
+      Set.of("none", "gzip", "snappy", "lz4", "zstd");
+
   private boolean enabled = false;
   private PropertyQueueConfig queue;
+  private OutboxConfig outbox = new OutboxConfig();
 
   @Override
   public boolean supports(@NotNull Class<?> clazz) {
@@ -28,6 +34,8 @@ public class PropertyEventConfig implements EventConfig, Validator {
 
     validateConfig(config, errors);
 
+    validateOutbox(config, errors);
+
     switch (config.getQueue().getType()) {
       case MSK:
         validateMsk(config, errors);
@@ -54,12 +62,53 @@ public class PropertyEventConfig implements EventConfig, Validator {
           "events.publisher.type is not defined. Please specify the type: KAFKA, SQS, or MSK");
   }
 
+  void validateOutbox(PropertyEventConfig config, Errors errors) {
+    if (config.getOutbox() == null || !config.getOutbox().isEnabled()) {
+      return;
+    }
+
+    if (config.getOutbox().getRelayBatchSize() <= 0) {
+      errors.rejectValue(
+          "outbox.relayBatchSize",
+          "outbox-relay-batch-size-invalid",
+          "events.outbox.relay_batch_size must be greater than 0");
+    }
+
+    if (config.getOutbox().getRelayIntervalMillis() <= 0) {
+      errors.rejectValue(
+          "outbox.relayIntervalMillis",
+          "outbox-relay-interval-millis-invalid",
+          "events.outbox.relay_interval_millis must be greater than 0");
+    }
+  }
+
   void validateSqs(PropertyEventConfig config, Errors errors) {
     if (isEmpty(config.getQueue().getSqs().awsRegion)) {
       errors.rejectValue(
           "queue.sqs.awsRegion",
           "sqs-aws-region-empty",
           "events.publisher.sqs.aws_region must be defined");
+    } else if (!config.getQueue().getSqs().useIAM
+        && isEmpty(config.getQueue().getSqs().endpoint)) {
+      errors.rejectValue(
+          "queue.sqs.endpoint",
+          "sqs-endpoint-empty",
+          "events.queue.sqs.endpoint must be defined when events.queue.sqs.use_IAM is false");
+    }
+
+    if (config.getQueue().getSqs().waitTimeSeconds < 0
+        || config.getQueue().getSqs().waitTimeSeconds > 20) {
+      errors.rejectValue(
+          "queue.sqs.waitTimeSeconds",
+          "sqs-wait-time-seconds-invalid",
+          "events.queue.sqs.wait_time_seconds must be between 0 and 20");
+    }
+
+    if (!EventCodecs.isSupported(config.getQueue().getSqs().eventCodec)) {
+      errors.rejectValue(
+          "queue.sqs.eventCodec",
+          "sqs-event-codec-invalid",
+          "events.queue.sqs.event_codec must be json, json-gzip or avro");
     }
   }
 
@@ -87,6 +136,34 @@ public class PropertyEventConfig implements EventConfig, Validator {
           "events.queue.kafka.batch_size must be greater than 0");
     }
 
+    if (config.queue.kafka.asyncPublish && config.queue.kafka.maxInFlightPublishes <= 0) {
+      errors.rejectValue(
+          "queue.kafka.maxInFlightPublishes",
+          "kafka-max-in-flight-publishes-invalid",
+          "events.queue.kafka.max_in_flight_publishes must be greater than 0");
+    }
+
+    if (!EventCodecs.isSupported(config.queue.kafka.eventCodec)) {
+      errors.rejectValue(
+          "queue.kafka.eventCodec",
+          "kafka-event-codec-invalid",
+          "events.queue.kafka.event_codec must be json, json-gzip or avro");
+    }
+
+    if (!KAFKA_COMPRESSION_TYPES.contains(config.queue.kafka.compressionType)) {
+      errors.rejectValue(
+          "queue.kafka.compressionType",
+          "kafka-compression-type-invalid",
+          "events.queue.kafka.compression_type must be none, gzip, snappy, lz4 or zstd");
+    }
+
+    if (config.queue.kafka.maxPollRecords <= 0) {
+      errors.rejectValue(
+          "queue.kafka.maxPollRecords",
+          "kafka-max-poll-records-invalid",
+          "events.queue.kafka.max_poll_records must be greater than 0");
+    }
+
     if (config.queue.kafka.securityProtocol == null) {
       errors.rejectValue(
           "queue.kafka.securityProtocol",
@@ -128,5 +205,12 @@ public class PropertyEventConfig implements EventConfig, Validator {
           "msk-batch-size-invalid",
           "events.publisher.msk.batch_size must be greater than 0");
     }
+
+    if (config.queue.msk.maxPollRecords <= 0) {
+      errors.rejectValue(
+          "queue.msk.maxPollRecords",
+          "msk-max-poll-records-invalid",
+          "events.queue.msk.max_poll_records must be greater than 0");
+    }
   }
 }
@@ -3,11 +3,43 @@ package org.stellar.anchor.platform.config;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.stellar.anchor.event.JsonEventCodec;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class SqsConfig {
+  /**
+   * If true, the AWS credentials are looked up by the default provider chain of AWS. Otherwise, the
+   * requests are not signed, which is only accepted by the local SQS services of the `endpoint`.
+   */
   boolean useIAM;
+
   String awsRegion;
+
+  /**
+   * The endpoint of the SQS service, e.g. http://localhost:9324 for a local ElasticMQ. If left
+   * empty, the endpoint of the AWS region is used.
+   */
+  String endpoint;
+
+  /**
+   * If true, the events are published to the FIFO queues `TRANSACTION.fifo` and `CONTROL.fifo`,
+   * grouped by their transaction id. Otherwise, they are published to the standard queues
+   * `TRANSACTION` and `CONTROL`.
+   */
+  boolean fifo = true;
+
+  /** The maximum number of seconds a read waits for the events to arrive, up to 20. */
+  int waitTimeSeconds = 20;
+
+  /**
+   * The codec of the published events, `json`, `json-gzip` or `avro`. The events read are decoded
+   * with the codec they were published with.
+   */
+  String eventCodec = JsonEventCodec.NAME;
+
+  public SqsConfig(boolean useIAM, String awsRegion) {
+    this(useIAM, awsRegion, null, true, 20, JsonEventCodec.NAME);
+  }
 }
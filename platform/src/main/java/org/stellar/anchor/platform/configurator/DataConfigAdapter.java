@@ -54,6 +54,8 @@ import org.stellar.anchor.util.Log;
  * spring.jpa.mapping-resources:                       Mapping resources (equivalent to "mapping-file" entries in persistence.xml).
  * spring.jpa.open-in-view:                            Register OpenEntityManagerInViewInterceptor. Binds a JPA EntityManager to the thread for the entire processing of the request. : true
  * spring.jpa.show-sql:                                Show SQL : false
+ * spring.jpa.properties.hibernate.jdbc.batch_size:    Max number of statements sent in a JDBC batch. : 50
+ * spring.jpa.properties.hibernate.order_updates:      Whether to order the updates by entity and id so that they are batched. : true
  * </pre>
  */
 public class DataConfigAdapter extends SpringConfigAdapter {
@@ -83,6 +85,8 @@ public class DataConfigAdapter extends SpringConfigAdapter {
           "spring.jpa.hibernate.use-new-id-generator-mappings",
           "spring.jpa.open-in-view",
           "spring.jpa.show-sql",
+          "spring.jpa.properties.hibernate.jdbc.batch_size",
+          "spring.jpa.properties.hibernate.order_updates",
           "spring.flyway.enabled");
 
   @Override
@@ -276,6 +280,9 @@ public class DataConfigAdapter extends SpringConfigAdapter {
     set("spring.jpa.hibernate.use-new-id-generator-mappings", true);
     set("spring.jpa.open-in-view", true);
     set("spring.jpa.show-sql", false);
+    // Flush the updates of a bulk PATCH /transactions in JDBC batches
+    set("spring.jpa.properties.hibernate.jdbc.batch_size", 50);
+    set("spring.jpa.properties.hibernate.order_updates", true);
 
     set("spring.flyway.enabled", false);
   }
@@ -14,6 +14,8 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import org.stellar.anchor.api.custody.CreateTransactionPaymentResponse;
 import org.stellar.anchor.api.exception.AnchorException;
+import org.stellar.anchor.api.platform.DeadLetter;
+import org.stellar.anchor.api.platform.GetDeadLettersResponse;
 import org.stellar.anchor.api.platform.GetTransactionResponse;
 import org.stellar.anchor.api.platform.GetTransactionsResponse;
 import org.stellar.anchor.api.platform.PatchTransactionsRequest;
@@ -22,6 +24,7 @@ import org.stellar.anchor.api.platform.TransactionsOrderBy;
 import org.stellar.anchor.api.platform.TransactionsSeps;
 import org.stellar.anchor.api.sep.SepTransactionStatus;
 import org.stellar.anchor.custody.CustodyService;
+import org.stellar.anchor.platform.service.DeadLetterService;
 import org.stellar.anchor.platform.service.TransactionService;
 import org.stellar.anchor.util.TransactionsParams;
 
@@ -30,10 +33,15 @@ public class PlatformController {
 
   private final TransactionService transactionService;
   private final CustodyService custodyService;
+  private final DeadLetterService deadLetterService;
 
-  PlatformController(TransactionService transactionService, CustodyService custodyService) {
+  PlatformController(
+      TransactionService transactionService,
+      CustodyService custodyService,
+      DeadLetterService deadLetterService) {
     this.transactionService = transactionService;
     this.custodyService = custodyService;
+    this.deadLetterService = deadLetterService;
   }
 
   @CrossOrigin(origins = "*")
@@ -84,10 +92,35 @@ public class PlatformController {
       @RequestParam(required = false, value = "order", defaultValue = "asc") Sort.Direction order,
       @RequestParam(required = false, value = "statuses") List<SepTransactionStatus> statuses,
       @RequestParam(required = false, value = "page_number", defaultValue = "0") Integer pageNumber,
-      @RequestParam(required = false, value = "page_size", defaultValue = "20") Integer pageSize)
+      @RequestParam(required = false, value = "page_size", defaultValue = "20") Integer pageSize,
+      @RequestParam(required = false, value = "cursor") String cursor)
       throws AnchorException {
     TransactionsParams params =
-        new TransactionsParams(order_by, order, statuses, pageNumber, pageSize);
+        new TransactionsParams(order_by, order, statuses, pageNumber, pageSize, cursor);
     return transactionService.findTransactions(sep, params);
   }
+
+  @CrossOrigin(origins = "*")
+  @ResponseStatus(code = HttpStatus.OK)
+  @RequestMapping(
+      value = "/events/dead_letters",
+      produces = {MediaType.APPLICATION_JSON_VALUE},
+      method = {RequestMethod.GET})
+  public GetDeadLettersResponse getDeadLetters(
+      @RequestParam(required = false, value = "target") String target,
+      @RequestParam(required = false, value = "page_number", defaultValue = "0") Integer pageNumber,
+      @RequestParam(required = false, value = "page_size", defaultValue = "20") Integer pageSize)
+      throws AnchorException {
+    return deadLetterService.findDeadLetters(target, pageNumber, pageSize);
+  }
+
+  @CrossOrigin(origins = "*")
+  @ResponseStatus(code = HttpStatus.OK)
+  @RequestMapping(
+      value = "/events/dead_letters/{id}/replay",
+      produces = {MediaType.APPLICATION_JSON_VALUE},
+      method = {RequestMethod.POST})
+  public DeadLetter replayDeadLetter(@PathVariable(name = "id") String id) throws AnchorException {
+    return deadLetterService.replay(id);
+  }
 }
@@ -0,0 +1,34 @@
+package org.stellar.anchor.platform.data;
+
+import java.time.Instant;
+import lombok.Builder;
+import lombok.Data;
+
+/** The filters of the transactions of an account returned by the SEP GET /transactions. */
+@Data
+@Builder
+public class AccountTransactionsQuery {
+  /** The SEP-10 account of the transactions. */
+  String sep10Account;
+
+  /** The SEP-10 account memo of the transactions. If null, the memo is not filtered. */
+  String sep10AccountMemo;
+
+  /** The requested asset code of the transactions. */
+  String assetCode;
+
+  /** The kind of the transactions. If null, the kind is not filtered. */
+  String kind;
+
+  /** Only the transactions started after this instant are returned, if not null. */
+  Instant noOlderThan;
+
+  /**
+   * The transaction after which the page starts, if not null. The transactions are sorted by their
+   * start time and id, both descending.
+   */
+  JdbcSepTransaction pagingTransaction;
+
+  /** The maximum number of transactions returned. If null, all the transactions are returned. */
+  Integer limit;
+}
@@ -0,0 +1,7 @@
+package org.stellar.anchor.platform.data;
+
+import java.util.List;
+
+public interface AccountTransactionsRepository<T> {
+  List<T> findAccountTransactions(AccountTransactionsQuery query, Class<T> entityClass);
+}
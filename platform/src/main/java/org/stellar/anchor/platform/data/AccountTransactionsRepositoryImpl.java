@@ -0,0 +1,70 @@
+package org.stellar.anchor.platform.data;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+/**
+ * Finds a page of the transactions of an account. The filters, the keyset pagination on
+ * (started_at, id) and the limit are applied by the database, so that only the transactions of the
+ * page are loaded.
+ */
+public class AccountTransactionsRepositoryImpl<T> implements AccountTransactionsRepository<T> {
+  private final EntityManager em;
+
+  public AccountTransactionsRepositoryImpl(EntityManager em) {
+    this.em = em;
+  }
+
+  @Override
+  public List<T> findAccountTransactions(AccountTransactionsQuery query, Class<T> entityClass) {
+    CriteriaBuilder cb = em.getCriteriaBuilder();
+    CriteriaQuery<T> cq = cb.createQuery(entityClass);
+    Root<T> t = cq.from(entityClass);
+    Path<Instant> startedAt = t.get("startedAt");
+    Path<String> id = t.get("id");
+
+    List<Predicate> predicates = new ArrayList<>();
+    predicates.add(cb.equal(t.get("sep10Account"), query.getSep10Account()));
+    if (query.getSep10AccountMemo() != null) {
+      predicates.add(cb.equal(t.get("sep10AccountMemo"), query.getSep10AccountMemo()));
+    }
+    if (query.getAssetCode() == null) {
+      predicates.add(cb.isNull(t.get("requestAssetCode")));
+    } else {
+      predicates.add(cb.equal(t.get("requestAssetCode"), query.getAssetCode()));
+    }
+    if (query.getKind() != null) {
+      predicates.add(cb.equal(t.get("kind"), query.getKind()));
+    }
+    if (query.getNoOlderThan() != null) {
+      predicates.add(cb.greaterThan(startedAt, query.getNoOlderThan()));
+    }
+    JdbcSepTransaction paging = query.getPagingTransaction();
+    if (paging != null && paging.getStartedAt() != null) {
+      // The transactions after the paging transaction in (started_at DESC, id DESC) order.
+      predicates.add(
+          cb.or(
+              cb.lessThan(startedAt, paging.getStartedAt()),
+              cb.and(
+                  cb.equal(startedAt, paging.getStartedAt()), cb.lessThan(id, paging.getId()))));
+    }
+
+    cq.select(t)
+        .where(predicates.toArray(new Predicate[0]))
+        .orderBy(cb.desc(startedAt), cb.desc(id));
+
+    TypedQuery<T> typedQuery = em.createQuery(cq);
+    if (query.getLimit() != null) {
+      typedQuery.setMaxResults(query.getLimit());
+    }
+    return typedQuery.getResultList();
+  }
+}
@@ -2,17 +2,29 @@ package org.stellar.anchor.platform.data;
 
 import static org.stellar.anchor.api.sep.SepTransactionStatus.mergeStatusesList;
 
+import java.util.ArrayList;
 import java.util.List;
 import javax.persistence.EntityManager;
+import javax.persistence.Query;
 import javax.persistence.Table;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.support.JpaEntityInformation;
 import org.springframework.data.jpa.repository.support.JpaEntityInformationSupport;
 import org.stellar.anchor.api.sep.SepTransactionStatus;
+import org.stellar.anchor.util.TransactionsCursor;
 import org.stellar.anchor.util.TransactionsParams;
 
+/**
+ * Searches the transactions of the Platform GET /transactions.
+ *
+ * <p>The transactions are ordered by the order_by column, with the transactions without a value
+ * last, and by id. Without a cursor, the page is read with an offset. With a cursor, the page seeks
+ * past the last transaction of the previous page in the (order_by column, id) index, so the cost of
+ * a page does not depend on its depth. The keyset page reads the transactions with a value first,
+ * and fills the rest of the page from the ones without a value.
+ */
 public class AllTransactionsRepositoryImpl<T> implements AllTransactionsRepository<T> {
   private final EntityManager em;
-  private static final String NL = System.lineSeparator();
 
   public AllTransactionsRepositoryImpl(EntityManager em) {
     this.em = em;
@@ -29,23 +41,74 @@ public class AllTransactionsRepositoryImpl<T> implements AllTransactionsReposito
       throw new AssertionError("Class " + entityClass.getName() + " doesn't have table name");
     }
 
-    List<SepTransactionStatus> statuses = params.getStatuses();
+    if (params.getCursor() != null) {
+      return findAfterCursor(
+          table.name(), params, TransactionsCursor.decode(params.getCursor()), entityClass);
+    }
 
     // Create query
     String nativeQuery =
         String.format(
-            "SELECT * FROM %s t %s ORDER BY %s %s NULLS LAST, id ASC LIMIT %d OFFSET %d",
+            "SELECT * FROM %s t WHERE %s ORDER BY %s %s NULLS LAST, id %s LIMIT %d OFFSET %d",
             table.name(),
-            statuses == null ? "" : " WHERE t.status in (" + mergeStatusesList(statuses, "'") + ")",
+            statusFilter(params),
             params.getOrder_by().getTableName(),
             params.getOrder().name(),
+            params.getOrder().name(),
             params.getPageSize(),
             params.getPageNumber() * params.getPageSize());
 
-    javax.persistence.Query query = em.createNativeQuery(nativeQuery, entityClass);
+    Query query = em.createNativeQuery(nativeQuery, entityClass);
+
+    return query.getResultList();
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<T> findAfterCursor(
+      String table, TransactionsParams params, TransactionsCursor cursor, Class<T> entityClass) {
+    String column = params.getOrder_by().getTableName();
+    String direction = params.getOrder().name();
+    String after = params.getOrder() == Sort.Direction.ASC ? ">" : "<";
+    List<T> results = new ArrayList<>();
 
-    List<T> results = query.getResultList();
+    if (cursor.getValue() != null) {
+      Query query =
+          em.createNativeQuery(
+              String.format(
+                  "SELECT * FROM %s t WHERE %s AND %s IS NOT NULL AND (%s, id) %s (:value, :id) "
+                      + "ORDER BY %s %s, id %s",
+                  table, statusFilter(params), column, column, after, column, direction, direction),
+              entityClass);
+      query.setParameter("value", cursor.getValue());
+      query.setParameter("id", cursor.getId());
+      query.setMaxResults(params.getPageSize());
+      results.addAll(query.getResultList());
+      if (results.size() == params.getPageSize()) {
+        return results;
+      }
+    }
 
+    // The transactions without a value come after all the others, ordered by id
+    Query query =
+        em.createNativeQuery(
+            String.format(
+                "SELECT * FROM %s t WHERE %s AND %s IS NULL %s ORDER BY id %s",
+                table,
+                statusFilter(params),
+                column,
+                cursor.getValue() == null ? "AND id " + after + " :id" : "",
+                direction),
+            entityClass);
+    if (cursor.getValue() == null) {
+      query.setParameter("id", cursor.getId());
+    }
+    query.setMaxResults(params.getPageSize() - results.size());
+    results.addAll(query.getResultList());
     return results;
   }
+
+  private static String statusFilter(TransactionsParams params) {
+    List<SepTransactionStatus> statuses = params.getStatuses();
+    return statuses == null ? "TRUE" : "t.status in (" + mergeStatusesList(statuses, "'") + ")";
+  }
 }
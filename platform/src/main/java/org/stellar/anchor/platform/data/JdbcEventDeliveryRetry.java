@@ -0,0 +1,76 @@
+package org.stellar.anchor.platform.data;
+
+import java.time.Instant;
+import javax.persistence.Access;
+import javax.persistence.AccessType;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A failed delivery of an event to a callback endpoint, waiting to be retried or dead-lettered.
+ */
+@Getter
+@Setter
+@Builder
+@Entity
+@Access(AccessType.FIELD)
+@Table(name = "event_delivery_retry")
+@NoArgsConstructor
+@AllArgsConstructor
+public class JdbcEventDeliveryRetry {
+  @Column(name = "id", unique = true)
+  String id;
+
+  /** The name of the event processor that delivers the event. */
+  @Column(name = "processor")
+  String processor;
+
+  /** The name of the callback endpoint, for example the name of the client. */
+  @Column(name = "target")
+  String target;
+
+  /** The JSON of the AnchorEvent. */
+  @Column(name = "payload", columnDefinition = "TEXT")
+  String payload;
+
+  /** The number of delivery attempts. */
+  @Column(name = "attempts")
+  Integer attempts;
+
+  @Column(name = "next_attempt_at")
+  Instant nextAttemptAt;
+
+  @Column(name = "last_error", columnDefinition = "TEXT")
+  String lastError;
+
+  /** True when the delivery ran out of attempts. The event is only delivered again if replayed. */
+  @Column(name = "dead_lettered")
+  Boolean deadLettered;
+
+  @Column(name = "created_at")
+  Instant createdAt;
+
+  /** The position of the delivery in the queue. It is assigned from a database sequence. */
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "event_delivery_retry_sequence")
+  @SequenceGenerator(
+      name = "event_delivery_retry_sequence",
+      sequenceName = "event_delivery_retry_sequence_number_seq",
+      allocationSize = 1)
+  @Column(name = "sequence_number")
+  Long sequenceNumber;
+
+  /** The key of the events that must be delivered in order, for example the transaction id. */
+  @Column(name = "partition_key")
+  String partitionKey;
+}
@@ -0,0 +1,74 @@
+package org.stellar.anchor.platform.data;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
+
+public interface JdbcEventDeliveryRetryRepo
+    extends PagingAndSortingRepository<JdbcEventDeliveryRetry, Long> {
+  /**
+   * Finds the deliveries of the processors that are due for a retry and locks them until the end
+   * of the transaction. The deliveries locked by other transactions are skipped (SELECT ... FOR
+   * UPDATE SKIP LOCKED).
+   *
+   * @param processors the names of the processors.
+   * @param now the current time.
+   * @param pageable the number of deliveries to lock.
+   * @return the locked deliveries, ordered by the time of the next attempt and the sequence number.
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  // -2 is the Hibernate LockOptions.SKIP_LOCKED timeout.
+  @QueryHints({@QueryHint(name = "javax.persistence.lock.timeout", value = "-2")})
+  @Query(
+      "SELECT r FROM JdbcEventDeliveryRetry r WHERE r.processor IN :processors"
+          + " AND r.deadLettered = false AND r.nextAttemptAt <= :now"
+          + " ORDER BY r.nextAttemptAt, r.sequenceNumber")
+  List<JdbcEventDeliveryRetry> findDueForUpdateSkipLocked(
+      @Param("processors") Collection<String> processors,
+      @Param("now") Instant now,
+      Pageable pageable);
+
+  /**
+   * Finds the oldest pending delivery of each partition key and target, including the deliveries
+   * locked by other relays.
+   *
+   * @param partitionKeys the partition keys.
+   * @return the oldest pending delivery of each processor, target and partition key.
+   */
+  @Query(
+      "SELECT r.processor AS processor, r.target AS target, r.partitionKey AS partitionKey,"
+          + " MIN(r.sequenceNumber) AS sequenceNumber FROM JdbcEventDeliveryRetry r"
+          + " WHERE r.deadLettered = false AND r.partitionKey IN :partitionKeys"
+          + " GROUP BY r.processor, r.target, r.partitionKey")
+  List<PendingHead> findPendingHeads(@Param("partitionKeys") Collection<String> partitionKeys);
+
+  boolean existsByProcessorAndTargetAndPartitionKeyAndDeadLetteredFalse(
+      String processor, String target, String partitionKey);
+
+  Optional<JdbcEventDeliveryRetry> findByIdAndDeadLetteredTrue(String id);
+
+  Page<JdbcEventDeliveryRetry> findByDeadLetteredTrue(Pageable pageable);
+
+  Page<JdbcEventDeliveryRetry> findByDeadLetteredTrueAndTarget(String target, Pageable pageable);
+
+  /** The oldest pending delivery of a partition key to a target. */
+  interface PendingHead {
+    String getProcessor();
+
+    String getTarget();
+
+    String getPartitionKey();
+
+    Long getSequenceNumber();
+  }
+}
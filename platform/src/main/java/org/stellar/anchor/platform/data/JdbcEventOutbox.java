@@ -0,0 +1,60 @@
+package org.stellar.anchor.platform.data;
+
+import java.time.Instant;
+import javax.persistence.Access;
+import javax.persistence.AccessType;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/** An event waiting in the outbox to be published to the event queue. */
+@Getter
+@Setter
+@Builder
+@Entity
+@Access(AccessType.FIELD)
+@Table(name = "event_outbox")
+@NoArgsConstructor
+@AllArgsConstructor
+public class JdbcEventOutbox {
+  @Column(name = "id", unique = true)
+  String id;
+
+  /** The name of the event queue. */
+  @Column(name = "queue")
+  String queue;
+
+  /** The JSON of the AnchorEvent. */
+  @Column(name = "payload", columnDefinition = "TEXT")
+  String payload;
+
+  @Column(name = "created_at")
+  Instant createdAt;
+
+  /**
+   * The position of the event in the outbox. It is assigned from a database sequence when the
+   * event is written, so it increases monotonically across the server instances. The databases
+   * without sequences, e.g. SQLite, keep the sequence in a table.
+   */
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "event_outbox_sequence")
+  @SequenceGenerator(
+      name = "event_outbox_sequence",
+      sequenceName = "event_outbox_sequence_number_seq",
+      allocationSize = 1)
+  @Column(name = "sequence_number")
+  Long sequenceNumber;
+
+  /** The key of the events that must be relayed in order, for example the transaction id. */
+  @Column(name = "partition_key")
+  String partitionKey;
+}
@@ -0,0 +1,50 @@
+package org.stellar.anchor.platform.data;
+
+import java.util.Collection;
+import java.util.List;
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.repository.CrudRepository;
+
+public interface JdbcEventOutboxRepo extends CrudRepository<JdbcEventOutbox, Long> {
+  /**
+   * Finds the oldest events of the outbox and locks them until the end of the transaction. The
+   * events locked by other transactions are skipped (SELECT ... FOR UPDATE SKIP LOCKED), so that
+   * several relays can drain the outbox in parallel. The databases that do not support SKIP LOCKED
+   * wait for the lock instead.
+   *
+   * @param pageable the number of events to lock.
+   * @return the locked events, ordered by sequence number.
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  // -2 is the Hibernate LockOptions.SKIP_LOCKED timeout.
+  @QueryHints({@QueryHint(name = "javax.persistence.lock.timeout", value = "-2")})
+  @Query("SELECT e FROM JdbcEventOutbox e ORDER BY e.sequenceNumber, e.createdAt")
+  List<JdbcEventOutbox> findOldestForUpdateSkipLocked(Pageable pageable);
+
+  /**
+   * Finds the sequence number of the oldest event of each partition key, including the events
+   * locked by other relays.
+   *
+   * @param partitionKeys the partition keys.
+   * @return the oldest event of each partition key that has events in the outbox.
+   */
+  @Query(
+      "SELECT e.partitionKey AS partitionKey, MIN(e.sequenceNumber) AS sequenceNumber"
+          + " FROM JdbcEventOutbox e WHERE e.partitionKey IN :partitionKeys"
+          + " GROUP BY e.partitionKey")
+  List<PartitionHead> findPartitionHeads(
+      @Param("partitionKeys") Collection<String> partitionKeys);
+
+  /** The oldest event of a partition key. */
+  interface PartitionHead {
+    String getPartitionKey();
+
+    Long getSequenceNumber();
+  }
+}
@@ -1,20 +1,23 @@
 package org.stellar.anchor.platform.data;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.lang.NonNull;
-import org.stellar.anchor.sep24.Sep24Transaction;
 
 public interface JdbcSep24TransactionRepo
     extends PagingAndSortingRepository<JdbcSep24Transaction, String>,
-        AllTransactionsRepository<JdbcSep24Transaction> {
+        AllTransactionsRepository<JdbcSep24Transaction>,
+        AccountTransactionsRepository<JdbcSep24Transaction> {
   Optional<JdbcSep24Transaction> findById(@NonNull String id);
 
   JdbcSep24Transaction findOneByTransactionId(String transactionId);
 
+  List<JdbcSep24Transaction> findByTransactionIdIn(Collection<String> transactionIds);
+
   JdbcSep24Transaction findOneByExternalTransactionId(String externalTransactionId);
 
   JdbcSep24Transaction findOneByStellarTransactionId(String stellarTransactionId);
@@ -22,8 +25,8 @@ public interface JdbcSep24TransactionRepo
   JdbcSep24Transaction findOneByToAccountAndMemoAndStatus(
       String toAccount, String memo, String status);
 
-  List<Sep24Transaction> findBySep10AccountAndRequestAssetCodeOrderByStartedAtDesc(
-      String stellarAccount, String assetCode);
+  List<JdbcSep24Transaction> findByToAccountInAndMemoInAndStatus(
+      Collection<String> toAccounts, Collection<String> memos, String status);
 
   Page<JdbcSep24Transaction> findByStatusIn(List<String> allowedStatuses, Pageable pageable);
 }
@@ -2,9 +2,10 @@ package org.stellar.anchor.platform.data;
 
 import java.time.Instant;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 import org.stellar.anchor.api.exception.SepException;
 import org.stellar.anchor.api.exception.SepValidationException;
 import org.stellar.anchor.api.sep.sep24.GetTransactionsRequest;
@@ -43,6 +44,11 @@ public class JdbcSep24TransactionStore implements Sep24TransactionStore {
     return txnRepo.findOneByTransactionId(transactionId);
   }
 
+  @Override
+  public List<? extends Sep24Transaction> findByTransactionIds(Collection<String> transactionIds) {
+    return txnRepo.findByTransactionIdIn(transactionIds);
+  }
+
   @Override
   public Sep24Transaction findByStellarTransactionId(String stellarTransactionId) {
     return txnRepo.findOneByStellarTransactionId(stellarTransactionId);
@@ -60,6 +66,11 @@ public class JdbcSep24TransactionStore implements Sep24TransactionStore {
     return optTxn.orElse(null);
   }
 
+  public List<JdbcSep24Transaction> findByToAccountsAndMemosAndStatus(
+      Collection<String> toAccounts, Collection<String> memos, String status) {
+    return txnRepo.findByToAccountInAndMemoInAndStatus(toAccounts, memos, status);
+  }
+
   @Override
   public List<Sep24Transaction> findTransactions(
       String accountId, String accountMemo, GetTransactionsRequest tr)
@@ -67,26 +78,7 @@ public class JdbcSep24TransactionStore implements Sep24TransactionStore {
 
     if (accountMemo != null) accountId = accountId + ":" + accountMemo;
 
-    List<Sep24Transaction> txns =
-        txnRepo.findBySep10AccountAndRequestAssetCodeOrderByStartedAtDesc(
-            accountId, tr.getAssetCode());
-
-    // TODO: This should be replaced by Couchbase query
-    int limit = Integer.MAX_VALUE;
-    if (tr.getLimit() != null && tr.getLimit() > 0) {
-      limit = tr.getLimit();
-    }
-
-    Instant noOlderThan = Instant.EPOCH;
-    Instant olderThan = Instant.now();
-
-    if (tr.getPagingId() != null) {
-      Sep24Transaction txn = txnRepo.findOneByTransactionId(tr.getPagingId());
-      if (txn != null) {
-        olderThan = txn.getStartedAt();
-      }
-    }
-
+    Instant noOlderThan = null;
     if (tr.getNoOlderThan() != null) {
       try {
         noOlderThan = DateUtil.fromISO8601UTC(tr.getNoOlderThan());
@@ -96,18 +88,18 @@ public class JdbcSep24TransactionStore implements Sep24TransactionStore {
       }
     }
 
-    final Instant finalNoOlderThan = noOlderThan;
-    final Instant finalOlderThan = olderThan;
-
-    txns =
-        txns.stream()
-            .filter(txn -> (tr.getKind() == null || tr.getKind().equals(txn.getKind())))
-            .filter(txn -> (txn.getStartedAt().isAfter(finalNoOlderThan)))
-            .filter(txn -> (txn.getStartedAt().isBefore(finalOlderThan)))
-            .limit(limit)
-            .collect(Collectors.toList());
-
-    return txns;
+    AccountTransactionsQuery query =
+        AccountTransactionsQuery.builder()
+            .sep10Account(accountId)
+            .assetCode(tr.getAssetCode())
+            .kind(tr.getKind())
+            .noOlderThan(noOlderThan)
+            // The unknown paging_id is ignored.
+            .pagingTransaction(
+                tr.getPagingId() == null ? null : txnRepo.findOneByTransactionId(tr.getPagingId()))
+            .limit(tr.getLimit() != null && tr.getLimit() > 0 ? tr.getLimit() : null)
+            .build();
+    return new ArrayList<>(txnRepo.findAccountTransactions(query, JdbcSep24Transaction.class));
   }
 
   @Override
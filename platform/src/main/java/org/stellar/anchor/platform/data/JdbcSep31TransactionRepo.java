@@ -30,4 +30,7 @@ public interface JdbcSep31TransactionRepo
       @Param("stellar_account_id") String accountId,
       @Param("stellar_memo") String memo,
       @Param("status") String status);
+
+  List<JdbcSep31Transaction> findByStellarAccountIdInAndStellarMemoInAndStatus(
+      Collection<String> accountIds, Collection<String> memos, String status);
 }
@@ -4,6 +4,7 @@ import java.time.Instant;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import javax.annotation.Nullable;
 import lombok.NonNull;
 import org.stellar.anchor.api.exception.SepException;
 import org.stellar.anchor.sep31.RefundPayment;
@@ -14,9 +15,28 @@ import org.stellar.anchor.util.TransactionsParams;
 
 public class JdbcSep31TransactionStore implements Sep31TransactionStore {
   private final JdbcSep31TransactionRepo transactionRepo;
+  @Nullable private final TransactionProtocolResolver protocolResolver;
 
   public JdbcSep31TransactionStore(JdbcSep31TransactionRepo transactionRepo) {
+    this(transactionRepo, null);
+  }
+
+  public JdbcSep31TransactionStore(
+      JdbcSep31TransactionRepo transactionRepo,
+      @Nullable TransactionProtocolResolver protocolResolver) {
     this.transactionRepo = transactionRepo;
+    this.protocolResolver = protocolResolver;
+  }
+
+  /**
+   * Gets the resolver of the protocols of the SEP-6, SEP-24 and SEP-31 transactions. It is used to
+   * find a transaction of any protocol from the store that is probed first.
+   *
+   * @return the resolver, or null if the protocols are not resolved.
+   */
+  @Nullable
+  public TransactionProtocolResolver getProtocolResolver() {
+    return protocolResolver;
   }
 
   @Override
@@ -78,6 +98,12 @@ public class JdbcSep31TransactionStore implements Sep31TransactionStore {
     return optTxn.orElse(null);
   }
 
+  public List<JdbcSep31Transaction> findByStellarAccountIdsAndMemosAndStatus(
+      Collection<String> accountIds, Collection<String> memos, String status) {
+    return transactionRepo.findByStellarAccountIdInAndStellarMemoInAndStatus(
+        accountIds, memos, status);
+  }
+
   public Integer findByStatusCount(String status) {
     return transactionRepo.findByStatusCount(status);
   }
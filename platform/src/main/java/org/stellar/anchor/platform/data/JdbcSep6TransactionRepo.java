@@ -1,19 +1,25 @@
 package org.stellar.anchor.platform.data;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import lombok.NonNull;
 import org.jetbrains.annotations.NotNull;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
-import org.stellar.anchor.sep6.Sep6Transaction;
+import org.springframework.data.repository.query.Param;
 
 public interface JdbcSep6TransactionRepo
     extends PagingAndSortingRepository<JdbcSep6Transaction, String>,
-        AllTransactionsRepository<JdbcSep6Transaction> {
+        AllTransactionsRepository<JdbcSep6Transaction>,
+        AccountTransactionsRepository<JdbcSep6Transaction> {
 
   @NotNull
   Optional<JdbcSep6Transaction> findById(@NonNull String id);
 
+  @Query(value = "SELECT t FROM JdbcSep6Transaction t WHERE t.id IN :ids")
+  List<JdbcSep6Transaction> findByIds(@Param("ids") Collection<String> ids);
+
   JdbcSep6Transaction findOneByTransactionId(String transactionId);
 
   JdbcSep6Transaction findOneByStellarTransactionId(String stellarTransactionId);
@@ -23,10 +29,6 @@ public interface JdbcSep6TransactionRepo
   JdbcSep6Transaction findOneByWithdrawAnchorAccountAndMemoAndStatus(
       String withdrawAnchorAccount, String memo, String status);
 
-  List<Sep6Transaction> findBySep10AccountAndRequestAssetCodeOrderByStartedAtDesc(
-      String sep10Account, String requestAssetCode);
-
-  List<Sep6Transaction>
-      findBySep10AccountAndSep10AccountMemoAndRequestAssetCodeOrderByStartedAtDesc(
-          String sep10Account, String sep10AccountMemo, String requestAssetCode);
+  List<JdbcSep6Transaction> findByWithdrawAnchorAccountInAndMemoInAndStatus(
+      Collection<String> withdrawAnchorAccounts, Collection<String> memos, String status);
 }
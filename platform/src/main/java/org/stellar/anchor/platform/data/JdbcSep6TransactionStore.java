@@ -2,8 +2,9 @@ package org.stellar.anchor.platform.data;
 
 import java.time.Instant;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.stream.Collectors;
 import org.stellar.anchor.api.exception.SepException;
 import org.stellar.anchor.api.exception.SepValidationException;
 import org.stellar.anchor.api.sep.sep6.GetTransactionsRequest;
@@ -40,6 +41,11 @@ public class JdbcSep6TransactionStore implements Sep6TransactionStore {
     return transactionRepo.findById(transactionId).orElse(null);
   }
 
+  @Override
+  public List<? extends Sep6Transaction> findByTransactionIds(Collection<String> transactionIds) {
+    return transactionRepo.findByIds(transactionIds);
+  }
+
   @Override
   public Sep6Transaction findByStellarTransactionId(String stellarTransactionId) {
     return transactionRepo.findOneByStellarTransactionId(stellarTransactionId);
@@ -54,38 +60,16 @@ public class JdbcSep6TransactionStore implements Sep6TransactionStore {
   public List<Sep6Transaction> findTransactions(
       String accountId, String accountMemo, GetTransactionsRequest request)
       throws SepValidationException {
-    List<Sep6Transaction> txns;
-    if (accountMemo == null) {
-      txns =
-          transactionRepo.findBySep10AccountAndRequestAssetCodeOrderByStartedAtDesc(
-              accountId, request.getAssetCode());
-    } else {
-      txns =
-          transactionRepo
-              .findBySep10AccountAndSep10AccountMemoAndRequestAssetCodeOrderByStartedAtDesc(
-                  accountId, accountMemo, request.getAssetCode());
-    }
-
-    int limit = Integer.MAX_VALUE;
-    if (request.getLimit() != null && request.getLimit() > 0) {
-      limit = request.getLimit();
-    }
-
-    final Instant noOlderThan;
-    final Instant olderThan;
-
+    JdbcSep6Transaction pagingTxn = null;
     if (request.getPagingId() != null) {
-      Sep6Transaction txn = transactionRepo.findOneByTransactionId(request.getPagingId());
-      if (txn != null) {
-        olderThan = txn.getStartedAt();
-      } else {
+      pagingTxn = transactionRepo.findOneByTransactionId(request.getPagingId());
+      if (pagingTxn == null) {
         throw new SepValidationException(
             String.format("invalid paging_id field: %s", request.getPagingId()));
       }
-    } else {
-      olderThan = Instant.now();
     }
 
+    Instant noOlderThan = null;
     if (request.getNoOlderThan() != null) {
       try {
         noOlderThan = DateUtil.fromISO8601UTC(request.getNoOlderThan());
@@ -93,16 +77,20 @@ public class JdbcSep6TransactionStore implements Sep6TransactionStore {
         throw new SepValidationException(
             String.format("invalid no_older_than field: %s", request.getNoOlderThan()));
       }
-    } else {
-      noOlderThan = Instant.EPOCH;
     }
 
-    return txns.stream()
-        .filter(txn -> request.getKind() == null || request.getKind().equals(txn.getKind()))
-        .filter(txn -> txn.getStartedAt().isAfter(noOlderThan))
-        .filter(txn -> txn.getStartedAt().isBefore(olderThan))
-        .limit(limit)
-        .collect(Collectors.toList());
+    AccountTransactionsQuery query =
+        AccountTransactionsQuery.builder()
+            .sep10Account(accountId)
+            .sep10AccountMemo(accountMemo)
+            .assetCode(request.getAssetCode())
+            .kind(request.getKind())
+            .noOlderThan(noOlderThan)
+            .pagingTransaction(pagingTxn)
+            .limit(request.getLimit() != null && request.getLimit() > 0 ? request.getLimit() : null)
+            .build();
+    return new ArrayList<>(
+        transactionRepo.findAccountTransactions(query, JdbcSep6Transaction.class));
   }
 
   @Override
@@ -128,4 +116,10 @@ public class JdbcSep6TransactionStore implements Sep6TransactionStore {
     return transactionRepo.findOneByWithdrawAnchorAccountAndMemoAndStatus(
         withdrawAnchorAccount, memo, status);
   }
+
+  public List<JdbcSep6Transaction> findByWithdrawAnchorAccountsAndMemosAndStatus(
+      Collection<String> withdrawAnchorAccounts, Collection<String> memos, String status) {
+    return transactionRepo.findByWithdrawAnchorAccountInAndMemoInAndStatus(
+        withdrawAnchorAccounts, memos, status);
+  }
 }
@@ -0,0 +1,70 @@
+package org.stellar.anchor.platform.data;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import javax.persistence.EntityManager;
+
+/**
+ * Resolves the protocol (6, 24 or 31) of a transaction from its id, so that a transaction can be
+ * read from the right store with a single query.
+ *
+ * <p>The ids of the SEP-6, SEP-24 and SEP-31 transactions are looked up in one query, with the same
+ * column as their stores: the primary key of the SEP-6 and SEP-31 tables, and the indexed {@code
+ * transaction_id} of the SEP-24 table, whose primary key is a separate database id. The protocol of
+ * a transaction never changes, so the resolved protocols are kept in a LRU cache and the hot
+ * transactions are resolved without a query.
+ */
+public class TransactionProtocolResolver {
+  static final int MAX_CACHED_IDS = 10000;
+  static final String FIND_PROTOCOL_QUERY =
+      "SELECT '31' FROM sep31_transaction WHERE id = :id"
+          + " UNION ALL SELECT '24' FROM sep24_transaction WHERE transaction_id = :id"
+          + " UNION ALL SELECT '6' FROM sep6_transaction WHERE id = :id";
+
+  private final EntityManager em;
+  final Map<String, String> protocols =
+      Collections.synchronizedMap(
+          new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+              return size() > MAX_CACHED_IDS;
+            }
+          });
+
+  public TransactionProtocolResolver(EntityManager em) {
+    this.em = em;
+  }
+
+  /**
+   * Resolves the protocol of a transaction.
+   *
+   * @param transactionId the id of the transaction.
+   * @return the protocol of the transaction, or null if there is no transaction with the id.
+   */
+  @Nullable
+  public String resolve(String transactionId) {
+    if (transactionId == null) {
+      return null;
+    }
+    String protocol = protocols.get(transactionId);
+    if (protocol != null) {
+      return protocol;
+    }
+
+    List<?> results =
+        em.createNativeQuery(FIND_PROTOCOL_QUERY)
+            .setParameter("id", transactionId)
+            .setMaxResults(1)
+            .getResultList();
+    if (results.isEmpty()) {
+      // The transaction may be created later, so the ids that are not found are not cached.
+      return null;
+    }
+    protocol = String.valueOf(results.get(0)).trim();
+    protocols.put(transactionId, protocol);
+    return protocol;
+  }
+}
@@ -0,0 +1,207 @@
+package org.stellar.anchor.platform.event;
+
+import static org.stellar.anchor.util.Log.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import javax.annotation.Nullable;
+import lombok.AllArgsConstructor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.stellar.anchor.api.event.AnchorEvent;
+import org.stellar.anchor.api.exception.AnchorException;
+import org.stellar.anchor.event.EventService;
+
+/**
+ * The session that publishes the events to the queue after the database transaction of the caller
+ * commits. This is used when the outbox is disabled, so that the consumers never receive an event
+ * before its transaction change is visible in the database, and no event is sent for a change that
+ * is rolled back.
+ *
+ * <p>The events published in a transaction are sent together when the transaction commits. The
+ * transaction change is already committed at that point, so the events that cannot be sent are
+ * written to the outbox in a new transaction, and the outbox relay publishes them later. The
+ * events published outside a transaction are sent right away.
+ *
+ * <p>Reading and acknowledging events are delegated to the queue session.
+ */
+public class AfterCommitSession implements EventService.Session {
+  final EventService.Session queueSession;
+  final OutboxSession outboxSession;
+  final TransactionTemplate outboxTransactionTemplate;
+
+  AfterCommitSession(EventService.Session queueSession) {
+    this(queueSession, null, null);
+  }
+
+  /**
+   * @param queueSession the session of the queue.
+   * @param outboxSession the session writing the events that cannot be sent to the outbox.
+   * @param outboxTransactionTemplate the template of the new transaction writing to the outbox.
+   */
+  AfterCommitSession(
+      EventService.Session queueSession,
+      @Nullable OutboxSession outboxSession,
+      @Nullable TransactionTemplate outboxTransactionTemplate) {
+    this.queueSession = queueSession;
+    this.outboxSession = outboxSession;
+    this.outboxTransactionTemplate = outboxTransactionTemplate;
+  }
+
+  @Override
+  public void publish(AnchorEvent event) throws AnchorException {
+    if (isInTransaction()) {
+      getPendingEvents().add(new PendingEvent(event, new CompletableFuture<>()));
+      debugF("Event ID={} is published when the transaction commits.", event.getId());
+    } else {
+      queueSession.publish(event);
+    }
+  }
+
+  @Override
+  public CompletableFuture<Void> publishAsync(AnchorEvent event) {
+    if (isInTransaction()) {
+      PendingEvent pendingEvent = new PendingEvent(event, new CompletableFuture<>());
+      getPendingEvents().add(pendingEvent);
+      return pendingEvent.future;
+    }
+    return queueSession.publishAsync(event);
+  }
+
+  @Override
+  public void flush() throws AnchorException {
+    queueSession.flush();
+  }
+
+  boolean isInTransaction() {
+    return TransactionSynchronizationManager.isSynchronizationActive()
+        && TransactionSynchronizationManager.isActualTransactionActive();
+  }
+
+  /**
+   * Gets the events waiting for the transaction of the current thread to commit. The
+   * synchronization that publishes them is registered with the first event of the transaction.
+   */
+  @SuppressWarnings("unchecked")
+  List<PendingEvent> getPendingEvents() {
+    List<PendingEvent> pendingEvents =
+        (List<PendingEvent>) TransactionSynchronizationManager.getResource(this);
+    if (pendingEvents != null) {
+      return pendingEvents;
+    }
+
+    List<PendingEvent> newPendingEvents = new ArrayList<>();
+    TransactionSynchronizationManager.bindResource(this, newPendingEvents);
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            List<AnchorEvent> failedEvents = publishPendingEvents(newPendingEvents);
+            if (!failedEvents.isEmpty()) {
+              writeToOutbox(failedEvents);
+            }
+          }
+
+          @Override
+          public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(AfterCommitSession.this);
+            if (status != STATUS_COMMITTED) {
+              for (PendingEvent pendingEvent : newPendingEvents) {
+                pendingEvent.future.cancel(false);
+              }
+            }
+          }
+        });
+    return newPendingEvents;
+  }
+
+  /**
+   * Publishes the events of a committed transaction.
+   *
+   * @param pendingEvents the events of the transaction.
+   * @return the events that are not published.
+   */
+  List<AnchorEvent> publishPendingEvents(List<PendingEvent> pendingEvents) {
+    List<CompletableFuture<Void>> futures = new ArrayList<>(pendingEvents.size());
+    for (PendingEvent pendingEvent : pendingEvents) {
+      futures.add(queueSession.publishAsync(pendingEvent.event));
+    }
+    try {
+      queueSession.flush();
+    } catch (AnchorException ex) {
+      errorEx("Failed to flush the transaction events.", ex);
+    }
+
+    List<AnchorEvent> failedEvents = new ArrayList<>();
+    for (int i = 0; i < pendingEvents.size(); i++) {
+      PendingEvent pendingEvent = pendingEvents.get(i);
+      try {
+        futures.get(i).join();
+        pendingEvent.future.complete(null);
+      } catch (CompletionException ex) {
+        pendingEvent.future.completeExceptionally(ex.getCause());
+        failedEvents.add(pendingEvent.event);
+      }
+    }
+    return failedEvents;
+  }
+
+  /**
+   * Writes the events that cannot be sent after their transaction committed to the outbox. The
+   * events are written in a new transaction, because the transaction of the events is already
+   * committed.
+   *
+   * @param events the events.
+   */
+  void writeToOutbox(List<AnchorEvent> events) {
+    if (outboxSession == null || outboxTransactionTemplate == null) {
+      errorF("The transaction is committed but {} of its events are not published.", events.size());
+      return;
+    }
+    try {
+      outboxTransactionTemplate.executeWithoutResult(
+          status -> {
+            for (AnchorEvent event : events) {
+              outboxSession.write(event);
+            }
+          });
+      warnF("{} events that could not be published are written to the outbox.", events.size());
+    } catch (RuntimeException ex) {
+      errorEx("The transaction is committed but its events are not published.", ex);
+    }
+  }
+
+  @Override
+  public EventService.ReadResponse read() throws AnchorException {
+    return queueSession.read();
+  }
+
+  @Override
+  public void ack(EventService.ReadResponse readResponse) throws AnchorException {
+    queueSession.ack(readResponse);
+  }
+
+  @Override
+  public void ack(EventService.ReadResponse readResponse, int processed) throws AnchorException {
+    queueSession.ack(readResponse, processed);
+  }
+
+  @Override
+  public void close() throws AnchorException {
+    queueSession.close();
+  }
+
+  @Override
+  public String getSessionName() {
+    return queueSession.getSessionName();
+  }
+
+  @AllArgsConstructor
+  static class PendingEvent {
+    AnchorEvent event;
+    CompletableFuture<Void> future;
+  }
+}
@@ -3,19 +3,28 @@ package org.stellar.anchor.platform.event;
 import static org.stellar.anchor.util.Log.*;
 
 import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 import org.stellar.anchor.api.callback.SendEventRequest;
+import org.stellar.anchor.api.callback.SendEventsResponse;
 import org.stellar.anchor.api.event.AnchorEvent;
 import org.stellar.anchor.api.exception.AnchorException;
 import org.stellar.anchor.api.exception.InvalidConfigException;
 import org.stellar.anchor.apiclient.CallbackApiClient;
 import org.stellar.anchor.platform.config.CallbackApiConfig;
+import org.stellar.anchor.platform.utils.HttpClientFactory;
 
 public class CallbackApiEventHandler extends EventHandler {
   final CallbackApiClient callbackApiClient;
 
   CallbackApiEventHandler(CallbackApiConfig callbackApiConfig) throws InvalidConfigException {
     callbackApiClient =
-        new CallbackApiClient(callbackApiConfig.buildAuthHelper(), callbackApiConfig.getBaseUrl());
+        new CallbackApiClient(
+            callbackApiConfig.buildAuthHelper(),
+            callbackApiConfig.getBaseUrl(),
+            HttpClientFactory.build("callback_api", callbackApiConfig.getHttpClient()));
   }
 
   @Override
@@ -31,4 +40,41 @@ public class CallbackApiEventHandler extends EventHandler {
       return false;
     }
   }
+
+  /**
+   * Sends a batch of events to the callback API in a single request.
+   *
+   * @param events the events to send, in order.
+   * @return the ids of the events processed by the callback API. The events without a successful
+   *     result are not processed.
+   * @throws IOException if there was a network error sending the events.
+   */
+  Set<String> handleEvents(List<AnchorEvent> events) throws IOException {
+    debugF("Sending a batch of {} events to callback API.", events.size());
+    traceF("Sending events to callback API: {}", events);
+
+    try {
+      SendEventsResponse response =
+          callbackApiClient.sendEvents(
+              events.stream().map(SendEventRequest::from).collect(Collectors.toList()));
+      Set<String> processed = new HashSet<>();
+      if (response.getResults() != null) {
+        for (SendEventsResponse.Result result : response.getResults()) {
+          if (result.getCode() >= 200 && result.getCode() < 300) {
+            processed.add(result.getId());
+          } else {
+            errorF(
+                "The callback API failed to process the event {}. Error code: {}. {}",
+                result.getId(),
+                result.getCode(),
+                result.getMessage());
+          }
+        }
+      }
+      return processed;
+    } catch (AnchorException e) {
+      errorEx("Failed to send events to callback API. Error code: {}", e);
+      return Set.of();
+    }
+  }
 }
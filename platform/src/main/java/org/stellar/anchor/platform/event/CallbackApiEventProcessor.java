@@ -4,30 +4,121 @@ import static java.lang.Thread.currentThread;
 import static org.stellar.anchor.util.MetricConstants.TV_BUSINESS_SERVER_CALLBACK;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Future;
 import org.stellar.anchor.api.event.AnchorEvent;
 import org.stellar.anchor.event.EventService;
 import org.stellar.anchor.util.ExponentialBackoffTimer;
 import org.stellar.anchor.util.Log;
 
 public class CallbackApiEventProcessor extends EventProcessor {
+  static final String BUSINESS_SERVER_TARGET = "business-server";
   private final CallbackApiEventHandler eventHandler;
-  private final ExponentialBackoffTimer backoffTimer = new ExponentialBackoffTimer();
+  // The maximum number of events sent in a single request. If 1, the events are sent one by one.
+  private final int batchSize;
+  // The events are handled by several workers, so each worker has its own timer.
+  private final ThreadLocal<ExponentialBackoffTimer> backoffTimer =
+      ThreadLocal.withInitial(ExponentialBackoffTimer::new);
 
   public CallbackApiEventProcessor(
       String name,
       EventService.EventQueue eventQueue,
       EventService eventService,
       CallbackApiEventHandler eventHandler) {
-    super(name, eventQueue, eventService);
+    this(name, eventQueue, eventService, eventHandler, 1);
+  }
+
+  public CallbackApiEventProcessor(
+      String name,
+      EventService.EventQueue eventQueue,
+      EventService eventService,
+      CallbackApiEventHandler eventHandler,
+      int workerThreads) {
+    this(name, eventQueue, eventService, eventHandler, workerThreads, null);
+  }
+
+  public CallbackApiEventProcessor(
+      String name,
+      EventService.EventQueue eventQueue,
+      EventService eventService,
+      CallbackApiEventHandler eventHandler,
+      int workerThreads,
+      EventDeliveryRetryQueue retryQueue) {
+    this(name, eventQueue, eventService, eventHandler, workerThreads, retryQueue, 1);
+  }
+
+  public CallbackApiEventProcessor(
+      String name,
+      EventService.EventQueue eventQueue,
+      EventService eventService,
+      CallbackApiEventHandler eventHandler,
+      int workerThreads,
+      EventDeliveryRetryQueue retryQueue,
+      int batchSize) {
+    super(name, eventQueue, eventService, workerThreads, retryQueue);
     this.eventHandler = eventHandler;
+    this.batchSize = Math.max(batchSize, 1);
+    registerRetryTarget(BUSINESS_SERVER_TARGET, eventHandler);
+  }
+
+  /**
+   * Submits the events in batches of up to batchSize events. The events of each worker are split
+   * in batches in the order of the events, so the events of a transaction are still sent in order.
+   * An event is processed when its batch is.
+   */
+  @Override
+  List<List<Future<Boolean>>> submit(List<AnchorEvent> events) {
+    if (batchSize <= 1) {
+      return super.submit(events);
+    }
+
+    List<List<AnchorEvent>> batches = new ArrayList<>();
+    List<Integer> batchPartitions = new ArrayList<>();
+    // The index of the batch of each event.
+    int[] eventBatches = new int[events.size()];
+    Map<Integer, Integer> openBatches = new HashMap<>();
+    for (int i = 0; i < events.size(); i++) {
+      int partition = partitionOf(events.get(i));
+      Integer batch = openBatches.get(partition);
+      if (batch == null || batches.get(batch).size() >= batchSize) {
+        batch = batches.size();
+        batches.add(new ArrayList<>(batchSize));
+        batchPartitions.add(partition);
+        openBatches.put(partition, batch);
+      }
+      batches.get(batch).add(events.get(i));
+      eventBatches[i] = batch;
+    }
+
+    List<Future<Boolean>> batchResults = new ArrayList<>(batches.size());
+    for (int batch = 0; batch < batches.size(); batch++) {
+      List<AnchorEvent> batchEvents = batches.get(batch);
+      batchResults.add(submit(batchPartitions.get(batch), () -> handleBatchWithRetry(batchEvents)));
+    }
+
+    List<List<Future<Boolean>>> results = new ArrayList<>(events.size());
+    for (int batch : eventBatches) {
+      results.add(List.of(batchResults.get(batch)));
+    }
+    return results;
   }
 
   @Override
   void handleEventWithRetry(AnchorEvent event) {
+    if (getRetryQueue() != null) {
+      deliverWithDelayedRetry(BUSINESS_SERVER_TARGET, eventHandler, event);
+      return;
+    }
+
     boolean isProcessed = false;
     // For every event, reset the timer.
     getBackoffTimer().reset();
-    // Infinite retry until the event is processed or the thread is interrupted.
+    // Without a retry queue, retry until the event is processed or the thread is interrupted.
     while (!isProcessed && !currentThread().isInterrupted()) {
       try {
         if (eventHandler.handleEvent(event)) {
@@ -51,12 +142,120 @@ public class CallbackApiEventProcessor extends EventProcessor {
     }
   }
 
+  /**
+   * Sends a batch of events. When an event is not processed by the callback API, it is sent again
+   * with the later events of its transaction, even the ones that were processed, so the events of a
+   * transaction are always received in order.
+   *
+   * @param batch the events of the batch, in order.
+   */
+  void handleBatchWithRetry(List<AnchorEvent> batch) {
+    if (getRetryQueue() != null) {
+      deliverBatchWithDelayedRetry(batch);
+      return;
+    }
+
+    List<AnchorEvent> pending = new ArrayList<>(batch);
+    // For every batch, reset the timer.
+    getBackoffTimer().reset();
+    // Without a retry queue, retry until all the events are processed or the thread is interrupted.
+    while (!pending.isEmpty() && !currentThread().isInterrupted()) {
+      try {
+        Set<String> processed = eventHandler.handleEvents(List.copyOf(pending));
+        pending = removeProcessed(pending, processed);
+      } catch (IOException ioex) {
+        Log.errorEx(ioex);
+      }
+      if (!pending.isEmpty()) {
+        try {
+          getBackoffTimer().backoff();
+        } catch (InterruptedException e) {
+          currentThread().interrupt();
+        }
+      }
+    }
+  }
+
+  /**
+   * Removes the processed events of each transaction up to its first event that is not processed.
+   *
+   * @param events the events sent, in order.
+   * @param processed the ids of the events processed by the callback API.
+   * @return the events to send again, in order.
+   */
+  List<AnchorEvent> removeProcessed(List<AnchorEvent> events, Set<String> processed) {
+    Set<String> failedKeys = new HashSet<>();
+    List<AnchorEvent> pending = new ArrayList<>();
+    for (AnchorEvent event : events) {
+      String key = getPartitionKey(event);
+      if (!failedKeys.contains(key) && processed.contains(event.getId())) {
+        incrementProcessedCounter();
+      } else {
+        failedKeys.add(key);
+        pending.add(event);
+      }
+    }
+    return pending;
+  }
+
+  /**
+   * Sends a batch of events once. The first event of each transaction that is not processed by the
+   * callback API is scheduled in the retry queue, and the later events of the transaction are held
+   * behind it. The events held behind an earlier retry of their transaction are not sent.
+   *
+   * @param batch the events of the batch, in order.
+   */
+  void deliverBatchWithDelayedRetry(List<AnchorEvent> batch) {
+    List<AnchorEvent> sending = new ArrayList<>(batch.size());
+    for (AnchorEvent event : batch) {
+      if (!holdBehindPendingRetry(BUSINESS_SERVER_TARGET, event)) {
+        sending.add(event);
+      }
+    }
+    if (sending.isEmpty()) {
+      return;
+    }
+
+    Set<String> processed = Set.of();
+    IOException ioFailure = null;
+    RuntimeException failure = null;
+    try {
+      processed = eventHandler.handleEvents(sending);
+    } catch (IOException ex) {
+      ioFailure = ex;
+    } catch (RuntimeException ex) {
+      failure = ex;
+    }
+
+    Set<String> failedKeys = new HashSet<>();
+    for (AnchorEvent event : sending) {
+      String key = getPartitionKey(event);
+      if (failedKeys.contains(key)) {
+        holdInRetryQueue(BUSINESS_SERVER_TARGET, event);
+        continue;
+      }
+      boolean delivered = processed.contains(event.getId());
+      IOException ioError = ioFailure;
+      RuntimeException error = failure;
+      if (!deliverOnce(
+          BUSINESS_SERVER_TARGET,
+          event,
+          () -> {
+            if (ioError != null) throw ioError;
+            if (error != null) throw error;
+            return delivered;
+          })) {
+        failedKeys.add(key);
+      }
+    }
+  }
+
   @Override
   String toMetricTag(String queueName) {
     return TV_BUSINESS_SERVER_CALLBACK;
   }
 
   ExponentialBackoffTimer getBackoffTimer() {
-    return backoffTimer;
+    return backoffTimer.get();
   }
 }
@@ -5,18 +5,21 @@ import static org.stellar.anchor.util.Log.debugF;
 import static org.stellar.anchor.util.Log.errorF;
 import static org.stellar.anchor.util.NetUtil.getDomainFromURL;
 import static org.stellar.anchor.util.OkHttpUtil.buildJsonRequestBody;
+import static org.stellar.anchor.util.OkHttpUtil.executeAsync;
 import static org.stellar.anchor.util.StringHelper.json;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.Arrays;
 import java.util.Base64;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import lombok.SneakyThrows;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
-import okhttp3.Response;
 import org.stellar.anchor.MoreInfoUrlConstructor;
 import org.stellar.anchor.api.event.AnchorEvent;
 import org.stellar.anchor.api.exception.AnchorException;
@@ -26,7 +29,9 @@ import org.stellar.anchor.api.sep.sep24.Sep24GetTransactionResponse;
 import org.stellar.anchor.asset.AssetService;
 import org.stellar.anchor.config.ClientsConfig.ClientConfig;
 import org.stellar.anchor.config.SecretConfig;
+import org.stellar.anchor.platform.config.HttpClientConfig;
 import org.stellar.anchor.platform.data.*;
+import org.stellar.anchor.platform.utils.HttpClientFactory;
 import org.stellar.anchor.sep24.*;
 import org.stellar.anchor.sep24.Sep24Transaction;
 import org.stellar.anchor.sep31.RefundPayment;
@@ -38,14 +43,14 @@ import org.stellar.anchor.sep6.Sep6TransactionUtils;
 import org.stellar.sdk.KeyPair;
 
 public class ClientStatusCallbackHandler extends EventHandler {
-  private static final OkHttpClient httpClient =
-      new OkHttpClient.Builder()
-          .connectTimeout(10, TimeUnit.MINUTES)
-          .readTimeout(10, TimeUnit.MINUTES)
-          .writeTimeout(10, TimeUnit.MINUTES)
-          .callTimeout(10, TimeUnit.MINUTES)
-          .build();
-  private final SecretConfig secretConfig;
+  // The client of the handlers that are not given one.
+  private static final OkHttpClient defaultHttpClient =
+      HttpClientFactory.build(
+          EventProcessorManager.CLIENT_STATUS_CALLBACK_EVENT_PROCESSOR_NAME,
+          new HttpClientConfig(10, 30, 30, 60));
+  private final OkHttpClient httpClient;
+  // The signing key pair is parsed once and held for the lifetime of the handler.
+  private final KeyPair signer;
   private final ClientConfig clientConfig;
   private final Sep6TransactionStore sep6TransactionStore;
   private final AssetService assetService;
@@ -59,8 +64,27 @@ public class ClientStatusCallbackHandler extends EventHandler {
       AssetService assetService,
       MoreInfoUrlConstructor sep6MoreInfoUrlConstructor,
       MoreInfoUrlConstructor sep24MoreInfoUrlConstructor) {
+    this(
+        secretConfig,
+        clientConfig,
+        sep6TransactionStore,
+        assetService,
+        sep6MoreInfoUrlConstructor,
+        sep24MoreInfoUrlConstructor,
+        defaultHttpClient);
+  }
+
+  public ClientStatusCallbackHandler(
+      SecretConfig secretConfig,
+      ClientConfig clientConfig,
+      Sep6TransactionStore sep6TransactionStore,
+      AssetService assetService,
+      MoreInfoUrlConstructor sep6MoreInfoUrlConstructor,
+      MoreInfoUrlConstructor sep24MoreInfoUrlConstructor,
+      OkHttpClient httpClient) {
     super();
-    this.secretConfig = secretConfig;
+    this.httpClient = httpClient;
+    this.signer = KeyPair.fromSecretSeed(secretConfig.getSep10SigningSeed());
     this.clientConfig = clientConfig;
     this.assetService = assetService;
     this.sep6TransactionStore = sep6TransactionStore;
@@ -68,26 +92,72 @@ public class ClientStatusCallbackHandler extends EventHandler {
     this.sep24MoreInfoUrlConstructor = sep24MoreInfoUrlConstructor;
   }
 
+  String getClientName() {
+    return clientConfig.getName();
+  }
+
   @Override
   boolean handleEvent(AnchorEvent event) throws IOException {
-    if (event.getTransaction() != null) {
-      KeyPair signer = KeyPair.fromSecretSeed(secretConfig.getSep10SigningSeed());
-      Request request = buildHttpRequest(signer, event);
-      Response response = httpClient.newCall(request).execute();
-      debugF(
-          "Sending event: {} to client status api: {}", json(event), clientConfig.getCallbackUrl());
-      if (response.code() < 200 || response.code() >= 400) {
-        errorF("Failed to send event to client status API. Error code: {}", response.code());
-        return false;
+    return handlePayload(new ClientStatusCallbackPayload(event));
+  }
+
+  /**
+   * Handles the event with a payload that may already be rendered by the delivery of the event to
+   * another client.
+   *
+   * @param payload the payload of the event.
+   * @return true if the client accepted the event.
+   * @throws IOException if there was a network error sending the event.
+   */
+  boolean handlePayload(ClientStatusCallbackPayload payload) throws IOException {
+    if (payload.getEvent().getTransaction() == null) {
+      return true;
+    }
+    try {
+      return sendEventAsync(payload).get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while sending the event to the client.");
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof IOException) {
+        throw (IOException) ex.getCause();
       }
+      throw new RuntimeException(ex.getCause());
     }
-    return true;
+  }
+
+  /**
+   * Sends the event to the client status callback asynchronously. The request is queued by the
+   * dispatcher of the HTTP client, which limits the concurrent requests to each host.
+   *
+   * @param payload the payload of the event.
+   * @return the future that completes with true if the client accepted the event.
+   */
+  CompletableFuture<Boolean> sendEventAsync(ClientStatusCallbackPayload payload) {
+    Request request = buildHttpRequest(signer, payload);
+    debugF(
+        "Sending event id={} to client status api: {}",
+        payload.getEvent().getId(),
+        clientConfig.getCallbackUrl());
+    return executeAsync(httpClient, request)
+        .thenApply(
+            response -> {
+              try (response) {
+                if (response.code() < 200 || response.code() >= 400) {
+                  errorF(
+                      "Failed to send event to client status API. Error code: {}",
+                      response.code());
+                  return false;
+                }
+                return true;
+              }
+            });
   }
 
   @SneakyThrows
-  Request buildHttpRequest(KeyPair signer, AnchorEvent event) {
-    String payload = getPayload(event);
-    return buildHttpRequest(signer, payload, clientConfig.getCallbackUrl());
+  Request buildHttpRequest(KeyPair signer, ClientStatusCallbackPayload payload) {
+    // The signature covers the domain of the callback URL, so it is computed for each client.
+    return buildHttpRequest(signer, payload.get(this), clientConfig.getCallbackUrl());
   }
 
   @SneakyThrows
@@ -109,7 +179,7 @@ public class ClientStatusCallbackHandler extends EventHandler {
         .build();
   }
 
-  private String getPayload(AnchorEvent event) throws AnchorException {
+  String renderPayload(AnchorEvent event) throws AnchorException {
     switch (event.getTransaction().getSep()) {
       case SEP_6:
         // TODO: remove dependence on the transaction store
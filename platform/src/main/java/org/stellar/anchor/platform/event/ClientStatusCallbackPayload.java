@@ -0,0 +1,36 @@
+package org.stellar.anchor.platform.event;
+
+import lombok.Getter;
+import org.stellar.anchor.api.event.AnchorEvent;
+import org.stellar.anchor.api.exception.AnchorException;
+
+/**
+ * The payload of the client status callbacks of an event.
+ *
+ * <p>The payload is the SEP response of the transaction of the event, which does not depend on the
+ * client. It is rendered by the first delivery of the event and shared by the deliveries to all
+ * the other clients, so the transaction is read and serialized once per event.
+ */
+class ClientStatusCallbackPayload {
+  @Getter private final AnchorEvent event;
+  private String payload = null;
+
+  ClientStatusCallbackPayload(AnchorEvent event) {
+    this.event = event;
+  }
+
+  /**
+   * Returns the payload, rendering it with the handler if it is not rendered yet. The deliveries
+   * to the other clients wait while the payload is rendered.
+   *
+   * @param eventHandler the handler that renders the payload.
+   * @return the JSON payload.
+   * @throws AnchorException if the payload cannot be rendered.
+   */
+  synchronized String get(ClientStatusCallbackHandler eventHandler) throws AnchorException {
+    if (payload == null) {
+      payload = eventHandler.renderPayload(event);
+    }
+    return payload;
+  }
+}
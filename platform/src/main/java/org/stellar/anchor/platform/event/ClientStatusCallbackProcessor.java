@@ -1,17 +1,52 @@
 package org.stellar.anchor.platform.event;
 
 import static java.lang.Thread.currentThread;
+import static org.stellar.anchor.util.Log.debug;
+import static org.stellar.anchor.util.Log.infoF;
 import static org.stellar.anchor.util.MetricConstants.*;
 import static org.stellar.anchor.util.StringHelper.json;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import lombok.AllArgsConstructor;
 import org.stellar.anchor.api.event.AnchorEvent;
+import org.stellar.anchor.api.exception.AnchorException;
 import org.stellar.anchor.event.EventService;
+import org.stellar.anchor.platform.utils.DaemonExecutors;
 import org.stellar.anchor.util.ExponentialBackoffTimer;
 import org.stellar.anchor.util.Log;
 
+/**
+ * Delivers the events to the status callbacks of the clients.
+ *
+ * <p>A single consumer reads and deserializes the events once for all the clients. Each event is
+ * fanned out to one delivery per client. Each client has its own workers, partitioned by the
+ * transaction, so the deliveries of a client are ordered per transaction and have their own retry
+ * state, and a slow client does not occupy the workers of the others.
+ *
+ * <p>Each client has its own cursor in the events read from the queue. The consumer reads ahead of
+ * the slowest client by up to {@code maxPendingEvents} events, and acknowledges the reads in order
+ * once they are delivered to all the clients. So the other clients keep receiving events while a
+ * client is slow, until the slow client is too far behind.
+ *
+ * <p>The deliveries of an event share its {@link ClientStatusCallbackPayload}, so the payload is
+ * rendered once for all the clients.
+ */
 public class ClientStatusCallbackProcessor extends EventProcessor {
-  private final ClientStatusCallbackHandler eventHandler;
+  /** The default maximum number of events read ahead of the slowest client. */
+  static final int DEFAULT_MAX_PENDING_EVENTS = 1000;
+
+  private final List<ClientStatusCallbackHandler> eventHandlers;
+  // The workers of each client, in the order of the event handlers.
+  private final List<ExecutorService[]> clientWorkers;
+  private final int maxPendingEvents;
   // The initial backoff time for connection error.
   private final long NETWORK_INITIAL_BACKOFF_TIME_SECONDS = 1;
   // The maximum backoff time for connection error.
@@ -22,24 +57,163 @@ public class ClientStatusCallbackProcessor extends EventProcessor {
   private final long HTTP_STATUS_MAX_BACKOFF_TIME_SECONDS = 5;
   // The maximum number of retries for HTTP status code other than 200s or 300s.
   private final long MAX_RETRIES = 3;
-  private final ExponentialBackoffTimer networkBackoffTimer =
-      new ExponentialBackoffTimer(
-          NETWORK_INITIAL_BACKOFF_TIME_SECONDS, NETWORK_MAX_BACKOFF_TIME_SECONDS);
-  private final ExponentialBackoffTimer httpErrorBackoffTimer =
-      new ExponentialBackoffTimer(
-          HTTP_STATUS_INITIAL_BACKOFF_TIME_SECONDS, HTTP_STATUS_MAX_BACKOFF_TIME_SECONDS);
+  // The events are handled by several workers, so each worker has its own timers.
+  private final ThreadLocal<ExponentialBackoffTimer> networkBackoffTimer =
+      ThreadLocal.withInitial(
+          () ->
+              new ExponentialBackoffTimer(
+                  NETWORK_INITIAL_BACKOFF_TIME_SECONDS, NETWORK_MAX_BACKOFF_TIME_SECONDS));
+  private final ThreadLocal<ExponentialBackoffTimer> httpErrorBackoffTimer =
+      ThreadLocal.withInitial(
+          () ->
+              new ExponentialBackoffTimer(
+                  HTTP_STATUS_INITIAL_BACKOFF_TIME_SECONDS, HTTP_STATUS_MAX_BACKOFF_TIME_SECONDS));
 
   protected ClientStatusCallbackProcessor(
       String name,
       EventService.EventQueue eventQueue,
       EventService eventService,
       ClientStatusCallbackHandler eventHandler) {
-    super(name, eventQueue, eventService);
-    this.eventHandler = eventHandler;
+    this(name, eventQueue, eventService, List.of(eventHandler), 1);
+  }
+
+  protected ClientStatusCallbackProcessor(
+      String name,
+      EventService.EventQueue eventQueue,
+      EventService eventService,
+      List<ClientStatusCallbackHandler> eventHandlers,
+      int workerThreads) {
+    this(name, eventQueue, eventService, eventHandlers, workerThreads, null);
+  }
+
+  protected ClientStatusCallbackProcessor(
+      String name,
+      EventService.EventQueue eventQueue,
+      EventService eventService,
+      List<ClientStatusCallbackHandler> eventHandlers,
+      int workerThreads,
+      EventDeliveryRetryQueue retryQueue) {
+    this(
+        name,
+        eventQueue,
+        eventService,
+        eventHandlers,
+        workerThreads,
+        retryQueue,
+        DEFAULT_MAX_PENDING_EVENTS);
+  }
+
+  protected ClientStatusCallbackProcessor(
+      String name,
+      EventService.EventQueue eventQueue,
+      EventService eventService,
+      List<ClientStatusCallbackHandler> eventHandlers,
+      int workerThreads,
+      EventDeliveryRetryQueue retryQueue,
+      int maxPendingEvents) {
+    // The events are delivered by the workers of the clients.
+    super(name, eventQueue, eventService, 1, retryQueue);
+    this.eventHandlers = eventHandlers;
+    this.maxPendingEvents = maxPendingEvents;
+    this.clientWorkers = new ArrayList<>(eventHandlers.size());
+    for (ClientStatusCallbackHandler eventHandler : eventHandlers) {
+      registerRetryTarget(eventHandler.getClientName(), eventHandler);
+      ExecutorService[] workers = new ExecutorService[Math.max(workerThreads, 1)];
+      for (int i = 0; i < workers.length; i++) {
+        workers[i] = DaemonExecutors.newFixedThreadPool(1);
+      }
+      clientWorkers.add(workers);
+    }
+  }
+
+  @Override
+  public void stop() throws AnchorException {
+    super.stop();
+    for (ExecutorService[] workers : clientWorkers) {
+      for (ExecutorService worker : workers) {
+        worker.shutdownNow();
+      }
+    }
+  }
+
+  /**
+   * Reads the events ahead of the slowest client. The reads are acknowledged in order when they
+   * are delivered to all the clients. The consumer waits for the oldest read only when more than
+   * {@code maxPendingEvents} events are not delivered to all the clients yet.
+   *
+   * <p>If a delivery is not completed, the read is acknowledged up to the first event that is not
+   * delivered to all the clients, and the consumer stops. The unacknowledged events are read again
+   * when the consumer restarts.
+   */
+  @Override
+  void consume(EventService.Session queueSession) throws AnchorException {
+    Deque<PendingRead> pendingReads = new ArrayDeque<>();
+    int pendingEvents = 0;
+    try {
+      while (!currentThread().isInterrupted() && !isStopped()) {
+        EventService.ReadResponse readResponse = queueSession.read();
+        List<AnchorEvent> events = readResponse.getEvents();
+        countReceived(events);
+        if (!events.isEmpty()) {
+          pendingReads.addLast(new PendingRead(readResponse, submit(events)));
+          pendingEvents += events.size();
+        }
+
+        while (!pendingReads.isEmpty()
+            && (pendingEvents > maxPendingEvents || pendingReads.peekFirst().isDone())) {
+          PendingRead oldest = pendingReads.removeFirst();
+          if (!oldest.isDone()) {
+            infoF(
+                "The status callbacks of the clients {} are {} events behind. Waiting for them.",
+                oldest.getClientsBehind(),
+                pendingEvents);
+          }
+          int size = oldest.readResponse.getEvents().size();
+          int processed = await(oldest.deliveries);
+          queueSession.ack(oldest.readResponse, processed);
+          if (processed < size) {
+            return;
+          }
+          pendingEvents -= size;
+        }
+      }
+    } catch (RejectedExecutionException ex) {
+      debug("The event processor workers are stopped.");
+    }
+  }
+
+  @Override
+  List<Future<Boolean>> submit(AnchorEvent event) {
+    String partitionKey = getPartitionKey(event);
+    ClientStatusCallbackPayload payload = new ClientStatusCallbackPayload(event);
+    List<Future<Boolean>> deliveries = new ArrayList<>(eventHandlers.size());
+    for (int i = 0; i < eventHandlers.size(); i++) {
+      ClientStatusCallbackHandler eventHandler = eventHandlers.get(i);
+      ExecutorService[] workers = clientWorkers.get(i);
+      ExecutorService worker =
+          workers[Math.floorMod(Objects.hashCode(partitionKey), workers.length)];
+      deliveries.add(submit(worker, () -> handleEventWithRetry(eventHandler, payload)));
+    }
+    return deliveries;
   }
 
   @Override
   void handleEventWithRetry(AnchorEvent event) {
+    ClientStatusCallbackPayload payload = new ClientStatusCallbackPayload(event);
+    for (ClientStatusCallbackHandler eventHandler : eventHandlers) {
+      handleEventWithRetry(eventHandler, payload);
+    }
+  }
+
+  void handleEventWithRetry(
+      ClientStatusCallbackHandler eventHandler, ClientStatusCallbackPayload payload) {
+    AnchorEvent event = payload.getEvent();
+    if (getRetryQueue() != null) {
+      deliverWithDelayedRetry(
+          eventHandler.getClientName(), event, () -> eventHandler.handlePayload(payload));
+      return;
+    }
+
     boolean isProcessed = false;
     int retryAttempts = 0;
     // For every event, reset the timer.
@@ -48,7 +222,7 @@ public class ClientStatusCallbackProcessor extends EventProcessor {
     // Retry until the event is processed or the thread is interrupted.
     while (!isProcessed && !currentThread().isInterrupted()) {
       try {
-        if (eventHandler.handleEvent(event)) {
+        if (eventHandler.handlePayload(payload)) {
           // ***** The event is processed successfully.
           isProcessed = true;
           incrementProcessedCounter();
@@ -97,15 +271,41 @@ public class ClientStatusCallbackProcessor extends EventProcessor {
   }
 
   ExponentialBackoffTimer getHttpErrorBackoffTimer() {
-    return httpErrorBackoffTimer;
+    return httpErrorBackoffTimer.get();
   }
 
   ExponentialBackoffTimer getNetworkBackoffTimer() {
-    return networkBackoffTimer;
+    return networkBackoffTimer.get();
   }
 
   void sendToDLQ(AnchorEvent event, Exception e) {
     Log.errorF("Failed to process event: {}", json(event));
     Log.errorEx(e);
   }
+
+  /** The deliveries of a read that is not acknowledged yet. */
+  @AllArgsConstructor
+  class PendingRead {
+    final EventService.ReadResponse readResponse;
+    // The deliveries of each event, in the order of the events and of the clients.
+    final List<List<Future<Boolean>>> deliveries;
+
+    boolean isDone() {
+      return deliveries.stream().flatMap(List::stream).allMatch(Future::isDone);
+    }
+
+    /** Gets the names of the clients whose deliveries of the read are not completed. */
+    List<String> getClientsBehind() {
+      List<String> clients = new ArrayList<>();
+      for (int i = 0; i < eventHandlers.size(); i++) {
+        for (List<Future<Boolean>> delivery : deliveries) {
+          if (!delivery.get(i).isDone()) {
+            clients.add(eventHandlers.get(i).getClientName());
+            break;
+          }
+        }
+      }
+      return clients;
+    }
+  }
 }
@@ -1,33 +1,170 @@
 package org.stellar.anchor.platform.event;
 
-import org.apache.commons.lang3.NotImplementedException;
+import static org.stellar.anchor.api.platform.HealthCheckStatus.*;
+import static org.stellar.anchor.healthcheck.HealthCheckable.Tags.*;
+
+import com.google.gson.annotations.SerializedName;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import lombok.Builder;
+import lombok.Data;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.stellar.anchor.api.platform.HealthCheckResult;
+import org.stellar.anchor.api.platform.HealthCheckStatus;
 import org.stellar.anchor.config.event.EventConfig;
 import org.stellar.anchor.event.EventService;
+import org.stellar.anchor.healthcheck.HealthCheckable;
 import org.stellar.anchor.platform.config.PropertyEventConfig;
+import org.stellar.anchor.platform.data.JdbcEventOutboxRepo;
 
-public class DefaultEventService implements EventService {
+public class DefaultEventService implements EventService, HealthCheckable {
   private final PropertyEventConfig eventConfig;
+  private final JdbcEventOutboxRepo outboxRepo;
+  private final TransactionTemplate outboxTransactionTemplate;
+  final List<KafkaSession> kafkaSessions = new CopyOnWriteArrayList<>();
 
   public DefaultEventService(EventConfig eventConfig) {
+    this(eventConfig, null, null);
+  }
+
+  /**
+   * @param eventConfig the event configuration.
+   * @param outboxRepo the repository of the outbox.
+   * @param outboxTransactionTemplate the template of the new transactions writing the events that
+   *     cannot be published after their transaction committed to the outbox.
+   */
+  public DefaultEventService(
+      EventConfig eventConfig,
+      JdbcEventOutboxRepo outboxRepo,
+      TransactionTemplate outboxTransactionTemplate) {
     this.eventConfig = (PropertyEventConfig) eventConfig;
+    this.outboxRepo = outboxRepo;
+    this.outboxTransactionTemplate = outboxTransactionTemplate;
   }
 
   @Override
   public Session createSession(String sessionName, EventQueue eventQueue) {
     if (eventConfig.isEnabled()) {
-      switch (eventConfig.getQueue().getType()) {
-        case KAFKA:
-          return new KafkaSession(eventConfig.getQueue().getKafka(), sessionName, eventQueue);
-        case SQS:
-          // TODO: Implement this
-          throw new NotImplementedException("SQS is not implemented yet");
-        case MSK:
-          // TODO: Implement this
-          throw new NotImplementedException("MSK is not implemented yet");
+      Session queueSession = createQueueSession(sessionName, eventQueue);
+      if (outboxRepo == null) {
+        return new AfterCommitSession(queueSession);
       }
-      throw new RuntimeException("Unknown queue type");
+      OutboxSession outboxSession = new OutboxSession(outboxRepo, eventQueue, queueSession);
+      if (isOutboxEnabled()) {
+        return outboxSession;
+      }
+      return new AfterCommitSession(queueSession, outboxSession, outboxTransactionTemplate);
     } else {
       return new NoOpSession();
     }
   }
+
+  /**
+   * Creates a session that publishes the events directly to the queue, bypassing the outbox.
+   *
+   * @param sessionName the name of the session.
+   * @param eventQueue the event queue to use for the session.
+   * @return a session object.
+   */
+  Session createQueueSession(String sessionName, EventQueue eventQueue) {
+    switch (eventConfig.getQueue().getType()) {
+      case KAFKA:
+        KafkaSession kafkaSession =
+            new KafkaSession(eventConfig.getQueue().getKafka(), sessionName, eventQueue);
+        kafkaSessions.add(kafkaSession);
+        return kafkaSession;
+      case SQS:
+        return new SqsSession(eventConfig.getQueue().getSqs(), sessionName, eventQueue);
+      case MSK:
+        MskSession mskSession =
+            new MskSession(eventConfig.getQueue().getMsk(), sessionName, eventQueue);
+        kafkaSessions.add(mskSession);
+        return mskSession;
+    }
+    throw new RuntimeException("Unknown queue type");
+  }
+
+  boolean isOutboxEnabled() {
+    return outboxRepo != null
+        && eventConfig.getOutbox() != null
+        && eventConfig.getOutbox().isEnabled();
+  }
+
+  @Override
+  public int compareTo(@NotNull HealthCheckable other) {
+    return this.getName().compareTo(other.getName());
+  }
+
+  @Override
+  public String getName() {
+    return "event_service";
+  }
+
+  @Override
+  public List<Tags> getTags() {
+    return List.of(ALL, KAFKA, EVENT);
+  }
+
+  @Override
+  public HealthCheckResult check() {
+    HealthCheckStatus status = GREEN;
+    List<SessionHealth> sessions = new ArrayList<>();
+    for (KafkaSession session : kafkaSessions) {
+      // The session is unhealthy until an event is published after the last failure.
+      if (session.publishFailing.get()) {
+        status = YELLOW;
+      }
+      sessions.add(
+          SessionHealth.builder()
+              .name(session.getSessionName())
+              .publishFailing(session.publishFailing.get())
+              .publishFailures(session.publishFailures.get())
+              .lastPublishError(session.lastPublishError.get())
+              .inFlightPublishes(session.getInFlightPublishes())
+              .build());
+    }
+
+    return EventServiceHealthCheckResult.builder()
+        .name(getName())
+        .status(status)
+        .sessions(sessions)
+        .build();
+  }
+}
+
+/** The health check result of DefaultEventService class. */
+@Builder
+@Data
+class EventServiceHealthCheckResult implements HealthCheckResult {
+  transient String name;
+
+  List<HealthCheckStatus> statuses;
+
+  HealthCheckStatus status;
+
+  List<SessionHealth> sessions;
+
+  public String name() {
+    return name;
+  }
+}
+
+@Data
+@Builder
+class SessionHealth {
+  String name;
+
+  @SerializedName("publish_failing")
+  boolean publishFailing;
+
+  @SerializedName("publish_failures")
+  long publishFailures;
+
+  @SerializedName("last_publish_error")
+  String lastPublishError;
+
+  @SerializedName("in_flight_publishes")
+  int inFlightPublishes;
 }
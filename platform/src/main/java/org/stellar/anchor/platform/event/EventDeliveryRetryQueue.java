@@ -0,0 +1,349 @@
+package org.stellar.anchor.platform.event;
+
+import static org.stellar.anchor.util.Log.*;
+import static org.stellar.anchor.util.MetricConstants.*;
+
+import io.micrometer.core.instrument.Metrics;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.stellar.anchor.api.event.AnchorEvent;
+import org.stellar.anchor.platform.config.EventProcessorConfig.DeliveryRetryConfig;
+import org.stellar.anchor.platform.data.JdbcEventDeliveryRetry;
+import org.stellar.anchor.platform.data.JdbcEventDeliveryRetryRepo;
+import org.stellar.anchor.platform.utils.DaemonExecutors;
+import org.stellar.anchor.util.GsonUtils;
+
+/**
+ * Stores the failed event deliveries in the database and retries them later, so that the event
+ * processor workers never wait for a failing callback endpoint.
+ *
+ * <p>Each run of the relay claims a batch of the due deliveries with SELECT ... FOR UPDATE SKIP
+ * LOCKED and moves their next attempt forward before delivering them outside the database
+ * transaction. If the relay stops during a delivery, the delivery is retried at its next attempt.
+ * The delay between two attempts grows exponentially. The deliveries that run out of attempts are
+ * dead-lettered, and are only delivered again when replayed.
+ *
+ * <p>The deliveries of a partition key, for example the events of a transaction, stay in order for
+ * each target. While a delivery of the key to the target is pending, the later events of the key
+ * are held in the queue behind it instead of being delivered, and the relay only retries the
+ * oldest pending delivery of each key. A dead-lettered delivery no longer holds the later events.
+ */
+public class EventDeliveryRetryQueue implements Runnable {
+  final JdbcEventDeliveryRetryRepo retryRepo;
+  final TransactionTemplate transactionTemplate;
+  final DeliveryRetryConfig retryConfig;
+  // The handlers of the delivery targets, by processor and target name.
+  final Map<String, Map<String, EventHandler>> handlers = new ConcurrentHashMap<>();
+  final ScheduledExecutorService relayScheduler = DaemonExecutors.newScheduledThreadPool(1);
+  ScheduledFuture<?> relayTask = null;
+
+  public EventDeliveryRetryQueue(
+      JdbcEventDeliveryRetryRepo retryRepo,
+      TransactionTemplate transactionTemplate,
+      DeliveryRetryConfig retryConfig) {
+    this.retryRepo = retryRepo;
+    this.transactionTemplate = transactionTemplate;
+    this.retryConfig = retryConfig;
+  }
+
+  @PostConstruct
+  public void start() {
+    relayTask =
+        relayScheduler.scheduleWithFixedDelay(
+            this,
+            retryConfig.getIntervalMillis(),
+            retryConfig.getIntervalMillis(),
+            TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  public void stop() {
+    if (relayTask != null) {
+      relayTask.cancel(true);
+    }
+    relayScheduler.shutdown();
+  }
+
+  /**
+   * Registers the handler that retries the deliveries of a processor to a target.
+   *
+   * @param processor the name of the event processor.
+   * @param target the name of the callback endpoint.
+   * @param handler the event handler of the endpoint.
+   */
+  public void register(String processor, String target, EventHandler handler) {
+    handlers.computeIfAbsent(processor, (name) -> new ConcurrentHashMap<>()).put(target, handler);
+  }
+
+  /**
+   * Schedules the retry of a failed delivery.
+   *
+   * @param processor the name of the event processor.
+   * @param target the name of the callback endpoint.
+   * @param event the event.
+   * @param error the reason of the failure.
+   */
+  public void scheduleRetry(String processor, String target, AnchorEvent event, String error) {
+    Instant now = Instant.now();
+    retryRepo.save(
+        JdbcEventDeliveryRetry.builder()
+            .id(UUID.randomUUID().toString())
+            .processor(processor)
+            .target(target)
+            .payload(GsonUtils.getInstance().toJson(event))
+            .attempts(1)
+            .nextAttemptAt(now.plusSeconds(getBackoffSeconds(1)))
+            .lastError(error)
+            .deadLettered(false)
+            .createdAt(now)
+            .partitionKey(EventProcessor.getPartitionKey(event))
+            .build());
+    Metrics.counter(EVENT_RETRY_SCHEDULED, "processor", processor).increment();
+    infoF(
+        "The delivery of the event id={} to {} failed and is scheduled for a retry. {}",
+        event.getId(),
+        target,
+        error);
+  }
+
+  /**
+   * Holds the event in the queue if an earlier delivery of its partition key to the target is
+   * pending, so that the event is delivered after it.
+   *
+   * @param processor the name of the event processor.
+   * @param target the name of the callback endpoint.
+   * @param event the event.
+   * @return true if the event is held, false if it can be delivered now.
+   */
+  public boolean holdBehindPendingRetry(String processor, String target, AnchorEvent event) {
+    if (!retryRepo.existsByProcessorAndTargetAndPartitionKeyAndDeadLetteredFalse(
+        processor, target, EventProcessor.getPartitionKey(event))) {
+      return false;
+    }
+    hold(processor, target, event);
+    return true;
+  }
+
+  /**
+   * Holds the event in the queue behind the earlier deliveries of its partition key to the target.
+   * The event is delivered when the earlier deliveries are delivered or dead-lettered.
+   *
+   * @param processor the name of the event processor.
+   * @param target the name of the callback endpoint.
+   * @param event the event.
+   */
+  public void hold(String processor, String target, AnchorEvent event) {
+    String partitionKey = EventProcessor.getPartitionKey(event);
+    Instant now = Instant.now();
+    retryRepo.save(
+        JdbcEventDeliveryRetry.builder()
+            .id(UUID.randomUUID().toString())
+            .processor(processor)
+            .target(target)
+            .payload(GsonUtils.getInstance().toJson(event))
+            .attempts(0)
+            .nextAttemptAt(now)
+            .lastError("Held behind an earlier delivery of " + partitionKey)
+            .deadLettered(false)
+            .createdAt(now)
+            .partitionKey(partitionKey)
+            .build());
+    Metrics.counter(EVENT_RETRY_HELD, "processor", processor).increment();
+    debugF(
+        "The event id={} to {} is held behind an earlier delivery of {}.",
+        event.getId(),
+        target,
+        partitionKey);
+  }
+
+  /**
+   * Dead-letters a delivery that cannot be retried.
+   *
+   * @param processor the name of the event processor.
+   * @param target the name of the callback endpoint.
+   * @param event the event.
+   * @param error the reason of the failure.
+   */
+  public void deadLetter(String processor, String target, AnchorEvent event, String error) {
+    Instant now = Instant.now();
+    deadLetter(
+        JdbcEventDeliveryRetry.builder()
+            .id(UUID.randomUUID().toString())
+            .processor(processor)
+            .target(target)
+            .payload(GsonUtils.getInstance().toJson(event))
+            .attempts(1)
+            .nextAttemptAt(now)
+            .createdAt(now)
+            .partitionKey(EventProcessor.getPartitionKey(event))
+            .build(),
+        error);
+  }
+
+  @Override
+  public void run() {
+    try {
+      // Keep retrying while the batches are full.
+      while (!Thread.currentThread().isInterrupted()
+          && retryBatch() == retryConfig.getBatchSize()) {
+        debug("The retry queue has more deliveries due.");
+      }
+    } catch (Exception ex) {
+      errorEx(ex);
+    }
+  }
+
+  /**
+   * Retries a batch of the due deliveries.
+   *
+   * @return the number of deliveries retried.
+   */
+  int retryBatch() {
+    List<JdbcEventDeliveryRetry> retries = claimDueRetries();
+    for (JdbcEventDeliveryRetry retry : retries) {
+      if (Thread.currentThread().isInterrupted()) {
+        break;
+      }
+      retry(retry);
+    }
+    return retries.size();
+  }
+
+  /**
+   * Locks the due deliveries and moves their next attempt forward, so that they are not retried by
+   * another relay while they are delivered. Only the oldest pending delivery of each partition key
+   * and target is claimed. The later deliveries of the key wait until it is delivered or
+   * dead-lettered.
+   *
+   * @return the claimed deliveries.
+   */
+  List<JdbcEventDeliveryRetry> claimDueRetries() {
+    Set<String> processors = Set.copyOf(handlers.keySet());
+    if (processors.isEmpty()) {
+      return List.of();
+    }
+    List<JdbcEventDeliveryRetry> retries =
+        transactionTemplate.execute(
+            status -> {
+              Instant now = Instant.now();
+              List<JdbcEventDeliveryRetry> due =
+                  selectHeads(
+                      retryRepo.findDueForUpdateSkipLocked(
+                          processors, now, PageRequest.of(0, retryConfig.getBatchSize())));
+              for (JdbcEventDeliveryRetry retry : due) {
+                retry.setAttempts(retry.getAttempts() + 1);
+                retry.setNextAttemptAt(now.plusSeconds(getBackoffSeconds(retry.getAttempts())));
+              }
+              retryRepo.saveAll(due);
+              return due;
+            });
+    return retries == null ? List.of() : retries;
+  }
+
+  /**
+   * Selects the deliveries that are the oldest pending delivery of their partition key and target.
+   *
+   * @param retries the due deliveries.
+   * @return the deliveries that can be retried now.
+   */
+  List<JdbcEventDeliveryRetry> selectHeads(List<JdbcEventDeliveryRetry> retries) {
+    Set<String> partitionKeys = new HashSet<>();
+    for (JdbcEventDeliveryRetry retry : retries) {
+      if (retry.getPartitionKey() != null) {
+        partitionKeys.add(retry.getPartitionKey());
+      }
+    }
+    if (partitionKeys.isEmpty()) {
+      return retries;
+    }
+
+    Map<String, Long> heads = new HashMap<>();
+    for (JdbcEventDeliveryRetryRepo.PendingHead head : retryRepo.findPendingHeads(partitionKeys)) {
+      heads.put(
+          headKey(head.getProcessor(), head.getTarget(), head.getPartitionKey()),
+          head.getSequenceNumber());
+    }
+    List<JdbcEventDeliveryRetry> selected = new ArrayList<>(retries.size());
+    for (JdbcEventDeliveryRetry retry : retries) {
+      Long head =
+          heads.get(headKey(retry.getProcessor(), retry.getTarget(), retry.getPartitionKey()));
+      if (retry.getPartitionKey() == null
+          || head == null
+          || head.equals(retry.getSequenceNumber())) {
+        selected.add(retry);
+      }
+    }
+    return selected;
+  }
+
+  static String headKey(String processor, String target, String partitionKey) {
+    return processor + ":" + target + ":" + partitionKey;
+  }
+
+  void retry(JdbcEventDeliveryRetry retry) {
+    EventHandler handler =
+        handlers.getOrDefault(retry.getProcessor(), Map.of()).get(retry.getTarget());
+    if (handler == null) {
+      deadLetter(retry, "The target " + retry.getTarget() + " is not configured.");
+      return;
+    }
+
+    AnchorEvent event = GsonUtils.getInstance().fromJson(retry.getPayload(), AnchorEvent.class);
+    String error;
+    try {
+      if (handler.handleEvent(event)) {
+        retryRepo.delete(retry);
+        Metrics.counter(EVENT_RETRY_DELIVERED, "processor", retry.getProcessor()).increment();
+        debugF("The event id={} is delivered to {}.", event.getId(), retry.getTarget());
+        return;
+      }
+      error = "The event was not accepted by " + retry.getTarget();
+    } catch (IOException ex) {
+      error = ex.getMessage();
+    } catch (Exception ex) {
+      deadLetter(retry, ex.toString());
+      return;
+    }
+
+    if (retry.getAttempts() >= retryConfig.getMaxAttempts()) {
+      deadLetter(retry, error);
+    } else {
+      retry.setLastError(error);
+      retryRepo.save(retry);
+    }
+  }
+
+  void deadLetter(JdbcEventDeliveryRetry retry, String error) {
+    retry.setLastError(error);
+    retry.setDeadLettered(true);
+    retryRepo.save(retry);
+    Metrics.counter(EVENT_DEAD_LETTERED, "processor", retry.getProcessor()).increment();
+    warnF(
+        "The delivery id={} to {} is dead-lettered after {} attempts. {}",
+        retry.getId(),
+        retry.getTarget(),
+        retry.getAttempts(),
+        error);
+  }
+
+  long getBackoffSeconds(int attempts) {
+    // Caps the shift to avoid the overflow. The backoff is capped by max_backoff_seconds anyway.
+    long backoff = retryConfig.getInitialBackoffSeconds() << Math.min(attempts - 1, 30);
+    return Math.min(backoff, retryConfig.getMaxBackoffSeconds());
+  }
+}
@@ -0,0 +1,214 @@
+package org.stellar.anchor.platform.event;
+
+import static org.stellar.anchor.util.Log.*;
+import static org.stellar.anchor.util.MetricConstants.*;
+
+import io.micrometer.core.instrument.Metrics;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.stellar.anchor.api.event.AnchorEvent;
+import org.stellar.anchor.api.exception.AnchorException;
+import org.stellar.anchor.event.EventService;
+import org.stellar.anchor.event.EventService.EventQueue;
+import org.stellar.anchor.platform.config.OutboxConfig;
+import org.stellar.anchor.platform.data.JdbcEventOutbox;
+import org.stellar.anchor.platform.data.JdbcEventOutboxRepo;
+import org.stellar.anchor.platform.utils.DaemonExecutors;
+import org.stellar.anchor.util.GsonUtils;
+
+/**
+ * Publishes the events of the outbox table to the event queue.
+ *
+ * <p>Each run locks a batch of the oldest events with SELECT ... FOR UPDATE SKIP LOCKED, publishes
+ * them asynchronously, flushes the queue sessions and deletes the published events in the same
+ * database transaction. Several relays, for example one per server instance, can drain the outbox
+ * in parallel. The events are delivered at least once.
+ *
+ * <p>The events are relayed in the order of their sequence number. The events of a partition key,
+ * for example the events of a transaction, are relayed only by the relay holding the lock of the
+ * oldest event of the key. The other relays skip them, so two relays never publish the events of
+ * the same key at the same time.
+ */
+public class EventOutboxRelay implements Runnable {
+  static final String SESSION_NAME = "event-outbox-relay";
+
+  final JdbcEventOutboxRepo outboxRepo;
+  final TransactionTemplate transactionTemplate;
+  final DefaultEventService eventService;
+  final OutboxConfig outboxConfig;
+  final Map<String, EventService.Session> queueSessions = new ConcurrentHashMap<>();
+  final ScheduledExecutorService relayScheduler = DaemonExecutors.newScheduledThreadPool(1);
+  ScheduledFuture<?> relayTask = null;
+
+  public EventOutboxRelay(
+      JdbcEventOutboxRepo outboxRepo,
+      TransactionTemplate transactionTemplate,
+      DefaultEventService eventService,
+      OutboxConfig outboxConfig) {
+    this.outboxRepo = outboxRepo;
+    this.transactionTemplate = transactionTemplate;
+    this.eventService = eventService;
+    this.outboxConfig = outboxConfig;
+  }
+
+  @PostConstruct
+  public void start() {
+    relayTask =
+        relayScheduler.scheduleWithFixedDelay(
+            this,
+            outboxConfig.getRelayIntervalMillis(),
+            outboxConfig.getRelayIntervalMillis(),
+            TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  public void stop() {
+    if (relayTask != null) {
+      relayTask.cancel(true);
+    }
+    relayScheduler.shutdown();
+    for (EventService.Session session : queueSessions.values()) {
+      try {
+        session.close();
+      } catch (AnchorException ex) {
+        errorEx(ex);
+      }
+    }
+  }
+
+  @Override
+  public void run() {
+    try {
+      // Keep relaying while the batches are full.
+      while (!Thread.currentThread().isInterrupted()
+          && relayBatch() == outboxConfig.getRelayBatchSize()) {
+        debug("The outbox has more events to relay.");
+      }
+    } catch (Exception ex) {
+      errorEx(ex);
+    }
+  }
+
+  /**
+   * Publishes a batch of the oldest events of the outbox.
+   *
+   * @return the number of events published and deleted from the outbox.
+   */
+  int relayBatch() {
+    Integer relayed =
+        transactionTemplate.execute(
+            status -> {
+              List<JdbcEventOutbox> lockedEvents =
+                  outboxRepo.findOldestForUpdateSkipLocked(
+                      PageRequest.of(0, outboxConfig.getRelayBatchSize()));
+              if (lockedEvents.isEmpty()) {
+                return 0;
+              }
+              List<JdbcEventOutbox> events = selectRelayableEvents(lockedEvents);
+
+              List<CompletableFuture<Void>> futures = new ArrayList<>(events.size());
+              for (JdbcEventOutbox event : events) {
+                AnchorEvent anchorEvent =
+                    GsonUtils.getInstance().fromJson(event.getPayload(), AnchorEvent.class);
+                futures.add(getQueueSession(event.getQueue()).publishAsync(anchorEvent));
+              }
+              for (EventService.Session session : queueSessions.values()) {
+                try {
+                  session.flush();
+                } catch (AnchorException ex) {
+                  errorEx(ex);
+                }
+              }
+
+              // Only the events published before the first failure are deleted, so that the
+              // failed event and the events after it are published again in order. The Kafka
+              // session rolls back the transaction of a failed publish, so the whole batch is
+              // published again.
+              List<JdbcEventOutbox> published = new ArrayList<>(events.size());
+              for (int i = 0; i < events.size(); i++) {
+                CompletableFuture<Void> future = futures.get(i);
+                if (!future.isDone() || future.isCompletedExceptionally()) {
+                  warnF(
+                      "Failed to relay the outbox event id={}. {} events will be retried.",
+                      events.get(i).getId(),
+                      events.size() - i);
+                  Metrics.counter(EVENT_OUTBOX_RELAY_FAILED).increment();
+                  break;
+                }
+                published.add(events.get(i));
+              }
+              outboxRepo.deleteAll(published);
+              Metrics.counter(EVENT_OUTBOX_RELAYED).increment(published.size());
+              debugF("Relayed {} events from the outbox.", published.size());
+              return published.size();
+            });
+    return relayed == null ? 0 : relayed;
+  }
+
+  /**
+   * Selects the locked events that this relay may publish. The events of a partition key are
+   * selected only if the oldest event of the key in the outbox is locked by this relay. Otherwise,
+   * an older event of the key is held by another relay and the events are left for later.
+   *
+   * @param events the locked events, ordered by sequence number.
+   * @return the events to publish, in order.
+   */
+  List<JdbcEventOutbox> selectRelayableEvents(List<JdbcEventOutbox> events) {
+    Set<String> partitionKeys = new HashSet<>();
+    for (JdbcEventOutbox event : events) {
+      if (event.getPartitionKey() != null) {
+        partitionKeys.add(event.getPartitionKey());
+      }
+    }
+    if (partitionKeys.isEmpty()) {
+      return events;
+    }
+
+    Map<String, Long> heads = new HashMap<>();
+    for (JdbcEventOutboxRepo.PartitionHead head : outboxRepo.findPartitionHeads(partitionKeys)) {
+      heads.put(head.getPartitionKey(), head.getSequenceNumber());
+    }
+    Map<String, Boolean> relayable = new HashMap<>();
+    List<JdbcEventOutbox> selected = new ArrayList<>(events.size());
+    for (JdbcEventOutbox event : events) {
+      String key = event.getPartitionKey();
+      if (key == null) {
+        selected.add(event);
+        continue;
+      }
+      // The first locked event of the key decides for all the events of the key in the batch.
+      boolean isRelayable =
+          relayable.computeIfAbsent(
+              key,
+              k -> {
+                Long head = heads.get(k);
+                return head == null || head.equals(event.getSequenceNumber());
+              });
+      if (isRelayable) {
+        selected.add(event);
+      } else {
+        debugF("The outbox event id={} waits for an older event of its key.", event.getId());
+      }
+    }
+    return selected;
+  }
+
+  EventService.Session getQueueSession(String queue) {
+    return queueSessions.computeIfAbsent(
+        queue,
+        (name) -> eventService.createQueueSession(SESSION_NAME, EventQueue.valueOf(name)));
+  }
+}
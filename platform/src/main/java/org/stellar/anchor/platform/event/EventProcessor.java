@@ -1,12 +1,20 @@
 package org.stellar.anchor.platform.event;
 
 import static java.lang.Thread.currentThread;
+import static org.stellar.anchor.util.Log.debug;
 import static org.stellar.anchor.util.Log.debugF;
 import static org.stellar.anchor.util.Log.infoF;
 import static org.stellar.anchor.util.MetricConstants.*;
 
 import io.micrometer.core.instrument.Metrics;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
@@ -19,21 +27,57 @@ import org.stellar.anchor.event.EventService.EventQueue;
 import org.stellar.anchor.platform.utils.DaemonExecutors;
 import org.stellar.anchor.util.Log;
 
+/**
+ * Reads the events of a queue and handles them.
+ *
+ * <p>The events of each read batch are dispatched to a pool of worker threads partitioned by the
+ * transaction id of the event. The events of the same transaction are handled in order by the same
+ * worker, while the events of other transactions are handled in parallel. The batch is
+ * acknowledged up to the first event that is not handled by all its deliveries. By default, the
+ * next batch is read only when all the deliveries of the current batch are completed, so the
+ * slowest delivery of a batch sets the pace of the processor.
+ */
 public abstract class EventProcessor implements Runnable {
   private final String name;
   private final EventQueue eventQueue;
   private final EventService eventService;
   private final ScheduledExecutorService consumerScheduler =
       DaemonExecutors.newScheduledThreadPool(1);
+  // Each worker is a single thread, so that the events of a partition are handled in order.
+  private final ExecutorService[] workers;
+  // The queue of the delayed retries. If null, the deliveries are retried inline.
+  private final EventDeliveryRetryQueue retryQueue;
   private ScheduledFuture<?> processingTask = null;
   // The flag to indicate if the processor is stopped.
-  private boolean stopped = false;
+  private volatile boolean stopped = false;
 
   protected EventProcessor(
       String name, EventService.EventQueue eventQueue, EventService eventService) {
+    this(name, eventQueue, eventService, 1);
+  }
+
+  protected EventProcessor(
+      String name,
+      EventService.EventQueue eventQueue,
+      EventService eventService,
+      int workerThreads) {
+    this(name, eventQueue, eventService, workerThreads, null);
+  }
+
+  protected EventProcessor(
+      String name,
+      EventService.EventQueue eventQueue,
+      EventService eventService,
+      int workerThreads,
+      EventDeliveryRetryQueue retryQueue) {
     this.name = name;
     this.eventQueue = eventQueue;
     this.eventService = eventService;
+    this.retryQueue = retryQueue;
+    this.workers = new ExecutorService[Math.max(workerThreads, 1)];
+    for (int i = 0; i < workers.length; i++) {
+      workers[i] = DaemonExecutors.newFixedThreadPool(1);
+    }
   }
 
   public void start() {
@@ -46,6 +90,9 @@ public abstract class EventProcessor implements Runnable {
       processingTask.cancel(true);
     }
     consumerScheduler.shutdown();
+    for (ExecutorService worker : workers) {
+      worker.shutdownNow();
+    }
   }
 
   @SneakyThrows
@@ -56,19 +103,7 @@ public abstract class EventProcessor implements Runnable {
         getConsumerRestartCount() + 1);
     EventService.Session queueSession = eventService.createSession(name, eventQueue);
     try {
-      while (!currentThread().isInterrupted() && !stopped) {
-        EventService.ReadResponse readResponse = queueSession.read();
-        List<AnchorEvent> events = readResponse.getEvents();
-        Metrics.counter(EVENT_RECEIVED, QUEUE, toMetricTag(eventQueue.name()))
-            .increment(events.size());
-        debugF("Received {} events from queue", events.size());
-        for (AnchorEvent event : events) {
-          handleEventWithRetry(event);
-          if (currentThread().isInterrupted()) break;
-        }
-        queueSession.ack(readResponse);
-      }
-
+      consume(queueSession);
       queueSession.close();
     } catch (Exception ex) {
       // This is unexpected, so we need to restart the consumer.
@@ -79,10 +114,275 @@ public abstract class EventProcessor implements Runnable {
     }
   }
 
+  /**
+   * Reads the events of the session and handles them until the processor is stopped or an event
+   * fails unexpectedly.
+   *
+   * @param queueSession the session of the queue.
+   * @throws AnchorException if the session fails.
+   */
+  void consume(EventService.Session queueSession) throws AnchorException {
+    while (!currentThread().isInterrupted() && !stopped) {
+      EventService.ReadResponse readResponse = queueSession.read();
+      List<AnchorEvent> events = readResponse.getEvents();
+      countReceived(events);
+      int processed = dispatch(events);
+      queueSession.ack(readResponse, processed);
+      if (processed < events.size()) {
+        // The processor is stopped or an event failed unexpectedly. The unprocessed events are
+        // read again when the consumer restarts.
+        break;
+      }
+    }
+  }
+
+  /**
+   * Dispatches the events to the workers and waits until they are handled.
+   *
+   * @param events the events read from the queue.
+   * @return the number of events handled from the start of the list, without gaps.
+   */
+  int dispatch(List<AnchorEvent> events) {
+    try {
+      return await(submit(events));
+    } catch (RejectedExecutionException ex) {
+      debug("The event processor workers are stopped.");
+      return 0;
+    }
+  }
+
+  /**
+   * Waits until the deliveries of the events are completed.
+   *
+   * @param results the results of the deliveries of each event, in the order of the events.
+   * @return the number of events handled from the start of the list, without gaps.
+   */
+  int await(List<List<Future<Boolean>>> results) {
+    int processed = 0;
+    try {
+      for (List<Future<Boolean>> result : results) {
+        // The event is processed when all its deliveries are.
+        boolean delivered = true;
+        for (Future<Boolean> delivery : result) {
+          delivered &= delivery.get();
+        }
+        if (!delivered) break;
+        processed++;
+      }
+    } catch (InterruptedException ex) {
+      currentThread().interrupt();
+    } catch (ExecutionException ex) {
+      Log.errorEx(ex.getCause());
+    }
+    return processed;
+  }
+
+  /**
+   * Submits the handling of the events to the workers.
+   *
+   * @param events the events read from the queue.
+   * @return the results of the deliveries of each event, in the order of the events.
+   */
+  List<List<Future<Boolean>>> submit(List<AnchorEvent> events) {
+    List<List<Future<Boolean>>> results = new ArrayList<>(events.size());
+    for (AnchorEvent event : events) {
+      results.add(submit(event));
+    }
+    return results;
+  }
+
+  /**
+   * Submits the handling of the event to the worker of its partition.
+   *
+   * @param event the event.
+   * @return the results of the deliveries of the event.
+   */
+  List<Future<Boolean>> submit(AnchorEvent event) {
+    return List.of(submit(getPartitionKey(event), () -> handleEventWithRetry(event)));
+  }
+
+  /**
+   * Submits a task to the worker of the partition key. The tasks with the same key run in order.
+   *
+   * @param partitionKey the partition key.
+   * @param task the task.
+   * @return true when the task is completed, false if the worker was interrupted.
+   */
+  Future<Boolean> submit(String partitionKey, Runnable task) {
+    return submit(partitionOf(partitionKey), task);
+  }
+
+  /**
+   * Submits a task to a worker. The tasks of the same worker run in order.
+   *
+   * @param partition the index of the worker.
+   * @param task the task.
+   * @return true when the task is completed, false if the worker was interrupted.
+   */
+  Future<Boolean> submit(int partition, Runnable task) {
+    return submit(workers[partition], task);
+  }
+
+  /**
+   * Submits a task to a single-thread worker.
+   *
+   * @param worker the worker.
+   * @param task the task.
+   * @return true when the task is completed, false if the worker was interrupted.
+   */
+  static Future<Boolean> submit(ExecutorService worker, Runnable task) {
+    return worker.submit(
+        () -> {
+          task.run();
+          // The retry loop exits without handling the event when the worker is interrupted.
+          return !currentThread().isInterrupted();
+        });
+  }
+
+  int partitionOf(AnchorEvent event) {
+    return partitionOf(getPartitionKey(event));
+  }
+
+  int partitionOf(String partitionKey) {
+    return Math.floorMod(Objects.hashCode(partitionKey), workers.length);
+  }
+
+  /**
+   * Gets the key of the event ordering. The events with the same key are handled in order.
+   *
+   * @param event the event.
+   * @return the transaction id, the quote id or the customer id of the event.
+   */
+  static String getPartitionKey(AnchorEvent event) {
+    if (event.getTransaction() != null) {
+      return event.getTransaction().getId();
+    }
+    if (event.getQuote() != null) {
+      return event.getQuote().getId();
+    }
+    if (event.getCustomer() != null) {
+      return event.getCustomer().getId();
+    }
+    return event.getId();
+  }
+
+  /**
+   * Registers the handler of a target in the retry queue, so that the failed deliveries to the
+   * target are retried with the handler.
+   *
+   * @param target the name of the callback endpoint.
+   * @param eventHandler the event handler of the endpoint.
+   */
+  void registerRetryTarget(String target, EventHandler eventHandler) {
+    if (retryQueue != null) {
+      retryQueue.register(name, target, eventHandler);
+    }
+  }
+
+  /**
+   * Delivers the event once. A failed delivery is scheduled in the retry queue, so that the worker
+   * does not wait for the failing endpoint.
+   *
+   * @param target the name of the callback endpoint.
+   * @param eventHandler the event handler of the endpoint.
+   * @param event the event.
+   */
+  void deliverWithDelayedRetry(String target, EventHandler eventHandler, AnchorEvent event) {
+    deliverWithDelayedRetry(target, event, () -> eventHandler.handleEvent(event));
+  }
+
+  /**
+   * Delivers the event once with the given delivery. A failed delivery is scheduled in the retry
+   * queue, so that the worker does not wait for the failing endpoint. If an earlier event of the
+   * same transaction is waiting in the retry queue for the endpoint, the event is queued behind it
+   * to keep the order.
+   *
+   * @param target the name of the callback endpoint.
+   * @param event the event.
+   * @param delivery the delivery of the event to the endpoint.
+   */
+  void deliverWithDelayedRetry(String target, AnchorEvent event, Delivery delivery) {
+    if (!holdBehindPendingRetry(target, event)) {
+      deliverOnce(target, event, delivery);
+    }
+  }
+
+  /**
+   * Delivers the event once with the given delivery, without checking the retry queue. A failed
+   * delivery is scheduled in the retry queue.
+   *
+   * @param target the name of the callback endpoint.
+   * @param event the event.
+   * @param delivery the delivery of the event to the endpoint.
+   * @return true if the event is delivered.
+   */
+  boolean deliverOnce(String target, AnchorEvent event, Delivery delivery) {
+    try {
+      if (delivery.deliver()) {
+        incrementProcessedCounter();
+        return true;
+      }
+      retryQueue.scheduleRetry(name, target, event, "The event was not accepted by " + target);
+    } catch (IOException ex) {
+      retryQueue.scheduleRetry(name, target, event, ex.getMessage());
+    } catch (Exception ex) {
+      Log.errorEx(ex);
+      retryQueue.deadLetter(name, target, event, ex.toString());
+    }
+    return false;
+  }
+
+  /**
+   * Holds the event in the retry queue if an earlier event of its transaction is waiting there for
+   * the endpoint.
+   *
+   * @param target the name of the callback endpoint.
+   * @param event the event.
+   * @return true if the event is held.
+   */
+  boolean holdBehindPendingRetry(String target, AnchorEvent event) {
+    return retryQueue.holdBehindPendingRetry(name, target, event);
+  }
+
+  /**
+   * Holds the event in the retry queue behind the earlier events of its transaction.
+   *
+   * @param target the name of the callback endpoint.
+   * @param event the event.
+   */
+  void holdInRetryQueue(String target, AnchorEvent event) {
+    retryQueue.hold(name, target, event);
+  }
+
+  EventDeliveryRetryQueue getRetryQueue() {
+    return retryQueue;
+  }
+
   abstract void handleEventWithRetry(AnchorEvent event);
 
+  /** A single attempt to deliver an event to an endpoint. */
+  @FunctionalInterface
+  interface Delivery {
+    /**
+     * Delivers the event.
+     *
+     * @return true if the endpoint accepted the event.
+     * @throws IOException if there was a network error sending the event.
+     */
+    boolean deliver() throws IOException;
+  }
+
   abstract String toMetricTag(String queueName);
 
+  void countReceived(List<AnchorEvent> events) {
+    Metrics.counter(EVENT_RECEIVED, QUEUE, toMetricTag(eventQueue.name())).increment(events.size());
+    debugF("Received {} events from queue", events.size());
+  }
+
+  boolean isStopped() {
+    return stopped;
+  }
+
   long getConsumerRestartCount() {
     return ((ScheduledThreadPoolExecutor) consumerScheduler).getCompletedTaskCount();
   }
@@ -10,7 +10,10 @@ import java.util.List;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import lombok.SneakyThrows;
+import okhttp3.OkHttpClient;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.stellar.anchor.MoreInfoUrlConstructor;
 import org.stellar.anchor.api.exception.AnchorException;
 import org.stellar.anchor.api.exception.InternalServerErrorException;
@@ -20,15 +23,18 @@ import org.stellar.anchor.event.EventService;
 import org.stellar.anchor.event.EventService.EventQueue;
 import org.stellar.anchor.platform.config.CallbackApiConfig;
 import org.stellar.anchor.platform.config.EventProcessorConfig;
+import org.stellar.anchor.platform.config.EventProcessorConfig.DeliveryRetryConfig;
 import org.stellar.anchor.platform.config.PropertyClientsConfig;
+import org.stellar.anchor.platform.data.JdbcEventDeliveryRetryRepo;
+import org.stellar.anchor.platform.utils.HttpClientFactory;
 import org.stellar.anchor.sep24.Sep24TransactionStore;
 import org.stellar.anchor.sep31.Sep31TransactionStore;
 import org.stellar.anchor.sep6.Sep6TransactionStore;
 import org.stellar.anchor.util.Log;
 
 public class EventProcessorManager {
-  public static final String CLIENT_STATUS_CALLBACK_EVENT_PROCESSOR_NAME_PREFIX =
-      "client-status-callback-";
+  public static final String CLIENT_STATUS_CALLBACK_EVENT_PROCESSOR_NAME =
+      "client-status-callback";
   public static final String CALLBACK_API_EVENT_PROCESSOR_NAME = "callback-api";
   private final SecretConfig secretConfig;
   private final EventProcessorConfig eventProcessorConfig;
@@ -41,7 +47,10 @@ public class EventProcessorManager {
   private final Sep31TransactionStore sep31TransactionStore;
   private final MoreInfoUrlConstructor sep6MoreInfoUrlConstructor;
   private final MoreInfoUrlConstructor sep24MoreInfoUrlConstructor;
+  private final JdbcEventDeliveryRetryRepo deliveryRetryRepo;
+  private final PlatformTransactionManager transactionManager;
   private final List<EventProcessor> processors = new ArrayList<>();
+  private EventDeliveryRetryQueue retryQueue = null;
 
   public EventProcessorManager(
       SecretConfig secretConfig,
@@ -54,7 +63,9 @@ public class EventProcessorManager {
       Sep24TransactionStore sep24TransactionStore,
       Sep31TransactionStore sep31TransactionStore,
       MoreInfoUrlConstructor sep6MoreInfoUrlConstructor,
-      MoreInfoUrlConstructor sep24MoreInfoUrlConstructor) {
+      MoreInfoUrlConstructor sep24MoreInfoUrlConstructor,
+      JdbcEventDeliveryRetryRepo deliveryRetryRepo,
+      PlatformTransactionManager transactionManager) {
     this.secretConfig = secretConfig;
     this.eventProcessorConfig = eventProcessorConfig;
     this.callbackApiConfig = callbackApiConfig;
@@ -66,11 +77,21 @@ public class EventProcessorManager {
     this.sep31TransactionStore = sep31TransactionStore;
     this.sep6MoreInfoUrlConstructor = sep6MoreInfoUrlConstructor;
     this.sep24MoreInfoUrlConstructor = sep24MoreInfoUrlConstructor;
+    this.deliveryRetryRepo = deliveryRetryRepo;
+    this.transactionManager = transactionManager;
   }
 
   @PostConstruct
   @SneakyThrows
   public void start() {
+    DeliveryRetryConfig deliveryRetryConfig = eventProcessorConfig.getDeliveryRetry();
+    if (deliveryRetryConfig != null && deliveryRetryConfig.isEnabled()) {
+      // The failed deliveries are retried by the retry queue instead of blocking the workers.
+      retryQueue =
+          new EventDeliveryRetryQueue(
+              deliveryRetryRepo, new TransactionTemplate(transactionManager), deliveryRetryConfig);
+    }
+
     if (eventProcessorConfig.getCallbackApiRequest().isEnabled()) {
       // Create a processor for the callback API handler
       processors.add(
@@ -78,55 +99,71 @@ public class EventProcessorManager {
               CALLBACK_API_EVENT_PROCESSOR_NAME,
               EventQueue.TRANSACTION,
               eventService,
-              new CallbackApiEventHandler(callbackApiConfig)));
+              new CallbackApiEventHandler(callbackApiConfig),
+              eventProcessorConfig.getWorkerThreads(),
+              retryQueue,
+              getCallbackApiBatchSize()));
     }
-    // Create a processor of the client status callback handler for each client defined in the
-    // clientsConfig
+    // Create a single processor for the client status callbacks. The processor reads each event
+    // once and delivers it to the handlers of all the clients defined in the clientsConfig.
     if (eventProcessorConfig.getClientStatusCallback().isEnabled()) {
+      List<ClientStatusCallbackHandler> eventHandlers = new ArrayList<>();
+      // The handlers share one HTTP client, which limits the concurrent requests to each host.
+      OkHttpClient httpClient =
+          HttpClientFactory.build(
+              CLIENT_STATUS_CALLBACK_EVENT_PROCESSOR_NAME,
+              eventProcessorConfig.getClientStatusCallback().getHttpClient());
       for (PropertyClientsConfig.ClientConfig clientConfig : clientsConfig.getClients()) {
         if (StringUtils.isEmpty(clientConfig.getCallbackUrl())) {
           Log.info(String.format("Client status callback skipped: %s", json(clientConfig)));
           continue;
         }
 
-        String processorName;
         switch (clientConfig.getType()) {
           case CUSTODIAL:
-            processorName =
-                CLIENT_STATUS_CALLBACK_EVENT_PROCESSOR_NAME_PREFIX
-                    + clientConfig.getSigningKeys().stream();
-            break;
           case NONCUSTODIAL:
-            processorName =
-                CLIENT_STATUS_CALLBACK_EVENT_PROCESSOR_NAME_PREFIX
-                    + clientConfig.getDomains().stream();
             break;
           default:
             errorF("Unknown client type: {}", clientConfig.getType());
             throw new InternalServerErrorException(
                 "Unknown client type: " + clientConfig.getType());
         }
+        eventHandlers.add(
+            new ClientStatusCallbackHandler(
+                secretConfig,
+                clientConfig,
+                sep6TransactionStore,
+                assetService,
+                sep6MoreInfoUrlConstructor,
+                sep24MoreInfoUrlConstructor,
+                httpClient));
+      }
+
+      if (!eventHandlers.isEmpty()) {
         processors.add(
             new ClientStatusCallbackProcessor(
-                processorName,
+                CLIENT_STATUS_CALLBACK_EVENT_PROCESSOR_NAME,
                 EventQueue.TRANSACTION,
                 eventService,
-                new ClientStatusCallbackHandler(
-                    secretConfig,
-                    clientConfig,
-                    sep6TransactionStore,
-                    assetService,
-                    sep6MoreInfoUrlConstructor,
-                    sep24MoreInfoUrlConstructor)));
+                eventHandlers,
+                eventProcessorConfig.getWorkerThreads(),
+                retryQueue,
+                eventProcessorConfig.getClientStatusCallback().getMaxPendingEvents()));
       }
     }
 
     // Start all the processors
     processors.forEach(EventProcessor::start);
+    if (retryQueue != null) {
+      retryQueue.start();
+    }
   }
 
   @PreDestroy
   public void stop() {
+    if (retryQueue != null) {
+      retryQueue.stop();
+    }
     for (EventProcessor processor : processors) {
       try {
         processor.stop();
@@ -136,4 +173,10 @@ public class EventProcessorManager {
       }
     }
   }
+
+  int getCallbackApiBatchSize() {
+    EventProcessorConfig.CallbackApiBatchConfig batch =
+        eventProcessorConfig.getCallbackApiRequest().getBatch();
+    return batch != null && batch.isEnabled() ? batch.getMaxSize() : 1;
+  }
 }
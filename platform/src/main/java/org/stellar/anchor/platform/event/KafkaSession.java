@@ -1,5 +1,6 @@
 package org.stellar.anchor.platform.event;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.apache.kafka.clients.CommonClientConfigs.SECURITY_PROTOCOL_CONFIG;
 import static org.apache.kafka.clients.producer.ProducerConfig.*;
 import static org.apache.kafka.common.config.SaslConfigs.SASL_MECHANISM;
@@ -8,100 +9,324 @@ import static org.stellar.anchor.util.StringHelper.isEmpty;
 import io.micrometer.core.instrument.Metrics;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import lombok.AllArgsConstructor;
 import org.apache.kafka.clients.consumer.*;
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
 import org.apache.kafka.common.header.internals.RecordHeader;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.stellar.anchor.api.event.AnchorEvent;
 import org.stellar.anchor.api.exception.AnchorException;
 import org.stellar.anchor.api.exception.EventPublishException;
 import org.stellar.anchor.api.exception.InvalidConfigException;
+import org.stellar.anchor.event.EventCodec;
+import org.stellar.anchor.event.EventCodecs;
 import org.stellar.anchor.event.EventService;
 import org.stellar.anchor.event.EventService.EventQueue;
 import org.stellar.anchor.platform.config.KafkaConfig;
 import org.stellar.anchor.platform.config.PropertySecretConfig;
 import org.stellar.anchor.platform.configurator.SecretManager;
-import org.stellar.anchor.util.GsonUtils;
 import org.stellar.anchor.util.Log;
 
+/**
+ * The Kafka session.
+ *
+ * <p>By default, the events are published synchronously. If the `async_publish` is enabled, the
+ * events are published without waiting for the broker acknowledgement, so that the producer can
+ * batch them. The number of unacknowledged events is bounded by the `max_in_flight_publishes`.
+ * When an event is published in a database transaction, the producer is flushed before the
+ * transaction commits, and the transaction is rolled back if an event of the transaction is not
+ * published.
+ *
+ * <p>The events are encoded with the codec of the `event_codec` and the name of the codec is sent
+ * in the `codec` header. The events read are decoded with the codec of their header.
+ *
+ * <p>The events are keyed by their transaction id, or by the customer id of the customer events,
+ * so that the events of a transaction are published to the same partition and read in order. The
+ * sessions of the same name share a consumer group, so several event processing servers can read
+ * the partitions of a topic in parallel.
+ */
 public class KafkaSession implements EventService.Session {
 
   final KafkaConfig kafkaConfig;
   final String sessionName;
   final String topic;
-  Producer<String, String> producer = null;
-  Consumer<String, String> consumer = null;
+  final int maxInFlightPublishes;
+  final Semaphore inFlightPublishes;
+  final AtomicLong publishFailures = new AtomicLong();
+  final AtomicBoolean publishFailing = new AtomicBoolean(false);
+  final AtomicReference<String> lastPublishError = new AtomicReference<>();
+  final EventCodec eventCodec;
+  Producer<String, byte[]> producer = null;
+  Consumer<String, byte[]> consumer = null;
 
   KafkaSession(KafkaConfig kafkaConfig, String sessionName, EventQueue queue) {
     this.kafkaConfig = kafkaConfig;
     this.sessionName = sessionName;
     this.topic = queue.name();
+    this.maxInFlightPublishes = Math.max(kafkaConfig.getMaxInFlightPublishes(), 1);
+    this.inFlightPublishes = new Semaphore(maxInFlightPublishes);
+    this.eventCodec = EventCodecs.forName(kafkaConfig.getEventCodec());
   }
 
   @Override
   public void publish(AnchorEvent event) throws AnchorException {
+    if (kafkaConfig.isAsyncPublish()) {
+      publishAsync(event);
+      return;
+    }
+
     try {
-      if (producer == null) {
-        producer = createProducer();
-      }
-      String serialized = GsonUtils.getInstance().toJson(event);
-      ProducerRecord<String, String> record = new ProducerRecord<>(topic, serialized);
-      record.headers().add(new RecordHeader("type", event.getType().type.getBytes()));
+      ProducerRecord<String, byte[]> record = createRecord(event);
       // If the queue is offline, throw an exception
       try {
-        producer.send(record).get();
+        getProducer().send(record).get();
       } catch (Exception ex) {
         throw new EventPublishException("Failed to publish event to Kafka.", ex);
       }
+      onPublished(event);
+    } catch (Exception ex) {
+      onPublishFailed(event, ex);
+      if (ex instanceof EventPublishException) {
+        throw (EventPublishException) ex;
+      }
+      throw new EventPublishException("Failed to publish event to Kafka.", ex);
+    }
+  }
 
-      // publish the event to the metrics
-      Metrics.counter(
-              "event.published",
-              "class",
-              event.getClass().getSimpleName(),
-              "type",
-              event.getType().type)
-          .increment();
-
+  @Override
+  public CompletableFuture<Void> publishAsync(AnchorEvent event) {
+    CompletableFuture<Void> future = new CompletableFuture<>();
+    AtomicBoolean acquired = new AtomicBoolean(false);
+    flushOnCommit(future);
+    try {
+      ProducerRecord<String, byte[]> record = createRecord(event);
+      Producer<String, byte[]> kafkaProducer = getProducer();
+      // Blocks until the number of unacknowledged events is below the limit.
+      inFlightPublishes.acquire();
+      acquired.set(true);
+      kafkaProducer.send(
+          record,
+          (metadata, exception) -> {
+            if (acquired.compareAndSet(true, false)) {
+              inFlightPublishes.release();
+            }
+            if (exception == null) {
+              onPublished(event);
+              future.complete(null);
+            } else {
+              EventPublishException ex =
+                  new EventPublishException("Failed to publish event to Kafka.", exception);
+              onPublishFailed(event, ex);
+              future.completeExceptionally(ex);
+            }
+          });
     } catch (Exception ex) {
-      Log.errorEx(ex);
+      if (ex instanceof InterruptedException) {
+        Thread.currentThread().interrupt();
+      }
+      if (acquired.compareAndSet(true, false)) {
+        inFlightPublishes.release();
+      }
+      onPublishFailed(event, ex);
+      future.completeExceptionally(ex);
     }
+    return future;
+  }
+
+  @Override
+  public void flush() {
+    if (producer != null) {
+      producer.flush();
+    }
+  }
+
+  /**
+   * Registers a synchronization that flushes the producer before the database transaction of the
+   * current thread commits. The synchronization is registered once per transaction. If an event
+   * published in the transaction failed, the commit fails and the transaction is rolled back.
+   *
+   * @param future the future of the event published in the transaction.
+   */
+  @SuppressWarnings("unchecked")
+  void flushOnCommit(CompletableFuture<Void> future) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return;
+    }
+    List<CompletableFuture<Void>> futures =
+        (List<CompletableFuture<Void>>) TransactionSynchronizationManager.getResource(this);
+    if (futures != null) {
+      futures.add(future);
+      return;
+    }
+
+    List<CompletableFuture<Void>> transactionFutures = new ArrayList<>();
+    transactionFutures.add(future);
+    TransactionSynchronizationManager.bindResource(this, transactionFutures);
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void beforeCommit(boolean readOnly) {
+            flush();
+            checkPublished(transactionFutures);
+          }
+
+          @Override
+          public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(KafkaSession.this);
+          }
+        });
+  }
+
+  /**
+   * Checks that the events of a transaction are published. The producer is flushed, so the futures
+   * are complete.
+   *
+   * @param futures the futures of the events.
+   * @throws IllegalStateException if an event is not published.
+   */
+  static void checkPublished(List<CompletableFuture<Void>> futures) {
+    for (CompletableFuture<Void> future : futures) {
+      try {
+        future.join();
+      } catch (CompletionException ex) {
+        throw new IllegalStateException(
+            "The events of the transaction are not published to Kafka.", ex.getCause());
+      }
+    }
+  }
+
+  ProducerRecord<String, byte[]> createRecord(AnchorEvent event) {
+    String key = EventProcessor.getPartitionKey(event);
+    ProducerRecord<String, byte[]> record =
+        new ProducerRecord<>(topic, key, eventCodec.encode(event));
+    record.headers().add(new RecordHeader("type", event.getType().type.getBytes()));
+    record.headers().add(new RecordHeader(EventCodec.HEADER, eventCodec.getName().getBytes(UTF_8)));
+    return record;
+  }
+
+  /**
+   * Decodes the event of a record with the codec of its header. The records without the header are
+   * decoded as JSON.
+   *
+   * @param record the record.
+   * @return the event.
+   */
+  static AnchorEvent decode(ConsumerRecord<String, byte[]> record) {
+    Header header = record.headers().lastHeader(EventCodec.HEADER);
+    EventCodec codec =
+        EventCodecs.forName(header == null ? null : new String(header.value(), UTF_8));
+    return codec.decode(record.value());
+  }
+
+  void onPublished(AnchorEvent event) {
+    publishFailing.set(false);
+    // publish the event to the metrics
+    Metrics.counter(
+            "event.published",
+            "class",
+            event.getClass().getSimpleName(),
+            "type",
+            event.getType().type)
+        .increment();
+  }
+
+  void onPublishFailed(AnchorEvent event, Exception ex) {
+    Log.errorEx(ex);
+    publishFailures.incrementAndGet();
+    publishFailing.set(true);
+    lastPublishError.set(ex.getMessage());
+    Metrics.counter(
+            "event.publish.failed",
+            "class",
+            event.getClass().getSimpleName(),
+            "type",
+            event.getType().type)
+        .increment();
+  }
+
+  /**
+   * Gets the number of events published asynchronously that are not yet acknowledged.
+   *
+   * @return the number of events.
+   */
+  int getInFlightPublishes() {
+    return maxInFlightPublishes - inFlightPublishes.availablePermits();
+  }
+
+  synchronized Producer<String, byte[]> getProducer() throws InvalidConfigException {
+    if (producer == null) {
+      producer = createProducer();
+    }
+    return producer;
   }
 
   @Override
   public EventService.ReadResponse read() throws AnchorException {
     if (consumer == null) {
       consumer = createConsumer();
-      consumer.subscribe(java.util.Collections.singletonList(topic));
+      consumer.subscribe(java.util.Collections.singletonList(topic), new RebalanceListener());
     }
 
-    ConsumerRecords<String, String> consumerRecords =
+    ConsumerRecords<String, byte[]> consumerRecords =
         consumer.poll(Duration.ofSeconds(kafkaConfig.getPollTimeoutSeconds()));
     ArrayList<AnchorEvent> events = new ArrayList<>(consumerRecords.count());
+    ArrayList<ConsumerRecord<String, byte[]>> records = new ArrayList<>(consumerRecords.count());
     if (consumerRecords.isEmpty()) {
       Log.debugF("Received {} Kafka records", consumerRecords.count());
     } else {
       Log.infoF("Received {} Kafka records", consumerRecords.count());
-      for (ConsumerRecord<String, String> record : consumerRecords) {
-        AnchorEvent deserialized =
-            GsonUtils.getInstance().fromJson(record.value(), AnchorEvent.class);
-        events.add(deserialized);
+      for (ConsumerRecord<String, byte[]> record : consumerRecords) {
+        events.add(decode(record));
+        records.add(record);
       }
       // TOOD: emit metrics here.
     }
-    return new KafkaReadResponse(events);
+    return new KafkaReadResponse(events, records);
+  }
+
+  /**
+   * Logs the partitions assigned to the session. The records of the previous read are acknowledged
+   * before the next read, so no processed record is left uncommitted when a partition is revoked.
+   */
+  class RebalanceListener implements ConsumerRebalanceListener {
+    @Override
+    public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+      Log.infoF("Kafka session [{}] is assigned partitions: {}", sessionName, partitions);
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+      Log.infoF("Kafka session [{}] is revoked partitions: {}", sessionName, partitions);
+    }
   }
 
   @AllArgsConstructor
   public class KafkaReadResponse implements EventService.ReadResponse {
     private final List<AnchorEvent> events;
+    private final List<ConsumerRecord<String, byte[]>> records;
 
     @Override
     public List<AnchorEvent> getEvents() {
@@ -111,8 +336,45 @@ public class KafkaSession implements EventService.Session {
 
   @Override
   public void ack(EventService.ReadResponse readResponse) throws AnchorException {
-    if (consumer != null) {
-      consumer.commitSync();
+    List<ConsumerRecord<String, byte[]>> records = ((KafkaReadResponse) readResponse).records;
+    if (consumer == null || records.isEmpty()) {
+      return;
+    }
+
+    // Commit the offsets of the records of the read only. The later reads may not be processed yet.
+    Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+    for (ConsumerRecord<String, byte[]> record : records) {
+      offsets.put(
+          new TopicPartition(record.topic(), record.partition()),
+          new OffsetAndMetadata(record.offset() + 1));
+    }
+    consumer.commitSync(offsets);
+  }
+
+  @Override
+  public void ack(EventService.ReadResponse readResponse, int processed) throws AnchorException {
+    List<ConsumerRecord<String, byte[]>> records = ((KafkaReadResponse) readResponse).records;
+    if (consumer == null || processed >= records.size()) {
+      ack(readResponse);
+      return;
+    }
+
+    // Commit the offsets of the processed records. The partitions of the unprocessed records are
+    // committed and rewound to their first unprocessed record, so that they are read again.
+    Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+    Set<TopicPartition> rewound = new HashSet<>();
+    for (int i = 0; i < records.size(); i++) {
+      ConsumerRecord<String, byte[]> record = records.get(i);
+      TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+      if (i < processed) {
+        offsets.put(partition, new OffsetAndMetadata(record.offset() + 1));
+      } else if (rewound.add(partition)) {
+        offsets.put(partition, new OffsetAndMetadata(record.offset()));
+      }
+    }
+    consumer.commitSync(offsets);
+    for (TopicPartition partition : rewound) {
+      consumer.seek(partition, offsets.get(partition));
     }
   }
 
@@ -131,19 +393,20 @@ public class KafkaSession implements EventService.Session {
     return sessionName;
   }
 
-  private Producer<String, String> createProducer() throws InvalidConfigException {
+  Producer<String, byte[]> createProducer() throws InvalidConfigException {
     Log.debugF("kafkaConfig: {}", kafkaConfig);
 
     Properties props = new Properties();
     props.put(BOOTSTRAP_SERVERS_CONFIG, kafkaConfig.getBootstrapServer());
     props.put(KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-    props.put(VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+    props.put(VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
     if (!isEmpty(kafkaConfig.getClientId())) {
       props.put(CLIENT_ID_CONFIG, kafkaConfig.getClientId());
     }
     props.put(RETRIES_CONFIG, kafkaConfig.getRetries());
     props.put(LINGER_MS_CONFIG, kafkaConfig.getLingerMs());
     props.put(BATCH_SIZE_CONFIG, kafkaConfig.getBatchSize());
+    props.put(COMPRESSION_TYPE_CONFIG, kafkaConfig.getCompressionType());
     // reconnect back-off is 1 second
     props.put(RECONNECT_BACKOFF_MS_CONFIG, "1000");
     // maximum reconnect back-off is 10 seconds
@@ -153,7 +416,7 @@ public class KafkaSession implements EventService.Session {
     return new KafkaProducer<>(props);
   }
 
-  Consumer<String, String> createConsumer() throws InvalidConfigException {
+  Consumer<String, byte[]> createConsumer() throws InvalidConfigException {
     Properties props = new Properties();
 
     props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaConfig.getBootstrapServer());
@@ -163,9 +426,20 @@ public class KafkaSession implements EventService.Session {
     props.put(ConsumerConfig.GROUP_ID_CONFIG, "group-" + sessionName);
     props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
     props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+    // The records of a read must be processed within max.poll.interval.ms, or the consumer leaves
+    // the group and its partitions are reassigned.
+    props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, kafkaConfig.getMaxPollRecords());
+    // Only the moved partitions are revoked when an event processing server joins or leaves. The
+    // group of the earlier servers uses the eager RangeAssignor, so the switch takes two rolling
+    // upgrades. The servers of this release support both assignors and the group keeps the range
+    // assignor until all the servers are upgraded, then switches to the cooperative one. The next
+    // release removes the RangeAssignor.
+    props.put(
+        ConsumerConfig.PARTITION_ASSIGNMENT_STRATEGY_CONFIG,
+        List.of(CooperativeStickyAssignor.class, RangeAssignor.class));
     props.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
     props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-    props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+    props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
     configureAuth(props);
 
     return new KafkaConsumer<>(props);
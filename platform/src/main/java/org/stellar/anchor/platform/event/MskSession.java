@@ -0,0 +1,37 @@
+package org.stellar.anchor.platform.event;
+
+import static org.apache.kafka.clients.CommonClientConfigs.SECURITY_PROTOCOL_CONFIG;
+import static org.apache.kafka.common.config.SaslConfigs.*;
+
+import java.util.Properties;
+import org.stellar.anchor.api.exception.InvalidConfigException;
+import org.stellar.anchor.event.EventService.EventQueue;
+import org.stellar.anchor.platform.config.MskConfig;
+
+/**
+ * The AWS MSK session. The events are published and read as by the Kafka session. If `use_IAM` is
+ * true, the session authenticates to the brokers with the IAM credentials of the default AWS
+ * credentials provider chain.
+ */
+public class MskSession extends KafkaSession {
+  final MskConfig mskConfig;
+
+  MskSession(MskConfig mskConfig, String sessionName, EventQueue queue) {
+    super(mskConfig, sessionName, queue);
+    this.mskConfig = mskConfig;
+  }
+
+  @Override
+  void configureAuth(Properties props) throws InvalidConfigException {
+    if (mskConfig.isUseIAM()) {
+      props.put(SECURITY_PROTOCOL_CONFIG, "SASL_SSL");
+      props.put(SASL_MECHANISM, "AWS_MSK_IAM");
+      props.put(SASL_JAAS_CONFIG, "software.amazon.msk.auth.iam.IAMLoginModule required;");
+      props.put(
+          SASL_CLIENT_CALLBACK_HANDLER_CLASS,
+          "software.amazon.msk.auth.iam.IAMClientCallbackHandler");
+    } else if (mskConfig.getSecurityProtocol() != null) {
+      super.configureAuth(props);
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package org.stellar.anchor.platform.event;
+
+import static org.stellar.anchor.util.Log.debugF;
+
+import java.time.Instant;
+import java.util.UUID;
+import org.stellar.anchor.api.event.AnchorEvent;
+import org.stellar.anchor.api.exception.AnchorException;
+import org.stellar.anchor.event.EventService;
+import org.stellar.anchor.event.EventService.EventQueue;
+import org.stellar.anchor.platform.data.JdbcEventOutbox;
+import org.stellar.anchor.platform.data.JdbcEventOutboxRepo;
+import org.stellar.anchor.util.GsonUtils;
+
+/**
+ * The session that writes the published events to the outbox table. The event is saved in the
+ * database transaction of the caller, if any, so that it is committed or rolled back together
+ * with the transaction change. The events are published to the queue by the EventOutboxRelay.
+ *
+ * <p>Reading and acknowledging events are delegated to the queue session.
+ */
+public class OutboxSession implements EventService.Session {
+  final JdbcEventOutboxRepo outboxRepo;
+  final EventQueue queue;
+  final EventService.Session queueSession;
+
+  OutboxSession(
+      JdbcEventOutboxRepo outboxRepo, EventQueue queue, EventService.Session queueSession) {
+    this.outboxRepo = outboxRepo;
+    this.queue = queue;
+    this.queueSession = queueSession;
+  }
+
+  @Override
+  public void publish(AnchorEvent event) throws AnchorException {
+    write(event);
+  }
+
+  /**
+   * Writes the event to the outbox in the database transaction of the caller, if any.
+   *
+   * @param event the event.
+   */
+  void write(AnchorEvent event) {
+    outboxRepo.save(
+        JdbcEventOutbox.builder()
+            .id(UUID.randomUUID().toString())
+            .queue(queue.name())
+            .payload(GsonUtils.getInstance().toJson(event))
+            .createdAt(Instant.now())
+            .partitionKey(EventProcessor.getPartitionKey(event))
+            .build());
+    debugF("Event ID={} is written to the outbox of queue {}.", event.getId(), queue);
+  }
+
+  @Override
+  public EventService.ReadResponse read() throws AnchorException {
+    return queueSession.read();
+  }
+
+  @Override
+  public void ack(EventService.ReadResponse readResponse) throws AnchorException {
+    queueSession.ack(readResponse);
+  }
+
+  @Override
+  public void ack(EventService.ReadResponse readResponse, int processed) throws AnchorException {
+    queueSession.ack(readResponse, processed);
+  }
+
+  @Override
+  public void close() throws AnchorException {
+    queueSession.close();
+  }
+
+  @Override
+  public String getSessionName() {
+    return queueSession.getSessionName();
+  }
+}
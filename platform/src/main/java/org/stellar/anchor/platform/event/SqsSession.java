@@ -0,0 +1,372 @@
+package org.stellar.anchor.platform.event;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.stellar.anchor.util.StringHelper.isEmpty;
+
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.AnonymousAWSCredentials;
+import com.amazonaws.auth.DefaultAWSCredentialsProviderChain;
+import com.amazonaws.client.builder.AwsClientBuilder.EndpointConfiguration;
+import com.amazonaws.services.sqs.AmazonSQS;
+import com.amazonaws.services.sqs.AmazonSQSClientBuilder;
+import com.amazonaws.services.sqs.model.BatchResultErrorEntry;
+import com.amazonaws.services.sqs.model.ChangeMessageVisibilityBatchRequestEntry;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchRequestEntry;
+import com.amazonaws.services.sqs.model.Message;
+import com.amazonaws.services.sqs.model.MessageAttributeValue;
+import com.amazonaws.services.sqs.model.ReceiveMessageRequest;
+import com.amazonaws.services.sqs.model.SendMessageBatchRequestEntry;
+import com.amazonaws.services.sqs.model.SendMessageBatchResult;
+import com.amazonaws.services.sqs.model.SendMessageBatchResultEntry;
+import io.micrometer.core.instrument.Metrics;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import lombok.AllArgsConstructor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.stellar.anchor.api.event.AnchorEvent;
+import org.stellar.anchor.api.exception.AnchorException;
+import org.stellar.anchor.api.exception.EventPublishException;
+import org.stellar.anchor.event.EventCodec;
+import org.stellar.anchor.event.EventCodecs;
+import org.stellar.anchor.event.EventService;
+import org.stellar.anchor.event.EventService.EventQueue;
+import org.stellar.anchor.platform.config.SqsConfig;
+import org.stellar.anchor.util.Log;
+
+/**
+ * The AWS SQS session.
+ *
+ * <p>The events published asynchronously are sent in batches of 10, the maximum of
+ * SendMessageBatch. The remaining events are sent when the session is flushed, or before the
+ * database transaction publishing them commits. The reads long-poll for up to 10 messages and the
+ * acknowledged messages are deleted in a batch.
+ *
+ * <p>With FIFO queues, the events are grouped by their transaction id, so that the events of a
+ * transaction are read in order, and deduplicated by their event id.
+ *
+ * <p>The events are encoded with the codec of the `event_codec` and the name of the codec is sent
+ * in the {@link EventCodec#HEADER} message attribute, like the Kafka record header. The message
+ * bodies are text, so the binary codecs are sent in base64. The messages without the attribute are
+ * decoded as JSON.
+ */
+public class SqsSession implements EventService.Session {
+  /** The maximum number of messages of the SQS batch requests. */
+  static final int MAX_BATCH_SIZE = 10;
+
+  final SqsConfig sqsConfig;
+  final String sessionName;
+  final String queueName;
+  final EventCodec eventCodec;
+  final List<PendingMessage> pending = new ArrayList<>();
+  AmazonSQS sqsClient = null;
+  String queueUrl = null;
+
+  SqsSession(SqsConfig sqsConfig, String sessionName, EventQueue queue) {
+    this.sqsConfig = sqsConfig;
+    this.sessionName = sessionName;
+    this.queueName = sqsConfig.isFifo() ? queue.name() + ".fifo" : queue.name();
+    this.eventCodec = EventCodecs.forName(sqsConfig.getEventCodec());
+  }
+
+  @Override
+  public void publish(AnchorEvent event) throws AnchorException {
+    CompletableFuture<Void> future = publishAsync(event);
+    flush();
+    if (future.isCompletedExceptionally()) {
+      try {
+        future.join();
+      } catch (Exception ex) {
+        throw new EventPublishException("Failed to publish event to SQS.", ex.getCause());
+      }
+    }
+  }
+
+  @Override
+  public synchronized CompletableFuture<Void> publishAsync(AnchorEvent event) {
+    PendingMessage message = new PendingMessage(event, new CompletableFuture<>());
+    pending.add(message);
+    flushOnCommit();
+    if (pending.size() >= MAX_BATCH_SIZE) {
+      sendPending();
+    }
+    return message.future;
+  }
+
+  @Override
+  public synchronized void flush() {
+    while (!pending.isEmpty()) {
+      sendPending();
+    }
+  }
+
+  /**
+   * Registers a synchronization that flushes the session before the database transaction of the
+   * current thread commits. The synchronization is registered once per transaction.
+   */
+  void flushOnCommit() {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()
+        || TransactionSynchronizationManager.hasResource(this)) {
+      return;
+    }
+    TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void beforeCommit(boolean readOnly) {
+            flush();
+          }
+
+          @Override
+          public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(SqsSession.this);
+          }
+        });
+  }
+
+  /** Sends the first pending events in one SendMessageBatch request. */
+  synchronized void sendPending() {
+    List<PendingMessage> batch =
+        new ArrayList<>(pending.subList(0, Math.min(pending.size(), MAX_BATCH_SIZE)));
+    pending.subList(0, batch.size()).clear();
+
+    List<SendMessageBatchRequestEntry> entries = new ArrayList<>(batch.size());
+    for (int i = 0; i < batch.size(); i++) {
+      entries.add(createEntry(String.valueOf(i), batch.get(i).event));
+    }
+
+    SendMessageBatchResult result;
+    try {
+      result = getSqsClient().sendMessageBatch(getQueueUrl(), entries);
+    } catch (Exception ex) {
+      for (PendingMessage message : batch) {
+        onPublishFailed(message, ex);
+      }
+      return;
+    }
+    for (SendMessageBatchResultEntry entry : result.getSuccessful()) {
+      PendingMessage message = batch.get(Integer.parseInt(entry.getId()));
+      onPublished(message.event);
+      message.future.complete(null);
+    }
+    for (BatchResultErrorEntry entry : result.getFailed()) {
+      onPublishFailed(
+          batch.get(Integer.parseInt(entry.getId())),
+          new EventPublishException(
+              String.format(
+                  "Failed to publish event to SQS. [Code: %s] [Message: %s]",
+                  entry.getCode(), entry.getMessage())));
+    }
+  }
+
+  SendMessageBatchRequestEntry createEntry(String id, AnchorEvent event) {
+    SendMessageBatchRequestEntry entry =
+        new SendMessageBatchRequestEntry(id, encode(eventCodec, event))
+            .addMessageAttributesEntry(
+                "type",
+                new MessageAttributeValue()
+                    .withDataType("String")
+                    .withStringValue(event.getType().type))
+            .addMessageAttributesEntry(
+                EventCodec.HEADER,
+                new MessageAttributeValue()
+                    .withDataType("String")
+                    .withStringValue(eventCodec.getName()));
+    if (sqsConfig.isFifo()) {
+      entry
+          .withMessageGroupId(EventProcessor.getPartitionKey(event))
+          .withMessageDeduplicationId(event.getId());
+    }
+    return entry;
+  }
+
+  /**
+   * Encodes the event to the body of a message. The JSON is sent as is and the other codecs are
+   * sent in base64.
+   *
+   * @param codec the codec.
+   * @param event the event.
+   * @return the body of the message.
+   */
+  static String encode(EventCodec codec, AnchorEvent event) {
+    byte[] data = codec.encode(event);
+    return codec == EventCodecs.JSON
+        ? new String(data, UTF_8)
+        : Base64.getEncoder().encodeToString(data);
+  }
+
+  /**
+   * Decodes the event of a message with the codec of its {@link EventCodec#HEADER} attribute. The
+   * messages without the attribute are decoded as JSON.
+   *
+   * @param message the message.
+   * @return the event.
+   */
+  static AnchorEvent decode(Message message) {
+    MessageAttributeValue attribute = message.getMessageAttributes().get(EventCodec.HEADER);
+    EventCodec codec = EventCodecs.forName(attribute == null ? null : attribute.getStringValue());
+    return codec.decode(
+        codec == EventCodecs.JSON
+            ? message.getBody().getBytes(UTF_8)
+            : Base64.getDecoder().decode(message.getBody()));
+  }
+
+  void onPublished(AnchorEvent event) {
+    Metrics.counter(
+            "event.published",
+            "class",
+            event.getClass().getSimpleName(),
+            "type",
+            event.getType().type)
+        .increment();
+  }
+
+  void onPublishFailed(PendingMessage message, Exception ex) {
+    Log.errorEx(ex);
+    Metrics.counter(
+            "event.publish.failed",
+            "class",
+            message.event.getClass().getSimpleName(),
+            "type",
+            message.event.getType().type)
+        .increment();
+    message.future.completeExceptionally(ex);
+  }
+
+  @Override
+  public EventService.ReadResponse read() throws AnchorException {
+    List<Message> messages =
+        getSqsClient()
+            .receiveMessage(
+                new ReceiveMessageRequest(getQueueUrl())
+                    .withMessageAttributeNames(EventCodec.HEADER)
+                    .withMaxNumberOfMessages(MAX_BATCH_SIZE)
+                    .withWaitTimeSeconds(sqsConfig.getWaitTimeSeconds()))
+            .getMessages();
+    List<AnchorEvent> events = new ArrayList<>(messages.size());
+    if (messages.isEmpty()) {
+      Log.debugF("Received {} SQS messages", messages.size());
+    } else {
+      Log.infoF("Received {} SQS messages", messages.size());
+      for (Message message : messages) {
+        events.add(decode(message));
+      }
+    }
+    return new SqsReadResponse(events, messages);
+  }
+
+  @AllArgsConstructor
+  public static class SqsReadResponse implements EventService.ReadResponse {
+    private final List<AnchorEvent> events;
+    private final List<Message> messages;
+
+    @Override
+    public List<AnchorEvent> getEvents() {
+      return events;
+    }
+  }
+
+  @AllArgsConstructor
+  static class PendingMessage {
+    final AnchorEvent event;
+    final CompletableFuture<Void> future;
+  }
+
+  @Override
+  public void ack(EventService.ReadResponse readResponse) throws AnchorException {
+    ack(readResponse, readResponse.getEvents().size());
+  }
+
+  @Override
+  public void ack(EventService.ReadResponse readResponse, int processed) throws AnchorException {
+    List<Message> messages = ((SqsReadResponse) readResponse).messages;
+    processed = Math.min(processed, messages.size());
+
+    // Delete the processed messages. The unprocessed messages are made visible again, so that they
+    // are read again without waiting for their visibility timeout.
+    List<DeleteMessageBatchRequestEntry> deletes = new ArrayList<>(processed);
+    for (int i = 0; i < processed; i++) {
+      String receiptHandle = messages.get(i).getReceiptHandle();
+      deletes.add(new DeleteMessageBatchRequestEntry(String.valueOf(i), receiptHandle));
+    }
+    List<ChangeMessageVisibilityBatchRequestEntry> releases = new ArrayList<>();
+    for (int i = processed; i < messages.size(); i++) {
+      releases.add(
+          new ChangeMessageVisibilityBatchRequestEntry(
+                  String.valueOf(i), messages.get(i).getReceiptHandle())
+              .withVisibilityTimeout(0));
+    }
+
+    if (!deletes.isEmpty()) {
+      for (BatchResultErrorEntry entry :
+          getSqsClient().deleteMessageBatch(getQueueUrl(), deletes).getFailed()) {
+        // The message is read again, so the event is delivered at least once.
+        Log.warnF(
+            "Failed to delete the SQS message. [Code: {}] [Message: {}]",
+            entry.getCode(),
+            entry.getMessage());
+      }
+    }
+    if (!releases.isEmpty()) {
+      getSqsClient().changeMessageVisibilityBatch(getQueueUrl(), releases);
+    }
+  }
+
+  @Override
+  public void close() throws AnchorException {
+    flush();
+    if (sqsClient != null) {
+      sqsClient.shutdown();
+    }
+  }
+
+  @Override
+  public String getSessionName() {
+    return sessionName;
+  }
+
+  synchronized AmazonSQS getSqsClient() {
+    if (sqsClient == null) {
+      sqsClient = createSqsClient();
+    }
+    return sqsClient;
+  }
+
+  /**
+   * Gets the URL of the queue. The URL is looked up once and cached by the session.
+   *
+   * @return the URL of the queue.
+   */
+  synchronized String getQueueUrl() {
+    if (queueUrl == null) {
+      queueUrl = getSqsClient().getQueueUrl(queueName).getQueueUrl();
+    }
+    return queueUrl;
+  }
+
+  /**
+   * Creates the SQS client. With IAM, the credentials are looked up by the default provider chain
+   * of AWS: the environment, the profile, or the role of the container or instance. Otherwise, the
+   * requests are not signed, which only the local SQS services of the endpoint accept.
+   *
+   * @return the SQS client.
+   */
+  AmazonSQS createSqsClient() {
+    Log.debugF("sqsConfig: {}", sqsConfig);
+    AmazonSQSClientBuilder builder = AmazonSQSClientBuilder.standard();
+    if (sqsConfig.isUseIAM()) {
+      builder.withCredentials(DefaultAWSCredentialsProviderChain.getInstance());
+    } else {
+      builder.withCredentials(new AWSStaticCredentialsProvider(new AnonymousAWSCredentials()));
+    }
+    if (isEmpty(sqsConfig.getEndpoint())) {
+      builder.withRegion(sqsConfig.getAwsRegion());
+    } else {
+      builder.withEndpointConfiguration(
+          new EndpointConfiguration(sqsConfig.getEndpoint(), sqsConfig.getAwsRegion()));
+    }
+    return builder.build();
+  }
+}
@@ -1,10 +1,24 @@
 package org.stellar.anchor.platform.observer;
 
 import java.io.IOException;
+import java.util.List;
 import org.stellar.anchor.api.exception.AnchorException;
 
 public interface PaymentListener {
   void onReceived(ObservedPayment payment) throws AnchorException, IOException;
 
+  /**
+   * Handles a batch of received payments, in the order they were observed. Listeners that can
+   * process several payments at once, for example with set-based queries, should override this.
+   *
+   * @param payments the received payments.
+   */
+  default void onBatchReceived(List<ObservedPayment> payments)
+      throws AnchorException, IOException {
+    for (ObservedPayment payment : payments) {
+      onReceived(payment);
+    }
+  }
+
   void onSent(ObservedPayment payment) throws AnchorException, IOException;
 }
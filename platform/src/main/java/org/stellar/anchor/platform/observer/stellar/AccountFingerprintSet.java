@@ -0,0 +1,131 @@
+package org.stellar.anchor.platform.observer.stellar;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * An open-addressed set of 64-bit account fingerprints used as a pre-filter in front of the
+ * observing accounts map.
+ *
+ * <p>The fingerprint of a G-address is taken directly from the base32 characters that encode the
+ * ed25519 public key, so checking an account does not allocate. Lookups are lock-free. Additions
+ * and rebuilds are synchronized and publish a new table when the set grows.
+ */
+class AccountFingerprintSet {
+  static final long NO_FINGERPRINT = 0L;
+  static final int INITIAL_CAPACITY = 1024;
+
+  // The length of an encoded ed25519 public key (G-address).
+  static final int ACCOUNT_ID_LENGTH = 56;
+  // The first two characters carry the version byte. The following 12 characters carry 60 bits of
+  // the public key.
+  static final int KEY_CHARS_OFFSET = 2;
+  static final int KEY_CHARS_COUNT = 12;
+
+  volatile AtomicLongArray table = new AtomicLongArray(INITIAL_CAPACITY);
+  int size = 0;
+
+  /**
+   * Adds the account to the set.
+   *
+   * @param account the account id.
+   */
+  synchronized void add(String account) {
+    long fp = fingerprint(account);
+    if (fp == NO_FINGERPRINT) return;
+    if ((size + 1) * 2 > table.length()) {
+      table = copyOf(table, table.length() * 2);
+    }
+    if (insert(table, fp)) size++;
+  }
+
+  /**
+   * Replaces the content of the set with the given accounts. This is used after accounts are
+   * evicted because open-addressed tables do not support removal.
+   *
+   * @param accounts the accounts to keep.
+   */
+  synchronized void rebuild(Collection<String> accounts) {
+    int capacity = INITIAL_CAPACITY;
+    while (accounts.size() * 2 > capacity) capacity *= 2;
+    AtomicLongArray newTable = new AtomicLongArray(capacity);
+    int newSize = 0;
+    for (String account : accounts) {
+      long fp = fingerprint(account);
+      if (fp != NO_FINGERPRINT && insert(newTable, fp)) newSize++;
+    }
+    table = newTable;
+    size = newSize;
+  }
+
+  /**
+   * Checks if the account may be in the set. A false result is definitive. A true result must be
+   * confirmed against the observing accounts map.
+   *
+   * @param account the account id.
+   * @return false if the account is definitely not in the set.
+   */
+  boolean mightContain(String account) {
+    long fp = fingerprint(account);
+    // Accounts that cannot be fingerprinted are left to the map lookup.
+    if (fp == NO_FINGERPRINT) return true;
+    AtomicLongArray t = table;
+    int mask = t.length() - 1;
+    for (int i = indexOf(fp, mask); ; i = (i + 1) & mask) {
+      long value = t.get(i);
+      if (value == fp) return true;
+      if (value == NO_FINGERPRINT) return false;
+    }
+  }
+
+  /**
+   * Computes the fingerprint of a G-address by decoding 60 bits of its public key.
+   *
+   * @param account the account id.
+   * @return the fingerprint, or NO_FINGERPRINT if the account is not a well-formed G-address.
+   */
+  static long fingerprint(String account) {
+    if (account == null || account.length() != ACCOUNT_ID_LENGTH || account.charAt(0) != 'G') {
+      return NO_FINGERPRINT;
+    }
+    long fp = 0;
+    for (int i = KEY_CHARS_OFFSET; i < KEY_CHARS_OFFSET + KEY_CHARS_COUNT; i++) {
+      int bits = decodeBase32(account.charAt(i));
+      if (bits < 0) return NO_FINGERPRINT;
+      fp = (fp << 5) | bits;
+    }
+    // Set the top bit so that a valid fingerprint is never equal to NO_FINGERPRINT.
+    return fp | Long.MIN_VALUE;
+  }
+
+  static int decodeBase32(char c) {
+    if (c >= 'A' && c <= 'Z') return c - 'A';
+    if (c >= '2' && c <= '7') return c - '2' + 26;
+    return -1;
+  }
+
+  static int indexOf(long fp, int mask) {
+    return (int) (fp ^ (fp >>> 32)) & mask;
+  }
+
+  static boolean insert(AtomicLongArray t, long fp) {
+    int mask = t.length() - 1;
+    for (int i = indexOf(fp, mask); ; i = (i + 1) & mask) {
+      long value = t.get(i);
+      if (value == fp) return false;
+      if (value == NO_FINGERPRINT) {
+        t.set(i, fp);
+        return true;
+      }
+    }
+  }
+
+  static AtomicLongArray copyOf(AtomicLongArray t, int capacity) {
+    AtomicLongArray newTable = new AtomicLongArray(capacity);
+    for (int i = 0; i < t.length(); i++) {
+      long fp = t.get(i);
+      if (fp != NO_FINGERPRINT) insert(newTable, fp);
+    }
+    return newTable;
+  }
+}
@@ -0,0 +1,60 @@
+package org.stellar.anchor.platform.observer.stellar;
+
+import static org.stellar.anchor.util.Log.traceF;
+
+/**
+ * A cursor store that keeps the latest cursor in memory and only writes it to the underlying store
+ * every <code>flushOperations</code> saves or every <code>flushIntervalMillis</code>, whichever
+ * comes first. The observer flushes it explicitly when the stream is stopped or restarted.
+ *
+ * <p>If the process crashes before a flush, the observer replays the payments after the last
+ * persisted cursor. This is safe because the payment listeners are idempotent.
+ */
+public class CheckpointingStellarPaymentStreamerCursorStore
+    implements StellarPaymentStreamerCursorStore {
+  final StellarPaymentStreamerCursorStore delegate;
+  final int flushOperations;
+  final long flushIntervalMillis;
+
+  String pendingCursor = null;
+  int pendingCount = 0;
+  long lastFlushTime;
+
+  public CheckpointingStellarPaymentStreamerCursorStore(
+      StellarPaymentStreamerCursorStore delegate, int flushOperations, long flushIntervalMillis) {
+    this.delegate = delegate;
+    this.flushOperations = flushOperations;
+    this.flushIntervalMillis = flushIntervalMillis;
+    this.lastFlushTime = System.currentTimeMillis();
+  }
+
+  @Override
+  public synchronized void save(String cursor) {
+    pendingCursor = cursor;
+    pendingCount++;
+    if (pendingCount >= flushOperations
+        || System.currentTimeMillis() - lastFlushTime >= flushIntervalMillis) {
+      flush();
+    }
+  }
+
+  @Override
+  public synchronized String load() {
+    if (pendingCursor != null) {
+      return pendingCursor;
+    }
+    return delegate.load();
+  }
+
+  @Override
+  public synchronized void flush() {
+    if (pendingCursor != null) {
+      traceF("Flushing cursor {} after {} operations", pendingCursor, pendingCount);
+      // The pending cursor is only cleared if the delegate saves it successfully.
+      delegate.save(pendingCursor);
+      pendingCursor = null;
+      pendingCount = 0;
+    }
+    lastFlushTime = System.currentTimeMillis();
+  }
+}
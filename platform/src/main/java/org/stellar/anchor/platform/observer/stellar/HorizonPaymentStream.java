@@ -0,0 +1,243 @@
+package org.stellar.anchor.platform.observer.stellar;
+
+import static org.stellar.anchor.util.Log.*;
+
+import com.google.gson.stream.JsonReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.annotation.Nullable;
+import okhttp3.Call;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+import org.stellar.anchor.platform.observer.stellar.ObservedPaymentDecoder.DecodedOperation;
+import org.stellar.anchor.platform.utils.DaemonExecutors;
+
+/**
+ * Streams the payment operations of Horizon with server-sent events, and decodes them with {@link
+ * ObservedPaymentDecoder} instead of the object model of the Stellar SDK.
+ *
+ * <p>The events are read on the thread of the stream. When Horizon closes the stream, the stream
+ * reconnects from the id of the last event, like the SSE streams of the SDK. If the connection
+ * fails, the error is sent to the listener and the stream stops. The observer then restarts it.
+ */
+public class HorizonPaymentStream implements Closeable {
+  /** The default time in milliseconds before reconnecting, until Horizon sends one. */
+  static final long DEFAULT_RETRY_MILLIS = 1000;
+
+  final OkHttpClient httpClient;
+  final HttpUrl url;
+  final ObservedPaymentDecoder decoder;
+  final Listener listener;
+  final ExecutorService executorService = DaemonExecutors.newFixedThreadPool(1);
+  final AtomicBoolean isStopped = new AtomicBoolean(false);
+  final AtomicReference<String> lastEventId = new AtomicReference<>();
+  final AtomicReference<Call> call = new AtomicReference<>();
+  long retryMillis = DEFAULT_RETRY_MILLIS;
+
+  HorizonPaymentStream(
+      OkHttpClient httpClient,
+      HttpUrl url,
+      @Nullable String cursor,
+      ObservedPaymentDecoder decoder,
+      Listener listener) {
+    // The stream is read for as long as it is open.
+    this.httpClient =
+        httpClient
+            .newBuilder()
+            .readTimeout(0, TimeUnit.SECONDS)
+            .callTimeout(0, TimeUnit.SECONDS)
+            .build();
+    this.url = url;
+    this.decoder = decoder;
+    this.listener = listener;
+    this.lastEventId.set(cursor);
+  }
+
+  /**
+   * Opens the stream of the payments of the network, or of an account.
+   *
+   * @param httpClient the HTTP client.
+   * @param horizonUrl the URL of Horizon.
+   * @param account the account whose payments are streamed, or null for all the payments.
+   * @param cursor the cursor to stream from.
+   * @param pageSize the maximum number of records Horizon reads at once.
+   * @param decoder the decoder of the operations.
+   * @param listener the listener of the operations.
+   * @return the open stream.
+   */
+  public static HorizonPaymentStream open(
+      OkHttpClient httpClient,
+      String horizonUrl,
+      @Nullable String account,
+      @Nullable String cursor,
+      int pageSize,
+      ObservedPaymentDecoder decoder,
+      Listener listener) {
+    HttpUrl.Builder url = HttpUrl.get(horizonUrl).newBuilder();
+    if (account != null) {
+      url.addPathSegment("accounts").addPathSegment(account);
+    }
+    url.addPathSegment("payments")
+        .addQueryParameter("order", "asc")
+        .addQueryParameter("limit", String.valueOf(pageSize))
+        .addQueryParameter("join", "transactions");
+    HorizonPaymentStream stream =
+        new HorizonPaymentStream(httpClient, url.build(), cursor, decoder, listener);
+    stream.executorService.submit(stream::run);
+    return stream;
+  }
+
+  void run() {
+    try {
+      while (!isStopped.get()) {
+        readEvents();
+        if (!isStopped.get()) {
+          debugF("The payment stream is closed by Horizon. Reconnecting in {} ms", retryMillis);
+          Thread.sleep(retryMillis);
+        }
+      }
+    } catch (IOException | RuntimeException ex) {
+      if (isStopped.compareAndSet(false, true)) {
+        listener.onFailure(ex);
+      }
+    } catch (InterruptedException ex) {
+      debug("The payment stream is interrupted.");
+    }
+  }
+
+  void readEvents() throws IOException {
+    HttpUrl.Builder requestUrl = url.newBuilder();
+    String cursor = lastEventId.get();
+    if (cursor != null) {
+      requestUrl.addQueryParameter("cursor", cursor);
+    }
+    Request request =
+        new Request.Builder()
+            .url(requestUrl.build())
+            .header("Accept", "text/event-stream")
+            .get()
+            .build();
+    Call newCall = httpClient.newCall(request);
+    call.set(newCall);
+    if (isStopped.get()) {
+      return;
+    }
+    try (Response response = newCall.execute()) {
+      ResponseBody body = response.body();
+      if (!response.isSuccessful() || body == null) {
+        throw new IOException(
+            String.format("Error streaming payments. url=%s code=%d", url, response.code()));
+      }
+      readEvents(body.source());
+    } catch (IOException ex) {
+      // Closing the stream cancels the call.
+      if (!isStopped.get()) throw ex;
+    }
+  }
+
+  void readEvents(BufferedSource source) throws IOException {
+    String id = null;
+    StringBuilder data = new StringBuilder();
+    String line;
+    while (!isStopped.get() && (line = source.readUtf8Line()) != null) {
+      if (line.isEmpty()) {
+        dispatch(id, data);
+        id = null;
+        data.setLength(0);
+        continue;
+      }
+      int colon = line.indexOf(':');
+      // A line starting with a colon is a comment.
+      if (colon == 0) continue;
+      String field = colon < 0 ? line : line.substring(0, colon);
+      String value = colon < 0 ? "" : line.substring(colon + 1);
+      if (value.startsWith(" ")) value = value.substring(1);
+      switch (field) {
+        case "id":
+          id = value;
+          break;
+        case "data":
+          if (data.length() > 0) data.append('\n');
+          data.append(value);
+          break;
+        case "retry":
+          try {
+            retryMillis = Long.parseLong(value);
+          } catch (NumberFormatException ex) {
+            debugF("Ignoring the invalid retry of the payment stream: {}", value);
+          }
+          break;
+        default:
+          // The event type is not used. Horizon sends the operations as messages.
+          break;
+      }
+    }
+  }
+
+  void dispatch(String id, StringBuilder data) throws IOException {
+    // Horizon sends "hello" and "byebye" strings when the stream opens and closes.
+    if (data.length() == 0 || data.charAt(0) != '{') return;
+    DecodedOperation operation = decoder.decode(new JsonReader(new StringReader(data.toString())));
+    lastEventId.set(id != null ? id : operation.getPagingToken());
+    listener.onEvent(operation);
+  }
+
+  /** Closes the stream. The events that are being handled complete. */
+  @Override
+  public void close() {
+    isStopped.set(true);
+    Call current = call.get();
+    if (current != null) {
+      current.cancel();
+    }
+    executorService.shutdownNow();
+  }
+
+  public boolean isStopped() {
+    return isStopped.get();
+  }
+
+  public boolean isThreadShutdown() {
+    return executorService.isShutdown();
+  }
+
+  public boolean isThreadTerminated() {
+    return executorService.isTerminated();
+  }
+
+  /**
+   * Gets the id of the last event of the stream. This is the paging token of the last operation.
+   *
+   * @return the id of the last event, or the cursor the stream was opened with.
+   */
+  @Nullable
+  public String getLastEventId() {
+    return lastEventId.get();
+  }
+
+  /** The listener of the operations of the stream. */
+  public interface Listener {
+    /**
+     * Handles an operation of the stream. It is called on the thread of the stream.
+     *
+     * @param operation the decoded operation.
+     */
+    void onEvent(DecodedOperation operation);
+
+    /**
+     * Handles the failure of the stream. The stream is stopped.
+     *
+     * @param error the error.
+     */
+    void onFailure(Throwable error);
+  }
+}
@@ -0,0 +1,306 @@
+package org.stellar.anchor.platform.observer.stellar;
+
+import com.google.gson.stream.JsonReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.stellar.anchor.api.sep.AssetInfo;
+import org.stellar.anchor.platform.observer.ObservedPayment;
+import org.stellar.anchor.util.MemoHelper;
+
+/**
+ * Decodes Horizon payment operations into {@link ObservedPayment} with a streaming JSON reader.
+ *
+ * <p>The Stellar SDK builds a full object graph for every operation, including the embedded
+ * transaction and its XDR strings. This decoder only reads the fields needed by the observer. The
+ * embedded transaction is skipped without being read when the operation is not a successful payment
+ * to or from an observed account.
+ */
+public class ObservedPaymentDecoder {
+  static final int TYPE_PAYMENT = 1;
+  static final int TYPE_PATH_PAYMENT_STRICT_RECEIVE = 2;
+  static final int TYPE_PATH_PAYMENT_STRICT_SEND = 13;
+
+  final Predicate<String> isObserved;
+
+  /**
+   * Constructs the decoder.
+   *
+   * @param isObserved checks if an account is observed. It must not have side effects.
+   */
+  public ObservedPaymentDecoder(Predicate<String> isObserved) {
+    this.isObserved = isObserved;
+  }
+
+  /**
+   * Decodes the records of a Horizon page of payment operations.
+   *
+   * @param reader the reader of the page JSON.
+   * @return the decoded operations, in the order of the page.
+   * @throws IOException if the JSON cannot be read.
+   */
+  public List<DecodedOperation> decodePage(Reader reader) throws IOException {
+    List<DecodedOperation> operations = new ArrayList<>();
+    JsonReader json = new JsonReader(reader);
+    json.beginObject();
+    while (json.hasNext()) {
+      if (!"_embedded".equals(json.nextName())) {
+        json.skipValue();
+        continue;
+      }
+      json.beginObject();
+      while (json.hasNext()) {
+        if (!"records".equals(json.nextName())) {
+          json.skipValue();
+          continue;
+        }
+        json.beginArray();
+        while (json.hasNext()) {
+          operations.add(decode(json));
+        }
+        json.endArray();
+      }
+      json.endObject();
+    }
+    json.endObject();
+    return operations;
+  }
+
+  /**
+   * Decodes a single operation.
+   *
+   * @param json the reader positioned at the beginning of the operation object.
+   * @return the decoded operation. Its payment is null if the operation is not relevant.
+   * @throws IOException if the JSON cannot be read.
+   */
+  public DecodedOperation decode(JsonReader json) throws IOException {
+    Fields f = new Fields();
+    json.beginObject();
+    while (json.hasNext()) {
+      String name = json.nextName();
+      if (f.rejected() && !"paging_token".equals(name) && !"id".equals(name)) {
+        json.skipValue();
+        continue;
+      }
+      switch (name) {
+        case "id":
+          f.id = json.nextString();
+          break;
+        case "paging_token":
+          f.pagingToken = json.nextString();
+          break;
+        case "transaction_successful":
+          f.successful = json.nextBoolean();
+          break;
+        case "type_i":
+          f.typeI = json.nextInt();
+          break;
+        case "source_account":
+          f.sourceAccount = json.nextString();
+          break;
+        case "created_at":
+          f.createdAt = json.nextString();
+          break;
+        case "transaction_hash":
+          f.transactionHash = json.nextString();
+          break;
+        case "from":
+          f.from = json.nextString();
+          break;
+        case "to":
+          f.to = json.nextString();
+          break;
+        case "amount":
+          f.amount = json.nextString();
+          break;
+        case "asset_type":
+          f.assetType = json.nextString();
+          break;
+        case "asset_code":
+          f.assetCode = json.nextString();
+          break;
+        case "asset_issuer":
+          f.assetIssuer = json.nextString();
+          break;
+        case "source_amount":
+          f.sourceAmount = json.nextString();
+          break;
+        case "source_asset_type":
+          f.sourceAssetType = json.nextString();
+          break;
+        case "source_asset_code":
+          f.sourceAssetCode = json.nextString();
+          break;
+        case "source_asset_issuer":
+          f.sourceAssetIssuer = json.nextString();
+          break;
+        case "transaction":
+          // Horizon writes the operation fields before the embedded transaction. If the accounts
+          // are not known yet, the transaction is read anyway.
+          if (f.to != null && !isRelevant(f)) {
+            json.skipValue();
+          } else {
+            decodeTransaction(json, f);
+          }
+          break;
+        default:
+          json.skipValue();
+      }
+    }
+    json.endObject();
+
+    ObservedPayment payment = null;
+    if (!f.rejected() && f.transactionRead && isRelevant(f)) {
+      payment = toObservedPayment(f);
+    }
+    return new DecodedOperation(f.id, f.pagingToken, f.successful, payment);
+  }
+
+  void decodeTransaction(JsonReader json, Fields f) throws IOException {
+    f.transactionRead = true;
+    json.beginObject();
+    while (json.hasNext()) {
+      switch (json.nextName()) {
+        case "source_account":
+          f.transactionSourceAccount = json.nextString();
+          break;
+        case "memo_type":
+          f.memoType = json.nextString();
+          break;
+        case "memo":
+          f.memo = json.nextString();
+          break;
+        case "envelope_xdr":
+          f.envelopeXdr = json.nextString();
+          break;
+        default:
+          json.skipValue();
+      }
+    }
+    json.endObject();
+  }
+
+  boolean isRelevant(Fields f) {
+    return isObserved.test(f.to) || isObserved.test(f.from());
+  }
+
+  ObservedPayment toObservedPayment(Fields f) {
+    ObservedPayment.ObservedPaymentBuilder builder =
+        ObservedPayment.builder()
+            .id(f.id)
+            .type(
+                f.typeI == TYPE_PAYMENT
+                    ? ObservedPayment.Type.PAYMENT
+                    : ObservedPayment.Type.PATH_PAYMENT)
+            .from(f.from())
+            .to(f.to)
+            .amount(f.amount)
+            .assetType(f.assetType)
+            .assetCode(assetCode(f.assetType, f.assetCode))
+            .assetIssuer(f.assetIssuer)
+            .assetName(assetName(f.assetType, f.assetCode, f.assetIssuer))
+            .sourceAccount(f.sourceAccount())
+            .createdAt(f.createdAt)
+            .transactionHash(f.transactionHash)
+            .transactionMemo(memoAsString(f.memoType, f.memo))
+            .transactionMemoType(f.memoType == null ? "none" : f.memoType)
+            .transactionEnvelope(f.envelopeXdr);
+    if (f.typeI != TYPE_PAYMENT) {
+      builder
+          .sourceAmount(f.sourceAmount)
+          .sourceAssetType(f.sourceAssetType)
+          .sourceAssetCode(assetCode(f.sourceAssetType, f.sourceAssetCode))
+          .sourceAssetIssuer(f.sourceAssetIssuer)
+          .sourceAssetName(
+              assetName(f.sourceAssetType, f.sourceAssetCode, f.sourceAssetIssuer));
+    }
+    return builder.build();
+  }
+
+  static String assetCode(String assetType, String code) {
+    return "native".equals(assetType) ? AssetInfo.NATIVE_ASSET_CODE : code;
+  }
+
+  static String assetName(String assetType, String code, String issuer) {
+    return "native".equals(assetType) ? "native" : code + ":" + issuer;
+  }
+
+  /** Formats the memo the same way as MemoHelper.memoAsString does for the SDK memo types. */
+  static String memoAsString(String memoType, String memo) {
+    if (memoType == null || "none".equals(memoType)) {
+      return "";
+    }
+    if ("hash".equals(memoType) || "return".equals(memoType)) {
+      return MemoHelper.convertBase64ToHex(memo);
+    }
+    return memo;
+  }
+
+  /** The fields collected while reading an operation. */
+  static class Fields {
+    String id;
+    String pagingToken;
+    boolean successful = true;
+    int typeI = -1;
+    String sourceAccount;
+    String createdAt;
+    String transactionHash;
+    String from;
+    String to;
+    String amount;
+    String assetType;
+    String assetCode;
+    String assetIssuer;
+    String sourceAmount;
+    String sourceAssetType;
+    String sourceAssetCode;
+    String sourceAssetIssuer;
+    boolean transactionRead = false;
+    String transactionSourceAccount;
+    String memoType;
+    String memo;
+    String envelopeXdr;
+
+    boolean rejected() {
+      return !successful
+          || (typeI != -1
+              && typeI != TYPE_PAYMENT
+              && typeI != TYPE_PATH_PAYMENT_STRICT_RECEIVE
+              && typeI != TYPE_PATH_PAYMENT_STRICT_SEND);
+    }
+
+    String sourceAccount() {
+      return sourceAccount != null ? sourceAccount : transactionSourceAccount;
+    }
+
+    String from() {
+      return from != null ? from : sourceAccount();
+    }
+  }
+
+  /** An operation read from Horizon. */
+  @Getter
+  @AllArgsConstructor
+  public static class DecodedOperation {
+    String id;
+    String pagingToken;
+    boolean successful;
+
+    /** The observed payment, or null if the operation is not a relevant payment. */
+    ObservedPayment payment;
+
+    /**
+     * Gets the ledger of the operation. The paging token of an operation is its total order id,
+     * whose upper 32 bits are the ledger sequence.
+     *
+     * @return the ledger sequence.
+     */
+    public long getLedger() {
+      return Long.parseLong(pagingToken) >>> 32;
+    }
+  }
+}
@@ -0,0 +1,260 @@
+package org.stellar.anchor.platform.observer.stellar;
+
+import static org.stellar.anchor.util.Log.*;
+import static org.stellar.anchor.util.MetricConstants.*;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import lombok.AllArgsConstructor;
+import org.stellar.anchor.api.exception.AnchorException;
+import org.stellar.anchor.platform.observer.ObservedPayment;
+import org.stellar.anchor.platform.observer.PaymentListener;
+import org.stellar.anchor.platform.utils.DaemonExecutors;
+
+/**
+ * Dispatches observed payments to the payment listeners on a pool of worker threads so that slow
+ * listeners do not block the SSE stream.
+ *
+ * <p>Each worker owns a bounded queue. Payments are partitioned by destination account, so the
+ * payments to the same account are processed in order. When a queue is full, the stream thread
+ * blocks until the worker catches up.
+ *
+ * <p>A worker takes up to <code>batchSize</code> queued payments at once. The received payments of
+ * a batch are sent to the listeners with {@link PaymentListener#onBatchReceived(List)}.
+ *
+ * <p>The sent payments are partitioned by their destination too, so the workers may complete them
+ * in any order. {@link PaymentListener#onSent(ObservedPayment)} is therefore only called for the
+ * contiguous prefix of the completed payments, in the order they were dispatched. A payment is
+ * fully processed once the payments dispatched before it are.
+ *
+ * <p>The paging tokens of the payments that are not fully processed are tracked. The cursor
+ * returned by {@link #processedCursor(String)} never passes the oldest of them. If a listener
+ * fails, its paging token is kept until {@link #reset()} is called, so the observer can restart the
+ * stream from before the failed payment. The later payments to the account of a failed payment are
+ * not processed until then, so that the payments to an account are never processed out of order.
+ */
+public class PaymentDispatcher {
+  final List<PaymentListener> paymentListeners;
+  final Runnable onSuccess;
+  final Consumer<Throwable> onFailure;
+  final int batchSize;
+  final BlockingQueue<DispatchTask>[] queues;
+  final ExecutorService workers;
+  final ConcurrentSkipListSet<Long> inFlight = new ConcurrentSkipListSet<>();
+  // The payments whose received part is processed, waiting for the payments dispatched before them
+  final ConcurrentSkipListMap<Long, DispatchTask> completed = new ConcurrentSkipListMap<>();
+  // The accounts whose payments are stopped by a failure until the next reset
+  final Set<String> failedAccounts = ConcurrentHashMap.newKeySet();
+  final AtomicLong generation = new AtomicLong(0);
+
+  final Timer queueWaitTimer = Metrics.timer(PAYMENT_OBSERVER_DISPATCH_QUEUE_WAIT);
+  final Timer processTimer = Metrics.timer(PAYMENT_OBSERVER_DISPATCH_PROCESS);
+
+  @SuppressWarnings("unchecked")
+  public PaymentDispatcher(
+      List<PaymentListener> paymentListeners,
+      int workerCount,
+      int queueSize,
+      int batchSize,
+      Runnable onSuccess,
+      Consumer<Throwable> onFailure) {
+    this.paymentListeners = paymentListeners;
+    this.batchSize = Math.max(batchSize, 1);
+    this.onSuccess = onSuccess;
+    this.onFailure = onFailure;
+    this.queues = new BlockingQueue[workerCount];
+    this.workers = DaemonExecutors.newFixedThreadPool(workerCount);
+    for (int i = 0; i < workerCount; i++) {
+      BlockingQueue<DispatchTask> queue = new ArrayBlockingQueue<>(queueSize);
+      queues[i] = queue;
+      workers.submit(() -> runWorker(queue));
+    }
+
+    Metrics.gauge(PAYMENT_OBSERVER_DISPATCH_QUEUE_DEPTH, this, PaymentDispatcher::getQueueDepth);
+  }
+
+  /**
+   * Queues the payment to be sent to the listeners. This blocks if the queue of the partition is
+   * full.
+   *
+   * @param pagingToken the paging token of the operation.
+   * @param payment the observed payment.
+   * @param received true if the payment was sent to an observed account.
+   * @param sent true if the payment was sent from an observed account.
+   * @throws InterruptedException if the stream thread is interrupted while waiting.
+   */
+  public void dispatch(String pagingToken, ObservedPayment payment, boolean received, boolean sent)
+      throws InterruptedException {
+    long token = Long.parseLong(pagingToken);
+    inFlight.add(token);
+    DispatchTask task =
+        new DispatchTask(token, generation.get(), payment, received, sent, System.nanoTime());
+    queues[Math.floorMod(payment.getTo().hashCode(), queues.length)].put(task);
+  }
+
+  /**
+   * Gets the cursor up to which all payments have been processed.
+   *
+   * @param latestPagingToken the paging token of the latest operation read from the stream.
+   * @return the latest paging token if nothing is in flight. Otherwise, the lower of the latest
+   *     paging token and the cursor right before the oldest payment in flight.
+   */
+  public String processedCursor(String latestPagingToken) {
+    Long oldest = inFlight.ceiling(Long.MIN_VALUE);
+    if (oldest == null) {
+      return latestPagingToken;
+    }
+    return String.valueOf(Math.min(Long.parseLong(latestPagingToken), oldest - 1));
+  }
+
+  /** Discards the queued payments. This is called before the stream is restarted. */
+  public void reset() {
+    synchronized (completed) {
+      generation.incrementAndGet();
+      for (BlockingQueue<DispatchTask> queue : queues) {
+        queue.clear();
+      }
+      inFlight.clear();
+      completed.clear();
+      failedAccounts.clear();
+    }
+  }
+
+  public void shutdown() {
+    reset();
+    workers.shutdownNow();
+  }
+
+  public int getQueueDepth() {
+    int depth = 0;
+    for (BlockingQueue<DispatchTask> queue : queues) {
+      depth += queue.size();
+    }
+    return depth;
+  }
+
+  void runWorker(BlockingQueue<DispatchTask> queue) {
+    List<DispatchTask> tasks = new ArrayList<>(batchSize);
+    while (!Thread.currentThread().isInterrupted()) {
+      tasks.clear();
+      try {
+        tasks.add(queue.take());
+      } catch (InterruptedException e) {
+        debug("The payment dispatcher worker is interrupted.");
+        Thread.currentThread().interrupt();
+        return;
+      }
+      queue.drainTo(tasks, batchSize - 1);
+      // Skip the tasks queued before the last reset, and the tasks of the failed accounts. The
+      // paging tokens of the skipped tasks of the failed accounts stay in flight.
+      long currentGeneration = generation.get();
+      tasks.removeIf(
+          task ->
+              task.generation != currentGeneration
+                  || failedAccounts.contains(task.payment.getTo()));
+      if (tasks.isEmpty()) continue;
+
+      long start = System.nanoTime();
+      for (DispatchTask task : tasks) {
+        queueWaitTimer.record(start - task.queuedAt, TimeUnit.NANOSECONDS);
+      }
+      try {
+        if (batchSize == 1) {
+          process(tasks.get(0));
+        } else {
+          processBatch(tasks);
+        }
+        complete(tasks, currentGeneration);
+        onSuccess.run();
+      } catch (Throwable t) {
+        errorEx("Failed to dispatch payment " + tasks.get(0).payment.getId(), t);
+        if (currentGeneration == generation.get()) {
+          for (DispatchTask task : tasks) {
+            failedAccounts.add(task.payment.getTo());
+          }
+        }
+        onFailure.accept(t);
+      } finally {
+        processTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      }
+    }
+  }
+
+  void process(DispatchTask task) throws AnchorException, IOException {
+    if (task.received) {
+      for (PaymentListener listener : paymentListeners) {
+        listener.onReceived(task.payment);
+      }
+    }
+  }
+
+  void processBatch(List<DispatchTask> tasks) throws AnchorException, IOException {
+    List<ObservedPayment> received = new ArrayList<>(tasks.size());
+    for (DispatchTask task : tasks) {
+      if (task.received) received.add(task.payment);
+    }
+    if (!received.isEmpty()) {
+      for (PaymentListener listener : paymentListeners) {
+        listener.onBatchReceived(received);
+      }
+    }
+  }
+
+  void complete(List<DispatchTask> tasks, long taskGeneration)
+      throws AnchorException, IOException {
+    synchronized (completed) {
+      if (taskGeneration != generation.get()) return;
+      for (DispatchTask task : tasks) {
+        completed.put(task.pagingToken, task);
+      }
+    }
+    completeInOrder();
+  }
+
+  /**
+   * Completes the contiguous prefix of the completed payments, in the order they were dispatched.
+   * The sent payments of the prefix are sent to the listeners, and their paging tokens leave the
+   * payments in flight. A payment that is still processed, or that failed, stops the prefix.
+   *
+   * @throws AnchorException if a listener fails. The payment stays in flight until the next reset.
+   * @throws IOException if a listener fails. The payment stays in flight until the next reset.
+   */
+  void completeInOrder() throws AnchorException, IOException {
+    synchronized (completed) {
+      Long oldest;
+      while ((oldest = inFlight.ceiling(Long.MIN_VALUE)) != null) {
+        DispatchTask task = completed.remove(oldest);
+        if (task == null) return;
+        if (task.sent) {
+          for (PaymentListener listener : paymentListeners) {
+            listener.onSent(task.payment);
+          }
+        }
+        inFlight.remove(task.pagingToken);
+      }
+    }
+  }
+
+  @AllArgsConstructor
+  static class DispatchTask {
+    long pagingToken;
+    long generation;
+    ObservedPayment payment;
+    boolean received;
+    boolean sent;
+    long queuedAt;
+  }
+}
@@ -6,20 +6,22 @@ import static java.time.temporal.ChronoUnit.MINUTES;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
-import lombok.AllArgsConstructor;
 import org.stellar.anchor.platform.data.PaymentObservingAccount;
 import org.stellar.anchor.platform.utils.DaemonExecutors;
 import org.stellar.anchor.util.Log;
 
 public class PaymentObservingAccountsManager {
   final Map<String, ObservingAccount> allAccounts;
+  final AccountFingerprintSet fingerprints = new AccountFingerprintSet();
   private final PaymentObservingAccountStore store;
 
   public PaymentObservingAccountsManager(PaymentObservingAccountStore store) {
@@ -59,7 +61,7 @@ public class PaymentObservingAccountsManager {
     this.evict(getEvictMaxIdleTime());
     Log.debug("Persisting accounts...");
     for (ObservingAccount account : this.getAccounts()) {
-      store.upsert(account.account, account.lastObserved);
+      store.upsert(account.account, account.getLastObserved());
     }
   }
 
@@ -85,8 +87,9 @@ public class PaymentObservingAccountsManager {
       ObservingAccount existingAccount = allAccounts.get(observingAccount.account);
       if (existingAccount == null) {
         allAccounts.put(observingAccount.account, observingAccount);
+        fingerprints.add(observingAccount.account);
         // update the database
-        store.upsert(observingAccount.account, observingAccount.lastObserved);
+        store.upsert(observingAccount.account, observingAccount.getLastObserved());
       } else {
         existingAccount.account = observingAccount.account;
         existingAccount.lastObserved = observingAccount.lastObserved;
@@ -106,17 +109,50 @@ public class PaymentObservingAccountsManager {
     return new ArrayList<>(allAccounts.values());
   }
 
+  /**
+   * Gets the ids of the observed accounts.
+   *
+   * @return The set of observed account ids.
+   */
+  public Set<String> getAccountIds() {
+    return new HashSet<>(allAccounts.keySet());
+  }
+
+  /**
+   * Gets the number of observed accounts.
+   *
+   * @return The number of observed accounts.
+   */
+  public int size() {
+    return allAccounts.size();
+  }
+
+  /**
+   * Check if the account is being observed without updating its lastObserved timestamp.
+   *
+   * @param account The account to be checked.
+   * @return true if the account is being observed. false, otherwise.
+   */
+  public boolean isObserved(String account) {
+    if (account == null || !fingerprints.mightContain(account)) return false;
+    return allAccounts.containsKey(account);
+  }
+
   /**
    * Look up if the account is being observed. If the account is being observed, the lastObserved
    * timestamp of the observing account will be updated.
    *
+   * <p>Most payments on the network are not sent to or from an observed account, so the account is
+   * first checked against a fingerprint set, which does not allocate.
+   *
    * @param account The account to be checked.
    * @return true if the account is being observed. false, otherwise.
    */
   public boolean lookupAndUpdate(String account) {
+    if (!fingerprints.mightContain(account)) return false;
     ObservingAccount acct = allAccounts.get(account);
     if (acct == null) return false;
-    acct.lastObserved = Instant.now();
+    acct.touch(System.currentTimeMillis());
     return true;
   }
 
@@ -126,15 +162,21 @@ public class PaymentObservingAccountsManager {
    * @param maxIdleTime evict all accounts that are older than maxAge
    */
   public void evict(Duration maxIdleTime) {
+    boolean evicted = false;
     for (ObservingAccount acct : getAccounts()) {
       if (acct.type == AccountType.RESIDENTIAL) continue;
 
-      Duration idleTime = Duration.between(Instant.now(), acct.lastObserved).abs();
+      Duration idleTime = Duration.between(Instant.now(), acct.getLastObserved()).abs();
       if (idleTime.compareTo(maxIdleTime) > 0) {
         allAccounts.remove(acct.account);
         store.delete(acct.account);
+        evicted = true;
       }
     }
+
+    if (evicted) {
+      fingerprints.rebuild(allAccounts.keySet());
+    }
   }
 
   public enum AccountType {
@@ -143,11 +185,30 @@ public class PaymentObservingAccountsManager {
     // distribution account
   }
 
-  @AllArgsConstructor
   public static class ObservingAccount {
+    /** The minimum interval between two updates of the lastObserved timestamp. */
+    static final long TOUCH_RESOLUTION_MILLIS = 1000;
+
     String account;
-    Instant lastObserved;
+    // The epoch milliseconds of the last observation. Kept primitive to avoid allocations.
+    volatile long lastObserved;
     AccountType type;
+
+    public ObservingAccount(String account, Instant lastObserved, AccountType type) {
+      this.account = account;
+      this.lastObserved = lastObserved.toEpochMilli();
+      this.type = type;
+    }
+
+    public Instant getLastObserved() {
+      return Instant.ofEpochMilli(lastObserved);
+    }
+
+    void touch(long nowMillis) {
+      if (nowMillis - lastObserved >= TOUCH_RESOLUTION_MILLIS) {
+        lastObserved = nowMillis;
+      }
+    }
   }
 
   Duration getEvictPeriod() {
@@ -0,0 +1,147 @@
+package org.stellar.anchor.platform.observer.stellar;
+
+import static org.stellar.anchor.util.Log.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import lombok.AllArgsConstructor;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.stellar.anchor.platform.observer.stellar.ObservedPaymentDecoder.DecodedOperation;
+import org.stellar.anchor.platform.utils.DaemonExecutors;
+
+/**
+ * Reads the payments between a cursor and the tip of the network with paged Horizon requests.
+ *
+ * <p>A fetcher thread requests the pages in ascending order and keeps up to <code>prefetchPages
+ * </code> of them ahead of the caller. The caller processes the operations in order. When a page
+ * is not full, the tip has been reached and the SSE stream can take over from the returned cursor.
+ *
+ * <p>The pages are read as raw JSON and decoded with {@link ObservedPaymentDecoder}, which skips
+ * the embedded transactions of irrelevant operations.
+ */
+public class StellarPaymentCatchUp {
+  final String horizonUrl;
+  final OkHttpClient httpClient;
+  final ObservedPaymentDecoder decoder;
+  final int pageSize;
+  final int prefetchPages;
+
+  public StellarPaymentCatchUp(
+      String horizonUrl,
+      OkHttpClient httpClient,
+      ObservedPaymentDecoder decoder,
+      int pageSize,
+      int prefetchPages) {
+    this.horizonUrl = horizonUrl;
+    this.httpClient = httpClient;
+    this.decoder = decoder;
+    this.pageSize = pageSize;
+    this.prefetchPages = prefetchPages;
+  }
+
+  /**
+   * Processes all the payments after the cursor.
+   *
+   * @param cursor the cursor to start from.
+   * @param handler the handler of each operation.
+   * @param running the catch-up stops when it returns false.
+   * @return the paging token of the last operation read. This is the cursor to stream from.
+   * @throws IOException if a page cannot be fetched from Horizon.
+   * @throws InterruptedException if the thread is interrupted while waiting for a page.
+   */
+  public String run(String cursor, Consumer<DecodedOperation> handler, BooleanSupplier running)
+      throws IOException, InterruptedException {
+    infoF("Catching up payments from cursor {}", cursor);
+    BlockingQueue<FetchedPage> pages = new ArrayBlockingQueue<>(prefetchPages);
+    ExecutorService fetcher = DaemonExecutors.newFixedThreadPool(1);
+    fetcher.submit(() -> fetchPages(cursor, pages));
+
+    String lastCursor = cursor;
+    long count = 0;
+    try {
+      while (running.getAsBoolean()) {
+        FetchedPage page = pages.take();
+        if (page.error != null) {
+          throw page.error;
+        }
+        for (DecodedOperation record : page.records) {
+          if (!running.getAsBoolean()) break;
+          handler.accept(record);
+          lastCursor = record.getPagingToken();
+          count++;
+        }
+        if (page.last) {
+          infoF("Caught up {} operations. The latest cursor is {}", count, lastCursor);
+          break;
+        }
+      }
+    } finally {
+      fetcher.shutdownNow();
+    }
+    return lastCursor;
+  }
+
+  void fetchPages(String cursor, BlockingQueue<FetchedPage> pages) {
+    String nextCursor = cursor;
+    try {
+      while (!Thread.currentThread().isInterrupted()) {
+        List<DecodedOperation> records;
+        try {
+          debugF("Fetching payments page from cursor {}", nextCursor);
+          records = fetchPage(nextCursor);
+        } catch (IOException ex) {
+          pages.put(new FetchedPage(List.of(), true, ex));
+          return;
+        } catch (RuntimeException ex) {
+          // For example, the page JSON is malformed.
+          pages.put(
+              new FetchedPage(List.of(), true, new IOException("Error fetching payments", ex)));
+          return;
+        }
+        boolean last = records.size() < pageSize;
+        pages.put(new FetchedPage(records, last, null));
+        if (last) return;
+        nextCursor = records.get(records.size() - 1).getPagingToken();
+      }
+    } catch (InterruptedException ex) {
+      debug("The payments catch-up fetcher is interrupted.");
+    }
+  }
+
+  List<DecodedOperation> fetchPage(String cursor) throws IOException {
+    HttpUrl url =
+        HttpUrl.get(horizonUrl)
+            .newBuilder()
+            .addPathSegment("payments")
+            .addQueryParameter("cursor", cursor)
+            .addQueryParameter("order", "asc")
+            .addQueryParameter("limit", String.valueOf(pageSize))
+            .addQueryParameter("join", "transactions")
+            .build();
+    Request request = new Request.Builder().url(url).get().build();
+    try (Response response = httpClient.newCall(request).execute()) {
+      ResponseBody body = response.body();
+      if (!response.isSuccessful() || body == null) {
+        throw new IOException(
+            String.format("Error fetching payments. url=%s code=%d", url, response.code()));
+      }
+      return decoder.decodePage(body.charStream());
+    }
+  }
+
+  @AllArgsConstructor
+  static class FetchedPage {
+    List<DecodedOperation> records;
+    boolean last;
+    IOException error;
+  }
+}
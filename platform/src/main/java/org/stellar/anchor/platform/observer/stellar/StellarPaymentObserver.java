@@ -7,7 +7,6 @@ import static org.stellar.anchor.healthcheck.HealthCheckable.Tags.EVENT;
 import static org.stellar.anchor.platform.observer.stellar.ObserverStatus.*;
 import static org.stellar.anchor.util.Log.*;
 import static org.stellar.anchor.util.MetricConstants.*;
-import static org.stellar.anchor.util.ReflectionUtil.getField;
 import static org.stellar.anchor.util.StringHelper.isEmpty;
 
 import com.google.gson.annotations.SerializedName;
@@ -15,36 +14,31 @@ import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.atomic.AtomicReference;
 import lombok.Builder;
 import lombok.Data;
+import okhttp3.OkHttpClient;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.transaction.TransactionException;
 import org.stellar.anchor.api.exception.EventPublishException;
-import org.stellar.anchor.api.exception.SepException;
 import org.stellar.anchor.api.platform.HealthCheckResult;
 import org.stellar.anchor.api.platform.HealthCheckStatus;
 import org.stellar.anchor.healthcheck.HealthCheckable;
 import org.stellar.anchor.platform.config.PaymentObserverConfig;
 import org.stellar.anchor.platform.observer.ObservedPayment;
 import org.stellar.anchor.platform.observer.PaymentListener;
+import org.stellar.anchor.platform.observer.stellar.ObservedPaymentDecoder.DecodedOperation;
 import org.stellar.anchor.platform.utils.DaemonExecutors;
 import org.stellar.anchor.util.ExponentialBackoffTimer;
 import org.stellar.anchor.util.Log;
 import org.stellar.sdk.Server;
-import org.stellar.sdk.requests.EventListener;
-import org.stellar.sdk.requests.PaymentsRequestBuilder;
 import org.stellar.sdk.requests.RequestBuilder;
-import org.stellar.sdk.requests.SSEStream;
 import org.stellar.sdk.responses.Page;
 import org.stellar.sdk.responses.operations.OperationResponse;
-import org.stellar.sdk.responses.operations.PathPaymentBaseOperationResponse;
-import org.stellar.sdk.responses.operations.PaymentOperationResponse;
 
 public class StellarPaymentObserver implements HealthCheckable {
   /** The maximum number of results the Stellar Blockchain can return. */
@@ -53,38 +47,100 @@ public class StellarPaymentObserver implements HealthCheckable {
   /** The minimum number of results the Stellar Blockchain can return. */
   private static final int MIN_RESULTS = 1;
 
+  /** The number of paging tokens remembered to de-duplicate the events of the account streams. */
+  private static final int MAX_RECENT_ACCOUNT_STREAM_EVENTS = 1000;
+
   final Server server;
+  final String horizonServer;
+  final OkHttpClient httpClient;
+  final ObservedPaymentDecoder decoder;
   final PaymentObserverConfig.StellarPaymentObserverConfig config;
   final List<PaymentListener> paymentListeners;
   final StellarPaymentStreamerCursorStore paymentStreamerCursorStore;
-  final Map<SSEStream<OperationResponse>, String> mapStreamToAccount = new HashMap<>();
+  final Map<HorizonPaymentStream, String> mapStreamToAccount = new ConcurrentHashMap<>();
+  final Map<String, HorizonPaymentStream> accountStreams = new ConcurrentHashMap<>();
+  final Map<String, Long> accountStreamCursors = new ConcurrentHashMap<>();
+  final Map<String, Instant> accountStreamActivityTimes = new ConcurrentHashMap<>();
+  // The paging tokens recently handled by the account streams. A payment between two observed
+  // accounts is received by both streams but must only be handled once.
+  final Map<String, Boolean> recentAccountStreamEvents =
+      Collections.synchronizedMap(
+          new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+              return size() > MAX_RECENT_ACCOUNT_STREAM_EVENTS;
+            }
+          });
+  volatile boolean accountStreamMode = false;
   final PaymentObservingAccountsManager paymentObservingAccountsManager;
-  SSEStream<OperationResponse> stream;
+  final PaymentDispatcher paymentDispatcher;
+  final StellarPaymentCatchUp catchUp;
+  HorizonPaymentStream stream;
 
   final ExponentialBackoffTimer publishingBackoffTimer;
   final ExponentialBackoffTimer streamBackoffTimer;
   final ExponentialBackoffTimer databaseBackoffTimer = new ExponentialBackoffTimer(1, 20);
 
-  int silenceTimeoutCount = 0;
-  ObserverStatus status = RUNNING;
-  Instant lastActivityTime;
+  // The activity of the stream is updated by the SSE threads of the account streams, and read by
+  // the silence and status watchers.
+  final AtomicInteger silenceTimeoutCount = new AtomicInteger(0);
+  volatile ObserverStatus status = RUNNING;
+  volatile Instant lastActivityTime;
   AtomicLong metricLatestBlockRead = new AtomicLong(0);
   AtomicLong metricLatestBlockProcessed = new AtomicLong(0);
 
   final ScheduledExecutorService silenceWatcher = DaemonExecutors.newScheduledThreadPool(1);
   final ScheduledExecutorService statusWatcher = DaemonExecutors.newScheduledThreadPool(1);
+  final ScheduledExecutorService cursorFlusher = DaemonExecutors.newScheduledThreadPool(1);
 
   public StellarPaymentObserver(
       String horizonServer,
       PaymentObserverConfig.StellarPaymentObserverConfig config,
       List<PaymentListener> paymentListeners,
       PaymentObservingAccountsManager paymentObservingAccountsManager,
-      StellarPaymentStreamerCursorStore paymentStreamerCursorStore) {
+      StellarPaymentStreamerCursorStore paymentStreamerCursorStore,
+      OkHttpClient httpClient) {
     this.server = new Server(horizonServer);
+    this.horizonServer = horizonServer;
+    this.httpClient = httpClient;
+    this.decoder = new ObservedPaymentDecoder(paymentObservingAccountsManager::isObserved);
     this.config = config;
     this.paymentListeners = paymentListeners;
     this.paymentObservingAccountsManager = paymentObservingAccountsManager;
-    this.paymentStreamerCursorStore = paymentStreamerCursorStore;
+    if (config.getCursorFlushOperations() > 1) {
+      this.paymentStreamerCursorStore =
+          new CheckpointingStellarPaymentStreamerCursorStore(
+              paymentStreamerCursorStore,
+              config.getCursorFlushOperations(),
+              config.getCursorFlushIntervalMilliseconds());
+    } else {
+      this.paymentStreamerCursorStore = paymentStreamerCursorStore;
+    }
+
+    if (config.getDispatchWorkers() > 0) {
+      this.paymentDispatcher =
+          new PaymentDispatcher(
+              paymentListeners,
+              config.getDispatchWorkers(),
+              config.getDispatchQueueSize(),
+              config.getDispatchBatchSize(),
+              this::handleDispatchSuccess,
+              this::handleDispatchFailure);
+    } else {
+      this.paymentDispatcher = null;
+    }
+
+    if (config.getCatchupPrefetchPages() > 0) {
+      this.catchUp =
+          new StellarPaymentCatchUp(
+              horizonServer,
+              httpClient,
+              decoder,
+              MAX_RESULTS,
+              config.getCatchupPrefetchPages());
+    } else {
+      this.catchUp = null;
+    }
 
     publishingBackoffTimer =
         new ExponentialBackoffTimer(
@@ -113,6 +169,15 @@ public class StellarPaymentObserver implements HealthCheckable {
     infoF("Starting the status watcher");
     statusWatcher.scheduleWithFixedDelay(this::checkStatus, 1, 1, TimeUnit.SECONDS);
 
+    if (config.getCursorFlushOperations() > 1 && config.getCursorFlushIntervalMilliseconds() > 0) {
+      infoF("Starting the cursor flusher");
+      cursorFlusher.scheduleWithFixedDelay(
+          this::flushPagingToken,
+          config.getCursorFlushIntervalMilliseconds(),
+          config.getCursorFlushIntervalMilliseconds(),
+          TimeUnit.MILLISECONDS);
+    }
+
     setStatus(RUNNING);
   }
 
@@ -126,73 +191,234 @@ public class StellarPaymentObserver implements HealthCheckable {
 
     infoF("Stopping the status watcher");
     statusWatcher.shutdown();
+
+    infoF("Stopping the cursor flusher");
+    cursorFlusher.shutdown();
+
+    if (paymentDispatcher != null) {
+      infoF("Stopping the payment dispatcher");
+      paymentDispatcher.shutdown();
+    }
     setStatus(SHUTDOWN);
   }
 
   void startStream() {
-    this.stream = startSSEStream();
+    if (useAccountStreams()) {
+      startAccountStreams();
+    } else {
+      accountStreamMode = false;
+      this.stream = startSSEStream();
+    }
+  }
+
+  /**
+   * Checks if the payments should be streamed per observed account. When only a few accounts are
+   * observed, streaming their payments is much cheaper than streaming all the payments of the
+   * network.
+   *
+   * @return true if the number of observed accounts is below the account stream threshold.
+   */
+  boolean useAccountStreams() {
+    int threshold = config.getAccountStreamThreshold();
+    return threshold > 0 && paymentObservingAccountsManager.size() <= threshold;
+  }
+
+  void startAccountStreams() {
+    accountStreamMode = true;
+    String cursor = fetchStreamingCursor();
+    Set<String> accounts = paymentObservingAccountsManager.getAccountIds();
+    infoF("Streaming the payments of {} accounts. cursor={}", accounts.size(), cursor);
+    for (String account : accounts) {
+      openAccountStream(account, cursor);
+    }
+  }
+
+  void openAccountStream(String account, String cursor) {
+    infoF("Opening the payment stream of account {}. cursor={}", account, cursor);
+    HorizonPaymentStream accountStream =
+        HorizonPaymentStream.open(
+            httpClient,
+            horizonServer,
+            account,
+            cursor,
+            MAX_RESULTS,
+            decoder,
+            new HorizonPaymentStream.Listener() {
+              @Override
+              public void onEvent(DecodedOperation operation) {
+                processAccountStreamOperation(account, operation);
+              }
+
+              @Override
+              public void onFailure(Throwable error) {
+                handleFailure(Optional.ofNullable(error));
+              }
+            });
+    if (!isEmpty(cursor)) {
+      accountStreamCursors.put(account, Long.parseLong(cursor));
+    }
+    accountStreamActivityTimes.put(account, Instant.now());
+    accountStreams.put(account, accountStream);
+    mapStreamToAccount.put(accountStream, account);
+  }
+
+  void closeAccountStream(String account) {
+    infoF("Closing the payment stream of account {}", account);
+    HorizonPaymentStream accountStream = accountStreams.remove(account);
+    accountStreamCursors.remove(account);
+    accountStreamActivityTimes.remove(account);
+    if (accountStream != null) {
+      mapStreamToAccount.remove(accountStream);
+      accountStream.close();
+    }
+  }
+
+  void processAccountStreamOperation(String account, DecodedOperation operation) {
+    accountStreamCursors.put(account, Long.parseLong(operation.getPagingToken()));
+    accountStreamActivityTimes.put(account, Instant.now());
+    if (recentAccountStreamEvents.put(operation.getPagingToken(), Boolean.TRUE) != null) {
+      debugF("Event {} was already received by another stream", operation.getId());
+      return;
+    }
+    processDecodedOperation(operation);
+  }
+
+  /**
+   * Switches between the account streams and the global stream when the number of observed
+   * accounts crosses the threshold. In the account stream mode, the streams are opened and closed
+   * as the observed accounts are added and evicted.
+   */
+  void reconcileStreams() {
+    if (config.getAccountStreamThreshold() <= 0) return;
+
+    if (useAccountStreams() != accountStreamMode) {
+      infoF(
+          "The number of observed accounts is {}. Switching to the {} stream mode.",
+          paymentObservingAccountsManager.size(),
+          accountStreamMode ? "global" : "account");
+      restartStream();
+      return;
+    }
+
+    if (accountStreamMode) {
+      Set<String> accounts = paymentObservingAccountsManager.getAccountIds();
+      for (String account : new ArrayList<>(accountStreams.keySet())) {
+        if (!accounts.contains(account)) {
+          closeAccountStream(account);
+        }
+      }
+      String cursor = null;
+      for (String account : accounts) {
+        if (!accountStreams.containsKey(account)) {
+          if (cursor == null) {
+            cursor = paymentStreamerCursorStore.load();
+            if (isEmpty(cursor)) cursor = fetchLatestCursorFromNetwork();
+          }
+          openAccountStream(account, cursor);
+        }
+      }
+    }
   }
 
-  SSEStream<OperationResponse> startSSEStream() {
+  HorizonPaymentStream startSSEStream() {
     String latestCursor = fetchStreamingCursor();
+    // The catch-up only processes the payments while the observer is healthy. When the stream is
+    // restarted after an error, the SSE stream resumes from the stored cursor instead.
+    if (catchUp != null && isHealthy() && !isEmpty(latestCursor)) {
+      latestCursor = catchUpPayments(latestCursor);
+    }
     infoF("SSEStream cursor={}", latestCursor);
 
-    PaymentsRequestBuilder paymentsRequest =
-        server
-            .payments()
-            .includeTransactions(true)
-            .cursor(latestCursor)
-            .order(RequestBuilder.Order.ASC)
-            .limit(MAX_RESULTS);
-    return paymentsRequest.stream(
-        new EventListener<>() {
+    return HorizonPaymentStream.open(
+        httpClient,
+        horizonServer,
+        null,
+        latestCursor,
+        MAX_RESULTS,
+        decoder,
+        new HorizonPaymentStream.Listener() {
           @Override
-          public void onEvent(OperationResponse operationResponse) {
-            if (operationResponse.getTransaction().isPresent()) {
-              metricLatestBlockRead.set(operationResponse.getTransaction().get().getLedger());
-
-              if (isHealthy()) {
-                debugF("Received event {}", operationResponse.getId());
-                // clear stream timeout/reconnect status
-                lastActivityTime = Instant.now();
-                silenceTimeoutCount = 0;
-                streamBackoffTimer.reset();
-                try {
-                  debugF("Dispatching event {}", operationResponse.getId());
-                  handleEvent(operationResponse);
-                  metricLatestBlockProcessed.set(
-                      operationResponse.getTransaction().get().getLedger());
-
-                } catch (TransactionException ex) {
-                  errorEx("Error handling events", ex);
-                  setStatus(DATABASE_ERROR);
-                }
-              } else {
-                warnF("Observer is not healthy. Ignore event {}", operationResponse.getId());
-              }
-            }
+          public void onEvent(DecodedOperation operation) {
+            processDecodedOperation(operation);
           }
 
           @Override
-          public void onFailure(Optional<Throwable> error, Optional<Integer> responseCode) {
-            handleFailure(error);
+          public void onFailure(Throwable error) {
+            handleFailure(Optional.ofNullable(error));
           }
         });
   }
 
+  void processDecodedOperation(DecodedOperation operation) {
+    String id = operation.getId();
+    long ledger = operation.getLedger();
+    metricLatestBlockRead.set(ledger);
+
+    if (isHealthy()) {
+      debugF("Received event {}", id);
+      // clear stream timeout/reconnect status
+      lastActivityTime = Instant.now();
+      silenceTimeoutCount.set(0);
+      streamBackoffTimer.reset();
+      try {
+        debugF("Dispatching event {}", id);
+        handleDecodedEvent(operation);
+        metricLatestBlockProcessed.set(ledger);
+
+      } catch (TransactionException ex) {
+        errorEx("Error handling events", ex);
+        setStatus(DATABASE_ERROR);
+      }
+    } else {
+      warnF("Observer is not healthy. Ignore event {}", id);
+    }
+  }
+
+  /**
+   * Processes the payments between the cursor and the tip of the network with paged requests. This
+   * is much faster than catching up with the SSE stream.
+   *
+   * @param cursor the cursor to start from.
+   * @return the cursor to start the SSE stream from.
+   */
+  String catchUpPayments(String cursor) {
+    try {
+      return catchUp.run(cursor, this::processDecodedOperation, this::isHealthy);
+    } catch (IOException ex) {
+      errorEx("Error catching up payments. Start streaming from the last saved cursor.", ex);
+      String saved = paymentStreamerCursorStore.load();
+      return isEmpty(saved) ? cursor : saved;
+    } catch (InterruptedException ex) {
+      infoF("The payments catch-up is interrupted.");
+      Thread.currentThread().interrupt();
+      return cursor;
+    }
+  }
+
   void stopStream() {
     if (this.stream != null) {
       info("Stopping the stream");
       this.stream.close();
       this.stream = null;
     }
+    for (String account : new ArrayList<>(accountStreams.keySet())) {
+      closeAccountStream(account);
+    }
+    recentAccountStreamEvents.clear();
+    if (paymentDispatcher != null) {
+      // The payments in flight will be read again from the last saved cursor.
+      paymentDispatcher.reset();
+    }
+    flushPagingToken();
   }
 
   void checkSilence() {
-    if (isHealthy()) {
+    // The payments of a few accounts may legitimately be silent for a long time.
+    if (isHealthy() && !accountStreamMode) {
       Instant now = Instant.now();
-      if (lastActivityTime != null) {
-        Duration silenceDuration = Duration.between(lastActivityTime, now);
+      Instant activityTime = lastActivityTime;
+      if (activityTime != null) {
+        Duration silenceDuration = Duration.between(activityTime, now);
         if (silenceDuration.getSeconds() > config.getSilenceTimeout()) {
           debugF(
               "The observer had been silent for {} seconds. This is too long. Setting status to SILENCE_ERROR",
@@ -244,19 +470,19 @@ public class StellarPaymentObserver implements HealthCheckable {
         }
         break;
       case SILENCE_ERROR:
-        infoF("The silence reconnection count: {}", silenceTimeoutCount);
+        infoF("The silence reconnection count: {}", silenceTimeoutCount.get());
         // We got the silence error. If silence reconnect too many times and the max retries is
         // greater than zero, we will shut down the observer.
         if (config.getSilenceTimeoutRetries() > 0
-            && silenceTimeoutCount >= config.getSilenceTimeoutRetries()) {
+            && silenceTimeoutCount.get() >= config.getSilenceTimeoutRetries()) {
           infoF(
               "The silence error has happened for too many times:{}. Shutdown the observer",
-              silenceTimeoutCount);
+              silenceTimeoutCount.get());
           setStatus(NEEDS_SHUTDOWN);
         } else {
           restartStream();
           lastActivityTime = Instant.now();
-          silenceTimeoutCount++;
+          silenceTimeoutCount.incrementAndGet();
         }
         break;
       case PUBLISHER_ERROR:
@@ -293,6 +519,8 @@ public class StellarPaymentObserver implements HealthCheckable {
         }
         break;
       case RUNNING:
+        reconcileStreams();
+        break;
       case SHUTDOWN:
       default:
         // NOOP
@@ -305,6 +533,9 @@ public class StellarPaymentObserver implements HealthCheckable {
    * already stored in the database, that value will be returned. Otherwise, this method will fetch
    * the most recent cursor from the Network and use that as a starting point.
    *
+   * <p>If the catch-up is disabled, the stored cursor is limited to the latest MAX_RESULTS
+   * operations because catching up with the SSE stream is slow.
+   *
    * @return the starting point to start streaming from.
    */
   String fetchStreamingCursor() {
@@ -323,6 +554,8 @@ public class StellarPaymentObserver implements HealthCheckable {
             "The last stored cursor is stale. This is probably because of a test network reset. Use the latest cursor: {}",
             strLatestFromNetwork);
         return String.valueOf(latest);
+      } else if (catchUp != null) {
+        return strLastStored;
       } else {
         return String.valueOf(Math.max(lastStored, latest - MAX_RESULTS));
       }
@@ -352,67 +585,98 @@ public class StellarPaymentObserver implements HealthCheckable {
     return token;
   }
 
-  void handleEvent(OperationResponse operationResponse) {
-    if (!operationResponse.isTransactionSuccessful()) {
-      savePagingToken(operationResponse.getPagingToken());
-      return;
+  void handleDecodedEvent(DecodedOperation operation) {
+    if (!operation.isSuccessful() || operation.getPayment() == null) {
+      savePagingToken(operation.getPagingToken());
+    } else {
+      handleObservedPayment(operation.getPagingToken(), operation.getPayment());
     }
+  }
 
-    ObservedPayment observedPayment = null;
+  void handleObservedPayment(String pagingToken, ObservedPayment observedPayment) {
     try {
-      if (operationResponse instanceof PaymentOperationResponse) {
-        PaymentOperationResponse payment = (PaymentOperationResponse) operationResponse;
-        observedPayment = ObservedPayment.fromPaymentOperationResponse(payment);
-      } else if (operationResponse instanceof PathPaymentBaseOperationResponse) {
-        PathPaymentBaseOperationResponse pathPayment =
-            (PathPaymentBaseOperationResponse) operationResponse;
-        observedPayment = ObservedPayment.fromPathPaymentOperationResponse(pathPayment);
-      }
-    } catch (SepException ex) {
-      if (operationResponse.getTransaction().isPresent()) {
-        warn(
-            String.format(
-                "Payment of id %s contains unsupported memo %s.",
-                operationResponse.getId(),
-                operationResponse.getTransaction().get().getMemo().toString()));
-      }
-      warnEx(ex);
-    }
-
-    if (observedPayment == null) {
-      savePagingToken(operationResponse.getPagingToken());
-    } else {
-      try {
-        if (paymentObservingAccountsManager.lookupAndUpdate(observedPayment.getTo())) {
+      boolean received = paymentObservingAccountsManager.lookupAndUpdate(observedPayment.getTo());
+      boolean sent =
+          paymentObservingAccountsManager.lookupAndUpdate(observedPayment.getFrom())
+              && !observedPayment.getTo().equals(observedPayment.getFrom());
+
+      if (paymentDispatcher != null) {
+        if (received || sent) {
+          paymentDispatcher.dispatch(pagingToken, observedPayment, received, sent);
+        }
+      } else {
+        if (received) {
           for (PaymentListener listener : paymentListeners) {
             listener.onReceived(observedPayment);
           }
         }
 
-        if (paymentObservingAccountsManager.lookupAndUpdate(observedPayment.getFrom())
-            && !observedPayment.getTo().equals(observedPayment.getFrom())) {
+        if (sent) {
           for (PaymentListener listener : paymentListeners) {
             listener.onSent(observedPayment);
           }
         }
 
         publishingBackoffTimer.reset();
-        paymentStreamerCursorStore.save(operationResponse.getPagingToken());
-      } catch (EventPublishException ex) {
-        // restart the observer from where it stopped, in case the queue fails to
-        // publish the message.
-        errorEx("Failed to send event to payment listeners.", ex);
-        setStatus(PUBLISHER_ERROR);
-      } catch (TransactionException tex) {
-        errorEx("Cannot save the cursor to database", tex);
-        setStatus(DATABASE_ERROR);
-      } catch (Throwable t) {
-        errorEx("Something went wrong in the observer while sending the event", t);
-        setStatus(PUBLISHER_ERROR);
       }
+      paymentStreamerCursorStore.save(processedCursor(pagingToken));
+    } catch (EventPublishException ex) {
+      // restart the observer from where it stopped, in case the queue fails to
+      // publish the message.
+      errorEx("Failed to send event to payment listeners.", ex);
+      setStatus(PUBLISHER_ERROR);
+    } catch (TransactionException tex) {
+      errorEx("Cannot save the cursor to database", tex);
+      setStatus(DATABASE_ERROR);
+    } catch (Throwable t) {
+      errorEx("Something went wrong in the observer while sending the event", t);
+      setStatus(PUBLISHER_ERROR);
     }
   }
 
+  void handleDispatchSuccess() {
+    publishingBackoffTimer.reset();
+  }
+
+  void handleDispatchFailure(Throwable t) {
+    if (t instanceof TransactionException) {
+      setStatus(DATABASE_ERROR);
+    } else {
+      setStatus(PUBLISHER_ERROR);
+    }
+  }
+
+  /**
+   * Gets the cursor that is safe to save. If payments are dispatched to worker threads, the cursor
+   * must not pass the payments that are still being processed. If payments are streamed per
+   * account, the cursor must not pass the position of any active account stream. A stream without
+   * events for longer than the silence timeout has caught up with the network, so its position does
+   * not hold the cursor back.
+   *
+   * @param pagingToken the paging token of the latest operation read from the stream.
+   * @return the cursor to save.
+   */
+  String processedCursor(String pagingToken) {
+    String cursor = pagingToken;
+    if (accountStreamMode) {
+      // Each account stream has its own position. Only the lowest one is processed by all streams.
+      Instant idleBefore = Instant.now().minusSeconds(config.getSilenceTimeout());
+      Long lowest = null;
+      for (Map.Entry<String, Long> entry : accountStreamCursors.entrySet()) {
+        Instant activityTime = accountStreamActivityTimes.get(entry.getKey());
+        if (activityTime != null && activityTime.isBefore(idleBefore)) continue;
+        if (lowest == null || entry.getValue() < lowest) lowest = entry.getValue();
+      }
+      if (lowest != null) {
+        cursor = String.valueOf(lowest);
+      }
+    }
+    if (paymentDispatcher == null) {
+      return cursor;
+    }
+    return paymentDispatcher.processedCursor(cursor);
+  }
+
   void handleFailure(Optional<Throwable> throwable) {
     // The SSEStreamer has internal errors. We will give up and let the container
     // manager to restart.
@@ -434,12 +698,21 @@ public class StellarPaymentObserver implements HealthCheckable {
 
   void savePagingToken(String token) {
     traceF("Saving the last stored cursor to database: {}", token);
-    paymentStreamerCursorStore.save(token);
+    paymentStreamerCursorStore.save(processedCursor(token));
     traceF("Resetting the database backoff timer...");
     databaseBackoffTimer.reset();
   }
 
-  void setStatus(ObserverStatus status) {
+  void flushPagingToken() {
+    try {
+      paymentStreamerCursorStore.flush();
+    } catch (TransactionException tex) {
+      // The cursor is kept in memory and will be flushed again on the next checkpoint.
+      errorEx("Cannot flush the cursor to database", tex);
+    }
+  }
+
+  synchronized void setStatus(ObserverStatus status) {
     if (this.status != status) {
       if (this.status.isSettable(status)) {
         infoF("Setting status to {}", status);
@@ -490,46 +763,39 @@ public class StellarPaymentObserver implements HealthCheckable {
         status = GREEN;
         break;
     }
-    StreamHealth.StreamHealthBuilder healthBuilder = StreamHealth.builder();
-    healthBuilder.account(mapStreamToAccount.get(stream));
-    // populate executorService information
-    if (stream != null) {
-      ExecutorService executorService = getField(stream, "executorService", null);
-      if (executorService != null) {
-        healthBuilder.threadShutdown(executorService.isShutdown());
-        healthBuilder.threadTerminated(executorService.isTerminated());
-        if (executorService.isShutdown() || executorService.isTerminated()) {
+    List<HorizonPaymentStream> streams =
+        accountStreamMode
+            ? new ArrayList<>(accountStreams.values())
+            : Collections.singletonList(stream);
+    for (HorizonPaymentStream paymentStream : streams) {
+      StreamHealth.StreamHealthBuilder healthBuilder = StreamHealth.builder();
+      healthBuilder.account(paymentStream == null ? null : mapStreamToAccount.get(paymentStream));
+      // populate the stream thread information
+      if (paymentStream != null) {
+        healthBuilder.threadShutdown(paymentStream.isThreadShutdown());
+        healthBuilder.threadTerminated(paymentStream.isThreadTerminated());
+        healthBuilder.stopped(paymentStream.isStopped());
+        if (paymentStream.isThreadShutdown()
+            || paymentStream.isThreadTerminated()
+            || paymentStream.isStopped()) {
           status = RED;
         }
-      } else {
-        status = RED;
-      }
 
-      AtomicBoolean isStopped = getField(stream, "isStopped", new AtomicBoolean(false));
-      if (isStopped != null) {
-        healthBuilder.stopped(isStopped.get());
-        if (isStopped.get()) {
-          status = RED;
-        }
+        String lastEventId = paymentStream.getLastEventId();
+        healthBuilder.lastEventId(lastEventId != null ? lastEventId : "-1");
       }
 
-      AtomicReference<String> lastEventId = getField(stream, "lastEventId", null);
-      if (lastEventId != null && lastEventId.get() != null) {
-        healthBuilder.lastEventId(lastEventId.get());
+      Instant activityTime = lastActivityTime;
+      if (activityTime == null) {
+        healthBuilder.silenceSinceLastEvent("0");
       } else {
-        healthBuilder.lastEventId("-1");
+        healthBuilder.silenceSinceLastEvent(
+            String.valueOf(Duration.between(activityTime, Instant.now()).getSeconds()));
       }
-    }
 
-    if (lastActivityTime == null) {
-      healthBuilder.silenceSinceLastEvent("0");
-    } else {
-      healthBuilder.silenceSinceLastEvent(
-          String.valueOf(Duration.between(lastActivityTime, Instant.now()).getSeconds()));
+      results.add(healthBuilder.build());
     }
 
-    results.add(healthBuilder.build());
-
     return SPOHealthCheckResult.builder().name(getName()).streams(results).status(status).build();
   }
 }
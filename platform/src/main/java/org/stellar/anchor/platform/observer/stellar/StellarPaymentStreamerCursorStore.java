@@ -4,4 +4,7 @@ public interface StellarPaymentStreamerCursorStore {
   void save(String cursor);
 
   String load();
+
+  /** Writes any cursor buffered in memory to the persistent store. */
+  default void flush() {}
 }
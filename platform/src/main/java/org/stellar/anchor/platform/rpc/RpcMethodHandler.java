@@ -8,6 +8,7 @@ import static org.stellar.anchor.api.sep.SepTransactionStatus.EXPIRED;
 import static org.stellar.anchor.api.sep.SepTransactionStatus.REFUNDED;
 import static org.stellar.anchor.event.EventService.EventQueue.TRANSACTION;
 import static org.stellar.anchor.platform.service.AnchorMetrics.PLATFORM_RPC_TRANSACTION;
+import static org.stellar.anchor.platform.utils.PlatformTransactionHelper.findTransaction;
 import static org.stellar.anchor.platform.utils.PlatformTransactionHelper.toGetTransactionResponse;
 import static org.stellar.anchor.util.MetricConstants.*;
 
@@ -15,6 +16,7 @@ import com.google.gson.Gson;
 import java.time.Instant;
 import java.util.Set;
 import java.util.UUID;
+import org.springframework.transaction.annotation.Transactional;
 import org.stellar.anchor.api.event.AnchorEvent;
 import org.stellar.anchor.api.exception.AnchorException;
 import org.stellar.anchor.api.exception.BadRequestException;
@@ -35,9 +37,7 @@ import org.stellar.anchor.platform.data.JdbcSep31Transaction;
 import org.stellar.anchor.platform.data.JdbcSep6Transaction;
 import org.stellar.anchor.platform.data.JdbcSepTransaction;
 import org.stellar.anchor.platform.validator.RequestValidator;
-import org.stellar.anchor.sep24.Sep24Transaction;
 import org.stellar.anchor.sep24.Sep24TransactionStore;
-import org.stellar.anchor.sep31.Sep31Transaction;
 import org.stellar.anchor.sep31.Sep31TransactionStore;
 import org.stellar.anchor.sep6.Sep6TransactionStore;
 import org.stellar.anchor.util.GsonUtils;
@@ -75,8 +75,13 @@ public abstract class RpcMethodHandler<T extends RpcMethodParamsRequest> {
     this.eventSession = eventService.createSession(this.getClass().getName(), TRANSACTION);
   }
 
+  @Transactional(rollbackFor = Exception.class)
   public GetTransactionResponse handle(Object requestParams) throws AnchorException {
-    T request = gson.fromJson(gson.toJson(requestParams), requestType);
+    // The requests sent in the same JVM are already of the request type.
+    T request =
+        requestType.isInstance(requestParams)
+            ? requestType.cast(requestParams)
+            : gson.fromJson(gson.toJson(requestParams), requestType);
     Log.infoF("Processing RPC request {}", request);
     JdbcSepTransaction txn = getTransaction(request.getTransactionId());
     Log.debugF("SEP transaction before request is executed {}", txn);
@@ -136,15 +141,7 @@ public abstract class RpcMethodHandler<T extends RpcMethodParamsRequest> {
       throws AnchorException;
 
   protected JdbcSepTransaction getTransaction(String transactionId) throws AnchorException {
-    Sep31Transaction txn31 = txn31Store.findByTransactionId(transactionId);
-    if (txn31 != null) {
-      return (JdbcSep31Transaction) txn31;
-    }
-    Sep24Transaction txn24 = txn24Store.findByTransactionId(transactionId);
-    if (txn24 != null) {
-      return (JdbcSep24Transaction) txn24;
-    }
-    return (JdbcSep6Transaction) txn6Store.findByTransactionId(transactionId);
+    return findTransaction(transactionId, txn6Store, txn24Store, txn31Store);
   }
 
   protected void validate(JdbcSepTransaction txn, T request)
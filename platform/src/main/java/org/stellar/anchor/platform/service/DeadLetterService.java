@@ -0,0 +1,78 @@
+package org.stellar.anchor.platform.service;
+
+import static org.stellar.anchor.util.Log.infoF;
+
+import java.time.Instant;
+import java.util.stream.Collectors;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.stellar.anchor.api.event.AnchorEvent;
+import org.stellar.anchor.api.exception.AnchorException;
+import org.stellar.anchor.api.exception.BadRequestException;
+import org.stellar.anchor.api.exception.NotFoundException;
+import org.stellar.anchor.api.platform.DeadLetter;
+import org.stellar.anchor.api.platform.GetDeadLettersResponse;
+import org.stellar.anchor.platform.data.JdbcEventDeliveryRetry;
+import org.stellar.anchor.platform.data.JdbcEventDeliveryRetryRepo;
+import org.stellar.anchor.util.GsonUtils;
+
+/**
+ * Lists and replays the event deliveries dead-lettered by the event processor. A replayed delivery
+ * is retried by the retry queue of the event processor.
+ */
+public class DeadLetterService {
+  private final JdbcEventDeliveryRetryRepo deliveryRetryRepo;
+
+  public DeadLetterService(JdbcEventDeliveryRetryRepo deliveryRetryRepo) {
+    this.deliveryRetryRepo = deliveryRetryRepo;
+  }
+
+  public GetDeadLettersResponse findDeadLetters(String target, int pageNumber, int pageSize)
+      throws AnchorException {
+    if (pageNumber < 0 || pageSize <= 0) {
+      throw new BadRequestException("page_number and page_size must be positive");
+    }
+    PageRequest pageRequest =
+        PageRequest.of(pageNumber, pageSize, Sort.by(Sort.Direction.ASC, "createdAt"));
+    Page<JdbcEventDeliveryRetry> deadLetters =
+        target == null
+            ? deliveryRetryRepo.findByDeadLetteredTrue(pageRequest)
+            : deliveryRetryRepo.findByDeadLetteredTrueAndTarget(target, pageRequest);
+    return new GetDeadLettersResponse(
+        deadLetters.stream().map(this::toDeadLetter).collect(Collectors.toList()));
+  }
+
+  /**
+   * Schedules the dead-lettered delivery for an immediate retry, with all its attempts.
+   *
+   * @param id the id of the dead letter.
+   * @return the replayed dead letter.
+   * @throws AnchorException if the dead letter is not found.
+   */
+  public DeadLetter replay(String id) throws AnchorException {
+    JdbcEventDeliveryRetry deadLetter =
+        deliveryRetryRepo
+            .findByIdAndDeadLetteredTrue(id)
+            .orElseThrow(
+                () -> new NotFoundException(String.format("dead letter %s not found", id)));
+    deadLetter.setDeadLettered(false);
+    deadLetter.setAttempts(0);
+    deadLetter.setNextAttemptAt(Instant.now());
+    deliveryRetryRepo.save(deadLetter);
+    infoF("The dead letter id={} to {} is replayed.", id, deadLetter.getTarget());
+    return toDeadLetter(deadLetter);
+  }
+
+  DeadLetter toDeadLetter(JdbcEventDeliveryRetry retry) {
+    return DeadLetter.builder()
+        .id(retry.getId())
+        .processor(retry.getProcessor())
+        .target(retry.getTarget())
+        .event(GsonUtils.getInstance().fromJson(retry.getPayload(), AnchorEvent.class))
+        .attempts(retry.getAttempts())
+        .lastError(retry.getLastError())
+        .createdAt(retry.getCreatedAt())
+        .build();
+  }
+}
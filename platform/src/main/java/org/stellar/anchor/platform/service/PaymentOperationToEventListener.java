@@ -10,8 +10,7 @@ import io.micrometer.core.instrument.Metrics;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.List;
-import java.util.Objects;
-import org.apache.commons.codec.DecoderException;
+import java.util.Map;
 import org.stellar.anchor.api.exception.AnchorException;
 import org.stellar.anchor.api.sep.AssetInfo;
 import org.stellar.anchor.api.sep.SepTransactionStatus;
@@ -21,14 +20,13 @@ import org.stellar.anchor.platform.data.*;
 import org.stellar.anchor.platform.observer.ObservedPayment;
 import org.stellar.anchor.platform.observer.PaymentListener;
 import org.stellar.anchor.util.Log;
-import org.stellar.anchor.util.MemoHelper;
-import org.stellar.sdk.xdr.MemoType;
 
 public class PaymentOperationToEventListener implements PaymentListener {
   final JdbcSep31TransactionStore sep31TransactionStore;
 
   final JdbcSep24TransactionStore sep24TransactionStore;
   final JdbcSep6TransactionStore sep6TransactionStore;
+  final PaymentTransactionMatcher transactionMatcher;
   private final PlatformApiClient platformApiClient;
   private final RpcConfig rpcConfig;
 
@@ -41,38 +39,19 @@ public class PaymentOperationToEventListener implements PaymentListener {
     this.sep31TransactionStore = sep31TransactionStore;
     this.sep24TransactionStore = sep24TransactionStore;
     this.sep6TransactionStore = sep6TransactionStore;
+    this.transactionMatcher =
+        new PaymentTransactionMatcher(
+            sep31TransactionStore, sep24TransactionStore, sep6TransactionStore);
     this.platformApiClient = platformApiClient;
     this.rpcConfig = rpcConfig;
   }
 
   @Override
   public void onReceived(ObservedPayment payment) throws IOException {
-    // Check if payment is connected to a transaction
-    if (Objects.toString(payment.getTransactionHash(), "").isEmpty()
-        || Objects.toString(payment.getTransactionMemo(), "").isEmpty()) {
-      traceF("Ignore the payment {} is not connected to a transaction.", payment.getId());
+    if (!PaymentTransactionMatcher.isMatchable(payment)) {
       return;
     }
-
-    // Check if the payment contains the expected asset type
-    if (!List.of("credit_alphanum4", "credit_alphanum12", "native")
-        .contains(payment.getAssetType())) {
-      // Asset type does not match
-      debugF("{} is not an issued asset.", payment.getAssetType());
-      return;
-    }
-
-    // Parse memo
-    String memo = payment.getTransactionMemo();
-    String memoType = payment.getTransactionMemoType();
-    if (memoType.equals(MemoHelper.memoTypeAsString(MemoType.MEMO_HASH))) {
-      try {
-        memo = MemoHelper.convertHexToBase64(payment.getTransactionMemo());
-      } catch (DecoderException ex) {
-        infoF(
-            "The memo type is \"hash\" but the memo string {} could not be parsed as such.", memo);
-      }
-    }
+    String memo = PaymentTransactionMatcher.parseMemo(payment);
 
     // Find a transaction matching the memo, assumes transactions are unique to account+memo
     JdbcSep31Transaction sep31Txn = null;
@@ -132,6 +111,38 @@ public class PaymentOperationToEventListener implements PaymentListener {
     }
   }
 
+  @Override
+  public void onBatchReceived(List<ObservedPayment> payments) throws AnchorException, IOException {
+    Map<ObservedPayment, JdbcSepTransaction> matches = transactionMatcher.match(payments);
+    if (matches.isEmpty()) return;
+
+    // The notifications of the batch are sent together.
+    platformApiClient.batchRpcNotifications(
+        () -> {
+          for (ObservedPayment payment : payments) {
+            JdbcSepTransaction txn = matches.get(payment);
+            if (txn == null) continue;
+            try {
+              handleTransaction(payment, txn);
+            } catch (AnchorException aex) {
+              warnF("Error handling the transaction id={}.", txn.getId());
+              errorEx(aex);
+            }
+          }
+        });
+  }
+
+  void handleTransaction(ObservedPayment payment, JdbcSepTransaction txn)
+      throws AnchorException, IOException {
+    if (txn instanceof JdbcSep31Transaction) {
+      handleSep31Transaction(payment, (JdbcSep31Transaction) txn);
+    } else if (txn instanceof JdbcSep24Transaction) {
+      handleSep24Transaction(payment, (JdbcSep24Transaction) txn);
+    } else if (txn instanceof JdbcSep6Transaction) {
+      handleSep6Transaction(payment, (JdbcSep6Transaction) txn);
+    }
+  }
+
   @Override
   public void onSent(ObservedPayment payment) {
     // not implemented. NOOP.
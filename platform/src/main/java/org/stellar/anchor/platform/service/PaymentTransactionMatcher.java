@@ -0,0 +1,174 @@
+package org.stellar.anchor.platform.service;
+
+import static org.stellar.anchor.util.Log.*;
+
+import java.util.*;
+import java.util.function.Function;
+import org.apache.commons.codec.DecoderException;
+import org.stellar.anchor.api.sep.SepTransactionStatus;
+import org.stellar.anchor.platform.data.*;
+import org.stellar.anchor.platform.observer.ObservedPayment;
+import org.stellar.anchor.util.MemoHelper;
+import org.stellar.sdk.xdr.MemoType;
+
+/**
+ * Matches a batch of observed payments to the SEP-31, SEP-24 and SEP-6 transactions waiting for
+ * them.
+ *
+ * <p>Each transaction table is queried once per batch by the destination accounts, the memos and
+ * the pending status of the batch. The tables are queried in the order SEP-31, SEP-24 and SEP-6.
+ * Only the payments not matched yet are looked up in the next table.
+ */
+public class PaymentTransactionMatcher {
+  static final List<String> SUPPORTED_ASSET_TYPES =
+      List.of("credit_alphanum4", "credit_alphanum12", "native");
+
+  final JdbcSep31TransactionStore sep31TransactionStore;
+  final JdbcSep24TransactionStore sep24TransactionStore;
+  final JdbcSep6TransactionStore sep6TransactionStore;
+
+  public PaymentTransactionMatcher(
+      JdbcSep31TransactionStore sep31TransactionStore,
+      JdbcSep24TransactionStore sep24TransactionStore,
+      JdbcSep6TransactionStore sep6TransactionStore) {
+    this.sep31TransactionStore = sep31TransactionStore;
+    this.sep24TransactionStore = sep24TransactionStore;
+    this.sep6TransactionStore = sep6TransactionStore;
+  }
+
+  /**
+   * Matches the payments to the pending transactions. Transactions are assumed to be unique to
+   * account+memo. If several payments of the batch have the same account and memo, only the first
+   * one is matched.
+   *
+   * @param payments the observed payments.
+   * @return the matched transaction of each payment, keyed by payment identity. The payments
+   *     without a matching transaction are not in the map.
+   */
+  public Map<ObservedPayment, JdbcSepTransaction> match(List<ObservedPayment> payments) {
+    // The first payment of each (account, memo) key.
+    Map<List<String>, ObservedPayment> pending = new LinkedHashMap<>();
+    for (ObservedPayment payment : payments) {
+      if (!isMatchable(payment)) continue;
+      pending.putIfAbsent(List.of(payment.getTo(), parseMemo(payment)), payment);
+    }
+
+    Map<ObservedPayment, JdbcSepTransaction> matches = new IdentityHashMap<>();
+    if (pending.isEmpty()) return matches;
+
+    matchTable(
+        "SEP31",
+        pending,
+        matches,
+        (keys) ->
+            sep31TransactionStore.findByStellarAccountIdsAndMemosAndStatus(
+                accounts(keys), memos(keys), SepTransactionStatus.PENDING_SENDER.toString()),
+        (txn) -> List.of(txn.getStellarAccountId(), txn.getStellarMemo()));
+    matchTable(
+        "SEP24",
+        pending,
+        matches,
+        (keys) ->
+            sep24TransactionStore.findByToAccountsAndMemosAndStatus(
+                accounts(keys),
+                memos(keys),
+                SepTransactionStatus.PENDING_USR_TRANSFER_START.toString()),
+        (txn) -> List.of(txn.getToAccount(), txn.getMemo()));
+    matchTable(
+        "SEP6",
+        pending,
+        matches,
+        (keys) ->
+            sep6TransactionStore.findByWithdrawAnchorAccountsAndMemosAndStatus(
+                accounts(keys),
+                memos(keys),
+                SepTransactionStatus.PENDING_USR_TRANSFER_START.toString()),
+        (txn) -> List.of(txn.getWithdrawAnchorAccount(), txn.getMemo()));
+
+    return matches;
+  }
+
+  <T extends JdbcSepTransaction> void matchTable(
+      String sep,
+      Map<List<String>, ObservedPayment> pending,
+      Map<ObservedPayment, JdbcSepTransaction> matches,
+      Function<Set<List<String>>, List<T>> query,
+      Function<T, List<String>> keyOf) {
+    if (pending.isEmpty()) return;
+
+    List<T> txns;
+    try {
+      txns = query.apply(pending.keySet());
+    } catch (Exception ex) {
+      errorEx(ex);
+      return;
+    }
+
+    // The query matches the accounts and the memos separately. Only the exact pairs are matched.
+    for (T txn : txns) {
+      ObservedPayment payment = pending.remove(keyOf.apply(txn));
+      if (payment != null) {
+        debugF(
+            "The payment {} matches the {} transaction id={}.", payment.getId(), sep, txn.getId());
+        matches.put(payment, txn);
+      }
+    }
+  }
+
+  /**
+   * Checks if the payment could be connected to a transaction.
+   *
+   * @param payment the observed payment.
+   * @return true if the payment has a transaction hash, a memo and a supported asset type.
+   */
+  static boolean isMatchable(ObservedPayment payment) {
+    if (Objects.toString(payment.getTransactionHash(), "").isEmpty()
+        || Objects.toString(payment.getTransactionMemo(), "").isEmpty()) {
+      traceF("Ignore the payment {} is not connected to a transaction.", payment.getId());
+      return false;
+    }
+
+    if (!SUPPORTED_ASSET_TYPES.contains(payment.getAssetType())) {
+      debugF("{} is not an issued asset.", payment.getAssetType());
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Gets the memo of the payment as it is stored in the transaction tables. Hash memos are
+   * converted from hex to base64.
+   *
+   * @param payment the observed payment.
+   * @return the memo.
+   */
+  static String parseMemo(ObservedPayment payment) {
+    String memo = payment.getTransactionMemo();
+    String memoType = payment.getTransactionMemoType();
+    if (memoType.equals(MemoHelper.memoTypeAsString(MemoType.MEMO_HASH))) {
+      try {
+        memo = MemoHelper.convertHexToBase64(payment.getTransactionMemo());
+      } catch (DecoderException ex) {
+        infoF(
+            "The memo type is \"hash\" but the memo string {} could not be parsed as such.", memo);
+      }
+    }
+    return memo;
+  }
+
+  static Set<String> accounts(Set<List<String>> keys) {
+    Set<String> accounts = new HashSet<>();
+    for (List<String> key : keys) {
+      accounts.add(key.get(0));
+    }
+    return accounts;
+  }
+
+  static Set<String> memos(Set<List<String>> keys) {
+    Set<String> memos = new HashSet<>();
+    for (List<String> key : keys) {
+      memos.add(key.get(1));
+    }
+    return memos;
+  }
+}
@@ -15,16 +15,21 @@ import static org.stellar.anchor.util.MemoHelper.makeMemo;
 import static org.stellar.anchor.util.MetricConstants.*;
 
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.Metrics;
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
-import java.util.LinkedList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import org.springframework.transaction.annotation.Transactional;
 import org.stellar.anchor.api.event.AnchorEvent;
 import org.stellar.anchor.api.exception.AnchorException;
 import org.stellar.anchor.api.exception.BadRequestException;
@@ -55,6 +60,7 @@ import org.stellar.anchor.platform.data.JdbcSepTransaction;
 import org.stellar.anchor.platform.utils.PlatformTransactionHelper;
 import org.stellar.anchor.sep24.Sep24DepositInfoGenerator;
 import org.stellar.anchor.sep24.Sep24Refunds;
+import org.stellar.anchor.sep24.Sep24Transaction;
 import org.stellar.anchor.sep24.Sep24TransactionStore;
 import org.stellar.anchor.sep31.Sep31Refunds;
 import org.stellar.anchor.sep31.Sep31Transaction;
@@ -72,6 +78,8 @@ import org.stellar.anchor.util.TransactionsParams;
 import org.stellar.sdk.Memo;
 
 public class TransactionService {
+  // The max number of ids bound to the IN list of a query
+  static final int MAX_IDS_PER_QUERY = 1000;
 
   private final Sep38QuoteStore quoteStore;
   private final Sep6TransactionStore txn6Store;
@@ -176,6 +184,18 @@ public class TransactionService {
 
   public GetTransactionsResponse findTransactions(TransactionsSeps sep, TransactionsParams params)
       throws AnchorException {
+    if (params.getCursor() != null) {
+      TransactionsCursor cursor;
+      try {
+        cursor = TransactionsCursor.decode(params.getCursor());
+      } catch (IllegalArgumentException ex) {
+        throw new BadRequestException("Invalid cursor");
+      }
+      if (!cursor.matches(params)) {
+        throw new BadRequestException("The cursor does not match the order_by and the order");
+      }
+    }
+
     List<?> txn;
 
     switch (sep) {
@@ -201,7 +221,36 @@ public class TransactionService {
                 t ->
                     PlatformTransactionHelper.toGetTransactionResponse(
                         (JdbcSepTransaction) t, assetService))
-            .collect(Collectors.toList()));
+            .collect(Collectors.toList()),
+        nextCursor(params, txn));
+  }
+
+  /**
+   * Makes the continuation token of the page after the transactions. A page that is not full is the
+   * last one, so it has no next page.
+   *
+   * @param params the params of the search
+   * @param txn the transactions of the page
+   * @return the token, or null if there is no next page
+   */
+  static String nextCursor(TransactionsParams params, List<?> txn) {
+    if (txn.isEmpty() || txn.size() < params.getPageSize()) {
+      return null;
+    }
+    JdbcSepTransaction last = (JdbcSepTransaction) txn.get(txn.size() - 1);
+    Instant value;
+    switch (params.getOrder_by()) {
+      case TRANSFER_RECEIVED_AT:
+        value = last.getTransferReceivedAt();
+        break;
+      case USER_ACTION_REQUIRED_BY:
+        value = last.getUserActionRequiredBy();
+        break;
+      default:
+        value = last.getStartedAt();
+    }
+    return new TransactionsCursor(params.getOrder_by(), params.getOrder(), value, last.getId())
+        .encode();
   }
 
   /**
@@ -211,24 +260,23 @@ public class TransactionService {
    * @return an object of JdbcSepTransaction
    */
   JdbcSepTransaction queryTransactionById(String txnId) throws AnchorException {
-    Sep31Transaction txn31 = txn31Store.findByTransactionId(txnId);
-    if (txn31 != null) {
-      return (JdbcSep31Transaction) txn31;
-    }
-    Sep6Transaction txn6 = txn6Store.findByTransactionId(txnId);
-    if (txn6 != null) {
-      return (JdbcSep6Transaction) txn6;
-    }
-
-    return (JdbcSep24Transaction) txn24Store.findByTransactionId(txnId);
+    return PlatformTransactionHelper.findTransaction(txnId, txn6Store, txn24Store, txn31Store);
   }
 
   /**
    * Patch transactions.
    *
+   * <p>The records are patched in bulk. All the records are validated first. The transactions are
+   * then loaded with one query per table, and every record must match a transaction before any of
+   * them is patched. The transactions are patched in memory, and their updates are flushed in JDBC
+   * batches when the transaction commits. The custody transactions are created once every record is
+   * patched, and the events are sent after the commit. If a record fails, the request fails with
+   * the error of the record, nothing is patched and no custody transaction is created.
+   *
    * @param request the request
    * @return the response
    */
+  @Transactional(rollbackFor = Exception.class)
   public PatchTransactionsResponse patchTransactions(PatchTransactionsRequest request)
       throws AnchorException {
     List<PatchTransactionRequest> patchRequests = request.getRecords();
@@ -236,17 +284,47 @@ public class TransactionService {
       throw new BadRequestException("Records are missing.");
     }
 
-    List<GetTransactionResponse> txnResponses = new LinkedList<>();
+    List<FeeDetails> feeDetails = new ArrayList<>(patchRequests.size());
+    for (PatchTransactionRequest patchRequest : patchRequests) {
+      feeDetails.add(validatePatch(patchRequest));
+    }
+
+    Map<String, JdbcSepTransaction> txns =
+        queryTransactionsByIds(
+            patchRequests.stream()
+                .map(patchRequest -> patchRequest.getTransaction().getId())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
 
     for (PatchTransactionRequest patchRequest : patchRequests) {
-      txnResponses.add(patchTransaction(patchRequest));
+      String txnId = patchRequest.getTransaction().getId();
+      if (txns.get(txnId) == null)
+        throw new BadRequestException(String.format("transaction(id=%s) not found", txnId));
+    }
+
+    List<GetTransactionResponse> txnResponses = new ArrayList<>(patchRequests.size());
+    List<AnchorEvent> events = new ArrayList<>(patchRequests.size());
+    List<JdbcSepTransaction> custodyTxns = new ArrayList<>();
+    for (int i = 0; i < patchRequests.size(); i++) {
+      PlatformTransactionData patch = patchRequests.get(i).getTransaction();
+      JdbcSepTransaction txn = txns.get(patch.getId());
+      events.add(patchTransaction(patch, txn, feeDetails.get(i), custodyTxns));
+      txnResponses.add(PlatformTransactionHelper.toGetTransactionResponse(txn, assetService));
     }
 
+    createCustodyTransactions(custodyTxns);
+    publishEvents(events);
+
     return new PatchTransactionsResponse(txnResponses);
   }
 
-  private GetTransactionResponse patchTransaction(PatchTransactionRequest patch)
-      throws AnchorException {
+  /**
+   * Validates a record of the PATCH /transactions request.
+   *
+   * @param patch the record
+   * @return the fee details of the record, or null if it has none
+   */
+  private FeeDetails validatePatch(PatchTransactionRequest patch) throws AnchorException {
     if (patch.getTransaction() == null) {
       throw new BadRequestException("Transaction is missing.");
     }
@@ -256,15 +334,51 @@ public class TransactionService {
     validateAsset("amount_out", patch.getTransaction().getAmountOut());
     validateAsset("amount_fee", patch.getTransaction().getAmountFee(), true);
 
-    FeeDetails feeDetails = validateAndGetRateFee(patch.getTransaction());
+    return validateAndGetRateFee(patch.getTransaction());
+  }
 
-    JdbcSepTransaction txn = queryTransactionById(patch.getTransaction().getId());
-    if (txn == null)
-      throw new BadRequestException(
-          String.format("transaction(id=%s) not found", patch.getTransaction().getId()));
+  /**
+   * Query the transactions by ids with one query per table.
+   *
+   * @param txnIds the transaction IDs
+   * @return the transactions that are found, by id
+   */
+  Map<String, JdbcSepTransaction> queryTransactionsByIds(Collection<String> txnIds)
+      throws AnchorException {
+    Map<String, JdbcSepTransaction> txns = new HashMap<>();
+    for (List<String> ids : Lists.partition(new ArrayList<>(txnIds), MAX_IDS_PER_QUERY)) {
+      for (Sep31Transaction txn : txn31Store.findByTransactionIds(ids)) {
+        txns.put(txn.getId(), (JdbcSepTransaction) txn);
+      }
+      for (Sep24Transaction txn : txn24Store.findByTransactionIds(ids)) {
+        txns.putIfAbsent(txn.getTransactionId(), (JdbcSepTransaction) txn);
+      }
+      for (Sep6Transaction txn : txn6Store.findByTransactionIds(ids)) {
+        txns.putIfAbsent(txn.getId(), (JdbcSepTransaction) txn);
+      }
+    }
+    return txns;
+  }
 
+  /**
+   * Patches a transaction that is already validated.
+   *
+   * @param patch the patch of the transaction
+   * @param txn the transaction
+   * @param feeDetails the fee details of the patch
+   * @param custodyTxns the transactions to create in the custody service, to which the transaction
+   *     is added if it needs one
+   * @return the event of the patched transaction
+   */
+  private AnchorEvent patchTransaction(
+      PlatformTransactionData patch,
+      JdbcSepTransaction txn,
+      FeeDetails feeDetails,
+      List<JdbcSepTransaction> custodyTxns)
+      throws AnchorException {
     String lastStatus = txn.getStatus();
-    updateSepTransaction(patch.getTransaction(), txn);
+    updateSepTransaction(patch, txn);
+    AnchorEvent event = null;
     switch (txn.getProtocol()) {
       case "6":
         JdbcSep6Transaction sep6Transaction = (JdbcSep6Transaction) txn;
@@ -291,7 +405,7 @@ public class TransactionService {
         if (custodyConfig.isCustodyIntegrationEnabled()
             && !lastStatus.equals(sep6Transaction.getStatus())
             && (shouldCreateDepositTxn || shouldCreateWithdrawTxn)) {
-          custodyService.createTransaction(sep6Transaction);
+          custodyTxns.add(sep6Transaction);
         }
 
         if (feeDetails != null) {
@@ -299,14 +413,14 @@ public class TransactionService {
         }
 
         txn6Store.save(sep6Transaction);
-        eventSession.publish(
+        event =
             AnchorEvent.builder()
                 .id(UUID.randomUUID().toString())
                 .sep("6")
                 .type(TRANSACTION_STATUS_CHANGED)
                 .transaction(
                     TransactionHelper.toGetTransactionResponse(sep6Transaction, assetService))
-                .build());
+                .build();
         patchSep6TransactionCounter.increment();
         break;
       case "24":
@@ -318,7 +432,7 @@ public class TransactionService {
                     && PENDING_ANCHOR.toString().equals(sep24Txn.getStatus()))
                 || (Kind.WITHDRAWAL.getKind().equals(sep24Txn.getKind())
                     && PENDING_USR_TRANSFER_START.toString().equals(sep24Txn.getStatus())))) {
-          custodyService.createTransaction(sep24Txn);
+          custodyTxns.add(sep24Txn);
         }
 
         if (feeDetails != null) {
@@ -326,13 +440,13 @@ public class TransactionService {
         }
 
         txn24Store.save(sep24Txn);
-        eventSession.publish(
+        event =
             AnchorEvent.builder()
                 .id(UUID.randomUUID().toString())
                 .sep("24")
                 .type(TRANSACTION_STATUS_CHANGED)
                 .transaction(TransactionHelper.toGetTransactionResponse(sep24Txn, assetService))
-                .build());
+                .build();
         patchSep24TransactionCounter.increment();
         break;
       case "31":
@@ -343,18 +457,53 @@ public class TransactionService {
         }
 
         txn31Store.save(sep31Txn);
-        eventSession.publish(
+        event =
             AnchorEvent.builder()
                 .id(UUID.randomUUID().toString())
                 .sep("31")
                 .type(TRANSACTION_STATUS_CHANGED)
                 .transaction(TransactionHelper.toGetTransactionResponse(sep31Txn))
-                .build());
+                .build();
         patchSep31TransactionCounter.increment();
         break;
     }
 
-    return PlatformTransactionHelper.toGetTransactionResponse(txn, assetService);
+    return event;
+  }
+
+  /**
+   * Creates the custody transactions of the patched transactions. It is called once every record
+   * is patched, so that a record that fails does not leave custody transactions behind.
+   *
+   * @param txns the SEP-6 and SEP-24 transactions
+   */
+  private void createCustodyTransactions(List<JdbcSepTransaction> txns) throws AnchorException {
+    for (JdbcSepTransaction txn : txns) {
+      switch (txn.getProtocol()) {
+        case "6":
+          custodyService.createTransaction((JdbcSep6Transaction) txn);
+          break;
+        case "24":
+          custodyService.createTransaction((JdbcSep24Transaction) txn);
+          break;
+        default:
+          throw new InternalServerErrorException(
+              String.format("Unsupported protocol:%s", txn.getProtocol()));
+      }
+    }
+  }
+
+  /**
+   * Publishes the events of the patched transactions. The event session sends them after the
+   * transaction commits, or writes them to the outbox in the transaction, so no event is sent
+   * before the patches are flushed, or for patches that are rolled back.
+   *
+   * @param events the events
+   */
+  private void publishEvents(List<AnchorEvent> events) throws AnchorException {
+    for (AnchorEvent event : events) {
+      eventSession.publish(event);
+    }
   }
 
   void updateSepTransaction(PlatformTransactionData patch, JdbcSepTransaction txn)
@@ -0,0 +1,59 @@
+package org.stellar.anchor.platform.utils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.stellar.anchor.platform.config.HttpClientConfig;
+
+/**
+ * Builds the HTTP clients of the outbound requests, for example the callbacks to the business
+ * server and to the clients.
+ *
+ * <p>Each client has its own connection pool and limits of concurrent requests per host, so that
+ * a slow destination does not exhaust the connections of the other destinations. HTTP/2 is
+ * negotiated with the servers that support it. The latency and the errors of the requests are
+ * recorded per host by the {@link HttpClientMetricsInterceptor}.
+ */
+public class HttpClientFactory {
+  /**
+   * Builds an HTTP client.
+   *
+   * @param name the name of the client, used as the metric tag.
+   * @param config the configuration of the client.
+   * @return the HTTP client.
+   */
+  public static OkHttpClient build(String name, HttpClientConfig config) {
+    return builder(name, config).build();
+  }
+
+  /**
+   * Creates the builder of an HTTP client, for the clients that need more customization.
+   *
+   * @param name the name of the client, used as the metric tag.
+   * @param config the configuration of the client.
+   * @return the HTTP client builder.
+   */
+  public static OkHttpClient.Builder builder(String name, HttpClientConfig config) {
+    Dispatcher dispatcher = new Dispatcher();
+    dispatcher.setMaxRequests(config.getMaxRequests());
+    dispatcher.setMaxRequestsPerHost(config.getMaxRequestsPerHost());
+
+    return new OkHttpClient.Builder()
+        .connectTimeout(config.getConnectTimeout(), TimeUnit.SECONDS)
+        .readTimeout(config.getReadTimeout(), TimeUnit.SECONDS)
+        .writeTimeout(config.getWriteTimeout(), TimeUnit.SECONDS)
+        .callTimeout(config.getCallTimeout(), TimeUnit.SECONDS)
+        .dispatcher(dispatcher)
+        .connectionPool(
+            new ConnectionPool(
+                config.getMaxIdleConnections(), config.getKeepAliveDuration(), TimeUnit.SECONDS))
+        .protocols(
+            config.isHttp2()
+                ? List.of(Protocol.HTTP_2, Protocol.HTTP_1_1)
+                : List.of(Protocol.HTTP_1_1))
+        .addInterceptor(new HttpClientMetricsInterceptor(name));
+  }
+}
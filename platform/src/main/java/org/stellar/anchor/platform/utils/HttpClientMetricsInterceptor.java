@@ -0,0 +1,51 @@
+package org.stellar.anchor.platform.utils;
+
+import static org.stellar.anchor.util.MetricConstants.HTTP_CLIENT_REQUEST;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Records the latency histogram of the requests of an HTTP client, tagged by the host and the
+ * outcome of the request. The outcome is the class of the HTTP status code, for example 2xx, or
+ * io_error when no response is received.
+ */
+public class HttpClientMetricsInterceptor implements Interceptor {
+  static final String IO_ERROR = "io_error";
+
+  final String clientName;
+
+  public HttpClientMetricsInterceptor(String clientName) {
+    this.clientName = clientName;
+  }
+
+  @NotNull
+  @Override
+  public Response intercept(@NotNull Chain chain) throws IOException {
+    String host = chain.request().url().host();
+    long start = System.nanoTime();
+    try {
+      Response response = chain.proceed(chain.request());
+      record(host, response.code() / 100 + "xx", start);
+      return response;
+    } catch (IOException ex) {
+      record(host, IO_ERROR, start);
+      throw ex;
+    }
+  }
+
+  void record(String host, String outcome, long start) {
+    Timer.builder(HTTP_CLIENT_REQUEST)
+        .tag("client", clientName)
+        .tag("host", host)
+        .tag("outcome", outcome)
+        .publishPercentileHistogram()
+        .register(Metrics.globalRegistry)
+        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+  }
+}
@@ -1,13 +1,19 @@
 package org.stellar.anchor.platform.utils;
 
 import lombok.SneakyThrows;
+import org.stellar.anchor.api.exception.AnchorException;
 import org.stellar.anchor.api.exception.SepException;
 import org.stellar.anchor.api.platform.GetTransactionResponse;
 import org.stellar.anchor.asset.AssetService;
+import org.stellar.anchor.platform.data.JdbcSep31TransactionStore;
 import org.stellar.anchor.platform.data.JdbcSepTransaction;
+import org.stellar.anchor.platform.data.TransactionProtocolResolver;
 import org.stellar.anchor.sep24.Sep24Transaction;
+import org.stellar.anchor.sep24.Sep24TransactionStore;
 import org.stellar.anchor.sep31.Sep31Transaction;
+import org.stellar.anchor.sep31.Sep31TransactionStore;
 import org.stellar.anchor.sep6.Sep6Transaction;
+import org.stellar.anchor.sep6.Sep6TransactionStore;
 import org.stellar.anchor.util.TransactionHelper;
 
 public class PlatformTransactionHelper {
@@ -25,4 +31,54 @@ public class PlatformTransactionHelper {
         throw new SepException(String.format("Unsupported protocol:%s", txn.getProtocol()));
     }
   }
+
+  /**
+   * Finds a SEP-6, SEP-24 or SEP-31 transaction by its id. When the SEP-31 store resolves the
+   * protocols of the transactions, the transaction is read from the store of its protocol only, and
+   * an id that is not resolved is not looked up. Otherwise, the stores are probed in turn.
+   *
+   * @param txnId the transaction ID
+   * @param txn6Store the SEP-6 transaction store
+   * @param txn24Store the SEP-24 transaction store
+   * @param txn31Store the SEP-31 transaction store
+   * @return the transaction, or null if it is not found
+   * @throws AnchorException if a store fails
+   */
+  public static JdbcSepTransaction findTransaction(
+      String txnId,
+      Sep6TransactionStore txn6Store,
+      Sep24TransactionStore txn24Store,
+      Sep31TransactionStore txn31Store)
+      throws AnchorException {
+    TransactionProtocolResolver protocolResolver =
+        txn31Store instanceof JdbcSep31TransactionStore
+            ? ((JdbcSep31TransactionStore) txn31Store).getProtocolResolver()
+            : null;
+    if (protocolResolver != null) {
+      String protocol = protocolResolver.resolve(txnId);
+      if (protocol == null) {
+        return null;
+      }
+      switch (protocol) {
+        case "6":
+          return (JdbcSepTransaction) txn6Store.findByTransactionId(txnId);
+        case "24":
+          return (JdbcSepTransaction) txn24Store.findByTransactionId(txnId);
+        case "31":
+          return (JdbcSepTransaction) txn31Store.findByTransactionId(txnId);
+        default:
+          throw new SepException(String.format("Unsupported protocol:%s", protocol));
+      }
+    }
+
+    Sep31Transaction txn31 = txn31Store.findByTransactionId(txnId);
+    if (txn31 != null) {
+      return (JdbcSepTransaction) txn31;
+    }
+    Sep24Transaction txn24 = txn24Store.findByTransactionId(txnId);
+    if (txn24 != null) {
+      return (JdbcSepTransaction) txn24;
+    }
+    return (JdbcSepTransaction) txn6Store.findByTransactionId(txnId);
+  }
 }
@@ -0,0 +1,9 @@
+CREATE TABLE event_outbox (
+   id VARCHAR(255),
+   queue VARCHAR(255),
+   payload TEXT,
+   created_at TIMESTAMP WITHOUT TIME ZONE,
+   CONSTRAINT pk_event_outbox PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_event_outbox_created_at ON event_outbox (created_at);
@@ -0,0 +1,14 @@
+CREATE TABLE event_delivery_retry (
+   id VARCHAR(255),
+   processor VARCHAR(255),
+   target VARCHAR(255),
+   payload TEXT,
+   attempts INTEGER,
+   next_attempt_at TIMESTAMP WITHOUT TIME ZONE,
+   last_error TEXT,
+   dead_lettered BOOLEAN,
+   created_at TIMESTAMP WITHOUT TIME ZONE,
+   CONSTRAINT pk_event_delivery_retry PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_event_delivery_retry_next_attempt_at ON event_delivery_retry (dead_lettered, next_attempt_at);
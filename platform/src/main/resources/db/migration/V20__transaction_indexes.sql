@@ -0,0 +1,59 @@
+-- The indexes of the lookups of the transaction stores and the payment observer.
+-- The indexes are built without locking the writes of the tables, so the migration runs outside a
+-- transaction (see the .sql.conf file).
+--
+-- A concurrent build that fails leaves an invalid index behind, and the migration fails. The
+-- invalid indexes of the migration are dropped first, and the valid ones are kept, so that the
+-- failed migration can be run again.
+DO $$
+DECLARE
+  invalid_index RECORD;
+BEGIN
+  FOR invalid_index IN
+    SELECT index_class.relname
+    FROM pg_index
+    JOIN pg_class index_class ON index_class.oid = pg_index.indexrelid
+    WHERE NOT pg_index.indisvalid
+      AND index_class.relnamespace = current_schema()::regnamespace
+      AND index_class.relname IN (
+        'idx_sep6_transaction_transaction_id',
+        'idx_sep6_transaction_stellar_transaction_id',
+        'idx_sep6_transaction_external_transaction_id',
+        'idx_sep6_transaction_withdraw_anchor_account_memo_status',
+        'idx_sep6_transaction_sep10_account_asset_code_started_at',
+        'idx_sep24_transaction_transaction_id',
+        'idx_sep24_transaction_stellar_transaction_id',
+        'idx_sep24_transaction_external_transaction_id',
+        'idx_sep24_transaction_to_account_memo_status',
+        'idx_sep24_transaction_sep10account_asset_code_started_at',
+        'idx_sep24_transaction_status',
+        'idx_sep31_transaction_stellar_account_id_stellar_memo_status',
+        'idx_sep31_transaction_stellar_memo',
+        'idx_sep31_transaction_status',
+        'idx_custody_transaction_external_tx_id',
+        'idx_custody_transaction_status_kind'
+      )
+  LOOP
+    EXECUTE format('DROP INDEX %I', invalid_index.relname);
+  END LOOP;
+END $$;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_sep6_transaction_transaction_id ON sep6_transaction (transaction_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_sep6_transaction_stellar_transaction_id ON sep6_transaction (stellar_transaction_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_sep6_transaction_external_transaction_id ON sep6_transaction (external_transaction_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_sep6_transaction_withdraw_anchor_account_memo_status ON sep6_transaction (withdraw_anchor_account, memo, status);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_sep6_transaction_sep10_account_asset_code_started_at ON sep6_transaction (sep10_account, request_asset_code, started_at);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_sep24_transaction_transaction_id ON sep24_transaction (transaction_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_sep24_transaction_stellar_transaction_id ON sep24_transaction (stellar_transaction_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_sep24_transaction_external_transaction_id ON sep24_transaction (external_transaction_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_sep24_transaction_to_account_memo_status ON sep24_transaction (to_account, memo, status);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_sep24_transaction_sep10account_asset_code_started_at ON sep24_transaction (sep10account, request_asset_code, started_at);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_sep24_transaction_status ON sep24_transaction (status);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_sep31_transaction_stellar_account_id_stellar_memo_status ON sep31_transaction (stellar_account_id, stellar_memo, status);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_sep31_transaction_stellar_memo ON sep31_transaction (stellar_memo);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_sep31_transaction_status ON sep31_transaction (status);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_custody_transaction_external_tx_id ON custody_transaction (external_tx_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_custody_transaction_status_kind ON custody_transaction (status, kind);
@@ -0,0 +1,41 @@
+-- The indexes of the keyset pagination of the Platform GET /transactions, one per order_by option.
+-- The indexes are built without locking the writes of the tables, so the migration runs outside a
+-- transaction (see the .sql.conf file). The invalid indexes left by a failed build are dropped
+-- first, like in V20, so that the migration can be run again.
+DO $$
+DECLARE
+  invalid_index RECORD;
+BEGIN
+  FOR invalid_index IN
+    SELECT index_class.relname
+    FROM pg_index
+    JOIN pg_class index_class ON index_class.oid = pg_index.indexrelid
+    WHERE NOT pg_index.indisvalid
+      AND index_class.relnamespace = current_schema()::regnamespace
+      AND index_class.relname IN (
+        'idx_sep6_transaction_started_at_id',
+        'idx_sep6_transaction_transfer_received_at_id',
+        'idx_sep6_transaction_user_action_required_by_id',
+        'idx_sep24_transaction_started_at_id',
+        'idx_sep24_transaction_transfer_received_at_id',
+        'idx_sep24_transaction_user_action_required_by_id',
+        'idx_sep31_transaction_started_at_id',
+        'idx_sep31_transaction_transfer_received_at_id',
+        'idx_sep31_transaction_user_action_required_by_id'
+      )
+  LOOP
+    EXECUTE format('DROP INDEX %I', invalid_index.relname);
+  END LOOP;
+END $$;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_sep6_transaction_started_at_id ON sep6_transaction (started_at, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_sep6_transaction_transfer_received_at_id ON sep6_transaction (transfer_received_at, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_sep6_transaction_user_action_required_by_id ON sep6_transaction (user_action_required_by, id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_sep24_transaction_started_at_id ON sep24_transaction (started_at, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_sep24_transaction_transfer_received_at_id ON sep24_transaction (transfer_received_at, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_sep24_transaction_user_action_required_by_id ON sep24_transaction (user_action_required_by, id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_sep31_transaction_started_at_id ON sep31_transaction (started_at, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_sep31_transaction_transfer_received_at_id ON sep31_transaction (transfer_received_at, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_sep31_transaction_user_action_required_by_id ON sep31_transaction (user_action_required_by, id);
@@ -0,0 +1,7 @@
+-- The events are relayed in the order of the sequence number, which is assigned when they are
+-- written. The events of a partition key are relayed by one relay at a time.
+ALTER TABLE event_outbox ADD COLUMN sequence_number BIGSERIAL;
+ALTER TABLE event_outbox ADD COLUMN partition_key VARCHAR(255);
+
+CREATE INDEX idx_event_outbox_sequence_number ON event_outbox (sequence_number);
+CREATE INDEX idx_event_outbox_partition_key ON event_outbox (partition_key, sequence_number);
@@ -0,0 +1,5 @@
+-- The deliveries of a partition key to a target are retried in the order of the sequence number.
+ALTER TABLE event_delivery_retry ADD COLUMN sequence_number BIGSERIAL;
+ALTER TABLE event_delivery_retry ADD COLUMN partition_key VARCHAR(255);
+
+CREATE INDEX idx_event_delivery_retry_partition_key ON event_delivery_retry (partition_key, processor, target, sequence_number);
@@ -0,0 +1,7 @@
+-- The sequence number is assigned by the application from the sequence of the column, so that it
+-- is assigned the same way on the databases whose schema is created by Hibernate.
+ALTER TABLE event_outbox DROP CONSTRAINT pk_event_outbox;
+ALTER TABLE event_outbox ADD CONSTRAINT pk_event_outbox PRIMARY KEY (sequence_number);
+ALTER TABLE event_outbox ADD CONSTRAINT uk_event_outbox_id UNIQUE (id);
+
+DROP INDEX idx_event_outbox_sequence_number;
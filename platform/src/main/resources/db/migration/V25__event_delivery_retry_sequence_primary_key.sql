@@ -0,0 +1,5 @@
+-- The sequence number is assigned by the application from the sequence of the column, so that it
+-- is assigned the same way on the databases whose schema is created by Hibernate.
+ALTER TABLE event_delivery_retry DROP CONSTRAINT pk_event_delivery_retry;
+ALTER TABLE event_delivery_retry ADD CONSTRAINT pk_event_delivery_retry PRIMARY KEY (sequence_number);
+ALTER TABLE event_delivery_retry ADD CONSTRAINT uk_event_delivery_retry_id UNIQUE (id);
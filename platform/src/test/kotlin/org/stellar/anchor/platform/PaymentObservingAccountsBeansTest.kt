@@ -13,6 +13,7 @@ import org.stellar.anchor.asset.AssetService
 import org.stellar.anchor.asset.DefaultAssetService
 import org.stellar.anchor.config.AppConfig
 import org.stellar.anchor.platform.component.observer.PaymentObserverBeans
+import org.stellar.anchor.platform.config.HttpClientConfig
 import org.stellar.anchor.platform.config.PaymentObserverConfig
 import org.stellar.anchor.platform.config.PaymentObserverConfig.StellarPaymentObserverConfig
 import org.stellar.anchor.platform.observer.PaymentListener
@@ -137,7 +138,8 @@ class PaymentObservingAccountsBeansTest {
 
     every { mockAppConfig.horizonUrl } returns "https://horizon-testnet.stellar.org"
     every { mockPaymentObserverConfig.stellar } returns
-      StellarPaymentObserverConfig(1, 5, 1, 1, 2, 1, 2)
+      StellarPaymentObserverConfig(1, 5, 1, 1, 2, 1, 2, 1, 0, 0, 0, 0, 0, 1)
+    every { mockPaymentObserverConfig.httpClient } returns HttpClientConfig(10, 30, 30, 60)
 
     assertDoesNotThrow {
       paymentObserverBeans.stellarPaymentObserver(
@@ -0,0 +1,96 @@
+package org.stellar.anchor.platform.apiclient
+
+import io.mockk.*
+import io.mockk.impl.annotations.MockK
+import java.io.IOException
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import org.stellar.anchor.api.rpc.RpcRequest
+import org.stellar.anchor.api.rpc.method.NotifyOnchainFundsReceivedRequest
+import org.stellar.anchor.api.rpc.method.RpcMethod
+import org.stellar.anchor.apiclient.PlatformApiClient
+import org.stellar.anchor.apiclient.RpcTransport
+import org.stellar.anchor.auth.AuthHelper
+import org.stellar.anchor.platform.service.RpcService
+
+class LocalRpcTransportTest {
+  @MockK(relaxed = true) private lateinit var rpcService: RpcService
+  @MockK(relaxed = true) private lateinit var fallback: RpcTransport
+
+  private lateinit var registry: LocalRpcServiceRegistry
+  private lateinit var client: PlatformApiClient
+
+  @BeforeEach
+  fun setup() {
+    MockKAnnotations.init(this, relaxUnitFun = true)
+    registry = LocalRpcServiceRegistry()
+    client =
+      PlatformApiClient(
+        AuthHelper.forNone(),
+        "http://localhost:8085",
+        LocalRpcTransport(registry, fallback),
+        2
+      )
+  }
+
+  @Test
+  fun `test notifications are handled by the local RpcService without serialization`() {
+    val requests = slot<List<RpcRequest>>()
+    every { rpcService.handle(capture(requests)) } returns listOf()
+    val registration = registry.register(rpcService)
+
+    client.notifyOnchainFundsReceived("txn-1", "stellar-txn-1", "10", "received")
+
+    val params = requests.captured.single().params as NotifyOnchainFundsReceivedRequest
+    assertEquals(RpcMethod.NOTIFY_ONCHAIN_FUNDS_RECEIVED.toString(), requests.captured[0].method)
+    assertEquals("txn-1", params.transactionId)
+    assertEquals("10", params.amountIn.amount)
+    verify { fallback wasNot Called }
+
+    registration.close()
+    assertNull(registry.get())
+  }
+
+  @Test
+  fun `test batched notifications are sent in JSON-RPC batches with the fallback transport`() {
+    val batches = mutableListOf<List<String>>()
+    every { fallback.send(any()) } answers
+      {
+        val requests = firstArg<List<RpcRequest>>()
+        batches.add(requests.map { (it.params as NotifyOnchainFundsReceivedRequest).transactionId })
+      }
+
+    client.batchRpcNotifications {
+      for (i in 1..5) {
+        client.notifyOnchainFundsReceived("txn-$i", "stellar-txn-$i", "10", "received")
+      }
+      // Nothing is sent until the batch returns.
+      assertEquals(0, batches.size)
+    }
+
+    assertEquals(
+      listOf(listOf("txn-1", "txn-2"), listOf("txn-3", "txn-4"), listOf("txn-5")),
+      batches
+    )
+  }
+
+  @Test
+  fun `test the batch error is not hidden by the error of sending the notifications`() {
+    every { fallback.send(any()) } throws IOException("send failed")
+
+    val ex =
+      assertThrows<IllegalStateException> {
+        client.batchRpcNotifications {
+          client.notifyOnchainFundsReceived("txn-1", "stellar-txn-1", "10", "received")
+          throw IllegalStateException("batch failed")
+        }
+      }
+
+    assertEquals("batch failed", ex.message)
+    assertEquals("send failed", ex.suppressed.single().message)
+    verify(exactly = 1) { fallback.send(any()) }
+  }
+}
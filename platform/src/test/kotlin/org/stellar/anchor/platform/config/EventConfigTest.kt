@@ -45,6 +45,34 @@ class EventConfigTest {
     }
   }
 
+  @Test
+  fun `test the Kafka compression type is validated`() {
+    config.isEnabled = true
+    config.queue = PropertyQueueConfig()
+    config.queue.type = KAFKA
+    config.queue.kafka =
+      KafkaConfig(
+        "localhost:29092",
+        "client_id",
+        5,
+        10,
+        500,
+        10,
+        KafkaConfig.SecurityProtocol.PLAINTEXT,
+        null,
+        false,
+        1000,
+      )
+    config.queue.kafka.compressionType = "zstd"
+    config.validateKafka(config, errors)
+    assertEquals(0, errors.errorCount)
+
+    config.queue.kafka.compressionType = "brotli"
+    config.validateKafka(config, errors)
+    assertEquals(1, errors.errorCount)
+    assertEquals("kafka-compression-type-invalid", errors.allErrors[0].code)
+  }
+
   @ParameterizedTest
   @MethodSource("generatedSqsConfig")
   fun `test Sqs configurations`(errorCount: Int, errorCode: String, sqsConfig: SqsConfig) {
@@ -89,6 +117,8 @@ class EventConfigTest {
             10,
             KafkaConfig.SecurityProtocol.PLAINTEXT,
             null,
+            false,
+            1000,
           ),
         ),
         Arguments.of(
@@ -103,6 +133,8 @@ class EventConfigTest {
             10,
             KafkaConfig.SecurityProtocol.PLAINTEXT,
             null,
+            false,
+            1000,
           ),
         ),
         Arguments.of(
@@ -117,6 +149,8 @@ class EventConfigTest {
             10,
             KafkaConfig.SecurityProtocol.PLAINTEXT,
             null,
+            false,
+            1000,
           ),
         ),
         Arguments.of(
@@ -131,6 +165,24 @@ class EventConfigTest {
             10,
             KafkaConfig.SecurityProtocol.PLAINTEXT,
             null,
+            false,
+            1000,
+          ),
+        ),
+        Arguments.of(
+          1,
+          "kafka-max-in-flight-publishes-invalid",
+          KafkaConfig(
+            "localhost:29092",
+            "client_id",
+            5,
+            10,
+            500,
+            10,
+            KafkaConfig.SecurityProtocol.PLAINTEXT,
+            null,
+            true,
+            0,
           ),
         ),
         Arguments.of(
@@ -144,7 +196,9 @@ class EventConfigTest {
             500,
             10,
             KafkaConfig.SecurityProtocol.PLAINTEXT,
-            null
+            null,
+            false,
+            1000
           ),
         ),
         Arguments.of(
@@ -159,12 +213,14 @@ class EventConfigTest {
             10,
             KafkaConfig.SecurityProtocol.PLAINTEXT,
             null,
+            false,
+            1000,
           ),
         ),
         Arguments.of(
           1,
           "kafka-security-protocol-empty",
-          KafkaConfig("localhost:29092", "client_id", 1, 10, 500, 10, null, null),
+          KafkaConfig("localhost:29092", "client_id", 1, 10, 500, 10, null, null, false, 1000),
         ),
         Arguments.of(
           1,
@@ -178,6 +234,8 @@ class EventConfigTest {
             10,
             KafkaConfig.SecurityProtocol.SASL_PLAINTEXT,
             null,
+            false,
+            1000,
           ),
         ),
       )
@@ -187,7 +245,17 @@ class EventConfigTest {
     fun generatedSqsConfig(): Stream<Arguments> {
       return Stream.of(
         Arguments.of(0, "no-error", SqsConfig(true, "us-east-1")),
-        Arguments.of(0, "no-error", SqsConfig(false, "us-east-1")),
+        Arguments.of(1, "sqs-endpoint-empty", SqsConfig(false, "us-east-1")),
+        Arguments.of(
+          0,
+          "no-error",
+          SqsConfig(false, "us-east-1", "http://localhost:9324", true, 20, "json")
+        ),
+        Arguments.of(
+          1,
+          "sqs-event-codec-invalid",
+          SqsConfig(true, "us-east-1", null, true, 20, "xml")
+        ),
         Arguments.of(1, "sqs-aws-region-empty", SqsConfig(true, null)),
         Arguments.of(1, "sqs-aws-region-empty", SqsConfig(false, null)),
       )
@@ -209,6 +277,8 @@ class EventConfigTest {
             10,
             KafkaConfig.SecurityProtocol.PLAINTEXT,
             null,
+            false,
+            1000,
           ),
         ),
         Arguments.of(
@@ -224,6 +294,8 @@ class EventConfigTest {
             10,
             KafkaConfig.SecurityProtocol.PLAINTEXT,
             null,
+            false,
+            1000,
           ),
         ),
         Arguments.of(
@@ -239,6 +311,8 @@ class EventConfigTest {
             10,
             KafkaConfig.SecurityProtocol.PLAINTEXT,
             null,
+            false,
+            1000,
           ),
         ),
         Arguments.of(
@@ -254,6 +328,8 @@ class EventConfigTest {
             10,
             KafkaConfig.SecurityProtocol.PLAINTEXT,
             null,
+            false,
+            1000,
           ),
         ),
         Arguments.of(
@@ -269,6 +345,8 @@ class EventConfigTest {
             10,
             KafkaConfig.SecurityProtocol.PLAINTEXT,
             null,
+            false,
+            1000,
           ),
         ),
         Arguments.of(
@@ -284,6 +362,8 @@ class EventConfigTest {
             10,
             KafkaConfig.SecurityProtocol.PLAINTEXT,
             null,
+            false,
+            1000,
           ),
         ),
       )
@@ -25,7 +25,8 @@ class PaymentObserverConfigTest {
   @Test
   fun `test stellar payment observer config`() {
     config.type = STELLAR
-    stellarConfig = StellarPaymentObserverConfig(90, 5, 5, 5, 300, 5, 300)
+    stellarConfig =
+      StellarPaymentObserverConfig(90, 5, 5, 5, 300, 5, 300, 100, 5000, 4, 1000, 4, 10, 50)
     config.setStellar(stellarConfig)
     config.validateStellar(config, errors)
     assertEquals(0, errors.errorCount)
@@ -35,14 +36,23 @@ class PaymentObserverConfigTest {
   @CsvSource(
     value =
       [
-        "90,5,5,5,300,5,300,0,no-error",
-        "0,5,5,5,300,5,300,1,invalid-payment-observer-silence-check-interval",
-        "90,0,5,5,300,5,300,1,invalid-payment-observer-stellar-silence-timeout",
-        "90,5,0,5,300,5,300,1,invalid-payment-observer-stellar-silence-timeout-retries",
-        "90,5,5,0,300,5,300,1,invalid-payment-observer-stellar-initial-stream-backoff-time",
-        "90,5,5,5,0,5,300,1,invalid-payment-observer-stellar-max-stream-backoff-time",
-        "90,5,5,5,300,0,300,1,invalid-payment-observer-stellar-initial-event-backoff-time",
-        "90,5,5,5,300,5,0,1,invalid-payment-observer-stellar-max-event-backoff-time"
+        "90,5,5,5,300,5,300,100,5000,4,1000,4,10,50,0,no-error",
+        "0,5,5,5,300,5,300,100,5000,4,1000,4,10,50,1,invalid-payment-observer-silence-check-interval",
+        "90,0,5,5,300,5,300,100,5000,4,1000,4,10,50,1,invalid-payment-observer-stellar-silence-timeout",
+        "90,5,0,5,300,5,300,100,5000,4,1000,4,10,50,1,invalid-payment-observer-stellar-silence-timeout-retries",
+        "90,5,5,0,300,5,300,100,5000,4,1000,4,10,50,1,invalid-payment-observer-stellar-initial-stream-backoff-time",
+        "90,5,5,5,0,5,300,100,5000,4,1000,4,10,50,1,invalid-payment-observer-stellar-max-stream-backoff-time",
+        "90,5,5,5,300,0,300,100,5000,4,1000,4,10,50,1,invalid-payment-observer-stellar-initial-event-backoff-time",
+        "90,5,5,5,300,5,0,100,5000,4,1000,4,10,50,1,invalid-payment-observer-stellar-max-event-backoff-time",
+        "90,5,5,5,300,5,300,0,5000,4,1000,4,10,50,1,invalid-payment-observer-stellar-cursor-flush-operations",
+        "90,5,5,5,300,5,300,100,-1,4,1000,4,10,50,1,invalid-payment-observer-stellar-cursor-flush-interval-milliseconds",
+        "90,5,5,5,300,5,300,100,0,4,1000,4,10,50,1,invalid-payment-observer-stellar-cursor-flush-interval-milliseconds",
+        "90,5,5,5,300,5,300,100,5000,-1,1000,4,10,50,1,invalid-payment-observer-stellar-dispatch-workers",
+        "90,5,5,5,300,5,300,100,5000,4,0,4,10,50,1,invalid-payment-observer-stellar-dispatch-queue-size",
+        "90,5,5,5,300,5,300,100,5000,4,1000,-1,10,50,1,invalid-payment-observer-stellar-catchup-prefetch-pages",
+        "90,5,5,5,300,5,300,100,5000,4,1000,101,10,50,1,invalid-payment-observer-stellar-catchup-prefetch-pages",
+        "90,5,5,5,300,5,300,100,5000,4,1000,4,-1,50,1,invalid-payment-observer-stellar-account-stream-threshold",
+        "90,5,5,5,300,5,300,100,5000,4,1000,4,10,0,1,invalid-payment-observer-stellar-dispatch-batch-size"
       ]
   )
   fun `test invalid stellar config`(
@@ -53,6 +63,13 @@ class PaymentObserverConfigTest {
     p4: String,
     p5: String,
     p6: String,
+    p7: String,
+    p8: String,
+    p9: String,
+    p10: String,
+    p11: String,
+    p12: String,
+    p13: String,
     errorCount: String,
     errorCode: String
   ) {
@@ -65,7 +82,14 @@ class PaymentObserverConfigTest {
         p3.toInt(),
         p4.toInt(),
         p5.toInt(),
-        p6.toInt()
+        p6.toInt(),
+        p7.toInt(),
+        p8.toInt(),
+        p9.toInt(),
+        p10.toInt(),
+        p11.toInt(),
+        p12.toInt(),
+        p13.toInt()
       )
     )
     config.validateStellar(config, errors)
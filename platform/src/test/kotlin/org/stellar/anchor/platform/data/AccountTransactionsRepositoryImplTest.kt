@@ -0,0 +1,191 @@
+package org.stellar.anchor.platform.data
+
+import java.time.Instant
+import org.junit.jupiter.api.AfterAll
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.BeforeAll
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+
+class AccountTransactionsRepositoryImplTest {
+  companion object {
+    private lateinit var database: PostgresTestDatabase
+    private lateinit var sep6Repo: JdbcSep6TransactionRepo
+    private lateinit var sep24Repo: JdbcSep24TransactionRepo
+
+    private val t0 = Instant.parse("2024-01-01T00:00:00Z")
+
+    @BeforeAll
+    @JvmStatic
+    fun setup() {
+      database = PostgresTestDatabase()
+      val em = database.entityManager
+      sep6Repo =
+        database.repository(
+          JdbcSep6TransactionRepo::class.java,
+          AllTransactionsRepositoryImpl<JdbcSep6Transaction>(em),
+          AccountTransactionsRepositoryImpl<JdbcSep6Transaction>(em)
+        )
+      sep24Repo =
+        database.repository(
+          JdbcSep24TransactionRepo::class.java,
+          AllTransactionsRepositoryImpl<JdbcSep24Transaction>(em),
+          AccountTransactionsRepositoryImpl<JdbcSep24Transaction>(em)
+        )
+    }
+
+    @AfterAll
+    @JvmStatic
+    fun tearDown() {
+      database.close()
+    }
+  }
+
+  @BeforeEach
+  fun cleanUp() {
+    database.execute("DELETE FROM sep6_transaction; DELETE FROM sep24_transaction")
+  }
+
+  private fun sep6Txn(
+    id: String,
+    startedAt: Instant,
+    account: String = "GA",
+    memo: String? = null,
+    assetCode: String? = "USDC",
+    kind: String = "deposit"
+  ): JdbcSep6Transaction {
+    val txn = JdbcSep6Transaction()
+    txn.id = id
+    txn.transactionId = id
+    txn.sep10Account = account
+    txn.sep10AccountMemo = memo
+    txn.requestAssetCode = assetCode
+    txn.kind = kind
+    txn.startedAt = startedAt
+    return txn
+  }
+
+  private fun query(
+    assetCode: String? = "USDC",
+    memo: String? = null,
+    kind: String? = null,
+    noOlderThan: Instant? = null,
+    paging: JdbcSepTransaction? = null,
+    limit: Int? = null
+  ) =
+    AccountTransactionsQuery.builder()
+      .sep10Account("GA")
+      .sep10AccountMemo(memo)
+      .assetCode(assetCode)
+      .kind(kind)
+      .noOlderThan(noOlderThan)
+      .pagingTransaction(paging)
+      .limit(limit)
+      .build()
+
+  private fun findSep6(query: AccountTransactionsQuery): List<String> {
+    return sep6Repo.findAccountTransactions(query, JdbcSep6Transaction::class.java).map { it.id }
+  }
+
+  @Test
+  fun `test the transactions are filtered by account, memo, asset, kind and start time`() {
+    database.save(
+      sep6Txn("match", t0.plusSeconds(10), memo = "1"),
+      sep6Txn("other-account", t0.plusSeconds(10), account = "GB", memo = "1"),
+      sep6Txn("other-memo", t0.plusSeconds(10), memo = "2"),
+      sep6Txn("other-asset", t0.plusSeconds(10), memo = "1", assetCode = "JPYC"),
+      sep6Txn("other-kind", t0.plusSeconds(10), memo = "1", kind = "withdrawal"),
+      sep6Txn("too-old", t0, memo = "1"),
+    )
+
+    assertEquals(
+      listOf("match"),
+      findSep6(query(memo = "1", kind = "deposit", noOlderThan = t0.plusSeconds(5)))
+    )
+    // Without the memo and kind filters.
+    assertEquals(
+      listOf("match", "other-kind", "other-memo", "too-old"),
+      findSep6(query()).sorted()
+    )
+  }
+
+  @Test
+  fun `test a null asset code matches the transactions without an asset`() {
+    database.save(sep6Txn("with-asset", t0), sep6Txn("without-asset", t0, assetCode = null))
+
+    assertEquals(listOf("without-asset"), findSep6(query(assetCode = null)))
+  }
+
+  @Test
+  fun `test the transactions with the same start time are ordered by id`() {
+    database.save(
+      sep6Txn("b", t0),
+      sep6Txn("newest", t0.plusSeconds(1)),
+      sep6Txn("c", t0),
+      sep6Txn("a", t0),
+      sep6Txn("oldest", t0.minusSeconds(1)),
+    )
+
+    assertEquals(listOf("newest", "c", "b", "a", "oldest"), findSep6(query()))
+  }
+
+  @Test
+  fun `test the pages continue after the paging transaction without gaps or duplicates`() {
+    database.save(
+      sep6Txn("b", t0),
+      sep6Txn("newest", t0.plusSeconds(1)),
+      sep6Txn("c", t0),
+      sep6Txn("a", t0),
+      sep6Txn("oldest", t0.minusSeconds(1)),
+    )
+
+    // The page boundaries fall between the transactions with the same start time.
+    val pages = mutableListOf<List<String>>()
+    var paging: JdbcSepTransaction? = null
+    do {
+      val page =
+        sep6Repo.findAccountTransactions(
+          query(paging = paging, limit = 2),
+          JdbcSep6Transaction::class.java
+        )
+      pages.add(page.map { it.id })
+      paging = page.lastOrNull()
+    } while (page.size == 2)
+
+    assertEquals(listOf(listOf("newest", "c"), listOf("b", "a"), listOf("oldest")), pages)
+  }
+
+  @Test
+  fun `test the page after the last transaction is empty`() {
+    database.save(sep6Txn("a", t0), sep6Txn("b", t0.plusSeconds(1)))
+
+    assertEquals(listOf("b", "a"), findSep6(query(limit = 2)))
+    assertEquals(listOf<String>(), findSep6(query(paging = sep6Txn("a", t0), limit = 2)))
+  }
+
+  @Test
+  fun `test the SEP-24 transactions are paged by start time and id`() {
+    fun sep24Txn(id: String, startedAt: Instant): JdbcSep24Transaction {
+      val txn = JdbcSep24Transaction()
+      txn.id = id
+      txn.transactionId = id
+      txn.sep10Account = "GA"
+      txn.requestAssetCode = "USDC"
+      txn.kind = "withdrawal"
+      txn.startedAt = startedAt
+      return txn
+    }
+    database.save(sep24Txn("a", t0), sep24Txn("b", t0), sep24Txn("c", t0.plusSeconds(1)))
+
+    val firstPage =
+      sep24Repo.findAccountTransactions(query(limit = 2), JdbcSep24Transaction::class.java)
+    val lastPage =
+      sep24Repo.findAccountTransactions(
+        query(paging = firstPage.last(), limit = 2),
+        JdbcSep24Transaction::class.java
+      )
+
+    assertEquals(listOf("c", "b"), firstPage.map { it.id })
+    assertEquals(listOf("a"), lastPage.map { it.id })
+  }
+}
@@ -0,0 +1,122 @@
+package org.stellar.anchor.platform.data
+
+import java.time.Instant
+import java.util.UUID
+import org.junit.jupiter.api.AfterAll
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.BeforeAll
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.springframework.data.domain.PageRequest
+
+/** The sequence numbers of the outbox and of the delivery retries on the default H2 database. */
+class EventSequenceTest {
+  companion object {
+    private lateinit var database: H2TestDatabase
+    private lateinit var retryRepo: JdbcEventDeliveryRetryRepo
+    private lateinit var outboxRepo: JdbcEventOutboxRepo
+
+    private val now = Instant.parse("2024-01-01T00:00:00Z")
+
+    @BeforeAll
+    @JvmStatic
+    fun setup() {
+      database = H2TestDatabase()
+      retryRepo = database.repository(JdbcEventDeliveryRetryRepo::class.java)
+      outboxRepo = database.repository(JdbcEventOutboxRepo::class.java)
+    }
+
+    @AfterAll
+    @JvmStatic
+    fun tearDown() {
+      database.close()
+    }
+  }
+
+  @BeforeEach
+  fun cleanUp() {
+    database.transaction {
+      retryRepo.deleteAll()
+      outboxRepo.deleteAll()
+    }
+  }
+
+  private fun retry(partitionKey: String, target: String = "client") =
+    JdbcEventDeliveryRetry.builder()
+      .id(UUID.randomUUID().toString())
+      .processor("processor")
+      .target(target)
+      .payload("{}")
+      .attempts(1)
+      .nextAttemptAt(now)
+      .deadLettered(false)
+      .createdAt(now)
+      .partitionKey(partitionKey)
+      .build()
+
+  @Test
+  fun `test the deliveries are retried in the order they were written`() {
+    val first = database.transaction { retryRepo.save(retry("txn-1")) }
+    val other = database.transaction { retryRepo.save(retry("txn-2")) }
+    val second = database.transaction { retryRepo.save(retry("txn-1")) }
+    val otherTarget = database.transaction { retryRepo.save(retry("txn-1", "other")) }
+
+    assertTrue(first.sequenceNumber < other.sequenceNumber)
+    assertTrue(other.sequenceNumber < second.sequenceNumber)
+
+    val due =
+      database.transaction {
+        retryRepo.findDueForUpdateSkipLocked(setOf("processor"), now, PageRequest.of(0, 10))
+      }
+    assertEquals(listOf(first.id, other.id, second.id, otherTarget.id), due.map { it.id })
+
+    val heads =
+      database.transaction { retryRepo.findPendingHeads(setOf("txn-1", "txn-2")) }.associate {
+        "${it.target}:${it.partitionKey}" to it.sequenceNumber
+      }
+    assertEquals(
+      mapOf(
+        "client:txn-1" to first.sequenceNumber,
+        "client:txn-2" to other.sequenceNumber,
+        "other:txn-1" to otherTarget.sequenceNumber
+      ),
+      heads
+    )
+  }
+
+  @Test
+  fun `test the dead letters are found by their id`() {
+    val deadLetter = retry("txn-1")
+    deadLetter.deadLettered = true
+    database.transaction { retryRepo.save(deadLetter) }
+    val pending = database.transaction { retryRepo.save(retry("txn-1")) }
+
+    assertTrue(retryRepo.findByIdAndDeadLetteredTrue(deadLetter.id).isPresent)
+    assertTrue(retryRepo.findByIdAndDeadLetteredTrue(pending.id).isEmpty)
+  }
+
+  @Test
+  fun `test the outbox events are relayed in the order they were written`() {
+    fun event(partitionKey: String) =
+      JdbcEventOutbox.builder()
+        .id(UUID.randomUUID().toString())
+        .queue("TRANSACTION")
+        .payload("{}")
+        .createdAt(now)
+        .partitionKey(partitionKey)
+        .build()
+    val first = database.transaction { outboxRepo.save(event("txn-1")) }
+    val second = database.transaction { outboxRepo.save(event("txn-2")) }
+    val third = database.transaction { outboxRepo.save(event("txn-1")) }
+
+    val oldest =
+      database.transaction { outboxRepo.findOldestForUpdateSkipLocked(PageRequest.of(0, 10)) }
+    assertEquals(listOf(first.id, second.id, third.id), oldest.map { it.id })
+    val heads =
+      database.transaction { outboxRepo.findPartitionHeads(setOf("txn-1", "txn-2")) }.associate {
+        it.partitionKey to it.sequenceNumber
+      }
+    assertEquals(mapOf("txn-1" to first.sequenceNumber, "txn-2" to second.sequenceNumber), heads)
+  }
+}
@@ -0,0 +1,68 @@
+package org.stellar.anchor.platform.data
+
+import javax.persistence.EntityManager
+import javax.persistence.EntityManagerFactory
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy
+import org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory
+import org.springframework.jdbc.datasource.DriverManagerDataSource
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter
+
+/**
+ * An in-memory H2 database whose schema is created by Hibernate from the entities of this package,
+ * like the default `h2` data type of the platform.
+ */
+class H2TestDatabase : AutoCloseable {
+  private val entityManagerFactory: EntityManagerFactory
+  val entityManager: EntityManager
+
+  init {
+    val dataSource = DriverManagerDataSource("jdbc:h2:mem:test-${System.nanoTime()}", "sa", "")
+    val factoryBean = LocalContainerEntityManagerFactoryBean()
+    factoryBean.dataSource = dataSource
+    factoryBean.jpaVendorAdapter = HibernateJpaVendorAdapter()
+    factoryBean.setPackagesToScan("org.stellar.anchor.platform.data")
+    factoryBean.setJpaPropertyMap(
+      mapOf(
+        "hibernate.dialect" to "org.hibernate.dialect.H2Dialect",
+        "hibernate.hbm2ddl.auto" to "create-drop",
+        // The naming strategies of Spring Boot.
+        "hibernate.physical_naming_strategy" to CamelCaseToUnderscoresNamingStrategy(),
+        "hibernate.implicit_naming_strategy" to SpringImplicitNamingStrategy()
+      )
+    )
+    factoryBean.afterPropertiesSet()
+    entityManagerFactory = factoryBean.getObject()!!
+    entityManager = entityManagerFactory.createEntityManager()
+  }
+
+  /**
+   * Creates a repository of the entity manager.
+   *
+   * @param repositoryInterface the interface of the repository.
+   */
+  fun <R> repository(repositoryInterface: Class<R>): R {
+    return JpaRepositoryFactory(entityManager).getRepository(repositoryInterface)
+  }
+
+  /** Runs the block in a transaction and clears the persistence context. */
+  fun <T> transaction(block: () -> T): T {
+    entityManager.transaction.begin()
+    try {
+      val result = block()
+      entityManager.transaction.commit()
+      return result
+    } catch (ex: Exception) {
+      entityManager.transaction.rollback()
+      throw ex
+    } finally {
+      entityManager.clear()
+    }
+  }
+
+  override fun close() {
+    entityManager.close()
+    entityManagerFactory.close()
+  }
+}
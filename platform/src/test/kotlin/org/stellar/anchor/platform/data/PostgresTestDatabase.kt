@@ -0,0 +1,102 @@
+package org.stellar.anchor.platform.data
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres
+import java.util.Collections
+import javax.persistence.EntityManager
+import javax.persistence.EntityManagerFactory
+import org.flywaydb.core.Flyway
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy
+import org.hibernate.resource.jdbc.spi.StatementInspector
+import org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter
+
+/**
+ * An embedded Postgres migrated with the Flyway migrations of the platform, and a JPA entity
+ * manager mapping the entities of this package like the platform does. The SQL statements sent by
+ * Hibernate are recorded, so that the tests can check the generated queries.
+ */
+class PostgresTestDatabase : AutoCloseable {
+  val postgres: EmbeddedPostgres = EmbeddedPostgres.start()
+  val statements: MutableList<String> = Collections.synchronizedList(mutableListOf())
+  private val entityManagerFactory: EntityManagerFactory
+  val entityManager: EntityManager
+
+  init {
+    Flyway.configure()
+      .dataSource(postgres.postgresDatabase)
+      .locations("classpath:db/migration")
+      .load()
+      .migrate()
+
+    val factoryBean = LocalContainerEntityManagerFactoryBean()
+    factoryBean.dataSource = postgres.postgresDatabase
+    factoryBean.jpaVendorAdapter = HibernateJpaVendorAdapter()
+    factoryBean.setPackagesToScan("org.stellar.anchor.platform.data")
+    factoryBean.setJpaPropertyMap(
+      mapOf(
+        "hibernate.dialect" to "org.hibernate.dialect.PostgreSQL9Dialect",
+        // The naming strategies of Spring Boot.
+        "hibernate.physical_naming_strategy" to CamelCaseToUnderscoresNamingStrategy(),
+        "hibernate.implicit_naming_strategy" to SpringImplicitNamingStrategy(),
+        "hibernate.session_factory.statement_inspector" to
+          StatementInspector { sql ->
+            statements.add(sql)
+            sql
+          }
+      )
+    )
+    factoryBean.afterPropertiesSet()
+    entityManagerFactory = factoryBean.getObject()!!
+    entityManager = entityManagerFactory.createEntityManager()
+  }
+
+  /**
+   * Creates a repository of the entity manager.
+   *
+   * @param repositoryInterface the interface of the repository.
+   * @param fragments the implementations of the custom fragments of the repository.
+   */
+  fun <R> repository(repositoryInterface: Class<R>, vararg fragments: Any): R {
+    return JpaRepositoryFactory(entityManager)
+      .getRepository(repositoryInterface, RepositoryFragments.just(*fragments))
+  }
+
+  /** Saves the entities in a transaction and clears the persistence context. */
+  fun save(vararg entities: Any) {
+    entityManager.transaction.begin()
+    entities.forEach { entityManager.persist(it) }
+    entityManager.transaction.commit()
+    entityManager.clear()
+  }
+
+  /**
+   * Runs SQL statements on the database, outside the entity manager.
+   *
+   * @param sql the SQL statements.
+   */
+  fun execute(sql: String) {
+    postgres.postgresDatabase.connection.use { connection ->
+      connection.createStatement().use { statement -> statement.execute(sql) }
+    }
+  }
+
+  /**
+   * Runs the block and returns the SQL statements that Hibernate sent during the block.
+   *
+   * @param block the block.
+   */
+  fun recordStatements(block: () -> Unit): List<String> {
+    statements.clear()
+    block()
+    return statements.toList()
+  }
+
+  override fun close() {
+    entityManager.close()
+    entityManagerFactory.close()
+    postgres.close()
+  }
+}
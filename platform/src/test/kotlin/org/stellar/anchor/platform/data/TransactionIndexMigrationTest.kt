@@ -0,0 +1,56 @@
+package org.stellar.anchor.platform.data
+
+import org.flywaydb.core.Flyway
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+
+/** Checks that the concurrent index migrations can be run again after a failed build. */
+class TransactionIndexMigrationTest {
+  private lateinit var database: PostgresTestDatabase
+
+  @BeforeEach
+  fun setup() {
+    database = PostgresTestDatabase()
+  }
+
+  @AfterEach
+  fun tearDown() {
+    database.close()
+  }
+
+  private fun isValid(index: String): Boolean =
+    database.postgres.postgresDatabase.connection.use { connection ->
+      connection
+        .prepareStatement("SELECT indisvalid FROM pg_index WHERE indexrelid = ?::regclass")
+        .use { statement ->
+          statement.setString(1, index)
+          statement.executeQuery().use { result ->
+            result.next()
+            result.getBoolean(1)
+          }
+        }
+    }
+
+  @Test
+  fun `test the invalid index of a failed build is built again`() {
+    val index = "idx_sep24_transaction_status"
+    // A failed concurrent build leaves an invalid index, and the migration is not recorded.
+    database.execute(
+      "UPDATE pg_index SET indisvalid = false WHERE indexrelid = '$index'::regclass"
+    )
+    database.execute("DELETE FROM flyway_schema_history WHERE version = '20'")
+    assertEquals(false, isValid(index))
+
+    Flyway.configure()
+      .dataSource(database.postgres.postgresDatabase)
+      .locations("classpath:db/migration")
+      .outOfOrder(true)
+      .load()
+      .migrate()
+
+    assertEquals(true, isValid(index))
+    assertEquals(true, isValid("idx_sep24_transaction_transaction_id"))
+  }
+}
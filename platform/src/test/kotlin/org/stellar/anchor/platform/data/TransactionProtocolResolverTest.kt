@@ -0,0 +1,122 @@
+package org.stellar.anchor.platform.data
+
+import io.mockk.every
+import io.mockk.mockk
+import io.mockk.verify
+import javax.persistence.EntityManager
+import javax.persistence.Query
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.stellar.anchor.platform.utils.PlatformTransactionHelper
+import org.stellar.anchor.sep24.Sep24TransactionStore
+import org.stellar.anchor.sep6.Sep6TransactionStore
+
+class TransactionProtocolResolverTest {
+  private lateinit var em: EntityManager
+  private lateinit var query: Query
+  private lateinit var resolver: TransactionProtocolResolver
+
+  @BeforeEach
+  fun setup() {
+    em = mockk()
+    query = mockk()
+    every { em.createNativeQuery(TransactionProtocolResolver.FIND_PROTOCOL_QUERY) } returns query
+    every { query.setParameter("id", any<String>()) } returns query
+    every { query.setMaxResults(1) } returns query
+    resolver = TransactionProtocolResolver(em)
+  }
+
+  @Test
+  fun `test the resolved protocol is cached`() {
+    every { query.resultList } returns listOf("24")
+
+    assertEquals("24", resolver.resolve("txn-1"))
+    assertEquals("24", resolver.resolve("txn-1"))
+
+    verify(exactly = 1) { query.resultList }
+  }
+
+  @Test
+  fun `test the unknown id is not cached`() {
+    every { query.resultList } returns listOf<Any>()
+
+    assertNull(resolver.resolve("txn-1"))
+    every { query.resultList } returns listOf("6")
+    assertEquals("6", resolver.resolve("txn-1"))
+
+    verify(exactly = 2) { query.resultList }
+    assertNull(resolver.resolve(null))
+  }
+
+  @Test
+  fun `test the cache evicts the least recently used ids`() {
+    every { query.resultList } returns listOf("31")
+
+    for (i in 0..TransactionProtocolResolver.MAX_CACHED_IDS) {
+      resolver.resolve("txn-$i")
+    }
+
+    assertEquals(TransactionProtocolResolver.MAX_CACHED_IDS, resolver.protocols.size)
+    assertFalse(resolver.protocols.containsKey("txn-0"))
+    assertTrue(resolver.protocols.containsKey("txn-${TransactionProtocolResolver.MAX_CACHED_IDS}"))
+  }
+
+  @Test
+  fun `test the transaction is read from the store of its protocol`() {
+    val txn6Store: Sep6TransactionStore = mockk()
+    val txn24Store: Sep24TransactionStore = mockk()
+    val txn31Repo: JdbcSep31TransactionRepo = mockk()
+    val txn31Store = JdbcSep31TransactionStore(txn31Repo, resolver)
+    val txn24 = JdbcSep24Transaction()
+    every { query.resultList } returns listOf("24")
+    every { txn24Store.findByTransactionId("txn-1") } returns txn24
+
+    assertSame(
+      txn24,
+      PlatformTransactionHelper.findTransaction("txn-1", txn6Store, txn24Store, txn31Store)
+    )
+
+    verify(exactly = 0) { txn6Store.findByTransactionId(any()) }
+    verify(exactly = 0) { txn31Repo.findById(any()) }
+  }
+
+  @Test
+  fun `test the unknown id is not read from the stores`() {
+    val txn6Store: Sep6TransactionStore = mockk()
+    val txn24Store: Sep24TransactionStore = mockk()
+    val txn31Repo: JdbcSep31TransactionRepo = mockk()
+    val txn31Store = JdbcSep31TransactionStore(txn31Repo, resolver)
+    every { query.resultList } returns listOf<Any>()
+
+    assertNull(
+      PlatformTransactionHelper.findTransaction("txn-1", txn6Store, txn24Store, txn31Store)
+    )
+
+    verify(exactly = 0) { txn6Store.findByTransactionId(any()) }
+    verify(exactly = 0) { txn24Store.findByTransactionId(any()) }
+    verify(exactly = 0) { txn31Repo.findById(any()) }
+  }
+
+  @Test
+  fun `test the transactions are resolved by the ids of their stores`() {
+    PostgresTestDatabase().use { database ->
+      val sep6Txn = JdbcSep6Transaction()
+      sep6Txn.id = "sep6-id"
+      sep6Txn.transactionId = "sep6-id"
+      val sep24Txn = JdbcSep24Transaction()
+      // The primary key of a SEP-24 transaction is not its transaction id.
+      sep24Txn.id = "sep24-db-id"
+      sep24Txn.transactionId = "sep24-id"
+      val sep31Txn = JdbcSep31Transaction()
+      sep31Txn.id = "sep31-id"
+      database.save(sep6Txn, sep24Txn, sep31Txn)
+      val resolver = TransactionProtocolResolver(database.entityManager)
+
+      assertEquals("6", resolver.resolve("sep6-id"))
+      assertEquals("24", resolver.resolve("sep24-id"))
+      assertEquals("31", resolver.resolve("sep31-id"))
+      assertNull(resolver.resolve("sep24-db-id"))
+    }
+  }
+}
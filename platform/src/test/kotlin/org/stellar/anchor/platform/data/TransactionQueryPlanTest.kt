@@ -0,0 +1,240 @@
+package org.stellar.anchor.platform.data
+
+import java.time.Instant
+import java.util.stream.Stream
+import org.junit.jupiter.api.AfterAll
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.BeforeAll
+import org.junit.jupiter.params.ParameterizedTest
+import org.junit.jupiter.params.provider.Arguments
+import org.junit.jupiter.params.provider.MethodSource
+import org.springframework.data.domain.PageRequest
+import org.springframework.data.domain.Sort
+import org.stellar.anchor.api.platform.TransactionsOrderBy
+import org.stellar.anchor.util.TransactionsCursor
+import org.stellar.anchor.util.TransactionsParams
+
+/**
+ * Checks that the lookups of the transaction repositories are served by an index. Each repository
+ * method is called on an embedded Postgres, and the SQL generated by Hibernate is explained as a
+ * generic prepared statement, the way it runs with its parameters bound. The tables of the test are
+ * empty, so the sequential scans are disabled to have the planner use an index whenever there is
+ * one. A sequential scan in the plan means that the query has no index.
+ */
+class TransactionQueryPlanTest {
+  companion object {
+    private lateinit var database: PostgresTestDatabase
+    private lateinit var sep6Repo: JdbcSep6TransactionRepo
+    private lateinit var sep24Repo: JdbcSep24TransactionRepo
+    private lateinit var sep31Repo: JdbcSep31TransactionRepo
+    private lateinit var custodyRepo: JdbcCustodyTransactionRepo
+    private lateinit var protocolResolver: TransactionProtocolResolver
+
+    private const val STATUS = "pending_user_transfer_start"
+    private val startedAt = Instant.parse("2024-02-01T00:00:00Z")
+
+    @BeforeAll
+    @JvmStatic
+    fun setup() {
+      database = PostgresTestDatabase()
+      val em = database.entityManager
+      sep6Repo =
+        database.repository(
+          JdbcSep6TransactionRepo::class.java,
+          AllTransactionsRepositoryImpl<JdbcSep6Transaction>(em),
+          AccountTransactionsRepositoryImpl<JdbcSep6Transaction>(em)
+        )
+      sep24Repo =
+        database.repository(
+          JdbcSep24TransactionRepo::class.java,
+          AllTransactionsRepositoryImpl<JdbcSep24Transaction>(em),
+          AccountTransactionsRepositoryImpl<JdbcSep24Transaction>(em)
+        )
+      sep31Repo =
+        database.repository(
+          JdbcSep31TransactionRepo::class.java,
+          AllTransactionsRepositoryImpl<JdbcSep31Transaction>(em)
+        )
+      custodyRepo = database.repository(JdbcCustodyTransactionRepo::class.java)
+      protocolResolver = TransactionProtocolResolver(em)
+    }
+
+    @AfterAll
+    @JvmStatic
+    fun tearDown() {
+      database.close()
+    }
+
+    private fun cursorParams(
+      orderBy: TransactionsOrderBy,
+      order: Sort.Direction,
+      value: Instant?
+    ): TransactionsParams {
+      val cursor = TransactionsCursor(orderBy, order, value, "x").encode()
+      return TransactionsParams(orderBy, order, null, 0, 20, cursor)
+    }
+
+    private fun accountQuery(pagingTransaction: JdbcSepTransaction) =
+      AccountTransactionsQuery.builder()
+        .sep10Account("G")
+        .sep10AccountMemo("1")
+        .assetCode("USDC")
+        .kind("deposit")
+        .noOlderThan(Instant.parse("2024-01-01T00:00:00Z"))
+        .pagingTransaction(pagingTransaction)
+        .limit(20)
+        .build()
+
+    private fun query(method: String, call: () -> Unit): Arguments = Arguments.of(method, call)
+
+    @JvmStatic
+    fun repositoryQueries(): Stream<Arguments> {
+      return Stream.of(
+        // JdbcSep6TransactionRepo
+        query("JdbcSep6TransactionRepo.findByIds") { sep6Repo.findByIds(listOf("x", "y")) },
+        query("JdbcSep6TransactionRepo.findOneByTransactionId") {
+          sep6Repo.findOneByTransactionId("x")
+        },
+        query("JdbcSep6TransactionRepo.findOneByStellarTransactionId") {
+          sep6Repo.findOneByStellarTransactionId("x")
+        },
+        query("JdbcSep6TransactionRepo.findOneByExternalTransactionId") {
+          sep6Repo.findOneByExternalTransactionId("x")
+        },
+        query("JdbcSep6TransactionRepo.findOneByWithdrawAnchorAccountAndMemoAndStatus") {
+          sep6Repo.findOneByWithdrawAnchorAccountAndMemoAndStatus("G", "1", STATUS)
+        },
+        query("JdbcSep6TransactionRepo.findByWithdrawAnchorAccountInAndMemoInAndStatus") {
+          sep6Repo.findByWithdrawAnchorAccountInAndMemoInAndStatus(
+            listOf("G1", "G2"),
+            listOf("1", "2"),
+            STATUS
+          )
+        },
+        query("JdbcSep6TransactionRepo.findAccountTransactions") {
+          val paging = JdbcSep6Transaction()
+          paging.id = "x"
+          paging.startedAt = startedAt
+          sep6Repo.findAccountTransactions(accountQuery(paging), JdbcSep6Transaction::class.java)
+        },
+        query("JdbcSep6TransactionRepo.findAllTransactions") {
+          sep6Repo.findAllTransactions(
+            cursorParams(TransactionsOrderBy.CREATED_AT, Sort.Direction.ASC, startedAt),
+            JdbcSep6Transaction::class.java
+          )
+        },
+        // JdbcSep24TransactionRepo
+        query("JdbcSep24TransactionRepo.findOneByTransactionId") {
+          sep24Repo.findOneByTransactionId("x")
+        },
+        query("JdbcSep24TransactionRepo.findByTransactionIdIn") {
+          sep24Repo.findByTransactionIdIn(listOf("x", "y"))
+        },
+        query("JdbcSep24TransactionRepo.findOneByStellarTransactionId") {
+          sep24Repo.findOneByStellarTransactionId("x")
+        },
+        query("JdbcSep24TransactionRepo.findOneByExternalTransactionId") {
+          sep24Repo.findOneByExternalTransactionId("x")
+        },
+        query("JdbcSep24TransactionRepo.findOneByToAccountAndMemoAndStatus") {
+          sep24Repo.findOneByToAccountAndMemoAndStatus("G", "1", STATUS)
+        },
+        query("JdbcSep24TransactionRepo.findByToAccountInAndMemoInAndStatus") {
+          sep24Repo.findByToAccountInAndMemoInAndStatus(
+            listOf("G1", "G2"),
+            listOf("1", "2"),
+            STATUS
+          )
+        },
+        query("JdbcSep24TransactionRepo.findAccountTransactions") {
+          val paging = JdbcSep24Transaction()
+          paging.id = "x"
+          paging.startedAt = startedAt
+          val accountQuery = accountQuery(paging)
+          // The SEP-24 store does not filter the account memo.
+          accountQuery.sep10AccountMemo = null
+          sep24Repo.findAccountTransactions(accountQuery, JdbcSep24Transaction::class.java)
+        },
+        query("JdbcSep24TransactionRepo.findByStatusIn") {
+          sep24Repo.findByStatusIn(listOf("incomplete", "pending_anchor"), PageRequest.of(0, 10))
+        },
+        query("JdbcSep24TransactionRepo.findAllTransactions") {
+          sep24Repo.findAllTransactions(
+            cursorParams(TransactionsOrderBy.TRANSFER_RECEIVED_AT, Sort.Direction.DESC, startedAt),
+            JdbcSep24Transaction::class.java
+          )
+        },
+        // JdbcSep31TransactionRepo
+        query("JdbcSep31TransactionRepo.findByIds") { sep31Repo.findByIds(listOf("x", "y")) },
+        query("JdbcSep31TransactionRepo.findByStellarAccountId") {
+          sep31Repo.findByStellarAccountId("G")
+        },
+        query("JdbcSep31TransactionRepo.findByStellarMemo") { sep31Repo.findByStellarMemo("1") },
+        query("JdbcSep31TransactionRepo.findByStatusCount") {
+          sep31Repo.findByStatusCount("pending_sender")
+        },
+        query("JdbcSep31TransactionRepo.findByStellarAccountIdAndStellarMemoAndStatus") {
+          sep31Repo.findByStellarAccountIdAndStellarMemoAndStatus("G", "1", "pending_sender")
+        },
+        query("JdbcSep31TransactionRepo.findByStellarAccountIdInAndStellarMemoInAndStatus") {
+          sep31Repo.findByStellarAccountIdInAndStellarMemoInAndStatus(
+            listOf("G1", "G2"),
+            listOf("1", "2"),
+            "pending_sender"
+          )
+        },
+        query("JdbcSep31TransactionRepo.findAllTransactions") {
+          sep31Repo.findAllTransactions(
+            cursorParams(TransactionsOrderBy.USER_ACTION_REQUIRED_BY, Sort.Direction.ASC, null),
+            JdbcSep31Transaction::class.java
+          )
+        },
+        // TransactionProtocolResolver
+        query("TransactionProtocolResolver.resolve") { protocolResolver.resolve("x") },
+        // JdbcCustodyTransactionRepo
+        query("JdbcCustodyTransactionRepo.findByExternalTxId") {
+          custodyRepo.findByExternalTxId("x")
+        },
+        query("JdbcCustodyTransactionRepo.findAllByStatusAndKindIn") {
+          custodyRepo.findAllByStatusAndKindIn("submitted", setOf("deposit", "withdrawal"))
+        },
+      )
+    }
+  }
+
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("repositoryQueries")
+  fun `test the repository query is served by an index`(method: String, call: () -> Unit) {
+    val statements = database.recordStatements(call)
+    assertFalse(statements.isEmpty(), "$method sent no query")
+    for (sql in statements) {
+      val plan = explainGenericPlan(sql)
+      assertFalse(plan.contains("Seq Scan"), "$method does a sequential scan:\n$sql\n$plan")
+    }
+  }
+
+  /**
+   * Explains the plan of a statement of Hibernate as a prepared statement. The generic plan does
+   * not depend on the values of the parameters, so the parameters are bound to NULL.
+   */
+  private fun explainGenericPlan(sql: String): String {
+    var parameters = 0
+    val prepared = Regex("\\?").replace(sql) { "$" + ++parameters }
+    database.postgres.postgresDatabase.connection.use { connection ->
+      connection.createStatement().use { statement ->
+        statement.execute("SET enable_seqscan = off")
+        statement.execute("SET plan_cache_mode = force_generic_plan")
+        statement.execute("PREPARE repository_query AS $prepared")
+        val arguments =
+          if (parameters == 0) "" else (1..parameters).joinToString(", ", "(", ")") { "NULL" }
+        val plan = StringBuilder()
+        statement.executeQuery("EXPLAIN EXECUTE repository_query$arguments").use { result ->
+          while (result.next()) {
+            plan.appendLine(result.getString(1))
+          }
+        }
+        return plan.toString()
+      }
+    }
+  }
+}
@@ -3,11 +3,14 @@ package org.stellar.anchor.platform.event
 import io.mockk.*
 import io.mockk.impl.annotations.MockK
 import java.io.IOException
+import org.junit.jupiter.api.Assertions.assertEquals
 import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
 import org.junit.jupiter.params.ParameterizedTest
 import org.junit.jupiter.params.provider.ValueSource
 import org.stellar.anchor.api.event.AnchorEvent
+import org.stellar.anchor.api.event.AnchorEvent.Type.TRANSACTION_STATUS_CHANGED
+import org.stellar.anchor.api.platform.GetTransactionResponse
 import org.stellar.anchor.event.EventService
 import org.stellar.anchor.util.ExponentialBackoffTimer
 
@@ -59,4 +62,116 @@ class CallbackApiEventProcessorTest {
     verify(exactly = attempts) { eventHandler.handleEvent(event) }
     verify(exactly = attempts) { backoffTimer.backoff() }
   }
+
+  private fun event(id: String, txnId: String) =
+    AnchorEvent.builder()
+      .id(id)
+      .type(TRANSACTION_STATUS_CHANGED)
+      .transaction(GetTransactionResponse.builder().id(txnId).build())
+      .build()
+
+  @Test
+  fun `test the events are sent in ordered batches`() {
+    val batchProcessor =
+      CallbackApiEventProcessor(
+        "TEST PROCESSOR",
+        EventService.EventQueue.TRANSACTION,
+        eventService,
+        eventHandler,
+        4,
+        null,
+        2
+      )
+    val batches = mutableListOf<List<String>>()
+    every { eventHandler.handleEvents(any()) } answers
+      {
+        val ids = firstArg<List<AnchorEvent>>().map { it.id }
+        batches.add(ids)
+        ids.toSet()
+      }
+
+    try {
+      val events = (1..5).map { event(it.toString(), "txn-1") }
+      assertEquals(5, batchProcessor.dispatch(events))
+    } finally {
+      batchProcessor.stop()
+    }
+    assertEquals(listOf(listOf("1", "2"), listOf("3", "4"), listOf("5")), batches)
+    verify(exactly = 0) { eventHandler.handleEvent(any()) }
+  }
+
+  @Test
+  fun `test the events of a transaction are sent again from its first failure`() {
+    every { eventProcessor.backoffTimer } returns backoffTimer
+    every { eventHandler.handleEvents(match { it.size == 4 }) } returns setOf("1", "3", "4")
+    every { eventHandler.handleEvents(match { it.size == 2 }) } returns setOf("2", "4")
+
+    eventProcessor.handleBatchWithRetry(
+      listOf(event("1", "txn-1"), event("2", "txn-2"), event("3", "txn-1"), event("4", "txn-2"))
+    )
+
+    // The event 4 was processed, but it is sent again after the event 2 of the same transaction.
+    verify(exactly = 1) {
+      eventHandler.handleEvents(match { it.map { e -> e.id } == listOf("2", "4") })
+    }
+    verify(exactly = 1) { backoffTimer.backoff() }
+    verify(exactly = 4) { eventProcessor.incrementProcessedCounter() }
+  }
+
+  @Test
+  fun `test the failed events of a batch are scheduled in the retry queue`() {
+    val retryQueue = mockk<EventDeliveryRetryQueue>(relaxed = true)
+    val batchProcessor =
+      CallbackApiEventProcessor(
+        "TEST PROCESSOR",
+        EventService.EventQueue.TRANSACTION,
+        eventService,
+        eventHandler,
+        1,
+        retryQueue,
+        10
+      )
+    every { eventHandler.handleEvents(any()) } returns setOf("1", "3")
+
+    try {
+      val events = listOf(event("1", "txn-1"), event("2", "txn-1"), event("3", "txn-1"))
+      assertEquals(3, batchProcessor.dispatch(events))
+    } finally {
+      batchProcessor.stop()
+    }
+    verify(exactly = 1) { eventHandler.handleEvents(any()) }
+    verify(exactly = 1) { retryQueue.scheduleRetry(any(), any(), any(), any()) }
+    verify(exactly = 1) {
+      retryQueue.scheduleRetry("TEST PROCESSOR", "business-server", match { it.id == "2" }, any())
+    }
+    // The event 3 was processed, but it is held behind the retry of the event 2.
+    verify(exactly = 1) {
+      retryQueue.hold("TEST PROCESSOR", "business-server", match { it.id == "3" })
+    }
+  }
+
+  @Test
+  fun `test the events held behind a pending retry are not sent in the batch`() {
+    val retryQueue = mockk<EventDeliveryRetryQueue>(relaxed = true)
+    val batchProcessor =
+      CallbackApiEventProcessor(
+        "TEST PROCESSOR",
+        EventService.EventQueue.TRANSACTION,
+        eventService,
+        eventHandler,
+        1,
+        retryQueue,
+        10
+      )
+    every { retryQueue.holdBehindPendingRetry(any(), any(), match { it.id == "1" }) } returns true
+    every { eventHandler.handleEvents(any()) } returns setOf("2")
+
+    try {
+      assertEquals(2, batchProcessor.dispatch(listOf(event("1", "txn-1"), event("2", "txn-2"))))
+    } finally {
+      batchProcessor.stop()
+    }
+    verify(exactly = 1) { eventHandler.handleEvents(match { it.map { e -> e.id } == listOf("2") }) }
+    verify(exactly = 0) { retryQueue.scheduleRetry(any(), any(), any(), any()) }
+  }
 }
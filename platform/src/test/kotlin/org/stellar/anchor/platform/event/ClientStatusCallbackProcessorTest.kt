@@ -38,23 +38,23 @@ class ClientStatusCallbackProcessorTest {
 
   @Test
   fun `test that the event is not retried if the event handler returns true`() {
-    every { eventHandler.handleEvent(event) } returns true
+    every { eventHandler.handlePayload(match { it.event == event }) } returns true
     eventProcessor.handleEventWithRetry(event)
     // Check if handleEvent is called only once
-    verify(exactly = 1) { eventHandler.handleEvent(any()) }
+    verify(exactly = 1) { eventHandler.handlePayload(any()) }
     // Check if incrementProcessCount is called
     verify(exactly = 1) { eventProcessor.incrementProcessedCounter() }
   }
 
   @Test
   fun `test that when event handler returns false httpErrorBackoffTimer backoff() is called 3 times`() {
-    every { eventHandler.handleEvent(event) } returns false
+    every { eventHandler.handlePayload(match { it.event == event }) } returns false
     every { eventProcessor.httpErrorBackoffTimer } returns httpErrorBackoffTimer
     every { eventProcessor.networkBackoffTimer } returns networkErrorBackoffTimer
     eventProcessor.handleEventWithRetry(event)
 
     // Check if handleEvent is called 3 times
-    verify(exactly = 3) { eventHandler.handleEvent(any()) }
+    verify(exactly = 3) { eventHandler.handlePayload(any()) }
     // Check if the timer is called 2 times when the handleEvent is called 3 times.
     verify(exactly = 2) { httpErrorBackoffTimer.backoff() }
     // Eventually, we mark it successful
@@ -67,7 +67,10 @@ class ClientStatusCallbackProcessorTest {
     attempts: Int
   ) {
     var counter = attempts
-    every { eventHandler.handleEvent(event) } answers { throw IOException("Mock exception") }
+    every { eventHandler.handlePayload(match { it.event == event }) } answers
+      {
+        throw IOException("Mock exception")
+      }
     every { eventProcessor.httpErrorBackoffTimer } returns httpErrorBackoffTimer
     every { eventProcessor.networkBackoffTimer } returns networkErrorBackoffTimer
     every { networkErrorBackoffTimer.backoff() } answers
@@ -81,7 +84,7 @@ class ClientStatusCallbackProcessorTest {
     eventProcessor.handleEventWithRetry(event)
 
     // Check if handleEvent is called `attempts` times
-    verify(atLeast = 1, atMost = 3) { eventHandler.handleEvent(any()) }
+    verify(atLeast = 1, atMost = 3) { eventHandler.handlePayload(any()) }
     // Check if the timer is called `attempts` times when the handleEvent is called at most 3 times.
     verify(atLeast = 1, atMost = 3) { networkErrorBackoffTimer.backoff() }
     // Make sure the metric does not show it passes before running out of retry
@@ -101,7 +104,7 @@ class ClientStatusCallbackProcessorTest {
     clz: Class<Throwable>
   ) {
     // Mock handleEvent to throw uncaught exception
-    every { eventHandler.handleEvent(event) } answers
+    every { eventHandler.handlePayload(match { it.event == event }) } answers
       {
         throw clz.getConstructor(String::class.java).newInstance()
       }
@@ -112,7 +115,7 @@ class ClientStatusCallbackProcessorTest {
     eventProcessor.handleEventWithRetry(event)
 
     // Check if handleEvent is called 1 times
-    verify(exactly = 1) { eventHandler.handleEvent(any()) }
+    verify(exactly = 1) { eventHandler.handlePayload(any()) }
     // Check if the timer is called 1 times when the handleEvent is called 3 times.
     verify(exactly = 1) { eventProcessor.sendToDLQ(any(), any()) }
     // Check that no backoff is called
@@ -1,13 +1,29 @@
 package org.stellar.anchor.platform.event
 
-import org.apache.commons.lang3.NotImplementedException
+import io.mockk.every
+import io.mockk.mockk
+import io.mockk.slot
+import io.mockk.verify
+import java.util.concurrent.CompletableFuture
 import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNotNull
 import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
-import org.junit.jupiter.api.assertThrows
+import org.stellar.anchor.api.event.AnchorEvent
+import org.stellar.anchor.api.event.AnchorEvent.Type.TRANSACTION_STATUS_CHANGED
+import org.springframework.transaction.PlatformTransactionManager
+import org.springframework.transaction.support.TransactionSynchronization
+import org.springframework.transaction.support.TransactionSynchronizationManager
+import org.springframework.transaction.support.TransactionTemplate
+import org.stellar.anchor.api.exception.EventPublishException
 import org.stellar.anchor.config.event.QueueConfig.QueueType.*
+import org.stellar.anchor.event.EventService.Session
 import org.stellar.anchor.event.EventService.EventQueue.TRANSACTION
+import org.stellar.anchor.platform.config.MskConfig
 import org.stellar.anchor.platform.config.PropertyEventConfig
+import org.stellar.anchor.platform.config.SqsConfig
+import org.stellar.anchor.platform.data.JdbcEventOutbox
+import org.stellar.anchor.platform.data.JdbcEventOutboxRepo
 import org.stellar.anchor.util.GsonUtils
 
 internal class DefaultEventServiceTest {
@@ -24,17 +40,138 @@ internal class DefaultEventServiceTest {
     // Test create Kafka session
     eventConfig.queue.type = KAFKA
     var defaultEventService = DefaultEventService(eventConfig)
-    var session = defaultEventService.createSession("test", TRANSACTION)
+    var session = queueSession(defaultEventService.createSession("test", TRANSACTION))
     assert(session is KafkaSession)
     var kafkaSession: KafkaSession = session as KafkaSession
     assertEquals(kafkaSession.topic, "TRANSACTION")
 
-    // Test create SQS session should throw not implemented exception
+    // Test create SQS session
     eventConfig.queue.type = SQS
-    assertThrows<NotImplementedException> { defaultEventService.createSession("test", TRANSACTION) }
-    // Test create MSK session should throw not implemented exception
+    eventConfig.queue.sqs = SqsConfig(false, "us-east-1")
+    session = queueSession(defaultEventService.createSession("test", TRANSACTION))
+    assert(session is SqsSession)
+    assertEquals("TRANSACTION.fifo", (session as SqsSession).queueName)
+
+    // Test create MSK session
     eventConfig.queue.type = MSK
-    assertThrows<NotImplementedException> { defaultEventService.createSession("test", TRANSACTION) }
+    eventConfig.queue.msk = MskConfig()
+    session = queueSession(defaultEventService.createSession("test", TRANSACTION))
+    assert(session is MskSession)
+    assertEquals("TRANSACTION", (session as MskSession).topic)
+  }
+
+  private fun queueSession(session: Session): Session {
+    // Without the outbox, the events are published to the queue after the transaction commits.
+    assert(session is AfterCommitSession)
+    return (session as AfterCommitSession).queueSession
+  }
+
+  @Test
+  fun `test the events published in a transaction are sent after the commit`() {
+    val queueSession = mockk<Session>(relaxed = true)
+    every { queueSession.publishAsync(any()) } returns CompletableFuture.completedFuture(null)
+    val session = AfterCommitSession(queueSession)
+    val event = AnchorEvent.builder().id("1").sep("24").type(TRANSACTION_STATUS_CHANGED).build()
+
+    TransactionSynchronizationManager.initSynchronization()
+    TransactionSynchronizationManager.setActualTransactionActive(true)
+    try {
+      session.publish(event)
+      session.publish(event)
+      verify(exactly = 0) { queueSession.publishAsync(any()) }
+
+      TransactionSynchronizationManager.getSynchronizations().forEach { it.afterCommit() }
+      verify(exactly = 2) { queueSession.publishAsync(event) }
+      verify(exactly = 1) { queueSession.flush() }
+    } finally {
+      TransactionSynchronizationManager.getSynchronizations().forEach {
+        it.afterCompletion(TransactionSynchronization.STATUS_COMMITTED)
+      }
+      TransactionSynchronizationManager.setActualTransactionActive(false)
+      TransactionSynchronizationManager.clearSynchronization()
+    }
+
+    // Outside a transaction, the events are sent right away.
+    session.publish(event)
+    verify(exactly = 1) { queueSession.publish(event) }
+  }
+
+  @Test
+  fun `test the events that cannot be sent after the commit are written to the outbox`() {
+    val queueSession = mockk<Session>(relaxed = true)
+    val outboxSession = mockk<OutboxSession>(relaxed = true)
+    val transactionManager = mockk<PlatformTransactionManager>(relaxed = true)
+    val session =
+      AfterCommitSession(queueSession, outboxSession, TransactionTemplate(transactionManager))
+    val sent = AnchorEvent.builder().id("1").sep("24").type(TRANSACTION_STATUS_CHANGED).build()
+    val failed = AnchorEvent.builder().id("2").sep("24").type(TRANSACTION_STATUS_CHANGED).build()
+    every { queueSession.publishAsync(sent) } returns CompletableFuture.completedFuture(null)
+    every { queueSession.publishAsync(failed) } returns
+      CompletableFuture.failedFuture(EventPublishException("broker is down"))
+
+    TransactionSynchronizationManager.initSynchronization()
+    TransactionSynchronizationManager.setActualTransactionActive(true)
+    try {
+      session.publish(sent)
+      val future = session.publishAsync(failed)
+
+      // The commit does not fail.
+      TransactionSynchronizationManager.getSynchronizations().forEach { it.afterCommit() }
+      assert(future.isCompletedExceptionally)
+      verify(exactly = 1) { outboxSession.write(failed) }
+      verify(exactly = 0) { outboxSession.write(sent) }
+      verify(exactly = 1) { transactionManager.commit(any()) }
+    } finally {
+      TransactionSynchronizationManager.getSynchronizations().forEach {
+        it.afterCompletion(TransactionSynchronization.STATUS_COMMITTED)
+      }
+      TransactionSynchronizationManager.setActualTransactionActive(false)
+      TransactionSynchronizationManager.clearSynchronization()
+    }
+  }
+
+  @Test
+  fun `test the events published in a rolled back transaction are not sent`() {
+    val queueSession = mockk<Session>(relaxed = true)
+    val session = AfterCommitSession(queueSession)
+    val event = AnchorEvent.builder().id("1").sep("24").type(TRANSACTION_STATUS_CHANGED).build()
+
+    TransactionSynchronizationManager.initSynchronization()
+    TransactionSynchronizationManager.setActualTransactionActive(true)
+    try {
+      val future = session.publishAsync(event)
+      TransactionSynchronizationManager.getSynchronizations().forEach {
+        it.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK)
+      }
+      assert(future.isCancelled)
+    } finally {
+      TransactionSynchronizationManager.setActualTransactionActive(false)
+      TransactionSynchronizationManager.clearSynchronization()
+    }
+    verify(exactly = 0) { queueSession.publishAsync(any()) }
+    verify(exactly = 0) { queueSession.publish(any()) }
+  }
+
+  @Test
+  fun `test if the outbox session writes the events to the outbox`() {
+    eventConfig.outbox.isEnabled = true
+    val outboxRepo = mockk<JdbcEventOutboxRepo>(relaxed = true)
+    val defaultEventService = DefaultEventService(eventConfig, outboxRepo, null)
+    val session = defaultEventService.createSession("test", TRANSACTION)
+    assert(session is OutboxSession)
+    assert((session as OutboxSession).queueSession is KafkaSession)
+
+    val event = AnchorEvent.builder().id("1").sep("24").type(TRANSACTION_STATUS_CHANGED).build()
+    val saved = slot<JdbcEventOutbox>()
+    every { outboxRepo.save(capture(saved)) } answers { saved.captured }
+    session.publish(event)
+
+    assertEquals("TRANSACTION", saved.captured.queue)
+    assertEquals(
+      event,
+      GsonUtils.getInstance().fromJson(saved.captured.payload, AnchorEvent::class.java)
+    )
+    assertNotNull(saved.captured.createdAt)
   }
 
   val eventConfigJson =
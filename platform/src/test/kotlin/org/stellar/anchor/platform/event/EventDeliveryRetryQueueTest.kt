@@ -0,0 +1,208 @@
+package org.stellar.anchor.platform.event
+
+import io.mockk.*
+import io.mockk.impl.annotations.MockK
+import java.io.IOException
+import java.time.Instant
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.springframework.transaction.support.TransactionCallback
+import org.springframework.transaction.support.TransactionTemplate
+import org.stellar.anchor.api.event.AnchorEvent
+import org.stellar.anchor.api.event.AnchorEvent.Type.TRANSACTION_STATUS_CHANGED
+import org.stellar.anchor.api.platform.GetTransactionResponse
+import org.stellar.anchor.platform.config.EventProcessorConfig.DeliveryRetryConfig
+import org.stellar.anchor.platform.data.JdbcEventDeliveryRetry
+import org.stellar.anchor.platform.data.JdbcEventDeliveryRetryRepo
+import org.stellar.anchor.util.GsonUtils
+
+class EventDeliveryRetryQueueTest {
+  @MockK(relaxed = true) private lateinit var retryRepo: JdbcEventDeliveryRetryRepo
+  @MockK(relaxed = true) private lateinit var transactionTemplate: TransactionTemplate
+  @MockK(relaxed = true) private lateinit var eventHandler: ClientStatusCallbackHandler
+
+  private lateinit var retryConfig: DeliveryRetryConfig
+  private lateinit var retryQueue: EventDeliveryRetryQueue
+
+  private val event = AnchorEvent.builder().id("1").type(TRANSACTION_STATUS_CHANGED).build()
+
+  @BeforeEach
+  fun setup() {
+    MockKAnnotations.init(this, relaxUnitFun = true)
+    every { transactionTemplate.execute<List<JdbcEventDeliveryRetry>>(any()) } answers
+      {
+        firstArg<TransactionCallback<List<JdbcEventDeliveryRetry>>>()
+          .doInTransaction(mockk(relaxed = true))
+      }
+    retryConfig = DeliveryRetryConfig()
+    retryConfig.isEnabled = true
+    retryConfig.maxAttempts = 3
+    retryConfig.initialBackoffSeconds = 10L
+    retryConfig.maxBackoffSeconds = 30L
+    every { retryRepo.findPendingHeads(any()) } returns listOf()
+    retryQueue = EventDeliveryRetryQueue(retryRepo, transactionTemplate, retryConfig)
+    retryQueue.register("processor", "client", eventHandler)
+  }
+
+  private fun retry(attempts: Int) =
+    JdbcEventDeliveryRetry.builder()
+      .id("retry-1")
+      .processor("processor")
+      .target("client")
+      .payload(GsonUtils.getInstance().toJson(event))
+      .attempts(attempts)
+      .nextAttemptAt(Instant.now())
+      .deadLettered(false)
+      .createdAt(Instant.now())
+      .build()
+
+  @Test
+  fun `test the failed delivery is scheduled for a retry`() {
+    val saved = slot<JdbcEventDeliveryRetry>()
+    every { retryRepo.save(capture(saved)) } answers { firstArg() }
+
+    retryQueue.scheduleRetry("processor", "client", event, "connection refused")
+
+    assertEquals("processor", saved.captured.processor)
+    assertEquals("client", saved.captured.target)
+    assertEquals(1, saved.captured.attempts)
+    assertEquals(false, saved.captured.deadLettered)
+    assertTrue(saved.captured.nextAttemptAt.isAfter(Instant.now().plusSeconds(9)))
+    assertEquals(
+      "1",
+      GsonUtils.getInstance().fromJson(saved.captured.payload, AnchorEvent::class.java).id
+    )
+  }
+
+  @Test
+  fun `test the delivered retry is deleted`() {
+    val retry = retry(1)
+    every { retryRepo.findDueForUpdateSkipLocked(setOf("processor"), any(), any()) } returns
+      listOf(retry)
+    every { eventHandler.handleEvent(any()) } returns true
+
+    assertEquals(1, retryQueue.retryBatch())
+
+    // The next attempt is moved forward before the delivery.
+    assertEquals(2, retry.attempts)
+    verify { retryRepo.saveAll(listOf(retry)) }
+    verify(exactly = 1) { eventHandler.handleEvent(match { it.id == "1" }) }
+    verify(exactly = 1) { retryRepo.delete(retry) }
+  }
+
+  @Test
+  fun `test the failed retry is rescheduled`() {
+    val retry = retry(1)
+    every { retryRepo.findDueForUpdateSkipLocked(any(), any(), any()) } returns listOf(retry)
+    every { eventHandler.handleEvent(any()) } throws IOException("connection refused")
+
+    retryQueue.retryBatch()
+
+    assertEquals(2, retry.attempts)
+    assertEquals(false, retry.deadLettered)
+    assertEquals("connection refused", retry.lastError)
+    assertTrue(retry.nextAttemptAt.isAfter(Instant.now().plusSeconds(19)))
+    verify(exactly = 0) { retryRepo.delete(any()) }
+  }
+
+  @Test
+  fun `test the retry is dead-lettered after the last attempt`() {
+    val retry = retry(2)
+    every { retryRepo.findDueForUpdateSkipLocked(any(), any(), any()) } returns listOf(retry)
+    every { eventHandler.handleEvent(any()) } returns false
+
+    retryQueue.retryBatch()
+
+    assertEquals(3, retry.attempts)
+    assertEquals(true, retry.deadLettered)
+    verify { retryRepo.save(retry) }
+  }
+
+  @Test
+  fun `test the retry of an unknown target is dead-lettered`() {
+    val retry = retry(1)
+    retry.target = "removed-client"
+    every { retryRepo.findDueForUpdateSkipLocked(any(), any(), any()) } returns listOf(retry)
+
+    retryQueue.retryBatch()
+
+    assertEquals(true, retry.deadLettered)
+    verify(exactly = 0) { eventHandler.handleEvent(any()) }
+  }
+
+  @Test
+  fun `test the event is held behind a pending delivery of its transaction`() {
+    val txnEvent =
+      AnchorEvent.builder()
+        .id("2")
+        .type(TRANSACTION_STATUS_CHANGED)
+        .transaction(GetTransactionResponse.builder().id("txn-1").build())
+        .build()
+    every {
+      retryRepo.existsByProcessorAndTargetAndPartitionKeyAndDeadLetteredFalse(
+        "processor",
+        "client",
+        "txn-1"
+      )
+    } returns true
+    val saved = slot<JdbcEventDeliveryRetry>()
+    every { retryRepo.save(capture(saved)) } answers { firstArg() }
+
+    assertTrue(retryQueue.holdBehindPendingRetry("processor", "client", txnEvent))
+
+    assertEquals("txn-1", saved.captured.partitionKey)
+    assertEquals(0, saved.captured.attempts)
+    assertFalse(saved.captured.nextAttemptAt.isAfter(Instant.now()))
+  }
+
+  @Test
+  fun `test the event is not held without a pending delivery of its transaction`() {
+    every {
+      retryRepo.existsByProcessorAndTargetAndPartitionKeyAndDeadLetteredFalse(any(), any(), any())
+    } returns false
+
+    assertFalse(retryQueue.holdBehindPendingRetry("processor", "client", event))
+    verify(exactly = 0) { retryRepo.save(any()) }
+  }
+
+  @Test
+  fun `test only the oldest pending delivery of a transaction is retried`() {
+    val first = retry(1)
+    first.partitionKey = "txn-1"
+    first.sequenceNumber = 5
+    val held = retry(0)
+    held.id = "retry-2"
+    held.partitionKey = "txn-1"
+    held.sequenceNumber = 6
+    every { retryRepo.findDueForUpdateSkipLocked(any(), any(), any()) } returns
+      listOf(first, held)
+    every { retryRepo.findPendingHeads(setOf("txn-1")) } returns
+      listOf(
+        object : JdbcEventDeliveryRetryRepo.PendingHead {
+          override fun getProcessor() = "processor"
+
+          override fun getTarget() = "client"
+
+          override fun getPartitionKey() = "txn-1"
+
+          override fun getSequenceNumber() = 5L
+        }
+      )
+    every { eventHandler.handleEvent(any()) } returns true
+
+    assertEquals(1, retryQueue.retryBatch())
+
+    assertEquals(0, held.attempts)
+    verify(exactly = 1) { eventHandler.handleEvent(any()) }
+    verify(exactly = 1) { retryRepo.delete(first) }
+  }
+
+  @Test
+  fun `test the backoff grows exponentially up to the maximum`() {
+    assertEquals(10L, retryQueue.getBackoffSeconds(1))
+    assertEquals(20L, retryQueue.getBackoffSeconds(2))
+    assertEquals(30L, retryQueue.getBackoffSeconds(3))
+    assertEquals(30L, retryQueue.getBackoffSeconds(100))
+  }
+}
@@ -0,0 +1,133 @@
+package org.stellar.anchor.platform.event
+
+import io.mockk.*
+import io.mockk.impl.annotations.MockK
+import java.time.Instant
+import java.util.concurrent.CompletableFuture
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.springframework.data.domain.Pageable
+import org.springframework.transaction.support.TransactionCallback
+import org.springframework.transaction.support.TransactionTemplate
+import org.stellar.anchor.api.event.AnchorEvent
+import org.stellar.anchor.api.event.AnchorEvent.Type.TRANSACTION_STATUS_CHANGED
+import org.stellar.anchor.event.EventService
+import org.stellar.anchor.event.EventService.EventQueue.TRANSACTION
+import org.stellar.anchor.platform.config.OutboxConfig
+import org.stellar.anchor.platform.config.PropertyEventConfig
+import org.stellar.anchor.platform.data.JdbcEventOutbox
+import org.stellar.anchor.platform.data.JdbcEventOutboxRepo
+import org.stellar.anchor.util.GsonUtils
+
+class EventOutboxRelayTest {
+  @MockK(relaxed = true) private lateinit var outboxRepo: JdbcEventOutboxRepo
+  @MockK(relaxed = true) private lateinit var transactionTemplate: TransactionTemplate
+  @MockK(relaxed = true) private lateinit var queueSession: EventService.Session
+
+  private lateinit var eventService: DefaultEventService
+  private lateinit var relay: EventOutboxRelay
+
+  @BeforeEach
+  fun setup() {
+    MockKAnnotations.init(this, relaxUnitFun = true)
+    every { transactionTemplate.execute<Int>(any()) } answers
+      {
+        firstArg<TransactionCallback<Int>>().doInTransaction(mockk(relaxed = true))
+      }
+    eventService = spyk(DefaultEventService(PropertyEventConfig()))
+    every { eventService.createQueueSession(any(), any()) } returns queueSession
+    every { outboxRepo.findPartitionHeads(any()) } returns listOf()
+    relay =
+      EventOutboxRelay(outboxRepo, transactionTemplate, eventService, OutboxConfig(true, 3, 100))
+  }
+
+  private fun outboxEvent(id: String, sequenceNumber: Long = 0, partitionKey: String? = null) =
+    JdbcEventOutbox.builder()
+      .id("outbox-$id")
+      .sequenceNumber(sequenceNumber)
+      .partitionKey(partitionKey)
+      .queue(TRANSACTION.name)
+      .payload(
+        GsonUtils.getInstance()
+          .toJson(AnchorEvent.builder().id(id).type(TRANSACTION_STATUS_CHANGED).build())
+      )
+      .createdAt(Instant.now())
+      .build()
+
+  @Test
+  fun `test the published events are deleted from the outbox`() {
+    val events = listOf(outboxEvent("1"), outboxEvent("2"))
+    every { outboxRepo.findOldestForUpdateSkipLocked(any()) } returns events
+    val published = mutableListOf<AnchorEvent>()
+    every { queueSession.publishAsync(capture(published)) } returns
+      CompletableFuture.completedFuture(null)
+
+    assertEquals(2, relay.relayBatch())
+
+    assertEquals(listOf("1", "2"), published.map { it.id })
+    verify(exactly = 1) { eventService.createQueueSession(any(), TRANSACTION) }
+    verify(exactly = 1) { queueSession.flush() }
+    verify { outboxRepo.deleteAll(events) }
+  }
+
+  @Test
+  fun `test the events from the first failure are kept in the outbox`() {
+    val events = listOf(outboxEvent("1"), outboxEvent("2"), outboxEvent("3"))
+    every { outboxRepo.findOldestForUpdateSkipLocked(any()) } returns events
+    every { queueSession.publishAsync(any()) } returnsMany
+      listOf(
+        CompletableFuture.completedFuture(null),
+        CompletableFuture.failedFuture(RuntimeException("broker is down")),
+        CompletableFuture.completedFuture(null)
+      )
+
+    assertEquals(1, relay.relayBatch())
+    verify { outboxRepo.deleteAll(listOf(events[0])) }
+  }
+
+  @Test
+  fun `test the relay runs until the outbox is drained`() {
+    val pageable = slot<Pageable>()
+    every { outboxRepo.findOldestForUpdateSkipLocked(capture(pageable)) } returnsMany
+      listOf(
+        listOf(outboxEvent("1"), outboxEvent("2"), outboxEvent("3")),
+        listOf(outboxEvent("4")),
+      )
+    every { queueSession.publishAsync(any()) } returns CompletableFuture.completedFuture(null)
+
+    relay.run()
+
+    assertEquals(3, pageable.captured.pageSize)
+    verify(exactly = 2) { outboxRepo.findOldestForUpdateSkipLocked(any()) }
+    verify(exactly = 4) { queueSession.publishAsync(any()) }
+  }
+
+  @Test
+  fun `test the events of a key are skipped while an older event of the key is locked elsewhere`() {
+    val events =
+      listOf(
+        outboxEvent("1", 5, "txn-1"),
+        outboxEvent("2", 6, "txn-2"),
+        outboxEvent("3", 7, "txn-1")
+      )
+    every { outboxRepo.findOldestForUpdateSkipLocked(any()) } returns events
+    every { outboxRepo.findPartitionHeads(setOf("txn-1", "txn-2")) } returns
+      listOf(partitionHead("txn-1", 3), partitionHead("txn-2", 6))
+    val published = mutableListOf<AnchorEvent>()
+    every { queueSession.publishAsync(capture(published)) } returns
+      CompletableFuture.completedFuture(null)
+
+    assertEquals(1, relay.relayBatch())
+
+    assertEquals(listOf("2"), published.map { it.id })
+    verify { outboxRepo.deleteAll(listOf(events[1])) }
+  }
+
+  private fun partitionHead(partitionKey: String, sequenceNumber: Long) =
+    object : JdbcEventOutboxRepo.PartitionHead {
+      override fun getPartitionKey() = partitionKey
+
+      override fun getSequenceNumber() = sequenceNumber
+    }
+}
@@ -0,0 +1,328 @@
+package org.stellar.anchor.platform.event
+
+import io.mockk.*
+import io.mockk.impl.annotations.MockK
+import java.io.IOException
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.stellar.anchor.api.event.AnchorEvent
+import org.stellar.anchor.api.event.AnchorEvent.Type.TRANSACTION_STATUS_CHANGED
+import org.stellar.anchor.api.platform.GetTransactionResponse
+import org.stellar.anchor.event.EventService
+import org.stellar.anchor.event.EventService.EventQueue.TRANSACTION
+
+class EventProcessorTest {
+  @MockK(relaxed = true) lateinit var eventHandler: CallbackApiEventHandler
+  @MockK(relaxed = true) lateinit var eventService: EventService
+  @MockK(relaxed = true) lateinit var session: EventService.Session
+  private lateinit var eventProcessor: CallbackApiEventProcessor
+
+  @BeforeEach
+  fun setup() {
+    MockKAnnotations.init(this)
+    eventProcessor =
+      CallbackApiEventProcessor("TEST PROCESSOR", TRANSACTION, eventService, eventHandler, 4)
+  }
+
+  @AfterEach
+  fun tearDown() {
+    eventProcessor.stop()
+  }
+
+  private fun event(id: String, txnId: String) =
+    AnchorEvent.builder()
+      .id(id)
+      .type(TRANSACTION_STATUS_CHANGED)
+      .transaction(GetTransactionResponse.builder().id(txnId).build())
+      .build()
+
+  /** Finds a transaction id that is not handled by the same worker as the given one. */
+  private fun otherPartitionTxnId(txnId: String): String {
+    val partition = eventProcessor.partitionOf(event("0", txnId))
+    return (0 until 100)
+      .map { "txn-$it" }
+      .first { eventProcessor.partitionOf(event("0", it)) != partition }
+  }
+
+  @Test
+  fun `test a slow transaction does not block the other transactions`() {
+    val slowTxnId = "txn-slow"
+    val fastTxnId = otherPartitionTxnId(slowTxnId)
+    val fastHandled = CountDownLatch(1)
+    every { eventHandler.handleEvent(match { it.transaction.id == slowTxnId }) } answers
+      {
+        // Blocks until the event of the other transaction is handled.
+        assertTrue(fastHandled.await(5, TimeUnit.SECONDS))
+        true
+      }
+    every { eventHandler.handleEvent(match { it.transaction.id == fastTxnId }) } answers
+      {
+        fastHandled.countDown()
+        true
+      }
+
+    assertEquals(2, eventProcessor.dispatch(listOf(event("1", slowTxnId), event("2", fastTxnId))))
+  }
+
+  @Test
+  fun `test the events of a transaction are handled in order`() {
+    val handled = Collections.synchronizedList(mutableListOf<String>())
+    every { eventHandler.handleEvent(any()) } answers
+      {
+        val event = firstArg<AnchorEvent>()
+        if (event.id == "1") Thread.sleep(100)
+        handled.add(event.id)
+        true
+      }
+
+    val events = (1..5).map { event(it.toString(), "txn-1") }
+    assertEquals(5, eventProcessor.dispatch(events))
+    assertEquals(listOf("1", "2", "3", "4", "5"), handled)
+  }
+
+  @Test
+  fun `test the events are acknowledged up to the first failed event`() {
+    val failedTxnId = otherPartitionTxnId("txn-1")
+    val events = listOf(event("1", "txn-1"), event("2", failedTxnId), event("3", "txn-1"))
+    every { eventHandler.handleEvent(any()) } returns true
+    every { eventHandler.handleEvent(match { it.id == "2" }) } throws RuntimeException("failed")
+    val readResponse = mockk<EventService.ReadResponse>()
+    every { readResponse.events } returns events
+    every { eventService.createSession(any(), any()) } returns session
+    every { session.read() } returns readResponse
+
+    eventProcessor.run()
+
+    verify(exactly = 1) { session.read() }
+    verify(exactly = 1) { session.ack(readResponse, 1) }
+    verify(atLeast = 2) { eventHandler.handleEvent(any()) }
+  }
+
+  @Test
+  fun `test the event is delivered to all the clients`() {
+    val slowClient = mockk<ClientStatusCallbackHandler>(relaxed = true)
+    val fastClient = mockk<ClientStatusCallbackHandler>(relaxed = true)
+    every { slowClient.clientName } returns "slow-client"
+    every { fastClient.clientName } returns "fast-client"
+    val fastHandled = CountDownLatch(1)
+    every { slowClient.handlePayload(any()) } answers
+      {
+        // Blocks until the event is delivered to the other client.
+        assertTrue(fastHandled.await(5, TimeUnit.SECONDS))
+        true
+      }
+    every { fastClient.handlePayload(any()) } answers
+      {
+        fastHandled.countDown()
+        true
+      }
+    val fanOutProcessor =
+      ClientStatusCallbackProcessor(
+        "TEST PROCESSOR",
+        TRANSACTION,
+        eventService,
+        listOf(slowClient, fastClient),
+        4
+      )
+
+    try {
+      assertEquals(1, fanOutProcessor.dispatch(listOf(event("1", "txn-1"))))
+    } finally {
+      fanOutProcessor.stop()
+    }
+    verify(exactly = 1) { slowClient.handlePayload(any()) }
+    verify(exactly = 1) { fastClient.handlePayload(any()) }
+  }
+
+  @Test
+  fun `test a slow client does not delay the next reads of the other clients`() {
+    val slowClient = mockk<ClientStatusCallbackHandler>(relaxed = true)
+    val fastClient = mockk<ClientStatusCallbackHandler>(relaxed = true)
+    every { slowClient.clientName } returns "slow-client"
+    every { fastClient.clientName } returns "fast-client"
+    val delivered = Collections.synchronizedList(mutableListOf<String>())
+    val fastHandledNextRead = CountDownLatch(1)
+    every { slowClient.handlePayload(any()) } answers
+      {
+        // Blocks until the event of the next read is delivered to the other client.
+        fastHandledNextRead.await(5, TimeUnit.SECONDS)
+        delivered.add("slow:" + firstArg<ClientStatusCallbackPayload>().event.id)
+        true
+      }
+    every { fastClient.handlePayload(any()) } answers
+      {
+        val id = firstArg<ClientStatusCallbackPayload>().event.id
+        delivered.add("fast:$id")
+        if (id == "2") fastHandledNextRead.countDown()
+        true
+      }
+    val firstRead = mockk<EventService.ReadResponse>()
+    val nextRead = mockk<EventService.ReadResponse>()
+    every { firstRead.events } returns listOf(event("1", "txn-1"))
+    every { nextRead.events } returns listOf(event("2", "txn-2"))
+    every { session.read() } returnsMany
+      listOf(firstRead, nextRead) andThenAnswer
+      {
+        // Stops the consumer after the second read.
+        Thread.currentThread().interrupt()
+        val emptyRead = mockk<EventService.ReadResponse>()
+        every { emptyRead.events } returns listOf()
+        emptyRead
+      }
+    val fanOutProcessor =
+      ClientStatusCallbackProcessor(
+        "TEST PROCESSOR",
+        TRANSACTION,
+        eventService,
+        listOf(slowClient, fastClient),
+        1,
+        null,
+        1
+      )
+
+    try {
+      fanOutProcessor.consume(session)
+    } finally {
+      Thread.interrupted()
+      fanOutProcessor.stop()
+    }
+    // The first read is acknowledged when it is delivered to the slow client.
+    verify(exactly = 1) { session.ack(firstRead, 1) }
+    assertEquals(listOf("fast:1", "fast:2", "slow:1"), delivered.take(3))
+  }
+
+  @Test
+  fun `test the event is not acknowledged until it is delivered to all the clients`() {
+    val client = mockk<ClientStatusCallbackHandler>(relaxed = true)
+    val failedClient = mockk<ClientStatusCallbackHandler>(relaxed = true)
+    every { client.clientName } returns "client"
+    every { failedClient.clientName } returns "failed-client"
+    every { client.handlePayload(any()) } returns true
+    every { failedClient.handlePayload(any()) } answers
+      {
+        // The worker is stopped before the event is delivered.
+        Thread.currentThread().interrupt()
+        false
+      }
+    val fanOutProcessor =
+      ClientStatusCallbackProcessor(
+        "TEST PROCESSOR",
+        TRANSACTION,
+        eventService,
+        listOf(client, failedClient),
+        4
+      )
+
+    try {
+      assertEquals(0, fanOutProcessor.dispatch(listOf(event("1", "txn-1"))))
+    } finally {
+      fanOutProcessor.stop()
+    }
+    verify(exactly = 1) { client.handlePayload(any()) }
+  }
+
+  @Test
+  fun `test the payload is rendered once for all the clients`() {
+    val renderedEventIds = Collections.synchronizedList(mutableListOf<String>())
+    val clients =
+      (1..3).map { i ->
+        val client = mockk<ClientStatusCallbackHandler>(relaxed = true)
+        every { client.clientName } returns "client-$i"
+        every { client.renderPayload(any()) } answers
+          {
+            renderedEventIds.add(firstArg<AnchorEvent>().id)
+            "{}"
+          }
+        every { client.handlePayload(any()) } answers
+          {
+            assertEquals("{}", firstArg<ClientStatusCallbackPayload>().get(client))
+            true
+          }
+        client
+      }
+    val fanOutProcessor =
+      ClientStatusCallbackProcessor("TEST PROCESSOR", TRANSACTION, eventService, clients, 4)
+
+    try {
+      assertEquals(2, fanOutProcessor.dispatch(listOf(event("1", "txn-1"), event("2", "txn-2"))))
+    } finally {
+      fanOutProcessor.stop()
+    }
+    clients.forEach { client -> verify(exactly = 2) { client.handlePayload(any()) } }
+    assertEquals(listOf("1", "2"), renderedEventIds.sorted())
+  }
+
+  @Test
+  fun `test the failed deliveries are scheduled in the retry queue`() {
+    val retryQueue = mockk<EventDeliveryRetryQueue>(relaxed = true)
+    val retryingProcessor =
+      CallbackApiEventProcessor(
+        "TEST PROCESSOR",
+        TRANSACTION,
+        eventService,
+        eventHandler,
+        4,
+        retryQueue
+      )
+    every { eventHandler.handleEvent(match { it.id == "1" }) } returns false
+    every { eventHandler.handleEvent(match { it.id == "2" }) } throws IOException("refused")
+    every { eventHandler.handleEvent(match { it.id == "3" }) } throws RuntimeException("failed")
+
+    try {
+      val events = listOf(event("1", "txn-1"), event("2", "txn-1"), event("3", "txn-1"))
+      // The events are acknowledged without waiting for the retries.
+      assertEquals(3, retryingProcessor.dispatch(events))
+    } finally {
+      retryingProcessor.stop()
+    }
+
+    verify { retryQueue.register("TEST PROCESSOR", "business-server", eventHandler) }
+    verify(exactly = 1) { eventHandler.handleEvent(match { it.id == "1" }) }
+    verify(exactly = 1) {
+      retryQueue.scheduleRetry("TEST PROCESSOR", "business-server", match { it.id == "1" }, any())
+    }
+    verify(exactly = 1) {
+      retryQueue.scheduleRetry(
+        "TEST PROCESSOR",
+        "business-server",
+        match { it.id == "2" },
+        "refused"
+      )
+    }
+    verify(exactly = 1) {
+      retryQueue.deadLetter("TEST PROCESSOR", "business-server", match { it.id == "3" }, any())
+    }
+  }
+
+  @Test
+  fun `test the events held behind a pending retry are not delivered`() {
+    val retryQueue = mockk<EventDeliveryRetryQueue>(relaxed = true)
+    val retryingProcessor =
+      CallbackApiEventProcessor(
+        "TEST PROCESSOR",
+        TRANSACTION,
+        eventService,
+        eventHandler,
+        4,
+        retryQueue
+      )
+    every {
+      retryQueue.holdBehindPendingRetry("TEST PROCESSOR", "business-server", match { it.id == "2" })
+    } returns true
+    every { eventHandler.handleEvent(any()) } returns true
+
+    try {
+      assertEquals(2, retryingProcessor.dispatch(listOf(event("1", "txn-1"), event("2", "txn-1"))))
+    } finally {
+      retryingProcessor.stop()
+    }
+
+    verify(exactly = 1) { eventHandler.handleEvent(match { it.id == "1" }) }
+    verify(exactly = 0) { eventHandler.handleEvent(match { it.id == "2" }) }
+  }
+}
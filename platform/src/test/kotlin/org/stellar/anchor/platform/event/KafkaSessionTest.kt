@@ -0,0 +1,263 @@
+package org.stellar.anchor.platform.event
+
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.TimeUnit
+import kotlin.concurrent.thread
+import org.apache.kafka.clients.consumer.ConsumerRecord
+import org.apache.kafka.clients.consumer.MockConsumer
+import org.apache.kafka.clients.consumer.OffsetResetStrategy
+import org.apache.kafka.clients.producer.MockProducer
+import org.apache.kafka.common.TopicPartition
+import org.apache.kafka.common.serialization.ByteArraySerializer
+import org.apache.kafka.common.serialization.StringSerializer
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import org.springframework.transaction.support.TransactionSynchronizationManager
+import org.stellar.anchor.api.event.AnchorEvent
+import org.stellar.anchor.api.event.AnchorEvent.Type.CUSTOMER_UPDATED
+import org.stellar.anchor.api.event.AnchorEvent.Type.TRANSACTION_STATUS_CHANGED
+import org.stellar.anchor.api.exception.EventPublishException
+import org.stellar.anchor.api.platform.CustomerUpdatedResponse
+import org.stellar.anchor.api.platform.GetTransactionResponse
+import org.stellar.anchor.api.platform.HealthCheckStatus.GREEN
+import org.stellar.anchor.api.platform.HealthCheckStatus.YELLOW
+import org.stellar.anchor.event.EventCodec
+import org.stellar.anchor.event.EventService.EventQueue.TRANSACTION
+import org.stellar.anchor.event.GzipJsonEventCodec
+import org.stellar.anchor.platform.config.KafkaConfig
+import org.stellar.anchor.platform.config.PropertyEventConfig
+import org.stellar.anchor.util.GsonUtils
+
+class KafkaSessionTest {
+  private lateinit var producer: MockProducer<String, ByteArray>
+  private lateinit var session: KafkaSession
+
+  private val event =
+    AnchorEvent.builder().id("1").sep("24").type(TRANSACTION_STATUS_CHANGED).build()
+
+  @BeforeEach
+  fun setup() {
+    producer = MockProducer(false, StringSerializer(), ByteArraySerializer())
+    session = createSession(asyncPublish = true, maxInFlightPublishes = 2)
+  }
+
+  @AfterEach
+  fun tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization()
+    }
+  }
+
+  private fun createSession(
+    asyncPublish: Boolean,
+    maxInFlightPublishes: Int,
+    eventCodec: String = "json"
+  ): KafkaSession {
+    val kafkaConfig = KafkaConfig()
+    kafkaConfig.isAsyncPublish = asyncPublish
+    kafkaConfig.maxInFlightPublishes = maxInFlightPublishes
+    kafkaConfig.eventCodec = eventCodec
+    val kafkaSession = KafkaSession(kafkaConfig, "test", TRANSACTION)
+    kafkaSession.producer = producer
+    return kafkaSession
+  }
+
+  @Test
+  fun `test async publish does not wait for the broker`() {
+    val future = session.publishAsync(event)
+    session.publish(event)
+
+    assertEquals(2, producer.history().size)
+    assertFalse(future.isDone)
+    assertEquals(2, session.getInFlightPublishes())
+
+    producer.completeNext()
+    assertNull(future.get(1, TimeUnit.SECONDS))
+    assertEquals(1, session.getInFlightPublishes())
+    producer.completeNext()
+    assertEquals(0, session.getInFlightPublishes())
+  }
+
+  @Test
+  fun `test async publish blocks when the in-flight window is full`() {
+    session.publishAsync(event)
+    session.publishAsync(event)
+
+    val publisher = thread { session.publishAsync(event) }
+    publisher.join(200)
+    assertTrue(publisher.isAlive)
+    assertEquals(2, producer.history().size)
+
+    producer.completeNext()
+    publisher.join(1000)
+    assertFalse(publisher.isAlive)
+    assertEquals(3, producer.history().size)
+  }
+
+  @Test
+  fun `test async publish failure is reported by the health check`() {
+    val eventService = DefaultEventService(PropertyEventConfig())
+    eventService.kafkaSessions.add(session)
+    assertEquals(GREEN, eventService.check().status)
+
+    val future = session.publishAsync(event)
+    producer.errorNext(RuntimeException("broker is down"))
+
+    val ex = assertThrows<ExecutionException> { future.get(1, TimeUnit.SECONDS) }
+    assertTrue(ex.cause is EventPublishException)
+    assertEquals(1, session.publishFailures.get())
+    assertEquals(0, session.getInFlightPublishes())
+    assertEquals(YELLOW, eventService.check().status)
+
+    // The session recovers when an event is published.
+    session.publishAsync(event)
+    producer.completeNext()
+    assertEquals(GREEN, eventService.check().status)
+    assertEquals(1, session.publishFailures.get())
+  }
+
+  @Test
+  fun `test sync publish failure is thrown and reported by the health check`() {
+    session = createSession(asyncPublish = false, maxInFlightPublishes = 0)
+    val eventService = DefaultEventService(PropertyEventConfig())
+    eventService.kafkaSessions.add(session)
+
+    var error: Throwable? = null
+    val publisher = thread {
+      try {
+        session.publish(event)
+      } catch (ex: EventPublishException) {
+        error = ex
+      }
+    }
+    while (producer.history().isEmpty()) Thread.sleep(10)
+    producer.errorNext(RuntimeException("broker is down"))
+    publisher.join(1000)
+
+    assertFalse(publisher.isAlive)
+    assertInstanceOf(EventPublishException::class.java, error)
+    assertEquals(1, session.publishFailures.get())
+    assertEquals(YELLOW, eventService.check().status)
+  }
+
+  @Test
+  fun `test the partially processed records are read again`() {
+    val consumer = MockConsumer<String, ByteArray>(OffsetResetStrategy.EARLIEST)
+    val partition0 = TopicPartition("TRANSACTION", 0)
+    val partition1 = TopicPartition("TRANSACTION", 1)
+    consumer.assign(listOf(partition0, partition1))
+    consumer.updateBeginningOffsets(mapOf(partition0 to 0L, partition1 to 0L))
+    fun value(id: String) =
+      GsonUtils.getInstance()
+        .toJson(AnchorEvent.builder().id(id).type(TRANSACTION_STATUS_CHANGED).build())
+        .toByteArray()
+    consumer.addRecord(ConsumerRecord("TRANSACTION", 0, 0L, null, value("0-0")))
+    consumer.addRecord(ConsumerRecord("TRANSACTION", 1, 0L, null, value("1-0")))
+    consumer.addRecord(ConsumerRecord("TRANSACTION", 0, 1L, null, value("0-1")))
+    session.consumer = consumer
+
+    val readResponse = session.read()
+    assertEquals(3, readResponse.events.size)
+    session.ack(readResponse, 1)
+
+    // Only the first record is committed. The other partition is rewound to its first record.
+    val processed = if (readResponse.events[0].id == "0-0") partition0 else partition1
+    val unprocessed = if (processed == partition0) partition1 else partition0
+    val committed = consumer.committed(setOf(partition0, partition1))
+    assertEquals(1L, committed[processed]!!.offset())
+    assertEquals(0L, committed[unprocessed]!!.offset())
+    assertEquals(1L, consumer.position(processed))
+    assertEquals(0L, consumer.position(unprocessed))
+  }
+
+  @Test
+  fun `test the producer is flushed before the transaction commits`() {
+    TransactionSynchronizationManager.initSynchronization()
+    val first = session.publishAsync(event)
+    val second = session.publishAsync(event)
+    // The flush is registered once per transaction.
+    assertEquals(1, TransactionSynchronizationManager.getSynchronizations().size)
+    assertFalse(first.isDone)
+
+    TransactionSynchronizationManager.getSynchronizations().forEach { it.beforeCommit(false) }
+
+    assertTrue(first.isDone)
+    assertTrue(second.isDone)
+    assertEquals(0, session.getInFlightPublishes())
+    TransactionSynchronizationManager.getSynchronizations().forEach { it.afterCompletion(0) }
+    assertFalse(TransactionSynchronizationManager.hasResource(session))
+  }
+
+  @Test
+  fun `test the transaction is rolled back when an event is not published`() {
+    TransactionSynchronizationManager.initSynchronization()
+    val first = session.publishAsync(event)
+    val second = session.publishAsync(event)
+    producer.errorNext(RuntimeException("broker is down"))
+
+    val ex =
+      assertThrows<IllegalStateException> {
+        TransactionSynchronizationManager.getSynchronizations().forEach { it.beforeCommit(false) }
+      }
+    assertInstanceOf(EventPublishException::class.java, ex.cause)
+    assertTrue(first.isCompletedExceptionally)
+    assertTrue(second.isDone)
+    assertEquals(0, session.getInFlightPublishes())
+    TransactionSynchronizationManager.getSynchronizations().forEach { it.afterCompletion(1) }
+    assertFalse(TransactionSynchronizationManager.hasResource(session))
+  }
+
+  @Test
+  fun `test the events are decoded with the codec of their header`() {
+    session = createSession(asyncPublish = true, maxInFlightPublishes = 2, "json-gzip")
+    session.publishAsync(event)
+    val published = producer.history()[0]
+    assertEquals(
+      GzipJsonEventCodec.NAME,
+      String(published.headers().lastHeader(EventCodec.HEADER).value())
+    )
+
+    val consumer = MockConsumer<String, ByteArray>(OffsetResetStrategy.EARLIEST)
+    val partition = TopicPartition("TRANSACTION", 0)
+    consumer.assign(listOf(partition))
+    consumer.updateBeginningOffsets(mapOf(partition to 0L))
+    val gzipRecord =
+      ConsumerRecord<String, ByteArray>("TRANSACTION", 0, 0L, null, published.value())
+    published.headers().forEach { gzipRecord.headers().add(it) }
+    consumer.addRecord(gzipRecord)
+    // The records published before the codec header was introduced are decoded as JSON.
+    val jsonEvent = AnchorEvent.builder().id("2").type(TRANSACTION_STATUS_CHANGED).build()
+    val json = GsonUtils.getInstance().toJson(jsonEvent).toByteArray()
+    consumer.addRecord(ConsumerRecord("TRANSACTION", 0, 1L, null, json))
+    session.consumer = consumer
+
+    val events = session.read().events
+    assertEquals(listOf("1", "2"), events.map { it.id })
+    assertEquals("24", events[0].sep)
+  }
+
+  @Test
+  fun `test the events are keyed by their transaction or customer`() {
+    val transactionEvent =
+      AnchorEvent.builder()
+        .id("1")
+        .type(TRANSACTION_STATUS_CHANGED)
+        .transaction(GetTransactionResponse.builder().id("txn-1").build())
+        .build()
+    val customerEvent =
+      AnchorEvent.builder()
+        .id("2")
+        .type(CUSTOMER_UPDATED)
+        .customer(CustomerUpdatedResponse.builder().id("customer-1").build())
+        .build()
+
+    session.publishAsync(transactionEvent)
+    session.publishAsync(customerEvent)
+    session.publishAsync(event)
+
+    assertEquals(listOf("txn-1", "customer-1", "1"), producer.history().map { it.key() })
+  }
+}
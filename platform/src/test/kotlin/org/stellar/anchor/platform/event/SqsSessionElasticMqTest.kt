@@ -0,0 +1,148 @@
+package org.stellar.anchor.platform.event
+
+import com.amazonaws.services.sqs.model.CreateQueueRequest
+import com.amazonaws.services.sqs.model.ReceiveMessageRequest
+import org.elasticmq.rest.sqs.SQSRestServer
+import org.elasticmq.rest.sqs.SQSRestServerBuilder
+import org.junit.jupiter.api.AfterAll
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.BeforeAll
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.stellar.anchor.api.event.AnchorEvent
+import org.stellar.anchor.api.event.AnchorEvent.Type.TRANSACTION_STATUS_CHANGED
+import org.stellar.anchor.api.platform.GetTransactionResponse
+import org.stellar.anchor.event.EventCodec
+import org.stellar.anchor.event.EventService
+import org.stellar.anchor.event.EventService.EventQueue.TRANSACTION
+import org.stellar.anchor.platform.config.SqsConfig
+
+/** Runs the SQS session against an embedded ElasticMQ server. */
+class SqsSessionElasticMqTest {
+  companion object {
+    private lateinit var server: SQSRestServer
+    private lateinit var endpoint: String
+
+    @BeforeAll
+    @JvmStatic
+    fun startServer() {
+      server = SQSRestServerBuilder.withPort(0).withInterface("localhost").start()
+      endpoint = "http://localhost:${server.waitUntilStarted().localAddress().port}"
+    }
+
+    @AfterAll
+    @JvmStatic
+    fun stopServer() {
+      server.stopAndWait()
+    }
+  }
+
+  private lateinit var publisher: SqsSession
+  private lateinit var consumer: SqsSession
+
+  @BeforeEach
+  fun setup() {
+    publisher = createSession("avro")
+    consumer = createSession("json")
+    publisher.sqsClient =
+      publisher.createSqsClient().also {
+        it.createQueue(
+          CreateQueueRequest("TRANSACTION.fifo")
+            .withAttributes(mapOf("FifoQueue" to "true", "VisibilityTimeout" to "30"))
+        )
+      }
+  }
+
+  @AfterEach
+  fun tearDown() {
+    publisher.getSqsClient().deleteQueue(publisher.getQueueUrl())
+    publisher.close()
+    consumer.close()
+  }
+
+  private fun createSession(eventCodec: String): SqsSession =
+    SqsSession(SqsConfig(false, "us-east-1", endpoint, true, 1, eventCodec), "test", TRANSACTION)
+
+  private fun event(id: Int, txnId: String): AnchorEvent =
+    AnchorEvent.builder()
+      .id("event-$id")
+      .type(TRANSACTION_STATUS_CHANGED)
+      .transaction(GetTransactionResponse.builder().id(txnId).build())
+      .build()
+
+  /** Reads and acknowledges the events until the count is reached or a read is empty. */
+  private fun readAll(count: Int): List<AnchorEvent> {
+    val events = mutableListOf<AnchorEvent>()
+    while (events.size < count) {
+      val readResponse = consumer.read()
+      if (readResponse.events.isEmpty()) break
+      events.addAll(readResponse.events)
+      consumer.ack(readResponse)
+    }
+    return events
+  }
+
+  @Test
+  fun `test the events are sent in batches and deleted when acknowledged`() {
+    val futures = (0 until 12).map { publisher.publishAsync(event(it, "txn-${it % 2}")) }
+    publisher.flush()
+    assertTrue(futures.all { it.isDone && !it.isCompletedExceptionally })
+
+    val events = readAll(12)
+    assertEquals(12, events.size)
+    // The events of a transaction are read in order.
+    for (txnId in listOf("txn-0", "txn-1")) {
+      val ids = events.filter { it.transaction.id == txnId }.map { it.id }
+      assertEquals(ids.sortedBy { it.removePrefix("event-").toInt() }, ids)
+    }
+    // The acknowledged events are deleted.
+    assertTrue(consumer.read().events.isEmpty())
+  }
+
+  @Test
+  fun `test the events are decoded with the codec of their attribute`() {
+    publisher.publish(event(0, "txn-0"))
+
+    val message =
+      publisher
+        .getSqsClient()
+        .receiveMessage(
+          ReceiveMessageRequest(publisher.getQueueUrl())
+            .withMessageAttributeNames(EventCodec.HEADER)
+            .withVisibilityTimeout(0)
+        )
+        .messages
+        .single()
+    assertEquals("avro", message.messageAttributes[EventCodec.HEADER]!!.stringValue)
+
+    // The consumer configured with the JSON codec decodes the event with the codec of its attribute.
+    val events = readAll(1)
+    assertEquals(listOf("event-0"), events.map { it.id })
+    assertEquals("txn-0", events[0].transaction.id)
+  }
+
+  @Test
+  fun `test the read waits for the events to arrive`() {
+    val start = System.nanoTime()
+    val readResponse = consumer.read()
+    val waitedMillis = (System.nanoTime() - start) / 1_000_000
+
+    assertTrue(readResponse.events.isEmpty())
+    // The read long-polls for the wait time of the session.
+    assertTrue(waitedMillis >= 900, "waited $waitedMillis ms")
+  }
+
+  @Test
+  fun `test the unprocessed events are released to be read again`() {
+    (0 until 3).forEach { publisher.publishAsync(event(it, "txn-0")) }
+    publisher.flush()
+
+    val readResponse: EventService.ReadResponse = consumer.read()
+    assertEquals(listOf("event-0", "event-1", "event-2"), readResponse.events.map { it.id })
+    consumer.ack(readResponse, 1)
+
+    // The released events are read again before the visibility timeout of 30 seconds.
+    assertEquals(listOf("event-1", "event-2"), readAll(2).map { it.id })
+  }
+}
@@ -0,0 +1,113 @@
+package org.stellar.anchor.platform.event
+
+import com.amazonaws.services.sqs.AmazonSQS
+import com.amazonaws.services.sqs.model.*
+import io.mockk.*
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import org.stellar.anchor.api.event.AnchorEvent
+import org.stellar.anchor.api.event.AnchorEvent.Type.TRANSACTION_STATUS_CHANGED
+import org.stellar.anchor.api.exception.EventPublishException
+import org.stellar.anchor.api.platform.GetTransactionResponse
+import org.stellar.anchor.event.EventService.EventQueue.TRANSACTION
+import org.stellar.anchor.platform.config.SqsConfig
+import org.stellar.anchor.util.GsonUtils
+
+class SqsSessionTest {
+  private val queueUrl = "http://localhost:9324/000000000000/TRANSACTION.fifo"
+  private lateinit var sqsClient: AmazonSQS
+  private lateinit var session: SqsSession
+
+  @BeforeEach
+  fun setup() {
+    sqsClient = mockk(relaxed = true)
+    every { sqsClient.getQueueUrl("TRANSACTION.fifo") } returns
+      GetQueueUrlResult().withQueueUrl(queueUrl)
+    session = SqsSession(SqsConfig(false, "us-east-1"), "test", TRANSACTION)
+    session.sqsClient = sqsClient
+  }
+
+  private fun event(id: Int): AnchorEvent =
+    AnchorEvent.builder()
+      .id("event-$id")
+      .type(TRANSACTION_STATUS_CHANGED)
+      .transaction(GetTransactionResponse.builder().id("txn-${id % 2}").build())
+      .build()
+
+  @Test
+  fun `test the events are sent in batches of ten`() {
+    val batches = mutableListOf<List<SendMessageBatchRequestEntry>>()
+    every { sqsClient.sendMessageBatch(queueUrl, capture(batches)) } answers
+      {
+        SendMessageBatchResult()
+          .withSuccessful(batches.last().map { SendMessageBatchResultEntry().withId(it.id) })
+      }
+
+    val futures = (0 until 12).map { session.publishAsync(event(it)) }
+    assertEquals(1, batches.size)
+    assertTrue(futures.take(10).all { it.isDone })
+    assertFalse(futures[10].isDone)
+
+    session.flush()
+    assertEquals(listOf(10, 2), batches.map { it.size })
+    assertTrue(futures.all { it.isDone && !it.isCompletedExceptionally })
+    // The queue URL is looked up once.
+    verify(exactly = 1) { sqsClient.getQueueUrl(any<String>()) }
+
+    val entry = batches[1][1]
+    assertEquals("txn-1", entry.messageGroupId)
+    assertEquals("event-11", entry.messageDeduplicationId)
+    val published = GsonUtils.getInstance().fromJson(entry.messageBody, AnchorEvent::class.java)
+    assertEquals("event-11", published.id)
+  }
+
+  @Test
+  fun `test the failed events of a batch are reported`() {
+    every { sqsClient.sendMessageBatch(queueUrl, any()) } returns
+      SendMessageBatchResult()
+        .withSuccessful(SendMessageBatchResultEntry().withId("0"))
+        .withFailed(BatchResultErrorEntry().withId("1").withCode("InternalError"))
+
+    val first = session.publishAsync(event(0))
+    val second = session.publishAsync(event(1))
+    session.flush()
+
+    assertFalse(first.isCompletedExceptionally)
+    assertTrue(second.isCompletedExceptionally)
+
+    every { sqsClient.sendMessageBatch(queueUrl, any()) } returns
+      SendMessageBatchResult().withFailed(BatchResultErrorEntry().withId("0"))
+    assertThrows<EventPublishException> { session.publish(event(2)) }
+  }
+
+  @Test
+  fun `test the processed messages are deleted and the others released`() {
+    val messages =
+      (0 until 3).map {
+        Message()
+          .withReceiptHandle("handle-$it")
+          .withBody(GsonUtils.getInstance().toJson(event(it)))
+      }
+    val request = slot<ReceiveMessageRequest>()
+    every { sqsClient.receiveMessage(capture(request)) } returns
+      ReceiveMessageResult().withMessages(messages)
+    val deletes = slot<List<DeleteMessageBatchRequestEntry>>()
+    every { sqsClient.deleteMessageBatch(queueUrl, capture(deletes)) } returns
+      DeleteMessageBatchResult()
+    val releases = slot<List<ChangeMessageVisibilityBatchRequestEntry>>()
+    every { sqsClient.changeMessageVisibilityBatch(queueUrl, capture(releases)) } returns
+      ChangeMessageVisibilityBatchResult()
+
+    val readResponse = session.read()
+    assertEquals(listOf("event-0", "event-1", "event-2"), readResponse.events.map { it.id })
+    assertEquals(10, request.captured.maxNumberOfMessages)
+    assertEquals(20, request.captured.waitTimeSeconds)
+
+    session.ack(readResponse, 2)
+    assertEquals(listOf("handle-0", "handle-1"), deletes.captured.map { it.receiptHandle })
+    assertEquals(listOf("handle-2"), releases.captured.map { it.receiptHandle })
+    assertEquals(0, releases.captured[0].visibilityTimeout)
+  }
+}
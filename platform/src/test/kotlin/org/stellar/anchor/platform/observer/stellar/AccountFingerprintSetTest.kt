@@ -0,0 +1,49 @@
+package org.stellar.anchor.platform.observer.stellar
+
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import org.stellar.sdk.KeyPair
+
+class AccountFingerprintSetTest {
+  @Test
+  fun `test added accounts are found and others are rejected`() {
+    val set = AccountFingerprintSet()
+    val added = (1..5000).map { KeyPair.random().accountId }
+    added.forEach { set.add(it) }
+
+    added.forEach { assertTrue(set.mightContain(it)) }
+    assertEquals(5000, set.size)
+    assertTrue(set.table.length() >= 10000)
+
+    val misses = (1..5000).count { set.mightContain(KeyPair.random().accountId) }
+    assertEquals(0, misses)
+  }
+
+  @Test
+  fun `test rebuild removes accounts`() {
+    val set = AccountFingerprintSet()
+    val kept = "GCK5ECMM67ZN7RWGUSDKQAW6CAF6Q5WYK2VQJ276SJMINU6WVCIQW6BL"
+    val removed = "GCIWQDKACLW26UJXY5CTLULVYUOYROZPAPDDYEQKNGIERVOAXSPLABMB"
+    set.add(kept)
+    set.add(removed)
+
+    set.rebuild(listOf(kept))
+    assertTrue(set.mightContain(kept))
+    assertFalse(set.mightContain(removed))
+    assertEquals(1, set.size)
+  }
+
+  @Test
+  fun `test accounts that cannot be fingerprinted are left to the map`() {
+    val set = AccountFingerprintSet()
+    assertEquals(AccountFingerprintSet.NO_FINGERPRINT, AccountFingerprintSet.fingerprint(null))
+    assertEquals(AccountFingerprintSet.NO_FINGERPRINT, AccountFingerprintSet.fingerprint("GABC"))
+    assertEquals(
+      AccountFingerprintSet.NO_FINGERPRINT,
+      AccountFingerprintSet.fingerprint(
+        "MA7QYNF7SOWQ3GLR2BGMZEHXAVIRZA4KVWLTJJFC7MGXUA74P7UJUAAAAAAAAAAAAGZFQ"
+      )
+    )
+    assertTrue(set.mightContain("GABC"))
+  }
+}
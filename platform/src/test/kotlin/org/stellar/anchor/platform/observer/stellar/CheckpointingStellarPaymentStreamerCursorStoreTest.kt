@@ -0,0 +1,71 @@
+package org.stellar.anchor.platform.observer.stellar
+
+import io.mockk.*
+import io.mockk.impl.annotations.MockK
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import org.springframework.transaction.CannotCreateTransactionException
+
+class CheckpointingStellarPaymentStreamerCursorStoreTest {
+  @MockK(relaxed = true) lateinit var delegate: StellarPaymentStreamerCursorStore
+
+  @BeforeEach
+  fun setUp() {
+    MockKAnnotations.init(this, relaxUnitFun = true)
+  }
+
+  @Test
+  fun `test cursor is flushed every N operations`() {
+    val store = CheckpointingStellarPaymentStreamerCursorStore(delegate, 3, Long.MAX_VALUE)
+
+    store.save("1")
+    store.save("2")
+    verify(exactly = 0) { delegate.save(any()) }
+    assertEquals("2", store.load())
+
+    store.save("3")
+    verify(exactly = 1) { delegate.save("3") }
+
+    store.save("4")
+    verify(exactly = 1) { delegate.save(any()) }
+  }
+
+  @Test
+  fun `test cursor is flushed when the interval elapses`() {
+    val store = CheckpointingStellarPaymentStreamerCursorStore(delegate, 100, 0)
+
+    store.save("1")
+    store.save("2")
+    verify(exactly = 1) { delegate.save("1") }
+    verify(exactly = 1) { delegate.save("2") }
+  }
+
+  @Test
+  fun `test explicit flush writes the pending cursor only once`() {
+    val store = CheckpointingStellarPaymentStreamerCursorStore(delegate, 100, Long.MAX_VALUE)
+
+    store.save("1")
+    store.flush()
+    store.flush()
+    verify(exactly = 1) { delegate.save("1") }
+
+    every { delegate.load() } returns "1"
+    assertEquals("1", store.load())
+  }
+
+  @Test
+  fun `test failed flush keeps the cursor pending`() {
+    val store = CheckpointingStellarPaymentStreamerCursorStore(delegate, 100, Long.MAX_VALUE)
+    every { delegate.save(any()) } throws CannotCreateTransactionException("db down")
+
+    store.save("1")
+    assertThrows<CannotCreateTransactionException> { store.flush() }
+    assertEquals("1", store.load())
+
+    every { delegate.save(any()) } just Runs
+    store.flush()
+    verify(exactly = 2) { delegate.save("1") }
+  }
+}
@@ -0,0 +1,113 @@
+package org.stellar.anchor.platform.observer.stellar
+
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import okhttp3.OkHttpClient
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.MockWebServer
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.stellar.anchor.platform.observer.stellar.ObservedPaymentDecoder.DecodedOperation
+
+class HorizonPaymentStreamTest {
+  private lateinit var server: MockWebServer
+  private val decoder = ObservedPaymentDecoder { false }
+  private val operations = CopyOnWriteArrayList<DecodedOperation>()
+  private val failures = CopyOnWriteArrayList<Throwable>()
+  private val failed = CountDownLatch(1)
+
+  private val listener =
+    object : HorizonPaymentStream.Listener {
+      override fun onEvent(operation: DecodedOperation) {
+        operations.add(operation)
+      }
+
+      override fun onFailure(error: Throwable) {
+        failures.add(error)
+        failed.countDown()
+      }
+    }
+
+  @BeforeEach
+  fun setup() {
+    server = MockWebServer()
+    server.start()
+  }
+
+  @AfterEach
+  fun tearDown() {
+    server.shutdown()
+  }
+
+  private fun event(pagingToken: Long) =
+    "id: $pagingToken\n" +
+      "data: {\"id\": \"$pagingToken\", \"paging_token\": \"$pagingToken\", " +
+      "\"transaction_successful\": true, \"type_i\": 0}\n\n"
+
+  @Test
+  fun `test the events are decoded and the stream reconnects from the last event`() {
+    server.enqueue(
+      MockResponse()
+        .setHeader("Content-Type", "text/event-stream")
+        .setBody("retry: 10\ndata: \"hello\"\n\n: comment\n\n${event(101)}${event(102)}")
+    )
+    server.enqueue(MockResponse().setResponseCode(500))
+
+    val stream =
+      HorizonPaymentStream.open(
+        OkHttpClient(),
+        server.url("/").toString(),
+        null,
+        "100",
+        200,
+        decoder,
+        listener
+      )
+
+    assertTrue(failed.await(5, TimeUnit.SECONDS))
+    assertEquals(listOf("101", "102"), operations.map { it.pagingToken })
+    assertTrue(operations.all { it.isSuccessful && it.payment == null })
+    assertEquals(1, failures.size)
+    assertTrue(stream.isStopped)
+    assertEquals("102", stream.lastEventId)
+
+    val first = server.takeRequest()
+    assertEquals("/payments", first.requestUrl!!.encodedPath)
+    assertEquals("100", first.requestUrl!!.queryParameter("cursor"))
+    assertEquals("asc", first.requestUrl!!.queryParameter("order"))
+    assertEquals("transactions", first.requestUrl!!.queryParameter("join"))
+    assertEquals("text/event-stream", first.getHeader("Accept"))
+    assertEquals("102", server.takeRequest().requestUrl!!.queryParameter("cursor"))
+    stream.close()
+  }
+
+  @Test
+  fun `test the account stream reads the payments of the account`() {
+    server.enqueue(MockResponse().setResponseCode(404))
+
+    val stream =
+      HorizonPaymentStream.open(
+        OkHttpClient(),
+        server.url("/").toString(),
+        "GA5ZSEJYB37JRC5AVCIA5MOP4RHTM335X2KGX3IHOJAPP5RE34K4KZVN",
+        null,
+        200,
+        decoder,
+        listener
+      )
+
+    assertTrue(failed.await(5, TimeUnit.SECONDS))
+    val request = server.takeRequest()
+    assertEquals(
+      "/accounts/GA5ZSEJYB37JRC5AVCIA5MOP4RHTM335X2KGX3IHOJAPP5RE34K4KZVN/payments",
+      request.requestUrl!!.encodedPath
+    )
+    assertNull(request.requestUrl!!.queryParameter("cursor"))
+    assertTrue(operations.isEmpty())
+    stream.close()
+    assertTrue(stream.isThreadShutdown)
+  }
+}
@@ -0,0 +1,209 @@
+package org.stellar.anchor.platform.observer.stellar
+
+import com.google.gson.reflect.TypeToken
+import java.io.StringReader
+import java.lang.management.ManagementFactory
+import java.util.Base64
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import org.stellar.anchor.platform.observer.ObservedPayment
+import org.stellar.sdk.responses.GsonSingleton
+import org.stellar.sdk.responses.Page
+import org.stellar.sdk.responses.operations.OperationResponse
+import org.stellar.sdk.responses.operations.PathPaymentBaseOperationResponse
+import org.stellar.sdk.responses.operations.PaymentOperationResponse
+
+class ObservedPaymentDecoderTest {
+  companion object {
+    private const val OBSERVED = "GBZ4HPSEHKEEJ6MOZBSVV2B3LE27EZLV6LJY55G47V7BGBODWUXQM364"
+    private const val OTHER = "GA5ZSEJYB37JRC5AVCIA5MOP4RHTM335X2KGX3IHOJAPP5RE34K4KZVN"
+    private const val ISSUER = "GDQOE23CFSUMSVQK4Y5JHPPYK73VYCNHZHA7ENKCV37P6SUEO6XQBKPP"
+  }
+
+  private val decoder = ObservedPaymentDecoder { it == OBSERVED }
+
+  private fun base64(value: String) = Base64.getEncoder().encodeToString(value.toByteArray())
+
+  private fun transaction(memoType: String, memo: String?) =
+    """{
+      "id": "4f1f2a2bd64a8e9d6a0c1b61bd1e3da4b3c9a7fb0eb21e66d39c4a8d5f0e6c11",
+      "paging_token": "4322708489777152",
+      "successful": true,
+      "hash": "4f1f2a2bd64a8e9d6a0c1b61bd1e3da4b3c9a7fb0eb21e66d39c4a8d5f0e6c11",
+      "ledger": 1006443,
+      "created_at": "2023-05-10T12:00:00Z",
+      "source_account": "$OTHER",
+      "source_account_sequence": "4322708489777151",
+      "fee_charged": "100",
+      "max_fee": "100",
+      "operation_count": 1,
+      "envelope_xdr": "${"A".repeat(400)}",
+      "result_xdr": "AAAAAAAAAGQAAAAAAAAAAQAAAAAAAAABAAAAAAAAAAA=",
+      "result_meta_xdr": "${"B".repeat(1200)}",
+      "fee_meta_xdr": "${"C".repeat(300)}",
+      "memo_type": "$memoType",
+      ${if (memo != null) "\"memo\": \"$memo\"," else ""}
+      ${if (memoType == "text") "\"memo_bytes\": \"${base64(memo!!)}\"," else ""}
+      "signatures": ["${"D".repeat(88)}"],
+      "valid_after": "1970-01-01T00:00:00Z"
+    }"""
+
+  private fun payment(
+    pagingToken: Long,
+    to: String,
+    successful: Boolean = true,
+    memoType: String = "text",
+    memo: String? = "123"
+  ) =
+    """{
+      "id": "$pagingToken",
+      "paging_token": "$pagingToken",
+      "transaction_successful": $successful,
+      "source_account": "$OTHER",
+      "type": "payment",
+      "type_i": 1,
+      "created_at": "2023-05-10T12:00:00Z",
+      "transaction_hash": "4f1f2a2bd64a8e9d6a0c1b61bd1e3da4b3c9a7fb0eb21e66d39c4a8d5f0e6c11",
+      "asset_type": "credit_alphanum4",
+      "asset_code": "USDC",
+      "asset_issuer": "$ISSUER",
+      "from": "$OTHER",
+      "to": "$to",
+      "amount": "10.0000000",
+      "transaction": ${transaction(memoType, memo)}
+    }"""
+
+  private fun pathPayment(pagingToken: Long) =
+    """{
+      "id": "$pagingToken",
+      "paging_token": "$pagingToken",
+      "transaction_successful": true,
+      "source_account": "$OTHER",
+      "type": "path_payment_strict_send",
+      "type_i": 13,
+      "created_at": "2023-05-10T12:00:00Z",
+      "transaction_hash": "4f1f2a2bd64a8e9d6a0c1b61bd1e3da4b3c9a7fb0eb21e66d39c4a8d5f0e6c11",
+      "asset_type": "credit_alphanum4",
+      "asset_code": "USDC",
+      "asset_issuer": "$ISSUER",
+      "from": "$OTHER",
+      "to": "$OBSERVED",
+      "amount": "10.0000000",
+      "path": [],
+      "source_amount": "5.0000000",
+      "destination_min": "9.0000000",
+      "source_asset_type": "native",
+      "transaction": ${transaction("id", "42")}
+    }"""
+
+  private fun createAccount(pagingToken: Long) =
+    """{
+      "id": "$pagingToken",
+      "paging_token": "$pagingToken",
+      "transaction_successful": true,
+      "source_account": "$OTHER",
+      "type": "create_account",
+      "type_i": 0,
+      "created_at": "2023-05-10T12:00:00Z",
+      "transaction_hash": "4f1f2a2bd64a8e9d6a0c1b61bd1e3da4b3c9a7fb0eb21e66d39c4a8d5f0e6c11",
+      "starting_balance": "10000.0000000",
+      "funder": "$OTHER",
+      "account": "$OBSERVED",
+      "transaction": ${transaction("none", null)}
+    }"""
+
+  private fun page(vararg records: String) =
+    """{
+      "_links": {"self": {"href": ""}, "next": {"href": ""}, "prev": {"href": ""}},
+      "_embedded": {"records": [${records.joinToString(",")}]}
+    }"""
+
+  private fun sdkDecode(json: String): List<ObservedPayment?> {
+    val pageType = object : TypeToken<Page<OperationResponse>>() {}.type
+    val page: Page<OperationResponse> = GsonSingleton.getInstance().fromJson(json, pageType)
+    return page.records.map {
+      when (it) {
+        is PaymentOperationResponse ->
+          if (it.to == OBSERVED || it.from == OBSERVED)
+            ObservedPayment.fromPaymentOperationResponse(it)
+          else null
+        is PathPaymentBaseOperationResponse ->
+          if (it.to == OBSERVED || it.from == OBSERVED)
+            ObservedPayment.fromPathPaymentOperationResponse(it)
+          else null
+        else -> null
+      }
+    }
+  }
+
+  private fun decode(json: String) = decoder.decodePage(StringReader(json))
+
+  @Test
+  fun `test payments are decoded the same as the SDK`() {
+    val json =
+      page(
+        payment(4322708489777153, OBSERVED),
+        pathPayment(4322708489777154),
+        payment(
+          4322708489777155,
+          OBSERVED,
+          memoType = "hash",
+          memo = "AQIDBAUGBwgJCgsMDQ4PEBESExQVFhcYGRobHB0eHyA="
+        )
+      )
+
+    val decoded = decode(json)
+    assertEquals(3, decoded.size)
+    assertEquals(sdkDecode(json), decoded.map { it.payment })
+    assertEquals(
+      "0102030405060708090a0b0c0d0e0f101112131415161718191a1b1c1d1e1f20",
+      decoded[2].payment.transactionMemo
+    )
+    assertEquals(4322708489777153 shr 32, decoded[0].ledger)
+  }
+
+  @Test
+  fun `test irrelevant operations are not decoded`() {
+    val decoded =
+      decode(
+        page(
+          createAccount(4322708489777153),
+          payment(4322708489777154, OTHER),
+          payment(4322708489777155, OBSERVED, successful = false)
+        )
+      )
+
+    assertEquals(
+      listOf("4322708489777153", "4322708489777154", "4322708489777155"),
+      decoded.map { it.pagingToken }
+    )
+    decoded.forEach { assertNull(it.payment) }
+    assertTrue(decoded[0].isSuccessful)
+    assertFalse(decoded[2].isSuccessful)
+  }
+
+  @Test
+  fun `test decoding allocates less than the SDK`() {
+    // Most of the payments on the network are not to or from an observed account.
+    val records =
+      (0 until 200).map { payment(4322708489777153 + it, if (it % 50 == 0) OBSERVED else OTHER) }
+    val json = page(*records.toTypedArray())
+
+    val threadMXBean = ManagementFactory.getThreadMXBean() as com.sun.management.ThreadMXBean
+    val threadId = Thread.currentThread().id
+    fun allocatedBytes(block: () -> Unit): Long {
+      // warm up
+      repeat(5) { block() }
+      val before = threadMXBean.getThreadAllocatedBytes(threadId)
+      repeat(20) { block() }
+      return (threadMXBean.getThreadAllocatedBytes(threadId) - before) / 20
+    }
+
+    val sdkBytes = allocatedBytes { sdkDecode(json) }
+    val decoderBytes = allocatedBytes { decode(json) }
+    assertTrue(
+      decoderBytes < sdkBytes / 2,
+      "Allocated bytes per page: sdk=$sdkBytes, decoder=$decoderBytes"
+    )
+  }
+}
@@ -0,0 +1,176 @@
+package org.stellar.anchor.platform.observer.stellar
+
+import io.mockk.*
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import org.stellar.anchor.api.exception.EventPublishException
+import org.stellar.anchor.platform.observer.ObservedPayment
+import org.stellar.anchor.platform.observer.PaymentListener
+
+class PaymentDispatcherTest {
+  private val listener: PaymentListener = mockk(relaxed = true)
+  private lateinit var dispatcher: PaymentDispatcher
+
+  @AfterEach
+  fun tearDown() {
+    dispatcher.shutdown()
+  }
+
+  private fun payment(id: String, to: String) =
+    ObservedPayment.builder().id(id).to(to).from("GFROM").build()
+
+  @Test
+  fun `test cursor does not pass the payments in flight`() {
+    val blocked = CountDownLatch(1)
+    every { listener.onReceived(match { it.id == "1" }) } answers { blocked.await() }
+    dispatcher = PaymentDispatcher(listOf(listener), 2, 10, 1, {}, {})
+
+    assertEquals("100", dispatcher.processedCursor("100"))
+
+    dispatcher.dispatch("101", payment("1", "GA"), true, false)
+    dispatcher.dispatch("102", payment("2", "GB"), true, false)
+    assertEquals("100", dispatcher.processedCursor("103"))
+
+    blocked.countDown()
+    verify(timeout = 1000) { listener.onReceived(match { it.id == "1" }) }
+    waitUntil { dispatcher.inFlight.isEmpty() }
+    assertEquals("103", dispatcher.processedCursor("103"))
+  }
+
+  @Test
+  fun `test payments to the same account are processed in order`() {
+    val received = mutableListOf<String>()
+    every { listener.onReceived(any()) } answers
+      {
+        synchronized(received) { received.add(firstArg<ObservedPayment>().id) }
+      }
+    dispatcher = PaymentDispatcher(listOf(listener), 4, 10, 1, {}, {})
+
+    for (i in 1..50) {
+      dispatcher.dispatch("${100 + i}", payment("$i", "GA"), true, false)
+    }
+    waitUntil { dispatcher.inFlight.isEmpty() }
+    assertEquals((1..50).map { "$it" }, received)
+  }
+
+  @Test
+  fun `test failed payment holds the cursor until reset`() {
+    val failures = mutableListOf<Throwable>()
+    every { listener.onReceived(any()) } throws EventPublishException("failed")
+    dispatcher = PaymentDispatcher(listOf(listener), 1, 10, 1, {}, { failures.add(it) })
+
+    dispatcher.dispatch("101", payment("1", "GA"), true, false)
+    waitUntil { failures.isNotEmpty() }
+    assertEquals("100", dispatcher.processedCursor("105"))
+
+    dispatcher.reset()
+    assertEquals("105", dispatcher.processedCursor("105"))
+  }
+
+  @Test
+  fun `test failed payment stops the later payments of the account until reset`() {
+    val failures = mutableListOf<Throwable>()
+    val blocked = CountDownLatch(1)
+    every { listener.onReceived(match { it.id == "1" }) } answers
+      {
+        blocked.await()
+        throw EventPublishException("failed")
+      }
+    dispatcher = PaymentDispatcher(listOf(listener), 1, 10, 1, {}, { failures.add(it) })
+
+    dispatcher.dispatch("101", payment("1", "GA"), true, false)
+    dispatcher.dispatch("102", payment("2", "GA"), true, false)
+    dispatcher.dispatch("103", payment("3", "GB"), true, false)
+    blocked.countDown()
+
+    verify(timeout = 1000) { listener.onReceived(match { it.id == "3" }) }
+    verify(exactly = 0) { listener.onReceived(match { it.id == "2" }) }
+    assertEquals(1, failures.size)
+    assertEquals("100", dispatcher.processedCursor("105"))
+
+    dispatcher.reset()
+    dispatcher.dispatch("102", payment("2", "GA"), true, false)
+    verify(timeout = 1000) { listener.onReceived(match { it.id == "2" }) }
+  }
+
+  @Test
+  fun `test queued payments are sent to the listeners in batches`() {
+    val blocked = CountDownLatch(1)
+    val batches = mutableListOf<List<String>>()
+    every { listener.onBatchReceived(any()) } answers
+      {
+        blocked.await()
+        synchronized(batches) { batches.add(firstArg<List<ObservedPayment>>().map { it.id }) }
+      }
+    dispatcher = PaymentDispatcher(listOf(listener), 1, 10, 3, {}, {})
+
+    for (i in 1..7) {
+      dispatcher.dispatch("${100 + i}", payment("$i", "GA"), true, i == 2)
+    }
+    blocked.countDown()
+    waitUntil { dispatcher.inFlight.isEmpty() }
+
+    // The worker may have taken the first payment before the others were queued.
+    assertEquals((1..7).map { "$it" }, batches.flatten())
+    assertTrue(batches.all { it.size <= 3 })
+    verify(exactly = 1) { listener.onSent(match { it.id == "2" }) }
+    verify(exactly = 0) { listener.onReceived(any()) }
+  }
+
+  @Test
+  fun `test sent payments are completed in the order they were dispatched`() {
+    val blocked = CountDownLatch(1)
+    val sent = mutableListOf<String>()
+    every { listener.onReceived(match { it.id == "1" }) } answers { blocked.await() }
+    every { listener.onSent(any()) } answers
+      {
+        synchronized(sent) { sent.add(firstArg<ObservedPayment>().id) }
+      }
+    dispatcher = PaymentDispatcher(listOf(listener), 2, 10, 1, {}, {})
+
+    dispatcher.dispatch("101", payment("1", "GA"), true, true)
+    dispatcher.dispatch("102", payment("2", "GB"), true, true)
+    // The second payment is processed by the other worker, but waits for the first one.
+    verify(timeout = 1000) { listener.onReceived(match { it.id == "2" }) }
+    Thread.sleep(100)
+    assertEquals(listOf<String>(), synchronized(sent) { sent.toList() })
+    assertEquals("100", dispatcher.processedCursor("102"))
+
+    blocked.countDown()
+    waitUntil { dispatcher.inFlight.isEmpty() }
+    assertEquals(listOf("1", "2"), sent)
+    assertEquals("102", dispatcher.processedCursor("102"))
+  }
+
+  @Test
+  fun `test failed payment holds the sent payments dispatched after it`() {
+    val failures = mutableListOf<Throwable>()
+    val blocked = CountDownLatch(1)
+    every { listener.onReceived(match { it.id == "1" }) } answers
+      {
+        blocked.await()
+        throw EventPublishException("failed")
+      }
+    dispatcher = PaymentDispatcher(listOf(listener), 2, 10, 1, {}, { failures.add(it) })
+
+    dispatcher.dispatch("101", payment("1", "GA"), true, false)
+    dispatcher.dispatch("102", payment("2", "GB"), true, true)
+    verify(timeout = 1000) { listener.onReceived(match { it.id == "2" }) }
+    blocked.countDown()
+    waitUntil { failures.isNotEmpty() }
+
+    verify(exactly = 0) { listener.onSent(any()) }
+    assertEquals("100", dispatcher.processedCursor("105"))
+  }
+
+  private fun waitUntil(condition: () -> Boolean) {
+    val deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5)
+    while (!condition()) {
+      assertTrue(System.nanoTime() < deadline, "timed out")
+      Thread.sleep(10)
+    }
+  }
+}
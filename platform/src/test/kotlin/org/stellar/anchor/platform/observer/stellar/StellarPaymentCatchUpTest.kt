@@ -0,0 +1,59 @@
+package org.stellar.anchor.platform.observer.stellar
+
+import io.mockk.*
+import java.io.IOException
+import okhttp3.OkHttpClient
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import org.stellar.anchor.platform.observer.stellar.ObservedPaymentDecoder.DecodedOperation
+
+class StellarPaymentCatchUpTest {
+  private val httpClient: OkHttpClient = mockk(relaxed = true)
+  private val decoder: ObservedPaymentDecoder = mockk(relaxed = true)
+
+  private fun catchUp() =
+    spyk(StellarPaymentCatchUp("https://horizon-testnet.stellar.org", httpClient, decoder, 3, 2))
+
+  private fun operation(pagingToken: Long) =
+    DecodedOperation(pagingToken.toString(), pagingToken.toString(), true, null)
+
+  @Test
+  fun `test catch-up processes all pages in order until the tip`() {
+    val catchUp = catchUp()
+    every { catchUp.fetchPage("100") } returns listOf(operation(101), operation(102), operation(103))
+    every { catchUp.fetchPage("103") } returns listOf(operation(104), operation(105), operation(106))
+    every { catchUp.fetchPage("106") } returns listOf(operation(107))
+
+    val processed = mutableListOf<String>()
+    val cursor = catchUp.run("100", { processed.add(it.pagingToken) }, { true })
+
+    assertEquals("107", cursor)
+    assertEquals((101..107).map { it.toString() }, processed)
+    verify(exactly = 0) { catchUp.fetchPage("107") }
+  }
+
+  @Test
+  fun `test catch-up stops when the observer is not running`() {
+    val catchUp = catchUp()
+    every { catchUp.fetchPage(any()) } answers
+      {
+        val start = firstArg<String>().toLong()
+        listOf(operation(start + 1), operation(start + 2), operation(start + 3))
+      }
+
+    val processed = mutableListOf<String>()
+    val cursor = catchUp.run("100", { processed.add(it.pagingToken) }, { processed.size < 4 })
+
+    assertEquals("104", cursor)
+    assertEquals(4, processed.size)
+  }
+
+  @Test
+  fun `test catch-up throws the fetch error`() {
+    val catchUp = catchUp()
+    every { catchUp.fetchPage("100") } throws IOException("network error")
+
+    assertThrows<IOException> { catchUp.run("100", {}, { true }) }
+  }
+}
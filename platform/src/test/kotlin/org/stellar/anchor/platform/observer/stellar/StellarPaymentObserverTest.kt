@@ -6,17 +6,21 @@ import com.google.gson.reflect.TypeToken
 import io.mockk.*
 import io.mockk.impl.annotations.MockK
 import java.io.IOException
+import java.time.Instant
 import java.util.*
 import javax.net.ssl.SSLProtocolException
+import okhttp3.OkHttpClient
 import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
 import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Assertions.assertTrue
 import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
 import org.stellar.anchor.api.platform.HealthCheckStatus.RED
 import org.stellar.anchor.platform.config.PaymentObserverConfig.StellarPaymentObserverConfig
+import org.stellar.anchor.platform.observer.stellar.ObservedPaymentDecoder.DecodedOperation
 import org.stellar.sdk.Server
 import org.stellar.sdk.requests.RequestBuilder
-import org.stellar.sdk.requests.SSEStream
 import org.stellar.sdk.responses.GsonSingleton
 import org.stellar.sdk.responses.Page
 import org.stellar.sdk.responses.operations.OperationResponse
@@ -29,7 +33,8 @@ class StellarPaymentObserverTest {
   @MockK lateinit var paymentStreamerCursorStore: StellarPaymentStreamerCursorStore
   @MockK lateinit var paymentObservingAccountsManager: PaymentObservingAccountsManager
 
-  val stellarPaymentObserverConfig = StellarPaymentObserverConfig(1, 5, 1, 1, 2, 1, 2)
+  val stellarPaymentObserverConfig =
+    StellarPaymentObserverConfig(1, 5, 1, 1, 2, 1, 2, 1, 0, 0, 0, 0, 0, 1)
 
   @BeforeEach
   fun setUp() {
@@ -47,7 +52,8 @@ class StellarPaymentObserverTest {
           stellarPaymentObserverConfig,
           null,
           paymentObservingAccountsManager,
-          paymentStreamerCursorStore
+          paymentStreamerCursorStore,
+          OkHttpClient()
         )
       )
 
@@ -66,7 +72,8 @@ class StellarPaymentObserverTest {
         stellarPaymentObserverConfig,
         null,
         paymentObservingAccountsManager,
-        paymentStreamerCursorStore
+        paymentStreamerCursorStore,
+        OkHttpClient()
       )
 
     // 2.1 If fetching from the network throws an error, we return `null`
@@ -146,8 +153,8 @@ class StellarPaymentObserverTest {
   }
 
   @Test
-  fun `test if SSEStream exception will leave the observer in STREAM_ERROR state`() {
-    val stream: SSEStream<OperationResponse> = mockk(relaxed = true)
+  fun `test if stream exception will leave the observer in STREAM_ERROR state`() {
+    val stream: HorizonPaymentStream = mockk(relaxed = true)
     val observer =
       spyk(
         StellarPaymentObserver(
@@ -155,15 +162,80 @@ class StellarPaymentObserverTest {
           stellarPaymentObserverConfig,
           null,
           paymentObservingAccountsManager,
-          paymentStreamerCursorStore
+          paymentStreamerCursorStore,
+          OkHttpClient()
         )
       )
     every { observer.startSSEStream() } returns stream
     observer.start()
+    // The stream stops when it fails.
+    every { stream.isStopped } returns true
     observer.handleFailure(Optional.of(SSLProtocolException("")))
     assertEquals(ObserverStatus.STREAM_ERROR, observer.status)
 
     val checkResult = observer.check()
     assertEquals(RED, checkResult.status)
   }
+
+  @Test
+  fun `test account streams are used below the threshold and their events are de-duplicated`() {
+    val config = StellarPaymentObserverConfig(1, 5, 1, 1, 2, 1, 2, 1, 0, 0, 0, 0, 2, 1)
+    val observer =
+      spyk(
+        StellarPaymentObserver(
+          TEST_HORIZON_URI,
+          config,
+          null,
+          paymentObservingAccountsManager,
+          paymentStreamerCursorStore,
+          OkHttpClient()
+        )
+      )
+
+    every { paymentObservingAccountsManager.size() } returns 2
+    assertTrue(observer.useAccountStreams())
+    every { paymentObservingAccountsManager.size() } returns 3
+    assertFalse(observer.useAccountStreams())
+
+    every { observer.processDecodedOperation(any()) } just Runs
+    observer.accountStreamMode = true
+    val op: DecodedOperation = mockk(relaxed = true)
+    every { op.pagingToken } returns "1005"
+    observer.accountStreamCursors["GA"] = 1000
+    observer.accountStreamCursors["GB"] = 1000
+
+    observer.processAccountStreamOperation("GA", op)
+    observer.processAccountStreamOperation("GB", op)
+    verify(exactly = 1) { observer.processDecodedOperation(op) }
+    assertEquals("1005", observer.processedCursor("1005"))
+
+    every { op.pagingToken } returns "1010"
+    observer.processAccountStreamOperation("GA", op)
+    assertEquals("1005", observer.processedCursor("1010"))
+  }
+
+  @Test
+  fun `test idle account streams do not hold the cursor back`() {
+    val observer =
+      spyk(
+        StellarPaymentObserver(
+          TEST_HORIZON_URI,
+          stellarPaymentObserverConfig,
+          null,
+          paymentObservingAccountsManager,
+          paymentStreamerCursorStore,
+          OkHttpClient()
+        )
+      )
+    observer.accountStreamMode = true
+    observer.accountStreamCursors["GA"] = 1000
+    observer.accountStreamCursors["GB"] = 900
+    observer.accountStreamActivityTimes["GA"] = Instant.now()
+    observer.accountStreamActivityTimes["GB"] = Instant.now()
+    assertEquals("900", observer.processedCursor("1000"))
+
+    // The stream of GB has been silent for longer than the silence timeout.
+    observer.accountStreamActivityTimes["GB"] = Instant.now().minusSeconds(60)
+    assertEquals("1000", observer.processedCursor("1000"))
+  }
 }
@@ -0,0 +1,152 @@
+package org.stellar.anchor.platform.service
+
+import io.mockk.*
+import io.mockk.impl.annotations.MockK
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.stellar.anchor.platform.data.*
+import org.stellar.anchor.platform.observer.ObservedPayment
+
+class PaymentTransactionMatcherTest {
+  companion object {
+    private const val ACCOUNT = "GBZ4HPSEHKEEJ6MOZBSVV2B3LE27EZLV6LJY55G47V7BGBODWUXQM364"
+    private const val OTHER_ACCOUNT = "GA5ZSEJYB37JRC5AVCIA5MOP4RHTM335X2KGX3IHOJAPP5RE34K4KZVN"
+  }
+
+  @MockK(relaxed = true) private lateinit var sep31TransactionStore: JdbcSep31TransactionStore
+  @MockK(relaxed = true) private lateinit var sep24TransactionStore: JdbcSep24TransactionStore
+  @MockK(relaxed = true) private lateinit var sep6TransactionStore: JdbcSep6TransactionStore
+
+  private lateinit var matcher: PaymentTransactionMatcher
+
+  @BeforeEach
+  fun setup() {
+    MockKAnnotations.init(this, relaxUnitFun = true)
+    matcher =
+      PaymentTransactionMatcher(sep31TransactionStore, sep24TransactionStore, sep6TransactionStore)
+    every {
+      sep31TransactionStore.findByStellarAccountIdsAndMemosAndStatus(any(), any(), any())
+    } returns listOf()
+    every {
+      sep24TransactionStore.findByToAccountsAndMemosAndStatus(any(), any(), any())
+    } returns listOf()
+    every {
+      sep6TransactionStore.findByWithdrawAnchorAccountsAndMemosAndStatus(any(), any(), any())
+    } returns listOf()
+  }
+
+  private fun payment(id: String, to: String, memo: String) =
+    ObservedPayment.builder()
+      .id(id)
+      .to(to)
+      .assetType("credit_alphanum4")
+      .transactionHash("hash-$id")
+      .transactionMemo(memo)
+      .transactionMemoType("text")
+      .build()
+
+  @Test
+  fun `test payments are matched with one query per table`() {
+    val p1 = payment("1", ACCOUNT, "memo_1")
+    val p2 = payment("2", ACCOUNT, "memo_2")
+    val p3 = payment("3", OTHER_ACCOUNT, "memo_3")
+    val p4 = payment("4", OTHER_ACCOUNT, "memo_1")
+
+    val sep31Txn = JdbcSep31Transaction()
+    sep31Txn.id = "sep31"
+    sep31Txn.stellarAccountId = ACCOUNT
+    sep31Txn.stellarMemo = "memo_1"
+    every {
+      sep31TransactionStore.findByStellarAccountIdsAndMemosAndStatus(
+        setOf(ACCOUNT, OTHER_ACCOUNT),
+        setOf("memo_1", "memo_2", "memo_3"),
+        "pending_sender"
+      )
+    } returns listOf(sep31Txn)
+
+    val sep24Txn = JdbcSep24Transaction()
+    sep24Txn.id = "sep24"
+    sep24Txn.toAccount = OTHER_ACCOUNT
+    sep24Txn.memo = "memo_3"
+    // Matches the account of p4 and the memo of p2, but not the pair of either.
+    val sep24Other = JdbcSep24Transaction()
+    sep24Other.id = "sep24-other"
+    sep24Other.toAccount = OTHER_ACCOUNT
+    sep24Other.memo = "memo_2"
+    every {
+      sep24TransactionStore.findByToAccountsAndMemosAndStatus(
+        setOf(ACCOUNT, OTHER_ACCOUNT),
+        setOf("memo_1", "memo_2", "memo_3"),
+        "pending_user_transfer_start"
+      )
+    } returns listOf(sep24Txn, sep24Other)
+
+    val sep6Txn = JdbcSep6Transaction()
+    sep6Txn.id = "sep6"
+    sep6Txn.withdrawAnchorAccount = ACCOUNT
+    sep6Txn.memo = "memo_2"
+    every {
+      sep6TransactionStore.findByWithdrawAnchorAccountsAndMemosAndStatus(
+        setOf(ACCOUNT, OTHER_ACCOUNT),
+        setOf("memo_2", "memo_1"),
+        "pending_user_transfer_start"
+      )
+    } returns listOf(sep6Txn)
+
+    val matches = matcher.match(listOf(p1, p2, p3, p4))
+
+    assertEquals(3, matches.size)
+    assertSame(sep31Txn, matches[p1])
+    assertSame(sep6Txn, matches[p2])
+    assertSame(sep24Txn, matches[p3])
+    assertNull(matches[p4])
+    verify(exactly = 1) {
+      sep31TransactionStore.findByStellarAccountIdsAndMemosAndStatus(any(), any(), any())
+    }
+    verify(exactly = 1) {
+      sep24TransactionStore.findByToAccountsAndMemosAndStatus(any(), any(), any())
+    }
+    verify(exactly = 1) {
+      sep6TransactionStore.findByWithdrawAnchorAccountsAndMemosAndStatus(any(), any(), any())
+    }
+  }
+
+  @Test
+  fun `test only the first payment with the same account and memo is matched`() {
+    val p1 = payment("1", ACCOUNT, "memo_1")
+    val p2 = payment("2", ACCOUNT, "memo_1")
+    val sep31Txn = JdbcSep31Transaction()
+    sep31Txn.stellarAccountId = ACCOUNT
+    sep31Txn.stellarMemo = "memo_1"
+    every {
+      sep31TransactionStore.findByStellarAccountIdsAndMemosAndStatus(any(), any(), any())
+    } returns listOf(sep31Txn)
+
+    val matches = matcher.match(listOf(p1, p2))
+
+    assertSame(sep31Txn, matches[p1])
+    assertFalse(matches.containsKey(p2))
+  }
+
+  @Test
+  fun `test hash memos are queried in base64 and unmatchable payments are ignored`() {
+    val hashPayment = payment("1", ACCOUNT, "0102030405060708090a0b0c0d0e0f10")
+    hashPayment.transactionMemoType = "hash"
+    val noMemo = payment("2", ACCOUNT, "")
+    val unsupportedAsset = payment("3", ACCOUNT, "memo_3")
+    unsupportedAsset.assetType = "liquidity_pool_shares"
+
+    val memos = slot<Collection<String>>()
+    every {
+      sep31TransactionStore.findByStellarAccountIdsAndMemosAndStatus(any(), capture(memos), any())
+    } returns listOf()
+
+    assertTrue(matcher.match(listOf(hashPayment, noMemo, unsupportedAsset)).isEmpty())
+    assertEquals(setOf("AQIDBAUGBwgJCgsMDQ4PEA=="), memos.captured)
+
+    clearMocks(sep31TransactionStore)
+    assertTrue(matcher.match(listOf(noMemo, unsupportedAsset)).isEmpty())
+    verify { sep31TransactionStore wasNot Called }
+  }
+}
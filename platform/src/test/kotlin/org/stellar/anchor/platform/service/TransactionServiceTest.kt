@@ -4,6 +4,7 @@ import io.mockk.MockKAnnotations
 import io.mockk.every
 import io.mockk.impl.annotations.MockK
 import io.mockk.verify
+import java.time.Instant
 import org.junit.jupiter.api.Assertions.*
 import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
@@ -15,12 +16,16 @@ import org.junit.jupiter.params.provider.NullSource
 import org.junit.jupiter.params.provider.ValueSource
 import org.skyscreamer.jsonassert.JSONAssert
 import org.skyscreamer.jsonassert.JSONCompareMode.LENIENT
+import org.springframework.data.domain.Sort
 import org.stellar.anchor.api.exception.AnchorException
 import org.stellar.anchor.api.exception.BadRequestException
 import org.stellar.anchor.api.exception.NotFoundException
+import org.stellar.anchor.api.exception.SepException
 import org.stellar.anchor.api.platform.PatchTransactionRequest
 import org.stellar.anchor.api.platform.PatchTransactionsRequest
 import org.stellar.anchor.api.platform.PlatformTransactionData
+import org.stellar.anchor.api.platform.TransactionsOrderBy.CREATED_AT
+import org.stellar.anchor.api.platform.TransactionsSeps
 import org.stellar.anchor.api.sep.SepTransactionStatus
 import org.stellar.anchor.api.shared.*
 import org.stellar.anchor.asset.AssetService
@@ -41,6 +46,8 @@ import org.stellar.anchor.sep6.Sep6DepositInfoGenerator
 import org.stellar.anchor.sep6.Sep6Transaction
 import org.stellar.anchor.sep6.Sep6TransactionStore
 import org.stellar.anchor.util.GsonUtils
+import org.stellar.anchor.util.TransactionsCursor
+import org.stellar.anchor.util.TransactionsParams
 
 @Suppress("unused")
 class TransactionServiceTest {
@@ -108,6 +115,49 @@ class TransactionServiceTest {
     assertEquals("transaction (id=not-found-tx-id) is not found", ex.message)
   }
 
+  @Test
+  fun `test find transactions returns the cursor of the next page`() {
+    val (txn1, txn2) =
+      listOf("2024-01-01T00:00:00Z", "2024-01-02T00:00:00Z").mapIndexed { i, startedAt ->
+        val txn = JdbcSep24Transaction()
+        txn.id = "txn-${i + 1}"
+        txn.kind = "deposit"
+        txn.status = "pending_anchor"
+        txn.startedAt = Instant.parse(startedAt)
+        txn
+      }
+    every { sep24TransactionStore.findTransactions(any<TransactionsParams>()) } returns
+      listOf(txn1, txn2)
+
+    val params = TransactionsParams(CREATED_AT, Sort.Direction.ASC, null, 0, 2)
+    val response = transactionService.findTransactions(TransactionsSeps.SEP_24, params)
+
+    assertEquals(2, response.records.size)
+    val cursor = TransactionsCursor.decode(response.cursor)
+    assertEquals(txn2.startedAt, cursor.value)
+    assertEquals("txn-2", cursor.id)
+
+    // the page that is not full is the last one
+    params.pageSize = 3
+    assertNull(transactionService.findTransactions(TransactionsSeps.SEP_24, params).cursor)
+  }
+
+  @Test
+  fun `test find transactions rejects the invalid cursor`() {
+    val cursor = TransactionsCursor(CREATED_AT, Sort.Direction.ASC, null, "txn-1").encode()
+
+    var params = TransactionsParams(CREATED_AT, Sort.Direction.DESC, null, 0, 20, cursor)
+    var ex =
+      assertThrows<BadRequestException> {
+        transactionService.findTransactions(TransactionsSeps.SEP_24, params)
+      }
+    assertEquals("The cursor does not match the order_by and the order", ex.message)
+
+    params = TransactionsParams(CREATED_AT, Sort.Direction.ASC, null, 0, 20, "not a cursor")
+    ex = assertThrows { transactionService.findTransactions(TransactionsSeps.SEP_24, params) }
+    assertEquals("Invalid cursor", ex.message)
+  }
+
   @Test
   fun `test get SEP31 transaction`() {
     // Mock the store
@@ -282,6 +332,7 @@ class TransactionServiceTest {
   fun test_patchTransaction_sep24DepositPendingUserTransferStart() {
     val txId = "testTxId"
     val tx = JdbcSep24Transaction()
+    tx.transactionId = txId
     tx.status = SepTransactionStatus.INCOMPLETE.toString()
     tx.kind = "deposit"
     val data = PlatformTransactionData()
@@ -292,9 +343,9 @@ class TransactionServiceTest {
     val request =
       PatchTransactionsRequest.builder().records(listOf(PatchTransactionRequest(data))).build()
 
-    every { sep31TransactionStore.findByTransactionId(any()) } returns null
-    every { sep6TransactionStore.findByTransactionId(any()) } returns null
-    every { sep24TransactionStore.findByTransactionId(any()) } returns tx
+    every { sep31TransactionStore.findByTransactionIds(any()) } returns emptyList()
+    every { sep6TransactionStore.findByTransactionIds(any()) } returns emptyList()
+    every { sep24TransactionStore.findByTransactionIds(any()) } returns listOf(tx)
 
     transactionService.patchTransactions(request)
 
@@ -307,6 +358,7 @@ class TransactionServiceTest {
   fun test_patchTransaction_sep24WithdrawalPendingAnchor() {
     val txId = "testTxId"
     val tx = JdbcSep24Transaction()
+    tx.transactionId = txId
     tx.status = SepTransactionStatus.INCOMPLETE.toString()
     tx.kind = "withdrawal"
     val data = PlatformTransactionData()
@@ -317,9 +369,9 @@ class TransactionServiceTest {
     val request =
       PatchTransactionsRequest.builder().records(listOf(PatchTransactionRequest(data))).build()
 
-    every { sep31TransactionStore.findByTransactionId(any()) } returns null
-    every { sep6TransactionStore.findByTransactionId(any()) } returns null
-    every { sep24TransactionStore.findByTransactionId(any()) } returns tx
+    every { sep31TransactionStore.findByTransactionIds(any()) } returns emptyList()
+    every { sep6TransactionStore.findByTransactionIds(any()) } returns emptyList()
+    every { sep24TransactionStore.findByTransactionIds(any()) } returns listOf(tx)
 
     transactionService.patchTransactions(request)
 
@@ -332,6 +384,7 @@ class TransactionServiceTest {
   fun test_patchTransaction_sep24DepositPendingAnchor() {
     val txId = "testTxId"
     val tx = JdbcSep24Transaction()
+    tx.transactionId = txId
     tx.status = SepTransactionStatus.INCOMPLETE.toString()
     tx.kind = "deposit"
     val data = PlatformTransactionData()
@@ -342,9 +395,9 @@ class TransactionServiceTest {
     val request =
       PatchTransactionsRequest.builder().records(listOf(PatchTransactionRequest(data))).build()
 
-    every { sep31TransactionStore.findByTransactionId(any()) } returns null
-    every { sep6TransactionStore.findByTransactionId(any()) } returns null
-    every { sep24TransactionStore.findByTransactionId(any()) } returns tx
+    every { sep31TransactionStore.findByTransactionIds(any()) } returns emptyList()
+    every { sep6TransactionStore.findByTransactionIds(any()) } returns emptyList()
+    every { sep24TransactionStore.findByTransactionIds(any()) } returns listOf(tx)
     every { custodyConfig.isCustodyIntegrationEnabled } returns true
 
     transactionService.patchTransactions(request)
@@ -358,6 +411,7 @@ class TransactionServiceTest {
   fun test_patchTransaction_sep24WithdrawalPendingUserTransferStart() {
     val txId = "testTxId"
     val tx = JdbcSep24Transaction()
+    tx.transactionId = txId
     tx.status = SepTransactionStatus.INCOMPLETE.toString()
     tx.kind = "withdrawal"
     tx.withdrawAnchorAccount = null
@@ -370,9 +424,9 @@ class TransactionServiceTest {
     val request =
       PatchTransactionsRequest.builder().records(listOf(PatchTransactionRequest(data))).build()
 
-    every { sep31TransactionStore.findByTransactionId(any()) } returns null
-    every { sep6TransactionStore.findByTransactionId(any()) } returns null
-    every { sep24TransactionStore.findByTransactionId(any()) } returns tx
+    every { sep31TransactionStore.findByTransactionIds(any()) } returns emptyList()
+    every { sep6TransactionStore.findByTransactionIds(any()) } returns emptyList()
+    every { sep24TransactionStore.findByTransactionIds(any()) } returns listOf(tx)
     every { custodyConfig.isCustodyIntegrationEnabled } returns true
 
     transactionService.patchTransactions(request)
@@ -387,6 +441,7 @@ class TransactionServiceTest {
   fun test_patchTransaction_sep24WithdrawalPendingUserTransferStart_statusNotChanged() {
     val txId = "testTxId"
     val tx = JdbcSep24Transaction()
+    tx.transactionId = txId
     tx.status = SepTransactionStatus.PENDING_USR_TRANSFER_START.toString()
     tx.kind = "withdrawal"
     val data = PlatformTransactionData()
@@ -397,9 +452,9 @@ class TransactionServiceTest {
     val request =
       PatchTransactionsRequest.builder().records(listOf(PatchTransactionRequest(data))).build()
 
-    every { sep31TransactionStore.findByTransactionId(any()) } returns null
-    every { sep6TransactionStore.findByTransactionId(any()) } returns null
-    every { sep24TransactionStore.findByTransactionId(any()) } returns tx
+    every { sep31TransactionStore.findByTransactionIds(any()) } returns emptyList()
+    every { sep6TransactionStore.findByTransactionIds(any()) } returns emptyList()
+    every { sep24TransactionStore.findByTransactionIds(any()) } returns listOf(tx)
 
     transactionService.patchTransactions(request)
 
@@ -413,6 +468,7 @@ class TransactionServiceTest {
   fun test_patchTransaction_sep6DepositPendingUserTransferStart(kind: String) {
     val txId = "testTxId"
     val tx = JdbcSep6Transaction()
+    tx.id = txId
     tx.status = SepTransactionStatus.INCOMPLETE.toString()
     tx.kind = kind
     val data = PlatformTransactionData()
@@ -423,9 +479,9 @@ class TransactionServiceTest {
     val request =
       PatchTransactionsRequest.builder().records(listOf(PatchTransactionRequest(data))).build()
 
-    every { sep31TransactionStore.findByTransactionId(any()) } returns null
-    every { sep6TransactionStore.findByTransactionId(any()) } returns tx
-    every { sep24TransactionStore.findByTransactionId(any()) } returns null
+    every { sep31TransactionStore.findByTransactionIds(any()) } returns emptyList()
+    every { sep6TransactionStore.findByTransactionIds(any()) } returns listOf(tx)
+    every { sep24TransactionStore.findByTransactionIds(any()) } returns emptyList()
 
     transactionService.patchTransactions(request)
 
@@ -439,6 +495,7 @@ class TransactionServiceTest {
   fun test_patchTransaction_sep6WithdrawalPendingAnchor(kind: String) {
     val txId = "testTxId"
     val tx = JdbcSep6Transaction()
+    tx.id = txId
     tx.status = SepTransactionStatus.INCOMPLETE.toString()
     tx.kind = kind
     val data = PlatformTransactionData()
@@ -449,9 +506,9 @@ class TransactionServiceTest {
     val request =
       PatchTransactionsRequest.builder().records(listOf(PatchTransactionRequest(data))).build()
 
-    every { sep31TransactionStore.findByTransactionId(any()) } returns null
-    every { sep6TransactionStore.findByTransactionId(any()) } returns tx
-    every { sep24TransactionStore.findByTransactionId(any()) } returns null
+    every { sep31TransactionStore.findByTransactionIds(any()) } returns emptyList()
+    every { sep6TransactionStore.findByTransactionIds(any()) } returns listOf(tx)
+    every { sep24TransactionStore.findByTransactionIds(any()) } returns emptyList()
 
     transactionService.patchTransactions(request)
 
@@ -465,6 +522,7 @@ class TransactionServiceTest {
   fun test_patchTransaction_sep6DepositPendingAnchor(kind: String) {
     val txId = "testTxId"
     val tx = JdbcSep6Transaction()
+    tx.id = txId
     tx.status = SepTransactionStatus.INCOMPLETE.toString()
     tx.kind = kind
     val data = PlatformTransactionData()
@@ -475,9 +533,9 @@ class TransactionServiceTest {
     val request =
       PatchTransactionsRequest.builder().records(listOf(PatchTransactionRequest(data))).build()
 
-    every { sep31TransactionStore.findByTransactionId(any()) } returns null
-    every { sep6TransactionStore.findByTransactionId(any()) } returns tx
-    every { sep24TransactionStore.findByTransactionId(any()) } returns null
+    every { sep31TransactionStore.findByTransactionIds(any()) } returns emptyList()
+    every { sep6TransactionStore.findByTransactionIds(any()) } returns listOf(tx)
+    every { sep24TransactionStore.findByTransactionIds(any()) } returns emptyList()
     every { custodyConfig.isCustodyIntegrationEnabled } returns true
 
     transactionService.patchTransactions(request)
@@ -492,6 +550,7 @@ class TransactionServiceTest {
   fun test_patchTransaction_sep6WithdrawalPendingUserTransferStart(kind: String) {
     val txId = "testTxId"
     val tx = JdbcSep6Transaction()
+    tx.id = txId
     tx.status = SepTransactionStatus.INCOMPLETE.toString()
     tx.kind = kind
     val data = PlatformTransactionData()
@@ -502,9 +561,9 @@ class TransactionServiceTest {
     val request =
       PatchTransactionsRequest.builder().records(listOf(PatchTransactionRequest(data))).build()
 
-    every { sep31TransactionStore.findByTransactionId(any()) } returns null
-    every { sep6TransactionStore.findByTransactionId(any()) } returns tx
-    every { sep24TransactionStore.findByTransactionId(any()) } returns null
+    every { sep31TransactionStore.findByTransactionIds(any()) } returns emptyList()
+    every { sep6TransactionStore.findByTransactionIds(any()) } returns listOf(tx)
+    every { sep24TransactionStore.findByTransactionIds(any()) } returns emptyList()
     every { custodyConfig.isCustodyIntegrationEnabled } returns true
 
     transactionService.patchTransactions(request)
@@ -519,6 +578,7 @@ class TransactionServiceTest {
   fun test_patchTransaction_sep6WithdrawalPendingUserTransferStart_statusNotChanged(kind: String) {
     val txId = "testTxId"
     val tx = JdbcSep6Transaction()
+    tx.id = txId
     tx.status = SepTransactionStatus.PENDING_USR_TRANSFER_START.toString()
     tx.kind = kind
     val data = PlatformTransactionData()
@@ -529,9 +589,9 @@ class TransactionServiceTest {
     val request =
       PatchTransactionsRequest.builder().records(listOf(PatchTransactionRequest(data))).build()
 
-    every { sep31TransactionStore.findByTransactionId(any()) } returns null
-    every { sep6TransactionStore.findByTransactionId(any()) } returns tx
-    every { sep24TransactionStore.findByTransactionId(any()) } returns null
+    every { sep31TransactionStore.findByTransactionIds(any()) } returns emptyList()
+    every { sep6TransactionStore.findByTransactionIds(any()) } returns listOf(tx)
+    every { sep24TransactionStore.findByTransactionIds(any()) } returns emptyList()
 
     transactionService.patchTransactions(request)
 
@@ -540,6 +600,102 @@ class TransactionServiceTest {
     verify(exactly = 1) { eventSession.publish(any()) }
   }
 
+  @Test
+  fun test_patchTransactions_loadsAndPublishesInBulk() {
+    val txs =
+      listOf("testTxId1", "testTxId2").map { txId ->
+        val tx = JdbcSep24Transaction()
+        tx.transactionId = txId
+        tx.status = SepTransactionStatus.INCOMPLETE.toString()
+        tx.kind = "deposit"
+        tx
+      }
+    val records =
+      txs.map { tx ->
+        val data = PlatformTransactionData()
+        data.id = tx.transactionId
+        data.status = SepTransactionStatus.PENDING_USR_TRANSFER_START
+        PatchTransactionRequest(data)
+      }
+    val request = PatchTransactionsRequest.builder().records(records).build()
+
+    every { sep31TransactionStore.findByTransactionIds(any()) } returns emptyList()
+    every { sep6TransactionStore.findByTransactionIds(any()) } returns emptyList()
+    every { sep24TransactionStore.findByTransactionIds(any()) } returns txs
+
+    val response = transactionService.patchTransactions(request)
+
+    assertEquals(2, response.records.size)
+    verify(exactly = 1) { sep31TransactionStore.findByTransactionIds(any()) }
+    verify(exactly = 1) { sep24TransactionStore.findByTransactionIds(any()) }
+    verify(exactly = 1) { sep6TransactionStore.findByTransactionIds(any()) }
+    verify(exactly = 0) { sep24TransactionStore.findByTransactionId(any()) }
+    verify(exactly = 2) { sep24TransactionStore.save(any()) }
+    verify(exactly = 2) { eventSession.publish(any()) }
+    // The session sends the events after the commit.
+    verify(exactly = 0) { eventSession.flush() }
+  }
+
+  @Test
+  fun test_patchTransactions_notFound() {
+    val tx = JdbcSep24Transaction()
+    tx.transactionId = "testTxId1"
+    tx.status = SepTransactionStatus.INCOMPLETE.toString()
+    tx.kind = "deposit"
+    val records =
+      listOf("testTxId1", "testTxId2").map { txId ->
+        val data = PlatformTransactionData()
+        data.id = txId
+        data.status = SepTransactionStatus.PENDING_ANCHOR
+        PatchTransactionRequest(data)
+      }
+    val request = PatchTransactionsRequest.builder().records(records).build()
+
+    every { sep31TransactionStore.findByTransactionIds(any()) } returns emptyList()
+    every { sep6TransactionStore.findByTransactionIds(any()) } returns emptyList()
+    every { sep24TransactionStore.findByTransactionIds(any()) } returns listOf(tx)
+    every { custodyConfig.isCustodyIntegrationEnabled } returns true
+
+    val ex = assertThrows<BadRequestException> { transactionService.patchTransactions(request) }
+    assertEquals("transaction(id=testTxId2) not found", ex.message)
+    // The first record is not patched before the second one is found.
+    assertEquals(SepTransactionStatus.INCOMPLETE.toString(), tx.status)
+    verify(exactly = 0) { sep24TransactionStore.save(any()) }
+    verify(exactly = 0) { custodyService.createTransaction(ofType(Sep24Transaction::class)) }
+    verify(exactly = 0) { eventSession.publish(any()) }
+  }
+
+  @Test
+  fun test_patchTransactions_failedRecordCreatesNoCustodyTransaction() {
+    val txs =
+      listOf("testTxId1", "testTxId2").map { txId ->
+        val tx = JdbcSep24Transaction()
+        tx.transactionId = txId
+        tx.status = SepTransactionStatus.INCOMPLETE.toString()
+        tx.kind = "deposit"
+        tx
+      }
+    val records =
+      txs.map { tx ->
+        val data = PlatformTransactionData()
+        data.id = tx.transactionId
+        data.status = SepTransactionStatus.PENDING_ANCHOR
+        PatchTransactionRequest(data)
+      }
+    val request = PatchTransactionsRequest.builder().records(records).build()
+
+    every { sep31TransactionStore.findByTransactionIds(any()) } returns emptyList()
+    every { sep6TransactionStore.findByTransactionIds(any()) } returns emptyList()
+    every { sep24TransactionStore.findByTransactionIds(any()) } returns txs
+    every { sep24TransactionStore.save(txs[1]) } throws SepException("save failed")
+    every { custodyConfig.isCustodyIntegrationEnabled } returns true
+
+    val ex = assertThrows<SepException> { transactionService.patchTransactions(request) }
+    assertEquals("save failed", ex.message)
+    verify(exactly = 0) { custodyService.createTransaction(ofType(Sep24Transaction::class)) }
+    verify(exactly = 0) { eventSession.publish(any()) }
+  }
+
   @Test
   fun test_updateSep31Transaction() {
     val quoteId = "my-quote-id"
@@ -0,0 +1,80 @@
+package org.stellar.anchor.platform.utils
+
+import io.micrometer.core.instrument.Metrics
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import java.util.concurrent.TimeUnit
+import okhttp3.Protocol
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.MockWebServer
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.stellar.anchor.platform.config.HttpClientConfig
+import org.stellar.anchor.util.MetricConstants.HTTP_CLIENT_REQUEST
+import org.stellar.anchor.util.OkHttpUtil
+
+class HttpClientFactoryTest {
+  private lateinit var server: MockWebServer
+  private lateinit var registry: SimpleMeterRegistry
+
+  @BeforeEach
+  fun setup() {
+    server = MockWebServer()
+    server.start()
+    registry = SimpleMeterRegistry()
+    Metrics.addRegistry(registry)
+  }
+
+  @AfterEach
+  fun tearDown() {
+    Metrics.removeRegistry(registry)
+    server.shutdown()
+  }
+
+  @Test
+  fun `test the client is built from the config`() {
+    val config = HttpClientConfig(5, 10, 15, 20)
+    config.maxRequestsPerHost = 2
+    config.maxRequests = 8
+    config.isHttp2 = false
+
+    val client = HttpClientFactory.build("test", config)
+
+    assertEquals(5000, client.connectTimeoutMillis)
+    assertEquals(10000, client.readTimeoutMillis)
+    assertEquals(15000, client.writeTimeoutMillis)
+    assertEquals(20000, client.callTimeoutMillis)
+    assertEquals(2, client.dispatcher.maxRequestsPerHost)
+    assertEquals(8, client.dispatcher.maxRequests)
+    assertEquals(listOf(Protocol.HTTP_1_1), client.protocols)
+    assertEquals(
+      listOf(Protocol.HTTP_2, Protocol.HTTP_1_1),
+      HttpClientFactory.build("test", HttpClientConfig(5, 10, 15, 20)).protocols
+    )
+  }
+
+  @Test
+  fun `test the async requests are recorded per host and outcome`() {
+    server.enqueue(MockResponse().setResponseCode(200))
+    server.enqueue(MockResponse().setResponseCode(503))
+    val client = HttpClientFactory.build("test", HttpClientConfig(5, 10, 15, 20))
+    val request = OkHttpUtil.buildGetRequest(server.url("/callback").toString())
+
+    OkHttpUtil.executeAsync(client, request).get(5, TimeUnit.SECONDS).use {
+      assertEquals(200, it.code)
+    }
+    OkHttpUtil.executeAsync(client, request).get(5, TimeUnit.SECONDS).use {
+      assertEquals(503, it.code)
+    }
+
+    fun count(outcome: String) =
+      registry
+        .find(HTTP_CLIENT_REQUEST)
+        .tags("client", "test", "host", server.hostName, "outcome", outcome)
+        .timer()
+        ?.count()
+    assertEquals(1L, count("2xx"))
+    assertEquals(1L, count("5xx"))
+  }
+}
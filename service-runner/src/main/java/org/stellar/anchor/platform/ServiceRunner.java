@@ -12,10 +12,14 @@ import org.apache.commons.cli.ParseException;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.stellar.anchor.api.shared.Metadata;
+import org.stellar.anchor.platform.apiclient.LocalRpcServiceRegistry;
 import org.stellar.reference.ReferenceServerStartKt;
 import org.stellar.reference.wallet.WalletServerStartKt;
 
 public class ServiceRunner {
+  // Shared by the servers started in this JVM, so that they can send JSON-RPC requests to the
+  // platform server without HTTP.
+  static final LocalRpcServiceRegistry localRpcServiceRegistry = new LocalRpcServiceRegistry();
 
   public static void main(String[] args) {
     printBanner();
@@ -100,27 +104,37 @@ public class ServiceRunner {
 
   public static ConfigurableApplicationContext startSepServer(Map<String, String> env) {
     info("Starting SEP server...");
-    return new SepServer().start(env);
+    SepServer server = new SepServer();
+    server.setLocalRpcServiceRegistry(localRpcServiceRegistry);
+    return server.start(env);
   }
 
   public static ConfigurableApplicationContext startPlatformServer(Map<String, String> env) {
     info("Starting platform server...");
-    return new PlatformServer().start(env);
+    PlatformServer server = new PlatformServer();
+    server.setLocalRpcServiceRegistry(localRpcServiceRegistry);
+    return server.start(env);
   }
 
   public static ConfigurableApplicationContext startCustodyServer(Map<String, String> env) {
     info("Starting custody server...");
-    return new CustodyServer().start(env);
+    CustodyServer server = new CustodyServer();
+    server.setLocalRpcServiceRegistry(localRpcServiceRegistry);
+    return server.start(env);
   }
 
   public static ConfigurableApplicationContext startStellarObserver(Map<String, String> env) {
     info("Starting observer...");
-    return new StellarObservingServer().start(env);
+    StellarObservingServer server = new StellarObservingServer();
+    server.setLocalRpcServiceRegistry(localRpcServiceRegistry);
+    return server.start(env);
   }
 
   public static ConfigurableApplicationContext startEventProcessingServer(Map<String, String> env) {
     info("Starting event processing server...");
-    return new EventProcessingServer().start(env);
+    EventProcessingServer server = new EventProcessingServer();
+    server.setLocalRpcServiceRegistry(localRpcServiceRegistry);
+    return server.start(env);
   }
 
   public static void startKotlinReferenceServer(Map<String, String> envMap, boolean wait) {